@@ -20,4 +20,7 @@ public class PluginConfigStandardValues extends Settings
 	public static final Setting<Boolean> LOG_PERFORMANCE = booleanSetting("LogPerformance", false);
 	public static final Setting<Boolean> DEVELOPER_MODE = booleanSetting("DeveloperMode", false);
 	public static final Setting<Integer> WORKER_THREADS = intSetting("WorkerThreads", 0, 0, 10);
+	public static final Setting<Integer> SHADOW_CHUNK_CACHE_SIZE = intSetting("ShadowChunkCacheSize", 32, 0, 1024);
+	public static final Setting<Integer> SHADOW_COLUMN_CACHE_SIZE = intSetting("ShadowColumnCacheSize", 2, 0, 256);
+	public static final Setting<Boolean> PRELOAD_CUSTOM_OBJECTS = booleanSetting("PreloadCustomObjects", false);
 }
@@ -97,7 +97,13 @@ public class WorldStandardValues extends Settings
 		LOGICAL_HEIGHT = intSetting("LogicalHeight", 256, 0, Integer.MAX_VALUE),
 		SPAWN_POINT_X = intSetting("SpawnPointX", 0, Integer.MIN_VALUE, Integer.MAX_VALUE),
 		SPAWN_POINT_Y = intSetting("SpawnPointY", 0, Integer.MIN_VALUE, Integer.MAX_VALUE),
-		SPAWN_POINT_Z = intSetting("SpawnPointZ", 0, Integer.MIN_VALUE, Integer.MAX_VALUE)
+		SPAWN_POINT_Z = intSetting("SpawnPointZ", 0, Integer.MIN_VALUE, Integer.MAX_VALUE),
+		BIOME_CACHE_SIZE = intSetting("BiomeCacheSize", 0, 0, 65536),
+		NOISE_BIOME_CACHE_SIZE = intSetting("NoiseBiomeCacheSize", 0, 0, 65536),
+		NOISE_COLUMN_CACHE_SIZE = intSetting("NoiseColumnCacheSize", 0, 0, 1048576),
+		COLUMN_HEIGHT_CACHE_SIZE = intSetting("ColumnHeightCacheSize", 0, 0, 65536),
+		BIOME_LAYER_CACHE_SIZE = intSetting("BiomeLayerCacheSize", 25, 1, 65536),
+		BIOME_LAYER_CACHE_MAX_SIZE = intSetting("BiomeLayerCacheMaxSize", 1024, 1, 65536)
 	;
 	
 	public static final Setting<Long>
@@ -137,6 +143,8 @@ public class WorldStandardValues extends Settings
 		RUINED_PORTALS_ENABLED = booleanSetting("RuinedPortalsEnabled", true),
 		SHIPWRECKS_ENABLED = booleanSetting("ShipwrecksEnabled", true),
 		VILLAGES_ENABLED = booleanSetting("VillagesEnabled", true),
+
+		ADAPTIVE_BIOME_LAYER_CACHE = booleanSetting("AdaptiveBiomeLayerCache", false),
 		
 		OVERRIDE_GAME_RULES = booleanSetting("OverrideGameRules", false),
 		DO_FIRE_TICK = booleanSetting("DoFireTick", true),
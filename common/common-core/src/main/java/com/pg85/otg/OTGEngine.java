@@ -22,8 +22,11 @@ import com.pg85.otg.util.logging.LogLevel;
 import java.io.*;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 
@@ -135,6 +138,22 @@ public abstract class OTGEngine
 		// Load presets
 
 		this.presetLoader.loadPresetsFromDisk(this.biomeResourcesManager, this.logger);
+
+		// Preload custom objects in the background, if enabled
+
+		if(getPluginConfig().getPreloadCustomObjectsEnabled() && !getPluginConfig().getDeveloperModeEnabled())
+		{
+			List<String> presetFolderNames = new ArrayList<String>(this.presetLoader.getAllPresetFolderNames());
+			Collections.sort(presetFolderNames);
+			this.customObjectManager.preloadCustomObjects(
+				presetFolderNames,
+				this.presetLoader::getMaterialReader,
+				this.otgRootFolder,
+				this.logger,
+				this.customObjectResourcesManager,
+				this.modLoadedChecker
+			);
+		}
 	}
 
 	private void unpackDefaultPreset(File presetsDir)
@@ -49,6 +49,9 @@ public final class PluginConfig extends PluginConfigBase
 		this.decorationEnabled = reader.getSetting(PluginConfigStandardValues.DECORATION_ENABLED, logger);
 		this.developerMode = reader.getSetting(PluginConfigStandardValues.DEVELOPER_MODE, logger);
 		this.workerThreads = reader.getSetting(PluginConfigStandardValues.WORKER_THREADS, logger);
+		this.shadowChunkCacheSize = reader.getSetting(PluginConfigStandardValues.SHADOW_CHUNK_CACHE_SIZE, logger);
+		this.shadowColumnCacheSize = reader.getSetting(PluginConfigStandardValues.SHADOW_COLUMN_CACHE_SIZE, logger);
+		this.preloadCustomObjects = reader.getSetting(PluginConfigStandardValues.PRELOAD_CUSTOM_OBJECTS, logger);
 	}
 
 	@Override
@@ -70,6 +73,25 @@ public final class PluginConfig extends PluginConfigBase
 			"base terrain and BO4 generation. Higher values may not result in better ",
 			"performance, experiment to see what works best for your cpu."
 		);
+
+		writer.putSetting(PluginConfigStandardValues.SHADOW_CHUNK_CACHE_SIZE, this.shadowChunkCacheSize,
+			"The max amount of memory in MB used per dimension to cache chunks generated",
+			"in advance by worker threads and for BO4's and smoothing areas.",
+			"Defaults to: 32"
+		);
+
+		writer.putSetting(PluginConfigStandardValues.SHADOW_COLUMN_CACHE_SIZE, this.shadowColumnCacheSize,
+			"The max amount of memory in MB used per dimension to cache block columns",
+			"in unloaded chunks, used for BO4 and smoothing area material checks.",
+			"Defaults to: 2"
+		);
+
+		writer.putSetting(PluginConfigStandardValues.PRELOAD_CUSTOM_OBJECTS, this.preloadCustomObjects,
+			"Loads all BO2/BO3/BO4 files in the background on startup, instead of when",
+			"they're first spawned. Avoids loading stalls during world generation, but",
+			"uses more memory for presets with many objects. Ignored in developer mode.",
+			"Defaults to: false"
+		);
 		
 		writer.header2("Logging");
 
@@ -19,6 +19,9 @@ public abstract class PluginConfigBase extends ConfigFile implements IPluginConf
 	protected LogLevels logLevel;
 	protected ConfigMode settingsMode;
 	protected int workerThreads;
+	protected int shadowChunkCacheSize;
+	protected int shadowColumnCacheSize;
+	protected boolean preloadCustomObjects;
 	protected boolean developerMode;
 	protected boolean logCustomObjects;
 	protected boolean logStructurePlotting;
@@ -47,6 +50,24 @@ public abstract class PluginConfigBase extends ConfigFile implements IPluginConf
 		return this.workerThreads;
 	}
 
+	@Override
+	public int getShadowChunkCacheSizeMB()
+	{
+		return this.shadowChunkCacheSize;
+	}
+
+	@Override
+	public int getShadowColumnCacheSizeMB()
+	{
+		return this.shadowColumnCacheSize;
+	}
+
+	@Override
+	public boolean getPreloadCustomObjectsEnabled()
+	{
+		return this.preloadCustomObjects;
+	}
+
 	@Override
 	public boolean getDeveloperModeEnabled()
 	{
@@ -1066,6 +1066,12 @@ abstract class BiomeConfigBase extends ConfigFile implements IBiomeConfig
 	{
 		this.settings.surfaceAndGroundControl.spawn(worldSeed, generatingChunk, chunkBuffer, biome, x, z);
 	}
+
+	@Override
+	public boolean surfaceAndGroundControlKeepsHeight(ISurfaceGeneratorNoiseProvider noiseProvider, int x, int y, int z)
+	{
+		return this.settings.surfaceAndGroundControl.keepsColumnHeight(noiseProvider, this, x, y, z);
+	}
 	
 	@Override
 	public ISaplingSpawner getSaplingGen(SaplingType type)
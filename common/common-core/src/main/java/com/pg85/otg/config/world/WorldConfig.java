@@ -234,6 +234,17 @@ public class WorldConfig extends WorldConfigBase
 		this.waterLevelMax = reader.getSetting(WorldStandardValues.WATER_LEVEL_MAX, logger);
 		this.waterLevelMin = reader.getSetting(WorldStandardValues.WATER_LEVEL_MIN, logger);
 
+		// Caching
+
+		this.biomeCacheSize = reader.getSetting(WorldStandardValues.BIOME_CACHE_SIZE, logger);
+		this.noiseBiomeCacheSize = reader.getSetting(WorldStandardValues.NOISE_BIOME_CACHE_SIZE, logger);
+		this.noiseColumnCacheSize = reader.getSetting(WorldStandardValues.NOISE_COLUMN_CACHE_SIZE, logger);
+		this.columnHeightCacheSize = reader.getSetting(WorldStandardValues.COLUMN_HEIGHT_CACHE_SIZE, logger);
+		this.biomeLayerCacheSize = reader.getSetting(WorldStandardValues.BIOME_LAYER_CACHE_SIZE, logger);
+		this.biomeLayerCacheMaxSize = reader.getSetting(WorldStandardValues.BIOME_LAYER_CACHE_MAX_SIZE, logger);
+		this.biomeLayerCacheMaxSize = higherThanOrEqualTo(this.biomeLayerCacheMaxSize, this.biomeLayerCacheSize);
+		this.adaptiveBiomeLayerCache = reader.getSetting(WorldStandardValues.ADAPTIVE_BIOME_LAYER_CACHE, logger);
+
 		// FromImageMode
 
 		this.imageOrientation = reader.getSetting(WorldStandardValues.IMAGE_ORIENTATION, logger);		
@@ -890,6 +901,51 @@ public class WorldConfig extends WorldConfigBase
 		writer.putSetting(WorldStandardValues.RAVINE_MAX_LENGTH, this.ravineMaxLength);
 		writer.putSetting(WorldStandardValues.RAVINE_DEPTH, this.ravineDepth);
 
+		writer.header1("Caching");
+
+		writer.putSetting(WorldStandardValues.BIOME_CACHE_SIZE, this.biomeCacheSize,
+			"The amount of chunks for which biomes are kept in memory, shared by all worldgen threads.",
+			"Raise this when using many worker threads, each thread works on its own set of chunks.",
+			"Defaults to: 0, meaning 64 chunks per cpu core, with a minimum of 256."
+		);
+
+		writer.putSetting(WorldStandardValues.NOISE_BIOME_CACHE_SIZE, this.noiseBiomeCacheSize,
+			"The amount of 8x8 low resolution biome regions kept in memory, used for terrain smoothing.",
+			"Defaults to: 0, meaning 256 regions per cpu core, with a minimum of 1024."
+		);
+
+		writer.putSetting(WorldStandardValues.NOISE_COLUMN_CACHE_SIZE, this.noiseColumnCacheSize,
+			"The amount of terrain noise columns kept in memory, shared by all worldgen threads.",
+			"Each chunk uses 25 columns, of which 16 are shared with neighbouring chunks.",
+			"Enable LogPerformance in OTG.ini to see how well the cache performs.",
+			"Defaults to: 0, meaning 512 columns per cpu core, with a minimum of 4096."
+		);
+
+		writer.putSetting(WorldStandardValues.COLUMN_HEIGHT_CACHE_SIZE, this.columnHeightCacheSize,
+			"The amount of chunks for which terrain heights are kept in memory, shared by all worldgen threads.",
+			"Used by BO4's and smoothing areas to check the terrain height in chunks that haven't been generated yet.",
+			"Each chunk uses 1KB. Defaults to: 0, meaning 128 chunks per cpu core, with a minimum of 1024."
+		);
+
+		writer.putSetting(WorldStandardValues.BIOME_LAYER_CACHE_SIZE, this.biomeLayerCacheSize,
+			"The amount of samples each worldgen thread caches for the first biome layers.",
+			"Each following layer caches 4 times as many samples as the layer(s) it reads from,",
+			"up to BiomeLayerCacheMaxSize. Use /otg layercache to see how well the caches perform.",
+			"Defaults to: 25"
+		);
+
+		writer.putSetting(WorldStandardValues.BIOME_LAYER_CACHE_MAX_SIZE, this.biomeLayerCacheMaxSize,
+			"The maximum amount of samples each worldgen thread caches per biome layer.",
+			"Presets with a high GenerationDepth or many worker threads may benefit from raising this.",
+			"Defaults to: 1024"
+		);
+
+		writer.putSetting(WorldStandardValues.ADAPTIVE_BIOME_LAYER_CACHE, this.adaptiveBiomeLayerCache,
+			"When enabled, a biome layer's cache is doubled in size when most of its lookups miss,",
+			"up to 16 times BiomeLayerCacheMaxSize. Uses more memory, but avoids manual tuning.",
+			"Defaults to: false"
+		);
+
 		writer.header1("Spawn point settings");
 
 		writer.putSetting(WorldStandardValues.FIXED_SPAWN_POINT, this.fixedSpawnPoint,
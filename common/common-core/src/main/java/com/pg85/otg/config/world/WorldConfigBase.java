@@ -98,6 +98,16 @@ abstract class WorldConfigBase extends ConfigFile implements IWorldConfig
 	protected int waterLevelMin;
 	protected int waterLevelMax;
 
+	// Caching
+
+	protected int biomeCacheSize;
+	protected int noiseBiomeCacheSize;
+	protected int noiseColumnCacheSize;
+	protected int columnHeightCacheSize;
+	protected int biomeLayerCacheSize;
+	protected int biomeLayerCacheMaxSize;
+	protected boolean adaptiveBiomeLayerCache;
+
 	// FromImageMode
 	
 	protected ImageOrientation imageOrientation;
@@ -639,6 +649,48 @@ abstract class WorldConfigBase extends ConfigFile implements IWorldConfig
 	{
 		return this.waterLevelMin;
 	}
+
+	@Override
+	public int getBiomeCacheSize()
+	{
+		return this.biomeCacheSize;
+	}
+
+	@Override
+	public int getNoiseBiomeCacheSize()
+	{
+		return this.noiseBiomeCacheSize;
+	}
+
+	@Override
+	public int getNoiseColumnCacheSize()
+	{
+		return this.noiseColumnCacheSize;
+	}
+
+	@Override
+	public int getColumnHeightCacheSize()
+	{
+		return this.columnHeightCacheSize;
+	}
+
+	@Override
+	public int getBiomeLayerCacheSize()
+	{
+		return this.biomeLayerCacheSize;
+	}
+
+	@Override
+	public int getBiomeLayerCacheMaxSize()
+	{
+		return this.biomeLayerCacheMaxSize;
+	}
+
+	@Override
+	public boolean getAdaptiveBiomeLayerCache()
+	{
+		return this.adaptiveBiomeLayerCache;
+	}
 	
 	@Override
 	public ArrayList<String> getWorldBiomes()
@@ -0,0 +1,116 @@
+package com.pg85.otg.gen;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+/**
+ * Makes sure structure data isn't saved while chunks are being decorated. Any number
+ * of threads can decorate at once (read lock), saving waits for them to finish and
+ * blocks new decoration until the save is done (write lock). Waiting threads are
+ * parked instead of spinning, and time spent waiting is reported via the PERFORMANCE
+ * log category.
+ */
+class DecorationSaveCoordinator
+{
+	// Waits longer than this are logged individually.
+	private static final long SLOW_WAIT_MILLIS = 50;
+	// Decoration logs a warning each time it has waited this long on a save, then keeps waiting.
+	private static final long DECORATION_WARN_INTERVAL_SECONDS = 30;
+	// Saving gives up after waiting this long on decoration.
+	private static final long SAVE_TIMEOUT_SECONDS = 300;
+
+	// Not fair, but new readers queue behind a waiting writer, so saves aren't starved.
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+	private final AtomicLong decorationWaits = new AtomicLong();
+	private final AtomicLong decorationWaitNanos = new AtomicLong();
+	private final AtomicLong saveWaits = new AtomicLong();
+	private final AtomicLong saveWaitNanos = new AtomicLong();
+
+	void beginDecoration(ILogger logger)
+	{
+		long startTime;
+		try
+		{
+			// The untimed tryLock would barge past a waiting save, the timed one doesn't.
+			if(this.lock.readLock().tryLock(0, TimeUnit.NANOSECONDS))
+			{
+				return;
+			}
+
+			startTime = System.nanoTime();
+			while(!this.lock.readLock().tryLock(DECORATION_WARN_INTERVAL_SECONDS, TimeUnit.SECONDS))
+			{
+				logger.log(LogLevel.WARN, LogCategory.MAIN, "Decorate has been waiting on SaveToDisk for " + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startTime) + " seconds. Although other mods could be causing this and there may not be any problem, this can potentially cause an endless loop!");
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Decorate was interrupted while waiting on SaveToDisk.", e);
+		}
+		recordWait(logger, "Decorate", startTime, this.decorationWaits, this.decorationWaitNanos);
+	}
+
+	void endDecoration()
+	{
+		this.lock.readLock().unlock();
+	}
+
+	void beginSave(ILogger logger)
+	{
+		if(this.lock.writeLock().tryLock())
+		{
+			return;
+		}
+
+		long startTime = System.nanoTime();
+		boolean locked;
+		try
+		{
+			locked = this.lock.writeLock().tryLock(SAVE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("SaveToDisk was interrupted while waiting on decorate.", e);
+		}
+		if(!locked)
+		{
+			logger.log(LogLevel.FATAL, LogCategory.MAIN, "SaveToDisk waited on decorate longer than " + SAVE_TIMEOUT_SECONDS + " seconds, something went wrong!");
+			throw new RuntimeException("SaveToDisk waited on decorate longer than " + SAVE_TIMEOUT_SECONDS + " seconds, something went wrong!");
+		}
+		recordWait(logger, "SaveToDisk", startTime, this.saveWaits, this.saveWaitNanos);
+	}
+
+	void endSave(ILogger logger)
+	{
+		this.lock.writeLock().unlock();
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			logger.log(
+				LogLevel.INFO,
+				LogCategory.PERFORMANCE,
+				"Decoration/save contention: decorate waited " + this.decorationWaits.get() + " times (" + TimeUnit.NANOSECONDS.toMillis(this.decorationWaitNanos.get()) + " Ms total)" +
+				", SaveToDisk waited " + this.saveWaits.get() + " times (" + TimeUnit.NANOSECONDS.toMillis(this.saveWaitNanos.get()) + " Ms total)."
+			);
+		}
+	}
+
+	private static void recordWait(ILogger logger, String waiter, long startTime, AtomicLong waits, AtomicLong waitNanos)
+	{
+		long waited = System.nanoTime() - startTime;
+		waits.incrementAndGet();
+		waitNanos.addAndGet(waited);
+		long waitedMillis = TimeUnit.NANOSECONDS.toMillis(waited);
+		if(waitedMillis > SLOW_WAIT_MILLIS && logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: " + waiter + " waited " + waitedMillis + " Ms for the decoration/save lock.");
+		}
+	}
+}
@@ -37,22 +37,14 @@ import java.util.Random;
  */
 public class OTGChunkDecorator implements IChunkDecorator
 {
-	private final Random rand;
+	// Decoration is re-entrant, each call uses its own Random seeded from the 
+	// world seed and chunk coordinates, so chunks can be decorated on multiple
+	// threads and the result doesn't depend on the order they're decorated in.
 
-	// Locking objects / checks to prevent decorate running on multiple threads,
-	// or when the world is waiting for an opportunity to save.
-	// TODO: Is this still required for 1.16?
-	private final Object lockingObject = new Object();
-	private int decorating = 0;
-	private boolean saving;
-	private boolean saveRequired;
-	private Object asynChunkDecorationLock = new Object();
+	// Prevents structure data from being saved while chunks are being decorated.
+	private final DecorationSaveCoordinator saveCoordinator = new DecorationSaveCoordinator();
+	private volatile boolean saveRequired;
 
-	public OTGChunkDecorator()
-	{
-		this.rand = new Random();
-	}
-	
 	@Override
 	public boolean getIsSaveRequired()
 	{
@@ -60,28 +52,16 @@ public class OTGChunkDecorator implements IChunkDecorator
 	}
 
 	@Override
-	public boolean isDecorating()
-	{
-		return this.decorating != 0;
-	}
-
-	@Override
-	public void beginSave()
+	public void beginSave(ILogger logger)
 	{
-		this.saving = true;
+		this.saveCoordinator.beginSave(logger);
 	}
 
 	@Override
-	public void endSave()
+	public void endSave(ILogger logger)
 	{
 		this.saveRequired = false;
-		this.saving = false;
-	}
-
-	@Override
-	public Object getLockingObject()
-	{
-		return this.lockingObject;
+		this.saveCoordinator.endSave(logger);
 	}
 
 	public void decorate(String presetFolderName, ChunkCoordinate chunkCoord, IWorldGenRegion worldGenRegion, IBiomeConfig biomeConfig, CustomStructureCache structureCache)
@@ -89,38 +69,21 @@ public class OTGChunkDecorator implements IChunkDecorator
 		ILogger logger = OTG.getEngine().getLogger();
 		
 		// Wait for another thread running SaveToDisk, then place a lock.
-		boolean firstLog = false;
-		while(true)
+		this.saveCoordinator.beginDecoration(logger);
+		try
 		{
-			synchronized(this.lockingObject)
-			{
-				if(!this.saving)
-				{
-					this.decorating++;
-					this.saveRequired = true;
-					break;
-				} else {
-					if(firstLog)
-					{
-						logger.log(LogLevel.WARN, LogCategory.MAIN, "Decorate waiting on SaveToDisk. Although other mods could be causing this and there may not be any problem, this can potentially cause an endless loop!");
-						firstLog = false;
-					}
-				}
-			}
-		}
+			this.saveRequired = true;
 
-		Path otgRootFolder = OTG.getEngine().getOTGRootFolder();
-		CustomObjectManager customObjectManager = OTG.getEngine().getCustomObjectManager();
-		IMaterialReader materialReader = OTG.getEngine().getPresetLoader().getMaterialReader(presetFolderName);
-		CustomObjectResourcesManager customObjectResourcesManager = OTG.getEngine().getCustomObjectResourcesManager();
-		IModLoadedChecker modLoadedChecker = OTG.getEngine().getModLoadedChecker();
+			Path otgRootFolder = OTG.getEngine().getOTGRootFolder();
+			CustomObjectManager customObjectManager = OTG.getEngine().getCustomObjectManager();
+			IMaterialReader materialReader = OTG.getEngine().getPresetLoader().getMaterialReader(presetFolderName);
+			CustomObjectResourcesManager customObjectResourcesManager = OTG.getEngine().getCustomObjectResourcesManager();
+			IModLoadedChecker modLoadedChecker = OTG.getEngine().getModLoadedChecker();
 
-		doDecorate(chunkCoord, worldGenRegion, biomeConfig, logger, materialReader, otgRootFolder, structureCache, customObjectManager, customObjectResourcesManager, modLoadedChecker);			
-		
-		// Release the lock
-		synchronized(this.lockingObject)
-		{
-			this.decorating--;
+			doDecorate(chunkCoord, worldGenRegion, biomeConfig, logger, materialReader, otgRootFolder, structureCache, customObjectManager, customObjectResourcesManager, modLoadedChecker);
+		} finally {
+			// Release the lock
+			this.saveCoordinator.endDecoration();
 		}
 	}
 
@@ -146,22 +109,14 @@ public class OTGChunkDecorator implements IChunkDecorator
 		}
 
 		// Get the random generator
-		long resourcesSeed = worldGenRegion.getSeed();
-		this.rand.setSeed(resourcesSeed);
-		long l1 = this.rand.nextLong() / 2L * 2L + 1L;
-		long l2 = this.rand.nextLong() / 2L * 2L + 1L;
-		this.rand.setSeed(chunkCoord.getChunkX() * l1 + chunkCoord.getChunkZ() * l2 ^ resourcesSeed);
+		Random random = getDecorationRandom(worldGenRegion.getSeed(), chunkCoord);
 
 		// Use BO4 logic for BO4 worlds
 		if(worldGenRegion.getWorldConfig().getCustomStructureType() == CustomStructureType.BO4)
 		{
-			// BO4 Plotting cannot currently be done in a thread-safe/non-blocking way,
-			// Paper may try to do async chunkgen, so lock here. This will ofcourse 
-			// slow down any multithreaded chunk decoration implementation.
-			synchronized(asynChunkDecorationLock)
-			{
-				plotAndSpawnBO4s(structureCache, worldGenRegion, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX(), chunkCoord.getChunkZ()), chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
-			}
+			// The plotter locks the plotting regions around each chunk it plots or spawns, 
+			// so chunks that are far enough apart can be decorated in parallel.
+			plotAndSpawnBO4s(structureCache, worldGenRegion, random, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX(), chunkCoord.getChunkZ()), chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 		}
 
 		if(
@@ -170,7 +125,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			worldGenRegion.getWorldConfig().getBO3AtSpawn().trim().length() > 0
 		)
 		{
-			handleBO3AtSpawn(worldGenRegion, chunkCoord, worldGenRegion.getWorldConfig().getBO3AtSpawn(), worldGenRegion.getPresetFolderName(), otgRootFolder, structureCache, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
+			handleBO3AtSpawn(worldGenRegion, random, chunkCoord, worldGenRegion.getWorldConfig().getBO3AtSpawn(), worldGenRegion.getPresetFolderName(), otgRootFolder, structureCache, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 		}
 		
 		long startTimeAll = System.currentTimeMillis();
@@ -180,7 +135,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			long startTime = System.currentTimeMillis();
 			if (res instanceof ICustomObjectResource)
 			{
-				((ICustomObjectResource)res).processForChunkDecoration(structureCache, worldGenRegion, this.rand, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
+				((ICustomObjectResource)res).processForChunkDecoration(structureCache, worldGenRegion, random, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 				{
 					logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Processing resource " + res.toString() + " in biome " + biomeConfig.getName() + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
@@ -188,7 +143,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			}
 			else if (res instanceof ICustomStructureResource)
 			{
-				((ICustomStructureResource)res).processForChunkDecoration(structureCache, worldGenRegion, this.rand, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
+				((ICustomStructureResource)res).processForChunkDecoration(structureCache, worldGenRegion, random, otgRootFolder, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 				{
 					logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Processing resource " + res.toString() + " in biome " + biomeConfig.getName() + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
@@ -196,7 +151,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 			}
 			else if (res instanceof IBasicResource)
 			{
-				((IBasicResource)res).processForChunkDecoration(worldGenRegion, this.rand, logger, materialReader);
+				((IBasicResource)res).processForChunkDecoration(worldGenRegion, random, logger, materialReader);
 				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 				{
 					logger.log(LogLevel.WARN, LogCategory.PERFORMANCE, "Warning: Processing resource " + res.toString() + " in biome " + biomeConfig.getName() + " took " + (System.currentTimeMillis() - startTime) + " Ms.");
@@ -223,6 +178,17 @@ public class OTGChunkDecorator implements IChunkDecorator
 		}
 	}
 
+	// Same seeding as vanilla's decoration seed, derived only from the
+	// world seed and chunk coordinates.
+	static Random getDecorationRandom(long worldSeed, ChunkCoordinate chunkCoord)
+	{
+		Random random = new Random(worldSeed);
+		long l1 = random.nextLong() / 2L * 2L + 1L;
+		long l2 = random.nextLong() / 2L * 2L + 1L;
+		random.setSeed(chunkCoord.getChunkX() * l1 + chunkCoord.getChunkZ() * l2 ^ worldSeed);
+		return random;
+	}
+
 	public void doSnowAndIce(IWorldGenRegion worldGenRegion, ChunkCoordinate chunkCoord)
 	{
 		// Snow and ice
@@ -232,15 +198,15 @@ public class OTGChunkDecorator implements IChunkDecorator
 		FrozenSurfaceHelper.freezeChunk(worldGenRegion, chunkCoord);
 	}
 
-	private void plotAndSpawnBO4s(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, ChunkCoordinate chunkCoord, ChunkCoordinate chunkBeingDecorated, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
+	private void plotAndSpawnBO4s(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, ChunkCoordinate chunkCoord, ChunkCoordinate chunkBeingDecorated, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
 	{
 		// Plot and spawn BO4's for all chunks that may have blocks spawned on them while decorating this chunk, 
 		// so we can be sure those chunks have had a chance to plot+spawn bo4's before other resources.
 
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ()), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() , chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);			
-		structureCache.plotBo4Structures(worldGenRegion, this.rand, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);	
+		structureCache.plotBo4Structures(worldGenRegion, random, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
+		structureCache.plotBo4Structures(worldGenRegion, random, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ()), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);		
+		structureCache.plotBo4Structures(worldGenRegion, random, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() , chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);			
+		structureCache.plotBo4Structures(worldGenRegion, random, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ() + 1), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);	
 
 		spawnBO4(structureCache, worldGenRegion, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);
 		spawnBO4(structureCache, worldGenRegion, ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + 1, chunkCoord.getChunkZ()), otgRootFolder, logger, customObjectManager, materialReader, customObjectResourcesManager, modLoadedChecker);	
@@ -253,7 +219,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 		structureCache.spawnBo4Chunk(worldGenRegion, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 	}
 	
-	private void handleBO3AtSpawn(IWorldGenRegion worldGenRegion, ChunkCoordinate targetChunk, String bo3AtSpawn, String presetFolderName, Path otgRootFolder, CustomStructureCache structureCache, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
+	private void handleBO3AtSpawn(IWorldGenRegion worldGenRegion, Random random, ChunkCoordinate targetChunk, String bo3AtSpawn, String presetFolderName, Path otgRootFolder, CustomStructureCache structureCache, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager customObjectResourcesManager, IModLoadedChecker modLoadedChecker)
 	{	
 		// If a BO3AtSpawn has been defined, spawn it.
 		CustomObject customObject = customObjectManager.getGlobalObjects().getObjectByName(
@@ -281,7 +247,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 				}
 				else if(((BO3)customObject).getConfig().getSpawnHeight() == SpawnHeightEnum.randomY)
 				{
-					y = (int) (((BO3)customObject).getConfig().minHeight + (Math.random() * (((BO3)customObject).getConfig().maxHeight - ((BO3)customObject).getConfig().minHeight)));
+					y = (int) (((BO3)customObject).getConfig().minHeight + (random.nextDouble() * (((BO3)customObject).getConfig().maxHeight - ((BO3)customObject).getConfig().minHeight)));
 				}
 
 				y += ((BO3)customObject).getConfig().getSpawnHeightOffset();
@@ -289,7 +255,7 @@ public class OTGChunkDecorator implements IChunkDecorator
 				((BO3)customObject).spawnForced(
 					structureCache,
 					worldGenRegion,
-					this.rand,
+					random,
 					Rotation.NORTH,
 					targetChunk.getBlockX() + 16 + ((BO3)customObject).getXOffset(Rotation.NORTH),
 					y,
@@ -3,6 +3,9 @@ package com.pg85.otg.gen;
 import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 import java.util.stream.IntStream;
 
@@ -23,6 +26,7 @@ import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.ISurfaceGeneratorNoiseProvider;
 import com.pg85.otg.presets.Preset;
 import com.pg85.otg.util.ChunkCoordinate;
+import com.pg85.otg.util.LongKeyedCache;
 import com.pg85.otg.util.gen.ChunkBuffer;
 import com.pg85.otg.util.gen.DecorationArea;
 import com.pg85.otg.util.gen.GeneratingChunk;
@@ -30,6 +34,7 @@ import com.pg85.otg.util.gen.JigsawStructureData;
 import com.pg85.otg.util.helpers.MathHelper;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
+import com.pg85.otg.util.materials.LocalMaterialData;
 
 import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.objects.ObjectList;
@@ -88,23 +93,27 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	private final int noiseSizeY;
 	private final int noiseSizeZ = 4;
 
-	private final ThreadLocal<NoiseCache> noiseCache;
+	private final NoiseCache noiseCache;
 	private final NoiseGeneratorPerlinMesaBlocks biomeBlocksNoiseGen;
 	// Carvers
 	private final Carver caves;
 	private final Carver ravines;
 	// Biome blocks noise
 	// TODO: Use new noise?
-	private ThreadLocal<double[]> biomeBlocksNoise = ThreadLocal.withInitial(() -> new double[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE]);
-	private ThreadLocal<Integer> lastX = ThreadLocal.withInitial(() -> Integer.MAX_VALUE);
-	private ThreadLocal<Integer> lastZ = ThreadLocal.withInitial(() -> Integer.MAX_VALUE);
-	private ThreadLocal<Double> lastNoise = ThreadLocal.withInitial(() -> 0d);
+	private final ThreadLocal<BiomeBlocksNoiseChunk> biomeBlocksNoise = ThreadLocal.withInitial(() -> new BiomeBlocksNoiseChunk());
+	// Buffers for populateNoise
+	private final ThreadLocal<PopulateNoiseBuffers> populateNoiseBuffers = ThreadLocal.withInitial(() -> new PopulateNoiseBuffers());
+	// Biome blending
+	private final ThreadLocal<BiomeBlender> biomeBlender = ThreadLocal.withInitial(() -> new BiomeBlender());
+	// Column heights for unloaded chunks
+	private final LongKeyedCache<AtomicIntegerArray> columnHeightsCache;
+	private final ThreadLocal<ColumnHeightBuffers> columnHeightBuffers = ThreadLocal.withInitial(() -> new ColumnHeightBuffers());
 
 	public OTGChunkGenerator(Preset preset, long seed, ILayerSource biomeProvider, IBiome[] biomesById, ILogger logger)
 	{
 		this.preset = preset;
 		this.seed = seed;
-		this.cachedBiomeProvider = new CachedBiomeProvider(this.seed, biomeProvider, biomesById, logger);
+		this.cachedBiomeProvider = new CachedBiomeProvider(this.seed, biomeProvider, biomesById, preset.getWorldConfig().getBiomeCacheSize(), preset.getWorldConfig().getNoiseBiomeCacheSize(), logger);
 
 		// Setup noises
 		Random random = new Random(seed);
@@ -116,7 +125,10 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		this.upperInterpolatedNoise = new OctavePerlinNoiseSampler(random, IntStream.rangeClosed(-15, 0));
 		this.depthNoise = new OctavePerlinNoiseSampler(random, IntStream.rangeClosed(-15, 0));
 
-		this.noiseCache = ThreadLocal.withInitial(() -> new NoiseCache(128, this.noiseSizeY + 1));
+		int noiseColumnCacheSize = preset.getWorldConfig().getNoiseColumnCacheSize();
+		this.noiseCache = new NoiseCache(noiseColumnCacheSize > 0 ? noiseColumnCacheSize : Math.max(4096, Runtime.getRuntime().availableProcessors() * 512));
+		int columnHeightCacheSize = preset.getWorldConfig().getColumnHeightCacheSize();
+		this.columnHeightsCache = new LongKeyedCache<AtomicIntegerArray>(columnHeightCacheSize > 0 ? columnHeightCacheSize : Math.max(1024, Runtime.getRuntime().availableProcessors() * 128), Runtime.getRuntime().availableProcessors());
 
 		this.biomeBlocksNoiseGen = new NoiseGeneratorPerlinMesaBlocks(random, 4);
 
@@ -279,102 +291,42 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	public void getNoiseColumn(double[] buffer, int x, int z)
 	{
 		// TODO: check only for edges
-		this.noiseCache.get().get(buffer, x, z);
+		this.noiseCache.get(buffer, x, z);
 	}
 
-	private void generateNoiseColumn(double[] noiseColumn, int noiseX, int noiseZ)
+	public void logNoiseCacheMetrics(ILogger logger)
 	{
-		IBiomeConfig center = this.cachedBiomeProvider.getNoiseBiomeConfig(noiseX, noiseZ, true);
-
-		final int usedYSections = this.preset.getWorldConfig().getWorldHeightScale() / 8 + 1;
-		float height = 0; // depth
-		float volatility = 0; // scale
-		double volatility1 = 0;
-		double volatility2 = 0;
-		double horizontalFracture = 0;
-		double verticalFracture = 0;
-		double volatilityWeight1 = 0;
-		double volatilityWeight2 = 0;
-		double maxAverageDepth = 0;
-		double maxAverageHeight = 0;
-		double[] chc = new double[this.noiseSizeY + 1];
-		float weight = 0;
-		
-		int radius = Math.max(center.getSmoothRadius(), center.getCHCSmoothRadius());
-		int areaSize = radius * 2 + 1;
-		IBiomeConfig biomes[] = this.cachedBiomeProvider.getNoiseBiomeConfigsForRegion(noiseX - radius, noiseZ - radius, areaSize);
-		IBiomeConfig biome;
-		float heightAt;
-		float weightAt;
-		int cacheX;
-		int cacheZ;
-		for (int x1 = -center.getSmoothRadius(); x1 <= center.getSmoothRadius(); ++x1)
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
 		{
-			cacheX = x1 + radius;
-			for (int z1 = -center.getSmoothRadius(); z1 <= center.getSmoothRadius(); ++z1)
-			{
-				cacheZ = z1 + radius;
-				biome = biomes[cacheX * areaSize + cacheZ];
-				heightAt = biome.getBiomeHeight();
-				// TODO: vanilla reduces the weight by half when the depth here is greater than the center depth, but OTG doesn't do that?
-				weightAt = BIOME_WEIGHT_TABLE[x1 + 32 + (z1 + 32) * 65] / (heightAt + 2.0F);
-				weightAt = Math.abs(weightAt); // This is required to prevent seams when height goes below -2
-
-				weight += weightAt;
-
-				height += heightAt * weightAt;
-				volatility += biome.getBiomeVolatility() * weightAt;
-				volatility1 += biome.getVolatility1() * weightAt;
-				volatility2 += biome.getVolatility2() * weightAt;
-				horizontalFracture += biome.getFractureHorizontal() * weightAt;
-				verticalFracture += biome.getFractureVertical() * weightAt;
-				volatilityWeight1 += biome.getVolatilityWeight1() * weightAt;
-				volatilityWeight2 += biome.getVolatilityWeight2() * weightAt;
-				maxAverageDepth += biome.getMaxAverageDepth() * weightAt;
-				maxAverageHeight += biome.getMaxAverageHeight() * weightAt;
-			}
+			long hits = this.noiseCache.hits.sum();
+			long misses = this.noiseCache.misses.sum();
+			logger.log(
+				LogLevel.INFO,
+				LogCategory.PERFORMANCE,
+				"Noise column cache: " + hits + " hits, " + misses + " misses (" + (hits + misses > 0 ? (hits * 100 / (hits + misses)) : 0) + "% hit rate), " + this.noiseCache.slots.length() + " slots."
+			);
 		}
+	}
 
-		// CHC Smoothing
-		double chcWeight = 0;
-		for (int x1 = -center.getCHCSmoothRadius(); x1 <= center.getCHCSmoothRadius(); ++x1)
-		{
-			cacheX = x1 + radius;
-			for (int z1 = -center.getCHCSmoothRadius(); z1 <= center.getCHCSmoothRadius(); ++z1)
-			{
-				cacheZ = z1 + radius;
-				biome = biomes[cacheX * areaSize + cacheZ];
-
-				heightAt = biome.getBiomeHeight();
-				weightAt = BIOME_WEIGHT_TABLE[x1 + 32 + (z1 + 32) * 65] / (heightAt + 2.0F);
-				weightAt = Math.abs(weightAt);
-
-				chcWeight += weightAt;
+	private void generateNoiseColumn(double[] noiseColumn, int noiseX, int noiseZ)
+	{
+		IBiomeConfig center = this.cachedBiomeProvider.getNoiseBiomeConfig(noiseX, noiseZ, true);
 
-				for (int y = 0; y < this.noiseSizeY + 1; y++)
-				{
-					chc[y] += biome.getCHCData(y) * weightAt;
-				}
-			}
-		}
+		final int usedYSections = this.preset.getWorldConfig().getWorldHeightScale() / 8 + 1;
 
-		// Normalize biome data
-		height /= weight;
-		volatility /= weight;
-		volatility1 /= weight;
-		volatility2 /= weight;
-		horizontalFracture /= weight;
-		verticalFracture /= weight;
-		volatilityWeight1 /= weight;
-		volatilityWeight2 /= weight;
-		maxAverageDepth /= weight;
-		maxAverageHeight /= weight;
-
-		// Normalize CHC
-		for (int y = 0; y < this.noiseSizeY + 1; y++)
-		{
-			chc[y] /= chcWeight;
-		}
+		BiomeBlender blender = this.biomeBlender.get();
+		blender.blend(center, noiseX, noiseZ);
+		float height = (float) blender.height; // depth
+		float volatility = (float) blender.volatility; // scale
+		double volatility1 = blender.volatility1;
+		double volatility2 = blender.volatility2;
+		double horizontalFracture = blender.horizontalFracture;
+		double verticalFracture = blender.verticalFracture;
+		double volatilityWeight1 = blender.volatilityWeight1;
+		double volatilityWeight2 = blender.volatilityWeight2;
+		double maxAverageDepth = blender.maxAverageDepth;
+		double maxAverageHeight = blender.maxAverageHeight;
+		double[] chc = blender.chc;
 
 		// Vary the height with more noise
 		float extraHeight = (float) (getExtraHeightAt(noiseX, noiseZ, maxAverageDepth, maxAverageHeight) * 0.2);
@@ -423,6 +375,114 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		}
 	}
 
+	// Column heights for unloaded chunks
+
+	// BO4's and smoothing areas query heights in unloaded chunks during decoration. Instead
+	// of shadowgenning whole chunks for that, heights are calculated per column straight from
+	// the noise columns, skipping block placement and carvers. Results are stored per chunk,
+	// one int per column holding the highest solid and liquid block, so a column is published
+	// with a single write and threads don't need to lock the chunk's array. Surface generation
+	// can't be done per column, so columns whose surface may change the height of the highest 
+	// block, f.e. via non-solid SAGC blocks or Mesa pillars, are left to the shadow chunk generator.
+
+	public static final int COLUMN_HEIGHT_UNKNOWN = Integer.MIN_VALUE;
+	// Columns are stored as (solidHeight + 1) << 16 | (liquidHeight + 1). Columns without a solid
+	// block are never calculated from noise, so a calculated column is never 0.
+	private static final int COLUMN_NOT_CALCULATED = 0;
+	private static final int COLUMN_NOT_FROM_NOISE = -1;
+
+	/**
+	 * Returns the highest solid or liquid block in a column of an unloaded chunk, or -1 if there is none,
+	 * the same as scanning the column from the top down. Blocks removed by carvers are ignored.
+	 * Returns COLUMN_HEIGHT_UNKNOWN if the height can't be calculated from noise, the chunk needs 
+	 * to be generated instead.
+	 */
+	public int getHighestBlockYInUnloadedColumn(int x, int z, boolean findSolid, boolean findLiquid, boolean ignoreLiquid)
+	{
+		long chunkKey = MathHelper.toLong(x >> 4, z >> 4);
+		int index = (x & 15) * Constants.CHUNK_SIZE + (z & 15);
+		AtomicIntegerArray columnHeights = this.columnHeightsCache.get(chunkKey);
+		if(columnHeights == null)
+		{
+			columnHeights = this.columnHeightsCache.putIfAbsent(chunkKey, new AtomicIntegerArray(Constants.CHUNK_SIZE * Constants.CHUNK_SIZE));
+		}
+		int column = columnHeights.get(index);
+
+		if(column == COLUMN_NOT_CALCULATED)
+		{
+			IBiomeConfig biomeConfig = this.cachedBiomeProvider.getBiomeConfig(x, z, false);
+			ColumnHeightBuffers buffers = this.columnHeightBuffers.get();
+			int solidHeight = -1;
+			int liquidHeight = -1;
+
+			// Same interpolation as populateNoise, but only for this column.
+			int noiseX = x >> 2;
+			int noiseZ = z >> 2;
+			this.getNoiseColumn(buffers.x0z0, noiseX, noiseZ);
+			this.getNoiseColumn(buffers.x0z1, noiseX, noiseZ + 1);
+			this.getNoiseColumn(buffers.x1z0, noiseX + 1, noiseZ);
+			this.getNoiseColumn(buffers.x1z1, noiseX + 1, noiseZ + 1);
+			double xLerp = (double) (x & 3) / 4.0;
+			double zLerp = (double) (z & 3) / 4.0;
+
+			int noiseY;
+			double yLerp;
+			double z0;
+			double z1;
+			double density;
+			for (int realY = this.noiseSizeY * 8 - 1; realY >= 0; --realY)
+			{
+				noiseY = realY >> 3;
+				yLerp = (double) (realY & 7) / 8.0;
+				z0 = MathHelper.lerp(xLerp, MathHelper.lerp(yLerp, buffers.x0z0[noiseY], buffers.x0z0[noiseY + 1]), MathHelper.lerp(yLerp, buffers.x1z0[noiseY], buffers.x1z0[noiseY + 1]));
+				z1 = MathHelper.lerp(xLerp, MathHelper.lerp(yLerp, buffers.x0z1[noiseY], buffers.x0z1[noiseY + 1]), MathHelper.lerp(yLerp, buffers.x1z1[noiseY], buffers.x1z1[noiseY + 1]));
+				density = MathHelper.clamp(MathHelper.lerp(zLerp, z0, z1) / 200.0D, -1.0D, 1.0D);
+				density = density / 2.0D - density * density * density / 24.0D;
+				if (density > 0.0)
+				{
+					solidHeight = realY;
+					break;
+				}
+				else if (liquidHeight == -1 && realY < biomeConfig.getWaterLevelMax() && realY > biomeConfig.getWaterLevelMin())
+				{
+					liquidHeight = realY;
+				}
+			}
+
+			// Columns without stone only contain bedrock, the ceiling bedrock is placed above 
+			// base terrain. Replaced stone and water blocks may not be solid/liquid, and the 
+			// surface generator may replace the highest block or place blocks above it.
+			if(
+				solidHeight == -1 ||
+				biomeConfig.isCeilingBedrock() ||
+				!biomeConfig.getStoneBlockReplaced(solidHeight).isSolid() ||
+				(liquidHeight != -1 && !biomeConfig.getWaterBlockReplaced(liquidHeight).isLiquid()) ||
+				!biomeConfig.surfaceAndGroundControlKeepsHeight(this, x, solidHeight, z)
+			)
+			{
+				column = COLUMN_NOT_FROM_NOISE;
+			} else {
+				column = (solidHeight + 1) << 16 | (liquidHeight + 1);
+			}
+			// If another thread does the same column at the same time the results are equal.
+			columnHeights.set(index, column);
+		}
+
+		if(column == COLUMN_NOT_FROM_NOISE)
+		{
+			return COLUMN_HEIGHT_UNKNOWN;
+		}
+
+		int solidHeight = (column >>> 16) - 1;
+		int liquidHeight = (column & 0xFFFF) - 1;
+		// The first solid or liquid block found from the top down decides the result.
+		if (!ignoreLiquid && liquidHeight > solidHeight)
+		{
+			return findLiquid ? liquidHeight : -1;
+		}
+		return findSolid ? solidHeight : -1;
+	}
+
 	// Surface / ground / stone blocks / SAGC
 
 	public void populateNoise(int worldHeightCap, Random random, ChunkBuffer buffer, ChunkCoordinate chunkCoord, ObjectList<JigsawStructureData> structures, ObjectList<JigsawStructureData> junctions)
@@ -433,9 +493,11 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		ObjectListIterator<JigsawStructureData> junctionsIterator = junctions.iterator();
 
 		long startTime = System.currentTimeMillis();
-		
+
+		PopulateNoiseBuffers buffers = this.populateNoiseBuffers.get();
+
 		// Fill waterLevel array, used when placing stone/ground/surface blocks.
-		int[] waterLevel = new int[256];
+		int[] waterLevel = buffers.waterLevel;
 
 		int blockX = chunkCoord.getBlockX();
 		int blockZ = chunkCoord.getBlockZ();
@@ -450,25 +512,30 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			}
 		}
 
-		// TODO: this double[][][] is probably really bad for performance
-		double[][][] noiseData = new double[2][this.noiseSizeZ + 1][this.noiseSizeY + 1];
-		// Max smoothing radius is 32, so area covered is 32+5+32=69 (noise/biome coords, so *4)
-	
+		// Noise columns on the x0 and x1 sides of the cells being interpolated,
+		// indexed by noiseZ * (noiseSizeY + 1) + noiseY.
+		final int columnSize = this.noiseSizeY + 1;
+		final int height = this.noiseSizeY * 8;
+		double[] noiseX0 = buffers.noiseX0;
+		double[] noiseX1 = buffers.noiseX1;
+		double[] density = buffers.density;
+
 		// Initialize noise data on the x0 column.
 		for (int noiseZ = 0; noiseZ < this.noiseSizeZ + 1; ++noiseZ)
 		{
-			noiseData[0][noiseZ] = new double[this.noiseSizeY + 1];
 			this.getNoiseColumn(
-				noiseData[0][noiseZ], 
-				chunkCoord.getChunkX() * this.noiseSizeX, 
-				chunkCoord.getChunkZ() * this.noiseSizeZ + noiseZ 
+				buffers.noiseColumn,
+				chunkCoord.getChunkX() * this.noiseSizeX,
+				chunkCoord.getChunkZ() * this.noiseSizeZ + noiseZ
 			);
-			noiseData[1][noiseZ] = new double[this.noiseSizeY + 1];
+			System.arraycopy(buffers.noiseColumn, 0, noiseX0, noiseZ * columnSize, columnSize);
 		}
 
 		IBiomeConfig biomeConfig;
 		// [0, 4] -> x noise chunks
 		int noiseZ;
+		int x0z0Index;
+		int x0z1Index;
 		double x0z0y0;
 		double x0z1y0;
 		double x1z0y0;
@@ -492,7 +559,7 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		int localZ;
 		double zLerp;
 		double rawNoise;
-		double density;
+		double blockDensity;
 		int structureX;
 		int structureY;
 		int structureZ;
@@ -501,35 +568,46 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 		int sourceX;
 		int sourceY;
 		int sourceZ;
-		double[][] xColumn;
+		int densityIndex;
+		LocalMaterialData material;
+		LocalMaterialData runMaterial;
+		int runTop;
+		double[] xColumn;
 		for (int noiseX = 0; noiseX < this.noiseSizeX; ++noiseX)
 		{
 			// Initialize noise data on the x1 column
 			for (noiseZ = 0; noiseZ < this.noiseSizeZ + 1; ++noiseZ)
 			{
 				this.getNoiseColumn(
-					noiseData[1][noiseZ], 
-					chunkCoord.getChunkX() * this.noiseSizeX + noiseX + 1, 
-					chunkCoord.getChunkZ() * this.noiseSizeZ + noiseZ 
+					buffers.noiseColumn,
+					chunkCoord.getChunkX() * this.noiseSizeX + noiseX + 1,
+					chunkCoord.getChunkZ() * this.noiseSizeZ + noiseZ
 				);
+				System.arraycopy(buffers.noiseColumn, 0, noiseX1, noiseZ * columnSize, columnSize);
 			}
 
 			// [0, 4] -> z noise chunks
 			for (noiseZ = 0; noiseZ < this.noiseSizeZ; ++noiseZ)
 			{
+				x0z0Index = noiseZ * columnSize;
+				x0z1Index = (noiseZ + 1) * columnSize;
+
+				// Interpolate the densities for the 4x4 block columns in this cell first, then place
+				// blocks per column, so runs of the same material can be placed with one call.
+
 				// [0, 32] -> y noise chunks
 				for (int noiseY = this.noiseSizeY - 1; noiseY >= 0; --noiseY)
 				{
 					// Lower samples
-					x0z0y0 = noiseData[0][noiseZ][noiseY];
-					x0z1y0 = noiseData[0][noiseZ + 1][noiseY];
-					x1z0y0 = noiseData[1][noiseZ][noiseY];
-					x1z1y0 = noiseData[1][noiseZ + 1][noiseY];
+					x0z0y0 = noiseX0[x0z0Index + noiseY];
+					x0z1y0 = noiseX0[x0z1Index + noiseY];
+					x1z0y0 = noiseX1[x0z0Index + noiseY];
+					x1z1y0 = noiseX1[x0z1Index + noiseY];
 					// Upper samples
-					x0z0y1 = noiseData[0][noiseZ][noiseY + 1];
-					x0z1y1 = noiseData[0][noiseZ + 1][noiseY + 1];
-					x1z0y1 = noiseData[1][noiseZ][noiseY + 1];
-					x1z1y1 = noiseData[1][noiseZ + 1][noiseY + 1];
+					x0z0y1 = noiseX0[x0z0Index + noiseY + 1];
+					x0z1y1 = noiseX0[x0z1Index + noiseY + 1];
+					x1z0y1 = noiseX1[x0z0Index + noiseY + 1];
+					x1z1y1 = noiseX1[x0z1Index + noiseY + 1];
 
 					// [0, 8] -> y noise pieces
 					for (int pieceY = 8 - 1; pieceY >= 0; --pieceY)
@@ -549,7 +627,6 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 						for (int pieceX = 0; pieceX < 4; ++pieceX)
 						{
 							realX = blockX + noiseX * 4 + pieceX;
-							localX = realX & 15;
 							xLerp = (double) pieceX / 4.0;
 							// Interpolate noise based on x progress
 							z0 = MathHelper.lerp(xLerp, x0z0, x1z0);
@@ -559,21 +636,18 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 							for (int pieceZ = 0; pieceZ < 4; ++pieceZ)
 							{
 								realZ = blockZ + noiseZ * 4 + pieceZ;
-								localZ = realZ & 15;
 								zLerp = (double) pieceZ / 4.0;
 								// Get the real noise here by interpolating the last 2 noises together
 								rawNoise = MathHelper.lerp(zLerp, z0, z1);
 								// Normalize the noise from (-256, 256) to [-1, 1]
-								density = MathHelper.clamp(rawNoise / 200.0D, -1.0D, 1.0D);
-
-								biomeConfig = biomes[localX * 16 + localZ].getBiomeConfig();
+								blockDensity = MathHelper.clamp(rawNoise / 200.0D, -1.0D, 1.0D);
 
 								// TODO: make this bigger and look better
 								// Iterate through structures to add density
 								structureX = 0;
 								structureY = 0;
 								structureZ = 0;
-								for(density = density / 2.0D - density * density * density / 24.0D; structureIterator.hasNext(); density += getNoiseWeight(structureX, structureY, structureZ) * 0.8D)
+								for(blockDensity = blockDensity / 2.0D - blockDensity * blockDensity * blockDensity / 24.0D; structureIterator.hasNext(); blockDensity += getNoiseWeight(structureX, structureY, structureZ) * 0.8D)
 								{
 									structure = structureIterator.next();
 									structureX = Math.max(0, Math.max(structure.minX - realX, realX - structure.maxX));
@@ -589,20 +663,54 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 									sourceX = realX - junction.sourceX;
 									sourceY = realY - junction.groundY;
 									sourceZ = realZ - junction.sourceZ;
-									density += getNoiseWeight(sourceX, sourceY, sourceZ) * 0.4D;
+									blockDensity += getNoiseWeight(sourceX, sourceY, sourceZ) * 0.4D;
 								}
 								junctionsIterator.back(junctions.size());
 
-								if (density > 0.0)
-								{
-									buffer.setBlock(localX, realY, localZ, biomeConfig.getStoneBlockReplaced(realY));
-									buffer.setHighestBlockForColumn(pieceX + noiseX * 4, noiseZ * 4 + pieceZ, realY);
-								}
-								else if (realY < waterLevel[localX * 16 + localZ] && realY > biomeConfig.getWaterLevelMin())
+								density[(pieceX * 4 + pieceZ) * height + realY] = blockDensity;
+							}
+						}
+					}
+				}
+
+				// Place stone and water, top to bottom per column.
+				for (int pieceX = 0; pieceX < 4; ++pieceX)
+				{
+					localX = noiseX * 4 + pieceX;
+					for (int pieceZ = 0; pieceZ < 4; ++pieceZ)
+					{
+						localZ = noiseZ * 4 + pieceZ;
+						biomeConfig = biomes[localX * 16 + localZ].getBiomeConfig();
+						densityIndex = (pieceX * 4 + pieceZ) * height;
+						runMaterial = null;
+						runTop = -1;
+						for (realY = height - 1; realY >= -1; --realY)
+						{
+							if (realY == -1)
+							{
+								// Bottom of the column, place the last run.
+								material = null;
+							}
+							else if (density[densityIndex + realY] > 0.0)
+							{
+								material = biomeConfig.getStoneBlockReplaced(realY);
+							}
+							else if (realY < waterLevel[localX * 16 + localZ] && realY > biomeConfig.getWaterLevelMin())
+							{
+								material = biomeConfig.getWaterBlockReplaced(realY);
+							} else {
+								material = null;
+							}
+
+							if (material != runMaterial)
+							{
+								if (runMaterial != null)
 								{
-									buffer.setBlock(localX, realY, localZ, biomeConfig.getWaterBlockReplaced(realY));
-									buffer.setHighestBlockForColumn(pieceX + noiseX * 4, noiseZ * 4 + pieceZ, realY);
+									buffer.setBlockRun(localX, realY + 1, runTop, localZ, runMaterial);
+									buffer.setHighestBlockForColumn(localX, localZ, runTop);
 								}
+								runMaterial = material;
+								runTop = realY;
 							}
 						}
 					}
@@ -610,9 +718,9 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			}
 
 			// Reuse noise data from the previous column for speed
-			xColumn = noiseData[0];
-			noiseData[0] = noiseData[1];
-			noiseData[1] = xColumn;
+			xColumn = noiseX0;
+			noiseX0 = noiseX1;
+			noiseX1 = xColumn;
 		}
 
 		doSurfaceAndGroundControl(biomes, random, worldHeightCap, this.seed, buffer, waterLevel);
@@ -670,9 +778,8 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	{
 		// Process surface and ground blocks for each column in the chunk
 		ChunkCoordinate chunkCoord = chunkBuffer.getChunkCoordinate();		
-		double d1 = 0.03125D;
-		this.biomeBlocksNoise.set(this.biomeBlocksNoiseGen.getRegion(this.biomeBlocksNoise.get(), chunkCoord.getBlockX(), chunkCoord.getBlockZ(), Constants.CHUNK_SIZE, Constants.CHUNK_SIZE, d1 * 2.0D, d1 * 2.0D, 1.0D));
-		GeneratingChunk generatingChunk = new GeneratingChunk(random, waterLevel, this.biomeBlocksNoise.get(), heightCap);
+		double[] biomeBlocksNoise = this.biomeBlocksNoise.get().getNoise(chunkCoord.getChunkX(), chunkCoord.getChunkZ());
+		GeneratingChunk generatingChunk = new GeneratingChunk(random, waterLevel, biomeBlocksNoise, heightCap);
 		IBiome biome;
 		for (int x = 0; x < Constants.CHUNK_SIZE; x++)
 		{
@@ -688,32 +795,238 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 	// Used by sagc for generating surface/ground block patterns
 	public double getBiomeBlocksNoiseValue(int blockX, int blockZ)
 	{
-		double noise = this.lastNoise.get();
-		if (this.lastX.get() != blockX || this.lastZ.get() != blockZ)
+		return this.biomeBlocksNoise.get().getNoise(blockX >> 4, blockZ >> 4)[(blockX & 15) + (blockZ & 15) * Constants.CHUNK_SIZE];
+	}
+
+	// Biome blocks noise for the last chunk queried on this thread, filled in one pass for the
+	// whole chunk. Lookups for blocks in the same chunk (surface generation, carvers, sagc)
+	// just read the array. The array is refilled for the next chunk, so callers shouldn't
+	// hold on to it after querying another chunk.
+	private class BiomeBlocksNoiseChunk
+	{
+		private final double[] noise = new double[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+		private int chunkX;
+		private int chunkZ;
+		private boolean filled = false;
+
+		private double[] getNoise(int chunkX, int chunkZ)
 		{
-			double d1 = 0.03125D;
-			noise = this.biomeBlocksNoiseGen.getRegion(new double[1], blockX, blockZ, 1, 1, d1 * 2.0D, d1 * 2.0D, 1.0D)[0];
-			this.lastX.set(blockX);
-			this.lastZ.set(blockZ);
-			this.lastNoise.set(noise);
+			if(!this.filled || this.chunkX != chunkX || this.chunkZ != chunkZ)
+			{
+				double d1 = 0.03125D;
+				// Indexed by x + z * 16, same as querying each block separately.
+				OTGChunkGenerator.this.biomeBlocksNoiseGen.getRegion(this.noise, chunkX * Constants.CHUNK_SIZE, chunkZ * Constants.CHUNK_SIZE, Constants.CHUNK_SIZE, Constants.CHUNK_SIZE, d1 * 2.0D, d1 * 2.0D, 1.0D);
+				this.chunkX = chunkX;
+				this.chunkZ = chunkZ;
+				this.filled = true;
+			}
+			return this.noise;
 		}
-		return noise;
 	}
 
+	// Buffers used by populateNoise, reused for every chunk generated on the same thread.
+	// The noise arrays are flat, rather than jagged arrays allocated per chunk.
+	private class PopulateNoiseBuffers
+	{
+		private final double[] noiseColumn = new double[OTGChunkGenerator.this.noiseSizeY + 1];
+		// Noise columns on the x0 and x1 sides of a row of cells, swapped after each row.
+		private final double[] noiseX0 = new double[(OTGChunkGenerator.this.noiseSizeZ + 1) * (OTGChunkGenerator.this.noiseSizeY + 1)];
+		private final double[] noiseX1 = new double[(OTGChunkGenerator.this.noiseSizeZ + 1) * (OTGChunkGenerator.this.noiseSizeY + 1)];
+		// Interpolated densities for the 4x4 block columns of a cell.
+		private final double[] density = new double[16 * OTGChunkGenerator.this.noiseSizeY * 8];
+		private final int[] waterLevel = new int[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+	}
+
+	// Noise columns for getHighestBlockYInUnloadedColumn, reused for every column calculated on the same thread.
+	private class ColumnHeightBuffers
+	{
+		private final double[] x0z0 = new double[OTGChunkGenerator.this.noiseSizeY + 1];
+		private final double[] x0z1 = new double[OTGChunkGenerator.this.noiseSizeY + 1];
+		private final double[] x1z0 = new double[OTGChunkGenerator.this.noiseSizeY + 1];
+		private final double[] x1z1 = new double[OTGChunkGenerator.this.noiseSizeY + 1];
+	}
+
+	// Blends the settings of the biomes around a noise column, for SmoothRadius and CHCSmoothRadius.
+	// A biome's weight at an offset is the weight table value for that offset divided by the biome's
+	// height + 2, so the table values are first summed per distinct biome in the area, after which
+	// each biome's settings and CHC data are multiplied in once, rather than once per offset. Areas
+	// rarely contain more than a few biomes, so large smooth radiuses cost little more than small ones.
+	// Buffers are reused for every column generated on the same thread.
+	private class BiomeBlender
+	{
+		private IBiomeConfig[] area = new IBiomeConfig[0];
+		// Distinct biomes in the area and the summed weight table values for each.
+		private IBiomeConfig[] biomes = new IBiomeConfig[16];
+		private double[] smoothTableWeights = new double[16];
+		private double[] chcTableWeights = new double[16];
+		private int biomeCount;
+
+		// Blended settings for the last column
+		private double height;
+		private double volatility;
+		private double volatility1;
+		private double volatility2;
+		private double horizontalFracture;
+		private double verticalFracture;
+		private double volatilityWeight1;
+		private double volatilityWeight2;
+		private double maxAverageDepth;
+		private double maxAverageHeight;
+		private final double[] chc = new double[OTGChunkGenerator.this.noiseSizeY + 1];
+
+		private void blend(IBiomeConfig center, int noiseX, int noiseZ)
+		{
+			int smoothRadius = center.getSmoothRadius();
+			int chcSmoothRadius = center.getCHCSmoothRadius();
+			int radius = Math.max(smoothRadius, chcSmoothRadius);
+			int areaSize = radius * 2 + 1;
+			if(this.area.length < areaSize * areaSize)
+			{
+				this.area = new IBiomeConfig[areaSize * areaSize];
+			}
+			OTGChunkGenerator.this.cachedBiomeProvider.getNoiseBiomeConfigsForRegion(noiseX - radius, noiseZ - radius, areaSize, this.area);
+
+			// Sum the weight table values per biome
+			this.biomeCount = 0;
+			int index = -1;
+			IBiomeConfig biome;
+			float tableWeight;
+			boolean xInSmoothRadius;
+			boolean xInCHCSmoothRadius;
+			for (int x1 = -radius; x1 <= radius; ++x1)
+			{
+				xInSmoothRadius = x1 >= -smoothRadius && x1 <= smoothRadius;
+				xInCHCSmoothRadius = x1 >= -chcSmoothRadius && x1 <= chcSmoothRadius;
+				for (int z1 = -radius; z1 <= radius; ++z1)
+				{
+					biome = this.area[(x1 + radius) * areaSize + z1 + radius];
+					// Biomes come in patches, so usually this is the same biome as the last offset.
+					if(index == -1 || this.biomes[index] != biome)
+					{
+						index = indexOf(biome);
+					}
+					tableWeight = BIOME_WEIGHT_TABLE[x1 + 32 + (z1 + 32) * 65];
+					if(xInSmoothRadius && z1 >= -smoothRadius && z1 <= smoothRadius)
+					{
+						this.smoothTableWeights[index] += tableWeight;
+					}
+					if(xInCHCSmoothRadius && z1 >= -chcSmoothRadius && z1 <= chcSmoothRadius)
+					{
+						this.chcTableWeights[index] += tableWeight;
+					}
+				}
+			}
+
+			double weight = 0;
+			double chcWeight = 0;
+			this.height = 0;
+			this.volatility = 0;
+			this.volatility1 = 0;
+			this.volatility2 = 0;
+			this.horizontalFracture = 0;
+			this.verticalFracture = 0;
+			this.volatilityWeight1 = 0;
+			this.volatilityWeight2 = 0;
+			this.maxAverageDepth = 0;
+			this.maxAverageHeight = 0;
+			Arrays.fill(this.chc, 0);
+
+			double heightWeight;
+			double weightAt;
+			for (int i = 0; i < this.biomeCount; i++)
+			{
+				biome = this.biomes[i];
+				// TODO: vanilla reduces the weight by half when the depth here is greater than the center depth, but OTG doesn't do that?
+				// Abs is required to prevent seams when height goes below -2
+				heightWeight = Math.abs(1.0 / (biome.getBiomeHeight() + 2.0F));
+
+				// Biomes only in the CHC smooth radius (or vice versa) don't count, check
+				// explicitly since multiplying 0 with an infinite weight is NaN.
+				if(this.smoothTableWeights[i] > 0)
+				{
+					weightAt = this.smoothTableWeights[i] * heightWeight;
+					weight += weightAt;
+					this.height += biome.getBiomeHeight() * weightAt;
+					this.volatility += biome.getBiomeVolatility() * weightAt;
+					this.volatility1 += biome.getVolatility1() * weightAt;
+					this.volatility2 += biome.getVolatility2() * weightAt;
+					this.horizontalFracture += biome.getFractureHorizontal() * weightAt;
+					this.verticalFracture += biome.getFractureVertical() * weightAt;
+					this.volatilityWeight1 += biome.getVolatilityWeight1() * weightAt;
+					this.volatilityWeight2 += biome.getVolatilityWeight2() * weightAt;
+					this.maxAverageDepth += biome.getMaxAverageDepth() * weightAt;
+					this.maxAverageHeight += biome.getMaxAverageHeight() * weightAt;
+				}
+
+				// CHC Smoothing
+				if(this.chcTableWeights[i] > 0)
+				{
+					weightAt = this.chcTableWeights[i] * heightWeight;
+					chcWeight += weightAt;
+					for (int y = 0; y < this.chc.length; y++)
+					{
+						this.chc[y] += biome.getCHCData(y) * weightAt;
+					}
+				}
+			}
+
+			// Normalize biome data
+			this.height /= weight;
+			this.volatility /= weight;
+			this.volatility1 /= weight;
+			this.volatility2 /= weight;
+			this.horizontalFracture /= weight;
+			this.verticalFracture /= weight;
+			this.volatilityWeight1 /= weight;
+			this.volatilityWeight2 /= weight;
+			this.maxAverageDepth /= weight;
+			this.maxAverageHeight /= weight;
+
+			// Normalize CHC
+			for (int y = 0; y < this.chc.length; y++)
+			{
+				this.chc[y] /= chcWeight;
+			}
+		}
+
+		private int indexOf(IBiomeConfig biome)
+		{
+			for (int i = 0; i < this.biomeCount; i++)
+			{
+				if(this.biomes[i] == biome)
+				{
+					return i;
+				}
+			}
+			if(this.biomeCount == this.biomes.length)
+			{
+				this.biomes = Arrays.copyOf(this.biomes, this.biomeCount * 2);
+				this.smoothTableWeights = Arrays.copyOf(this.smoothTableWeights, this.biomeCount * 2);
+				this.chcTableWeights = Arrays.copyOf(this.chcTableWeights, this.biomeCount * 2);
+			}
+			this.biomes[this.biomeCount] = biome;
+			this.smoothTableWeights[this.biomeCount] = 0;
+			this.chcTableWeights[this.biomeCount] = 0;
+			return this.biomeCount++;
+		}
+	}
+
+	// Noise columns shared by all threads generating this world, so columns on the borders of chunks
+	// generated by different threads are calculated only once. Each slot holds an immutable column
+	// that is replaced as a whole, so readers never see a partially written column and no locking is
+	// needed. Threads missing on the same column at once both calculate it, the last one stays cached.
 	private class NoiseCache
 	{
-		private final long[] keys;
-		private final double[] values;
+		private final AtomicReferenceArray<NoiseColumn> slots;
 		private final int mask;
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
 
-		private NoiseCache(int size, int noiseSize)
+		private NoiseCache(int size)
 		{
 			size = MathHelper.smallestEncompassingPowerOfTwo(size);
 			this.mask = size - 1;
-
-			this.keys = new long[size];
-			Arrays.fill(this.keys, Long.MIN_VALUE);
-			this.values = new double[size * noiseSize];
+			this.slots = new AtomicReferenceArray<NoiseColumn>(size);
 		}
 
 		public double[] get(double[] buffer, int noiseX, int noiseZ)
@@ -722,20 +1035,21 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			int idx = hash(key) & this.mask;
 
 			// if the entry here has a key that matches ours, we have a cache hit
-			if (this.keys[idx] == key)
+			NoiseColumn column = this.slots.get(idx);
+			if (column != null && column.key == key)
 			{
 				// Copy values into buffer
-				System.arraycopy(this.values, idx * buffer.length, buffer, 0, buffer.length);
+				System.arraycopy(column.values, 0, buffer, 0, buffer.length);
+				this.hits.increment();
 			} else {
 				// cache miss: sample and put the result into our cache entry
 
 				// Sample the noise column to store the new values
 				generateNoiseColumn(buffer, noiseX, noiseZ);
 
-				// Create copy of the array
-				System.arraycopy(buffer, 0, this.values, idx * buffer.length, buffer.length);
-
-				this.keys[idx] = key;
+				// Publish a copy of the array, fields are final so other threads see it fully written.
+				this.slots.lazySet(idx, new NoiseColumn(key, buffer.clone()));
+				this.misses.increment();
 			}
 
 			return buffer;
@@ -751,4 +1065,16 @@ public class OTGChunkGenerator implements ISurfaceGeneratorNoiseProvider
 			return MathHelper.toLong(x, z);
 		}
 	}
+
+	private static class NoiseColumn
+	{
+		private final long key;
+		private final double[] values;
+
+		private NoiseColumn(long key, double[] values)
+		{
+			this.key = key;
+			this.values = values;
+		}
+	}
 }
@@ -5,6 +5,9 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.MessageFormat;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import com.pg85.otg.config.biome.BiomeConfig;
@@ -20,6 +23,7 @@ import com.pg85.otg.constants.Constants;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IMaterialReader;
 import com.pg85.otg.interfaces.IWorldConfig;
+import com.pg85.otg.util.LoadingPool;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
 import com.pg85.otg.util.minecraft.BiomeRegistryNames;
@@ -38,6 +42,11 @@ public abstract class LocalPresetLoader
 	protected final HashMap<String, String> aliasMap = new HashMap<>();
 	protected HashMap<String, IMaterialReader> materialReaderByPresetFolderName = new HashMap<>();
 
+	// Time spent per loading phase, summed over all loading threads.
+	private final AtomicLong worldConfigNanos = new AtomicLong();
+	private final AtomicLong biomeFilesNanos = new AtomicLong();
+	private final AtomicLong biomeConfigsNanos = new AtomicLong();
+
 	public LocalPresetLoader(Path otgRootFolder)
 	{
 		this.presetsDir = Paths.get(otgRootFolder.toString(), File.separator + Constants.PRESETS_FOLDER).toFile();
@@ -97,11 +106,25 @@ public abstract class LocalPresetLoader
 		return this.presets.keySet().size() > 0 ? (String) this.presets.keySet().toArray()[0] : Constants.DEFAULT_PRESET_NAME;
 	}
 		
+	/**
+	 * Loads all presets in parallel on the loading pool, each preset also
+	 * parses its biome configs in parallel. Presets are registered in order
+	 * of their folder names once all of them have loaded, so the result
+	 * doesn't depend on which preset finished loading first.
+	 */
 	public void loadPresetsFromDisk(IConfigFunctionProvider biomeResourcesManager, ILogger logger)
 	{
+		long startTime = System.nanoTime();
+		this.worldConfigNanos.set(0);
+		this.biomeFilesNanos.set(0);
+		this.biomeConfigsNanos.set(0);
+
+		List<Callable<Preset>> presetLoads = new ArrayList<Callable<Preset>>();
 		if(this.presetsDir.exists() && this.presetsDir.isDirectory())
 		{
-			for(File presetDir : this.presetsDir.listFiles())
+			File[] presetDirs = this.presetsDir.listFiles();
+			Arrays.sort(presetDirs);
+			for(File presetDir : presetDirs)
 			{
 				if(presetDir.isDirectory())
 				{
@@ -109,15 +132,31 @@ public abstract class LocalPresetLoader
 					{
 						if(file.getName().equals(Constants.WORLD_CONFIG_FILE))
 						{
-							Preset preset = loadPreset(presetDir.toPath(), biomeResourcesManager, logger);
-							this.presets.put(preset.getFolderName(), preset);
-							this.aliasMap.put(preset.getShortPresetName(), preset.getFolderName());
+							presetLoads.add(() -> loadPreset(presetDir.toPath(), biomeResourcesManager, logger));
 							break;
 						}
 					}
 				}
 			}
 		}
+
+		for(Preset preset : LoadingPool.invokeAllInOrder(presetLoads))
+		{
+			this.presets.put(preset.getFolderName(), preset);
+			this.aliasMap.put(preset.getShortPresetName(), preset.getFolderName());
+		}
+
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			logger.log(
+				LogLevel.INFO,
+				LogCategory.PERFORMANCE,
+				"Loaded " + presetLoads.size() + " presets in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " Ms" +
+				". Time per phase, summed over loading threads: WorldConfigs " + TimeUnit.NANOSECONDS.toMillis(this.worldConfigNanos.get()) + " Ms" +
+				", reading BiomeConfig files " + TimeUnit.NANOSECONDS.toMillis(this.biomeFilesNanos.get()) + " Ms" +
+				", parsing/writing BiomeConfigs " + TimeUnit.NANOSECONDS.toMillis(this.biomeConfigsNanos.get()) + " Ms."
+			);
+		}
 	}
 	
 	protected Preset loadPreset(Path presetDir, IConfigFunctionProvider biomeResourcesManager, ILogger logger)
@@ -130,9 +169,11 @@ public abstract class LocalPresetLoader
 		}
 		String presetFolderName = presetDir.toFile().getName();
 		
+		long startTime = System.nanoTime();
 		SettingsMap worldConfigSettings = FileSettingsReader.read(presetFolderName, worldConfigFile, logger);
 		WorldConfig worldConfig = new WorldConfig(presetDir, worldConfigSettings, addBiomesFromDirRecursive(biomesDirectory), biomeResourcesManager, logger, getMaterialReader(presetFolderName), presetFolderName);
 		FileSettingsWriter.writeToFile(worldConfig.getSettingsAsMap(), worldConfigFile, worldConfig.getSettingsMode(), logger);
+		this.worldConfigNanos.addAndGet(System.nanoTime() - startTime);
 
 		// use shortPresetName to register the biomes, instead of presetName
 		ArrayList<BiomeConfig> biomeConfigs = loadBiomeConfigs(worldConfig.getShortPresetName(), worldConfig.getMajorVersion(), presetDir, biomesDirectory.toPath(), worldConfig, biomeResourcesManager, logger, getMaterialReader(presetFolderName));
@@ -167,11 +208,15 @@ public abstract class LocalPresetLoader
 		biomeDirs.add(presetBiomesDir);
 		
 		// Load all files
+		long startTime = System.nanoTime();
 		BiomeConfigFinder biomeConfigFinder = new BiomeConfigFinder();
 		Map<String, BiomeConfigStub> biomeConfigStubs = biomeConfigFinder.findBiomes(worldConfig.getWorldBiomes(), worldConfig.getWorldHeightScale(), biomeDirs, logger, materialReader);
+		this.biomeFilesNanos.addAndGet(System.nanoTime() - startTime);
 
 		// Read all settings
+		startTime = System.nanoTime();
 		ArrayList<BiomeConfig> biomeConfigs = readAndWriteSettings(worldConfig, biomeConfigStubs, presetDir, presetShortName, presetMajorVersion, true, biomeResourcesManager, logger, materialReader);
+		this.biomeConfigsNanos.addAndGet(System.nanoTime() - startTime);
 
 		// Update settings dynamically, these changes don't get written back to the file
 		processSettings(worldConfig, biomeConfigs);
@@ -201,26 +246,34 @@ public abstract class LocalPresetLoader
 
 	private ArrayList<BiomeConfig> readAndWriteSettings(IWorldConfig worldConfig, Map<String, BiomeConfigStub> biomeConfigStubs, Path presetDir, String presetShortName, int presetMajorVersion, boolean write, IConfigFunctionProvider biomeResourcesManager, ILogger logger, IMaterialReader materialReader)
 	{
-		ArrayList<BiomeConfig> biomeConfigs = new ArrayList<BiomeConfig>();
-
+		// Inheritance, done for all biomes first since it merges
+		// the mobs of other biomes' stubs into each stub.
 		for (BiomeConfigStub biomeConfigStub : biomeConfigStubs.values())
 		{
-			// Inheritance
 			processMobInheritance(biomeConfigStubs, biomeConfigStub, 0, logger);
+		}
 
-			// Settings reading
-			BiomeConfig biomeConfig = new BiomeConfig(biomeConfigStub.getBiomeName(), biomeConfigStub, presetDir, biomeConfigStub.getSettings(), worldConfig, presetShortName, presetMajorVersion, biomeResourcesManager, logger, materialReader);
-			biomeConfigs.add(biomeConfig);
-
-			// Settings writing
-			if(write)
+		// Biomes don't depend on each other after inheritance, so read
+		// and write their settings in parallel, keeping the stubs' order.
+		List<Callable<BiomeConfig>> biomeConfigLoads = new ArrayList<Callable<BiomeConfig>>(biomeConfigStubs.size());
+		for (BiomeConfigStub biomeConfigStub : biomeConfigStubs.values())
+		{
+			biomeConfigLoads.add(() ->
 			{
-				Path writeFile = biomeConfigStub.getPath();
-				FileSettingsWriter.writeToFile(biomeConfig.getSettingsAsMap(), writeFile.toFile(), worldConfig.getSettingsMode(), logger);
-			}
+				// Settings reading
+				BiomeConfig biomeConfig = new BiomeConfig(biomeConfigStub.getBiomeName(), biomeConfigStub, presetDir, biomeConfigStub.getSettings(), worldConfig, presetShortName, presetMajorVersion, biomeResourcesManager, logger, materialReader);
+
+				// Settings writing
+				if(write)
+				{
+					Path writeFile = biomeConfigStub.getPath();
+					FileSettingsWriter.writeToFile(biomeConfig.getSettingsAsMap(), writeFile.toFile(), worldConfig.getSettingsMode(), logger);
+				}
+				return biomeConfig;
+			});
 		}
 
-		return biomeConfigs;
+		return new ArrayList<BiomeConfig>(LoadingPool.invokeAllInOrder(biomeConfigLoads));
 	}
 
 	private void processSettings(IWorldConfig worldConfig, ArrayList<BiomeConfig> biomeConfigs)
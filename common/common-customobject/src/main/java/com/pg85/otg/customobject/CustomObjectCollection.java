@@ -5,6 +5,7 @@ import com.pg85.otg.customobject.config.CustomObjectResourcesManager;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IMaterialReader;
 import com.pg85.otg.interfaces.IModLoadedChecker;
+import com.pg85.otg.util.LoadingPool;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
 import com.pg85.otg.util.minecraft.TreeType;
@@ -12,6 +13,9 @@ import com.pg85.otg.util.minecraft.TreeType;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
 /**
@@ -21,124 +25,152 @@ import java.util.stream.Collectors;
  */
 public class CustomObjectCollection
 {
+	// Only used when indexing files and when clearing everything, lookups of
+	// loaded objects and loading objects don't take this lock.
 	private Object indexingFilesLock = new Object();
-	
-	private ArrayList<CustomObject> objectsGlobalObjects = new ArrayList<CustomObject>();
-	private HashMap<String, CustomObject> objectsByNameGlobalObjects = new HashMap<String, CustomObject>();
-	private ArrayList<String> objectsNotFoundGlobalObjects = new ArrayList<String>();
 
-	private HashMap<String, ArrayList<CustomObject>> objectsPerPreset = new HashMap<String, ArrayList<CustomObject>>();
-	private HashMap<String, HashMap<String, CustomObject>> objectsByNamePerPreset = new HashMap<String, HashMap<String, CustomObject>>();
-	private HashMap<String, ArrayList<String>> objectsNotFoundPerPreset = new HashMap<String, ArrayList<String>>();
+	private final Map<String, CustomObject> objectsByNameGlobalObjects = new ConcurrentHashMap<String, CustomObject>();
+	private final Set<String> objectsNotFoundGlobalObjects = ConcurrentHashMap.newKeySet();
+
+	private final Map<String, Map<String, CustomObject>> objectsByNamePerPreset = new ConcurrentHashMap<String, Map<String, CustomObject>>();
+	private final Map<String, Set<String>> objectsNotFoundPerPreset = new ConcurrentHashMap<String, Set<String>>();
 
-	private HashMap<String, File> customObjectFilesGlobalObjects = null;
-	private HashMap<String, File> globalTemplates = null;
-	private HashMap<String, HashMap<String, File>> customObjectFilesPerPreset = new HashMap<String, HashMap<String, File>>();
-	private HashMap<String, HashMap<String, File>> boTemplateFilesPerPreset = new HashMap<>();
+	// Indexes are filled before they're published, so readers never see a partial index.
+	private volatile Map<String, File> customObjectFilesGlobalObjects = null;
+	private volatile Map<String, File> globalTemplates = null;
+	private final Map<String, Map<String, File>> customObjectFilesPerPreset = new ConcurrentHashMap<String, Map<String, File>>();
+	private final Map<String, Map<String, File>> boTemplateFilesPerPreset = new ConcurrentHashMap<String, Map<String, File>>();
+
+	// One load per file, threads requesting a file that's being loaded wait for
+	// that load instead of loading it again. Objects that fail to load are kept 
+	// as null, so broken files aren't parsed again for every request.
+	private final Map<File, CompletableFuture<CustomObject>> objectLoads = new ConcurrentHashMap<File, CompletableFuture<CustomObject>>();
+	// The thread loading each file, and the file each loading thread is waiting for.
+	// Used to detect objects that reference themselves, directly or via objects being
+	// loaded on other threads, waiting for those would deadlock.
+	private final Map<File, Thread> objectLoadOwners = new ConcurrentHashMap<File, Thread>();
+	private final Map<Thread, File> objectLoadsWaitedFor = new ConcurrentHashMap<Thread, File>();
 
 	public CustomObject loadObject(File file, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		synchronized(this.indexingFilesLock)
+		CustomObject object = null;
+		// Try to load single file
+		if (file.isFile())
 		{
-			CustomObject object = null;
-			// Try to load single file
-			if (file.isFile())
+			// Get name and extension
+			String fileName = file.getName();
+			int index = fileName.lastIndexOf('.');
+			// If we come across a directory descend into it without enabling
+			// the objects
+			if (index != -1)
 			{
-				// Get name and extension
-				String fileName = file.getName();
-				int index = fileName.lastIndexOf('.');
-				// If we come across a directory descend into it without enabling
-				// the objects
-				if (index != -1)
+				String objectType = fileName.substring(index + 1, fileName.length());
+				String objectName = fileName.substring(0, index);
+
+				// Get the object
+				CustomObjectLoader loader = customObjectManager.getObjectLoaders().get(objectType.toLowerCase());
+				if (loader != null)
 				{
-					String objectType = fileName.substring(index + 1, fileName.length());
-					String objectName = fileName.substring(0, index);
-	
-					// Get the object
-					CustomObjectLoader loader = customObjectManager.getObjectLoaders().get(objectType.toLowerCase());
-					if (loader != null)
+					object = loader.loadFromFile(objectName, file, logger);
+					if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
 					{
-						object = loader.loadFromFile(objectName, file, logger);
-	
-						if (presetFolderName != null)
+						// Try bo4
+						loader = customObjectManager.getObjectLoaders().get("bo4");
+						if (loader != null)
 						{
-							ArrayList<CustomObject> presetObjects = this.objectsPerPreset.get(presetFolderName);
-							if (presetObjects == null)
+							object = loader.loadFromFile(objectName, file, logger);
+							if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
 							{
-								presetObjects = new ArrayList<CustomObject>();
-								this.objectsPerPreset.put(presetFolderName, presetObjects);
-							}
-							presetObjects.add(object);
-						} else {
-							this.objectsGlobalObjects.add(object);
-						}
-	
-						if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
-						{
-							// Remove the object
-							removeLoadedObject(presetFolderName, object);
-							
-							// Try bo4
-							loader = customObjectManager.getObjectLoaders().get("bo4");
-							if (loader != null)
-							{
-								object = loader.loadFromFile(objectName, file, logger);
-								if (presetFolderName != null)
-								{
-									ArrayList<CustomObject> presetObjects = this.objectsPerPreset.get(presetFolderName);
-									if (presetObjects == null)
-									{
-										presetObjects = new ArrayList<CustomObject>();
-										this.objectsPerPreset.put(presetFolderName, presetObjects);
-									}
-									presetObjects.add(object);
-								} else {
-									this.objectsGlobalObjects.add(object);
-								}
-
-								if (!object.onEnable(presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker) || !object.loadChecks(modLoadedChecker))
-								{
-									// Remove the object
-									removeLoadedObject(presetFolderName, object);
-									return null;
-								}
+								return null;
 							}
 						}
 					}
 				}
-			} else {
-				logger.log(LogLevel.FATAL, LogCategory.CUSTOM_OBJECTS, "Given path does not exist: " + file.getAbsolutePath());
-				throw new RuntimeException("Given path does not exist: " + file.getAbsolutePath());
 			}
-			return object;
+		} else {
+			logger.log(LogLevel.FATAL, LogCategory.CUSTOM_OBJECTS, "Given path does not exist: " + file.getAbsolutePath());
+			throw new RuntimeException("Given path does not exist: " + file.getAbsolutePath());
 		}
+		return object;
 	}
 
-	private void removeLoadedObject(String presetFolderName, CustomObject object)
+	private CustomObject loadObjectOnce(File file, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		if (presetFolderName != null)
+		CompletableFuture<CustomObject> load = this.objectLoads.get(file);
+		if (load == null)
 		{
-			HashMap<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-			if(presetObjectsByName != null)
+			CompletableFuture<CustomObject> newLoad = new CompletableFuture<CustomObject>();
+			load = this.objectLoads.putIfAbsent(file, newLoad);
+			if (load == null)
 			{
-				presetObjectsByName.remove(object.getName());
-				if (presetObjectsByName.size() == 0)
+				// This thread loads the object.
+				this.objectLoadOwners.put(file, Thread.currentThread());
+				try
 				{
-					this.objectsByNamePerPreset.remove(presetFolderName, presetObjectsByName);
+					CustomObject object = loadObject(file, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+					newLoad.complete(object);
+					return object;
+				}
+				catch (RuntimeException | Error e)
+				{
+					// Don't remember exceptions, the next request tries again.
+					this.objectLoads.remove(file, newLoad);
+					newLoad.completeExceptionally(e);
+					throw e;
+				} finally {
+					this.objectLoadOwners.remove(file);
 				}
 			}
-			
-			ArrayList<CustomObject> worldObjects = this.objectsPerPreset.get(presetFolderName);
-			worldObjects.remove(object);
-			if (worldObjects.size() == 0)
+		}
+		if (load.isDone())
+		{
+			return load.join();
+		}
+
+		Thread currentThread = Thread.currentThread();
+		// Publish what we're waiting for before checking, so of two threads waiting 
+		// for each other at least the last one to get here sees the cycle.
+		this.objectLoadsWaitedFor.put(currentThread, file);
+		try
+		{
+			if (isWaitingForItself(currentThread, file))
 			{
-				this.objectsPerPreset.remove(presetFolderName, worldObjects);
+				// Waiting would deadlock, the object references itself (f.e. via inheritBO3).
+				if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+				{
+					logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "BO2/BO3 references itself while loading: " + file);
+				}
+				return null;
 			}
-		} else {
-			this.objectsGlobalObjects.remove(object);
+			return load.join();
+		} finally {
+			this.objectLoadsWaitedFor.remove(currentThread);
 		}
 	}
 
+	// Follows the chain of loading threads waiting for each other, starting at
+	// the thread loading the given file.
+	private boolean isWaitingForItself(Thread currentThread, File file)
+	{
+		Set<Thread> visited = new HashSet<Thread>();
+		File waitingFor = file;
+		while (waitingFor != null)
+		{
+			Thread owner = this.objectLoadOwners.get(waitingFor);
+			if (owner == null || !visited.add(owner))
+			{
+				// Finished loading, or a cycle between other threads that they'll detect themselves.
+				return false;
+			}
+			if (owner == currentThread)
+			{
+				return true;
+			}
+			waitingFor = this.objectLoadsWaitedFor.get(owner);
+		}
+		return false;
+	}
+
 	/**
 	 * Adds an object to the list of loaded objects. If an object with the same name
 	 * (case insensitive) already exists, nothing happens.
@@ -147,24 +179,16 @@ public class CustomObjectCollection
 	 */
 	void addLoadedGlobalObject(CustomObject object)
 	{
-		synchronized(this.indexingFilesLock)
-		{
-			String name = object.getName();
-			if (!this.objectsByNameGlobalObjects.containsKey(name.toLowerCase()))
-			{
-				this.objectsByNameGlobalObjects.put(name.toLowerCase(), object);
-				this.objectsGlobalObjects.add(object);
-			}
-		}
+		this.objectsByNameGlobalObjects.putIfAbsent(object.getName().toLowerCase(), object);
 	}
 
 	void addGlobalObjectFile(String name, File file)
 	{
 		synchronized(this.indexingFilesLock)
 		{
-			if (this.customObjectFilesGlobalObjects != null && !this.customObjectFilesGlobalObjects.containsKey(name.toLowerCase()))
+			if (this.customObjectFilesGlobalObjects != null)
 			{
-				this.customObjectFilesGlobalObjects.put(name.toLowerCase(), file);
+				this.customObjectFilesGlobalObjects.putIfAbsent(name.toLowerCase(), file);
 			}
 		}
 	}
@@ -173,13 +197,13 @@ public class CustomObjectCollection
 	{
 		synchronized(this.indexingFilesLock)
 		{
-			this.objectsGlobalObjects.clear();
 			this.objectsByNameGlobalObjects.clear();
 			this.objectsNotFoundGlobalObjects.clear();
 			
-			this.objectsPerPreset.clear();
 			this.objectsByNamePerPreset.clear();
-			this.objectsNotFoundPerPreset.clear();	
+			this.objectsNotFoundPerPreset.clear();
+
+			this.objectLoads.clear();
 		}
 	}
 	
@@ -187,13 +211,13 @@ public class CustomObjectCollection
 	{
 		synchronized(indexingFilesLock)
 		{
-			this.objectsGlobalObjects.clear();
 			this.objectsByNameGlobalObjects.clear();
 			this.objectsNotFoundGlobalObjects.clear();
 	
-			this.objectsPerPreset.clear();
 			this.objectsByNamePerPreset.clear();
 			this.objectsNotFoundPerPreset.clear();
+
+			this.objectLoads.clear();
 	
 			this.customObjectFilesGlobalObjects = null;
 			this.globalTemplates = null;
@@ -204,7 +228,7 @@ public class CustomObjectCollection
 
 	public ArrayList<String> getAllBONamesForPreset(String presetFolderName, ILogger logger, Path otgRootPath)
 	{
-		HashMap<String, File> files = this.customObjectFilesPerPreset.get(presetFolderName);
+		Map<String, File> files = this.customObjectFilesPerPreset.get(presetFolderName);
 		if (files == null)
 		{
 			indexPresetObjectsFolder(presetFolderName, logger, otgRootPath);
@@ -215,7 +239,7 @@ public class CustomObjectCollection
 
 	public ArrayList<String> getTemplatesForPreset(String presetFolderName, ILogger logger, Path otgRootPath)
 	{
-		HashMap<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
+		Map<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
 		if (files == null)
 		{
 			indexPresetObjectsFolder(presetFolderName, logger, otgRootPath);
@@ -226,7 +250,7 @@ public class CustomObjectCollection
 
 	public File getTemplateFileForPreset(String presetFolderName, String templateName, ILogger logger, Path otgRootPath)
 	{
-		HashMap<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
+		Map<String, File> files = this.boTemplateFilesPerPreset.get(presetFolderName);
 		if (files == null)
 		{
 			indexPresetObjectsFolder(presetFolderName, logger, otgRootPath);
@@ -241,9 +265,10 @@ public class CustomObjectCollection
 		{
 			indexGlobalObjectsFolder(logger, otgRootPath);
 		}
-		return this.customObjectFilesGlobalObjects == null
+		Map<String, File> files = this.customObjectFilesGlobalObjects;
+		return files == null
 				? null
-				: new ArrayList<>(this.customObjectFilesGlobalObjects.keySet());
+				: new ArrayList<>(files.keySet());
 	}
 
 	public ArrayList<String> getGlobalTemplates(ILogger logger, Path otgRootPath)
@@ -252,31 +277,33 @@ public class CustomObjectCollection
 		{
 			indexGlobalObjectsFolder(logger, otgRootPath);
 		}
-		return this.globalTemplates == null
+		Map<String, File> files = this.globalTemplates;
+		return files == null
 				? null
-				: new ArrayList<>(this.globalTemplates.keySet());
+				: new ArrayList<>(files.keySet());
 	}
 
 	// Adds an object to a preset, if it has been loaded
 	// Does not add the object if the preset's BO's have not yet been indexed
 	public void addObjectToPreset(String presetFolderName, String objectName, File boFile, CustomObject object)
 	{
-		HashMap<String, CustomObject> objectsByName = this.objectsByNamePerPreset.get(presetFolderName);
+		Map<String, CustomObject> objectsByName = this.objectsByNamePerPreset.get(presetFolderName);
 		if (objectsByName != null) objectsByName.put(objectName.toLowerCase(), object);
-		HashMap<String, File> customObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
+		Map<String, File> customObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
 		if (customObjectFiles != null) customObjectFiles.put(objectName.toLowerCase(), boFile);
 	}
 	
 	public CustomObject getObjectByName(String name, String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		synchronized(this.indexingFilesLock)
-		{
-			return getObjectByName(name, presetFolderName, true, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-		}
+		return getObjectByName(name, presetFolderName, true, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 	}
 	
 	void indexGlobalObjectsFolder(ILogger logger, Path otgRootFolder)
 	{
+		if (this.customObjectFilesGlobalObjects != null)
+		{
+			return;
+		}
 		synchronized(this.indexingFilesLock)
 		{
 			if (this.customObjectFilesGlobalObjects == null)
@@ -285,11 +312,11 @@ public class CustomObjectCollection
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Indexing GlobalObjects folder.");
 				}
-				this.customObjectFilesGlobalObjects = new HashMap<String, File>();
-				this.globalTemplates = new HashMap<>();
+				Map<String, File> customObjectFiles = new ConcurrentHashMap<String, File>();
+				Map<String, File> templateFiles = new ConcurrentHashMap<String, File>();
 				if (new File(otgRootFolder + File.separator + Constants.GLOBAL_OBJECTS_FOLDER).exists())
 				{
-					indexAllCustomObjectFilesInDir(new File(otgRootFolder + File.separator + Constants.GLOBAL_OBJECTS_FOLDER), this.customObjectFilesGlobalObjects, this.globalTemplates, logger);
+					indexAllCustomObjectFilesInDir(new File(otgRootFolder + File.separator + Constants.GLOBAL_OBJECTS_FOLDER), customObjectFiles, templateFiles, logger);
 				}
 	
 				// Add vanilla custom objects
@@ -297,6 +324,9 @@ public class CustomObjectCollection
 				{
 					addLoadedGlobalObject(new TreeObject(type));
 				}
+
+				this.globalTemplates = templateFiles;
+				this.customObjectFilesGlobalObjects = customObjectFiles;
 				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "GlobalObjects folder indexed.");
@@ -307,32 +337,35 @@ public class CustomObjectCollection
 	
 	void indexPresetObjectsFolder(String presetFolderName, ILogger logger, Path otgRootFolder)
 	{
+		if (presetFolderName == null || this.customObjectFilesPerPreset.containsKey(presetFolderName))
+		{
+			return;
+		}
 		synchronized(this.indexingFilesLock)
 		{
-			if (presetFolderName != null && !this.customObjectFilesPerPreset.containsKey(presetFolderName))
+			if (!this.customObjectFilesPerPreset.containsKey(presetFolderName))
 			{
 				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Indexing Objects folder for preset " + presetFolderName);
 				}
-				HashMap<String, File> presetCustomObjectFiles = new HashMap<String, File>();
-				this.customObjectFilesPerPreset.put(presetFolderName, presetCustomObjectFiles);
-				HashMap<String, File> templateFiles = new HashMap<String, File>();
-				this.boTemplateFilesPerPreset.put(presetFolderName, templateFiles);
-				if (presetFolderName != null)
+				Map<String, File> presetCustomObjectFiles = new ConcurrentHashMap<String, File>();
+				Map<String, File> templateFiles = new ConcurrentHashMap<String, File>();
+				// TODO: Rename folders
+				String objectsFolderName = 
+					new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.WORLD_OBJECTS_FOLDER).exists() ? Constants.WORLD_OBJECTS_FOLDER :
+					new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.LEGACY_WORLD_OBJECTS_FOLDER).exists() ? Constants.LEGACY_WORLD_OBJECTS_FOLDER : null
+				;					
+				if(objectsFolderName != null)
 				{
-					// TODO: Rename folders
-					String objectsFolderName = 
-						new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.WORLD_OBJECTS_FOLDER).exists() ? Constants.WORLD_OBJECTS_FOLDER :
-						new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + Constants.LEGACY_WORLD_OBJECTS_FOLDER).exists() ? Constants.LEGACY_WORLD_OBJECTS_FOLDER : null
-					;					
-					if(objectsFolderName != null)
-					{
-						indexAllCustomObjectFilesInDir(
-						new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + objectsFolderName),
-						presetCustomObjectFiles, templateFiles, logger);
-					}
+					indexAllCustomObjectFilesInDir(
+					new File(otgRootFolder + File.separator + Constants.PRESETS_FOLDER + File.separator + presetFolderName + File.separator + objectsFolderName),
+					presetCustomObjectFiles, templateFiles, logger);
 				}
+
+				// The object files index is what's checked to see if a preset has been indexed, so publish it last.
+				this.boTemplateFilesPerPreset.put(presetFolderName, templateFiles);
+				this.customObjectFilesPerPreset.put(presetFolderName, presetCustomObjectFiles);
 				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 				{
 					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "Objects folder for preset " + presetFolderName + " indexed.");
@@ -342,196 +375,183 @@ public class CustomObjectCollection
 	}
 	
 	/**
-	 * Gets the object with the given name.
+	 * Gets the object with the given name. Objects that have already been loaded
+	 * are looked up without locking, objects that haven't are loaded on this thread,
+	 * unless another thread is already loading them.
 	 * 
 	 * @param name Name of the object.
 	 * @return The object, or null if not found.
 	 */
 	private CustomObject getObjectByName(String name, String presetFolderName, boolean searchGlobalObjects, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		synchronized(this.indexingFilesLock)
+		// OTG.log(LogMarker.INFO, "getObjectByName " + presetFolderName != null ? presetFolderName : "");
+
+		CustomObject object = null;
+		String lowerCaseName = name.toLowerCase();
+
+		// Check if the object has been cached
+
+		if (presetFolderName != null)
 		{
-			// OTG.log(LogMarker.INFO, "getObjectByName " + presetFolderName != null ? presetFolderName : "");
-	
-			CustomObject object = null;
-	
-			// Check if the object has been cached
-	
-			if (presetFolderName != null)
+			Map<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
+			if (presetObjectsByName != null)
 			{
-				HashMap<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-				if (presetObjectsByName != null)
-				{
-					object = presetObjectsByName.get(name.toLowerCase());
-				}
+				object = presetObjectsByName.get(lowerCaseName);
 			}
-	
-			boolean bSearchedPresetObjects = false;
-	
-			if (object == null && presetFolderName != null)
-			{
-				ArrayList<String> presetObjectsNotFoundByName = this.objectsNotFoundPerPreset.get(presetFolderName);
-				if (presetObjectsNotFoundByName != null && presetObjectsNotFoundByName.contains(name))
-				{
-					// TODO: If a user adds a new object while the game is running, it won't be picked up, even when developermode:true.
-					bSearchedPresetObjects = true;
-				}
-			}
-	
-			// Only check the GlobalObjects if the preset's Objects directory has already been searched
-			if (object == null && searchGlobalObjects && (presetFolderName == null || bSearchedPresetObjects))
-			{
-				object = this.objectsByNameGlobalObjects.get(name.toLowerCase());
-			}
-	
-			if (object != null)
-			{
-				return object;
-			}
-	
-			// Check if the object has been queried before but could not be found
-	
-			boolean bSearchedGlobalObjects = false;
-	
-			if (this.objectsNotFoundGlobalObjects != null && this.objectsNotFoundGlobalObjects.contains(name))
+		}
+
+		boolean bSearchedPresetObjects = false;
+
+		if (object == null && presetFolderName != null)
+		{
+			Set<String> presetObjectsNotFoundByName = this.objectsNotFoundPerPreset.get(presetFolderName);
+			if (presetObjectsNotFoundByName != null && presetObjectsNotFoundByName.contains(name))
 			{
 				// TODO: If a user adds a new object while the game is running, it won't be picked up, even when developermode:true.
-				bSearchedGlobalObjects = true;
-			}
-	
-			if ((!searchGlobalObjects || bSearchedGlobalObjects) && (presetFolderName == null || bSearchedPresetObjects))
-			{
-				return null;
-			}
-	
-			// Index GlobalObjects and preset's Objects directories
-	
-			indexGlobalObjectsFolder(logger, otgRootFolder);
-			indexPresetObjectsFolder(presetFolderName, logger, otgRootFolder);
-	
-			// Search preset Objects
-	
-			if (presetFolderName != null && !bSearchedPresetObjects)
-			{
-				HashMap<String, File> presetCustomObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
-				if (presetCustomObjectFiles != null)
-				{
-					File searchForFile = presetCustomObjectFiles.get(name.toLowerCase());
-					if (searchForFile != null)
-					{
-						object = loadObject(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-						if (object != null)
-						{
-							HashMap<String, CustomObject> presetObjectsByName = this.objectsByNamePerPreset.get(presetFolderName);
-							if (presetObjectsByName == null)
-							{
-								presetObjectsByName = new HashMap<String, CustomObject>();
-								this.objectsByNamePerPreset.put(presetFolderName, presetObjectsByName);
-							}
-							presetObjectsByName.put(name.toLowerCase(), object);
-							return object;
-						} else {
-							if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
-							{
-								logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it likely contains errors: " + searchForFile);
-							}
-							return null;
-						}
-					}
-				}
-	
-				// Not found
-				ArrayList<String> presetObjectsNotFound = this.objectsNotFoundPerPreset.get(presetFolderName);
-				if (presetObjectsNotFound == null)
-				{
-					presetObjectsNotFound = new ArrayList<String>();
-					this.objectsNotFoundPerPreset.put(presetFolderName, presetObjectsNotFound);
-				}
-				presetObjectsNotFound.add(name);
+				bSearchedPresetObjects = true;
 			}
-	
-			// Search GlobalObjects
-	
-			if (searchGlobalObjects && !bSearchedGlobalObjects)
+		}
+
+		// Only check the GlobalObjects if the preset's Objects directory has already been searched
+		if (object == null && searchGlobalObjects && (presetFolderName == null || bSearchedPresetObjects))
+		{
+			object = this.objectsByNameGlobalObjects.get(lowerCaseName);
+		}
+
+		if (object != null)
+		{
+			return object;
+		}
+
+		// Check if the object has been queried before but could not be found
+
+		boolean bSearchedGlobalObjects = false;
+
+		if (this.objectsNotFoundGlobalObjects.contains(name))
+		{
+			// TODO: If a user adds a new object while the game is running, it won't be picked up, even when developermode:true.
+			bSearchedGlobalObjects = true;
+		}
+
+		if ((!searchGlobalObjects || bSearchedGlobalObjects) && (presetFolderName == null || bSearchedPresetObjects))
+		{
+			return null;
+		}
+
+		// Index GlobalObjects and preset's Objects directories
+
+		indexGlobalObjectsFolder(logger, otgRootFolder);
+		indexPresetObjectsFolder(presetFolderName, logger, otgRootFolder);
+
+		// Search preset Objects
+
+		if (presetFolderName != null && !bSearchedPresetObjects)
+		{
+			Map<String, File> presetCustomObjectFiles = this.customObjectFilesPerPreset.get(presetFolderName);
+			if (presetCustomObjectFiles != null)
 			{
-				object = this.objectsByNameGlobalObjects.get(name.toLowerCase());
-	
-				if (object != null)
-				{
-					return object;
-				}
-	
-				File searchForFile = this.customObjectFilesGlobalObjects.get(name.toLowerCase());
-	
+				File searchForFile = presetCustomObjectFiles.get(lowerCaseName);
 				if (searchForFile != null)
 				{
-					object = loadObject(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-	
+					object = loadObjectOnce(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 					if (object != null)
 					{
-						this.objectsByNameGlobalObjects.put(name.toLowerCase(), object);
+						this.objectsByNamePerPreset.computeIfAbsent(presetFolderName, key -> new ConcurrentHashMap<String, CustomObject>()).put(lowerCaseName, object);
 						return object;
 					} else {
 						if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
 						{
-							logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it probably contains errors: " + searchForFile);
+							logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it likely contains errors: " + searchForFile);
 						}
 						return null;
 					}
 				}
-	
-				// Not Found
-				this.objectsNotFoundGlobalObjects.add(name);
 			}
-	
-			if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+
+			// Not found
+			this.objectsNotFoundPerPreset.computeIfAbsent(presetFolderName, key -> ConcurrentHashMap.newKeySet()).add(name);
+		}
+
+		// Search GlobalObjects
+
+		if (searchGlobalObjects && !bSearchedGlobalObjects)
+		{
+			object = this.objectsByNameGlobalObjects.get(lowerCaseName);
+
+			if (object != null)
 			{
-				logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not find BO2/BO3 " + name + " in GlobalObjects " + (presetFolderName != null ? "and Objects" : "") + " directory " + (presetFolderName != null ? "for preset " + presetFolderName : "") + ".");
+				return object;
 			}
-	
-			return null;
+
+			// Null if the index was cleared by a reload in the meantime.
+			Map<String, File> globalObjectFiles = this.customObjectFilesGlobalObjects;
+			File searchForFile = globalObjectFiles != null ? globalObjectFiles.get(lowerCaseName) : null;
+
+			if (searchForFile != null)
+			{
+				object = loadObjectOnce(searchForFile, presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+
+				if (object != null)
+				{
+					this.objectsByNameGlobalObjects.put(lowerCaseName, object);
+					return object;
+				} else {
+					if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+					{
+						logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not load BO2/BO3, it probably contains errors: " + searchForFile);
+					}
+					return null;
+				}
+			}
+
+			// Not Found
+			this.objectsNotFoundGlobalObjects.add(name);
+		}
+
+		if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+		{
+			logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Could not find BO2/BO3 " + name + " in GlobalObjects " + (presetFolderName != null ? "and Objects" : "") + " directory " + (presetFolderName != null ? "for preset " + presetFolderName : "") + ".");
 		}
+
+		return null;
 	}
 
-	private void indexAllCustomObjectFilesInDir(File searchDir, HashMap<String, File> customObjectFiles, HashMap<String, File> templateFiles, ILogger logger)
+	private void indexAllCustomObjectFilesInDir(File searchDir, Map<String, File> customObjectFiles, Map<String, File> templateFiles, ILogger logger)
 	{
 		if (searchDir.exists())
 		{
 			if (searchDir.isDirectory())
 			{
-				for (File fileInDir : searchDir.listFiles())
+				// Folders are listed in parallel, files are then indexed in a fixed
+				// order, so the same file wins for duplicate names on every run.
+				for (File fileInDir : LoadingPool.get().invoke(new ListFilesTask(searchDir)))
 				{
-					if (fileInDir.isDirectory())
-					{
-						indexAllCustomObjectFilesInDir(fileInDir, customObjectFiles, templateFiles, logger);
-					} else {
-						String name = fileInDir.getName().contains(".") ? fileInDir.getName().substring(0, fileInDir.getName().lastIndexOf(".")) : fileInDir.getName();
-						String fileExtension = fileInDir.getName().contains(".") ? fileInDir.getName().substring(fileInDir.getName().lastIndexOf(".")).toLowerCase() : null;
+					String name = fileInDir.getName().contains(".") ? fileInDir.getName().substring(0, fileInDir.getName().lastIndexOf(".")) : fileInDir.getName();
+					String fileExtension = fileInDir.getName().contains(".") ? fileInDir.getName().substring(fileInDir.getName().lastIndexOf(".")).toLowerCase() : null;
+					if (
+						fileExtension != null &&
+						(
+							fileExtension.equals(".bo4data") || 
+							fileExtension.equals(".bo4") || 
+							fileExtension.equals(".bo3") || 
+							fileExtension.equals(".bo2")
+						)
+					) {
 						if (
-							fileExtension != null &&
-							(
-								fileExtension.equals(".bo4data") || 
-								fileExtension.equals(".bo4") || 
-								fileExtension.equals(".bo3") || 
-								fileExtension.equals(".bo2")
-							)
+							fileExtension.equals(".bo4data") || 
+							!customObjectFiles.containsKey(name.toLowerCase())
 						) {
-							if (
-								fileExtension.equals(".bo4data") || 
-								!customObjectFiles.containsKey(name.toLowerCase())
-							) {
-								customObjectFiles.put(name.toLowerCase(), fileInDir);
-							} else {
-								if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
-								{
-									logger.log(LogLevel.WARN, LogCategory.CUSTOM_OBJECTS, "Duplicate file found: " + name + ".");
-								}
+							customObjectFiles.put(name.toLowerCase(), fileInDir);
+						} else {
+							if (logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+							{
+								logger.log(LogLevel.WARN, LogCategory.CUSTOM_OBJECTS, "Duplicate file found: " + name + ".");
 							}
 						}
-						else if (fileExtension != null && fileExtension.equals(".bo3template"))
-						{
-							templateFiles.put(name.toLowerCase(), fileInDir);
-						}
+					}
+					else if (fileExtension != null && fileExtension.equals(".bo3template"))
+					{
+						templateFiles.put(name.toLowerCase(), fileInDir);
 					}
 				}
 			} else {
@@ -567,4 +587,54 @@ public class CustomObjectCollection
 			}
 		}
 	}
+
+	/**
+	 * Lists all files in a folder and its subfolders, sorted by name,
+	 * with the files of each subfolder in place of the subfolder.
+	 * Subfolders are listed in parallel.
+	 */
+	private static class ListFilesTask extends RecursiveTask<List<File>>
+	{
+		private static final long serialVersionUID = 1L;
+
+		private final File dir;
+
+		ListFilesTask(File dir)
+		{
+			this.dir = dir;
+		}
+
+		@Override
+		protected List<File> compute()
+		{
+			File[] filesInDir = this.dir.listFiles();
+			if (filesInDir == null)
+			{
+				return Collections.emptyList();
+			}
+			Arrays.sort(filesInDir);
+
+			ListFilesTask[] subDirTasks = new ListFilesTask[filesInDir.length];
+			for (int i = 0; i < filesInDir.length; i++)
+			{
+				if (filesInDir[i].isDirectory())
+				{
+					subDirTasks[i] = new ListFilesTask(filesInDir[i]);
+					subDirTasks[i].fork();
+				}
+			}
+
+			List<File> files = new ArrayList<File>();
+			for (int i = 0; i < filesInDir.length; i++)
+			{
+				if (subDirTasks[i] != null)
+				{
+					files.addAll(subDirTasks[i].join());
+				} else {
+					files.add(filesInDir[i]);
+				}
+			}
+			return files;
+		}
+	}
 }
@@ -6,14 +6,23 @@ import com.pg85.otg.customobject.bo4.BO4Loader;
 import com.pg85.otg.customobject.config.CustomObjectResourcesManager;
 import com.pg85.otg.interfaces.ICustomObjectManager;
 import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.interfaces.IMaterialReader;
+import com.pg85.otg.interfaces.IModLoadedChecker;
+import com.pg85.otg.util.LoadingPool;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
 
 import java.io.File;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * This class is the registry for the custom object types. It also stores
@@ -61,30 +70,89 @@ public class CustomObjectManager implements ICustomObjectManager
 
 		this.globalCustomObjects = new CustomObjectCollection();
 
-		// TODO: Move this to completeable futures. Run a preliminary search for all folders, and then create a completeable future for them.
-		// This would allow it to run concurrently and then block until all of the futures are done. This will allow us to concurrently index and
-		// also block until the indexing is done.
+		// Index in the background, indexing lists the folders in parallel on the loading pool.
 		if(!developerMode)
 		{
-			new Thread() { 
-				public void run()
+			CompletableFuture.runAsync(() ->
+			{
+				long startTime = System.nanoTime();
+				globalCustomObjects.indexGlobalObjectsFolder(logger, otgRootFolder);
+
+				for(File file : otgPresetsFolder.toFile().listFiles())
 				{
-					globalCustomObjects.indexGlobalObjectsFolder(logger, otgRootFolder);
-					
-					for(File file : otgPresetsFolder.toFile().listFiles())
-					{
-						if(file.isDirectory())
-						{
-							String presetFolderName = file.getName();
-							globalCustomObjects.indexPresetObjectsFolder(presetFolderName, logger, otgRootFolder);
-						}
-					}
-					if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+					if(file.isDirectory())
 					{
-						logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "All CustomObject files indexed.");
+						String presetFolderName = file.getName();
+						globalCustomObjects.indexPresetObjectsFolder(presetFolderName, logger, otgRootFolder);
 					}
 				}
-			}.start();
+				if(logger.getLogCategoryEnabled(LogCategory.CUSTOM_OBJECTS))
+				{
+					logger.log(LogLevel.INFO, LogCategory.CUSTOM_OBJECTS, "All CustomObject files indexed.");
+				}
+				if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+				{
+					logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, "Indexed all CustomObject files in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " Ms.");
+				}
+			}, LoadingPool.get()).whenComplete((result, throwable) -> logFailure(throwable, "indexing", logger));
+		}
+	}
+
+	/**
+	 * Loads all indexed objects for the given presets and all GlobalObjects in the
+	 * background on the loading pool, so they don't have to be loaded during world
+	 * generation. Global objects are loaded with the first preset's material reader.
+	 */
+	public void preloadCustomObjects(List<String> presetFolderNames, Function<String, IMaterialReader> materialReaderByPresetFolderName, Path otgRootFolder, ILogger logger, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		if(presetFolderNames.isEmpty())
+		{
+			return;
+		}
+		CompletableFuture.runAsync(() ->
+		{
+			long startTime = System.nanoTime();
+			List<Callable<Boolean>> objectLoads = new ArrayList<Callable<Boolean>>();
+			for(String presetFolderName : presetFolderNames)
+			{
+				addObjectLoads(objectLoads, this.globalCustomObjects.getAllBONamesForPreset(presetFolderName, logger, otgRootFolder), presetFolderName, materialReaderByPresetFolderName.apply(presetFolderName), otgRootFolder, logger, manager, modLoadedChecker);
+			}
+			addObjectLoads(objectLoads, this.globalCustomObjects.getGlobalObjectNames(logger, otgRootFolder), null, materialReaderByPresetFolderName.apply(presetFolderNames.get(0)), otgRootFolder, logger, manager, modLoadedChecker);
+
+			int loaded = 0;
+			for(Boolean objectLoaded : LoadingPool.invokeAllInOrder(objectLoads))
+			{
+				loaded += objectLoaded ? 1 : 0;
+			}
+			if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+			{
+				logger.log(LogLevel.INFO, LogCategory.PERFORMANCE, "Preloaded " + loaded + " of " + objectLoads.size() + " CustomObjects in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) + " Ms.");
+			}
+		}, LoadingPool.get()).whenComplete((result, throwable) -> logFailure(throwable, "preloading", logger));
+	}
+
+	private void addObjectLoads(List<Callable<Boolean>> objectLoads, List<String> objectNames, String presetFolderName, IMaterialReader materialReader, Path otgRootFolder, ILogger logger, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	{
+		if(objectNames == null)
+		{
+			return;
+		}
+		Collections.sort(objectNames);
+		for(String objectName : objectNames)
+		{
+			objectLoads.add(() -> this.globalCustomObjects.getObjectByName(objectName, presetFolderName, otgRootFolder, logger, this, materialReader, manager, modLoadedChecker) != null);
+		}
+	}
+
+	private static void logFailure(Throwable throwable, String task, ILogger logger)
+	{
+		if(throwable != null)
+		{
+			logger.log(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, "Error while " + task + " CustomObject files: " + throwable);
+			if(throwable instanceof Exception)
+			{
+				logger.printStackTrace(LogLevel.ERROR, LogCategory.CUSTOM_OBJECTS, (Exception)throwable);
+			}
 		}
 	}
 	
@@ -2,14 +2,11 @@ package com.pg85.otg.customobject.bo3;
 
 import java.io.File;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Random;
 
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.constants.SettingsEnums.ConfigMode;
 import com.pg85.otg.customobject.CustomObjectManager;
-import com.pg85.otg.customobject.bo3.bo3function.BO3BlockFunction;
 import com.pg85.otg.customobject.bo3.bo3function.BO3EntityFunction;
 import com.pg85.otg.customobject.bo3.checks.BO3Check;
 import com.pg85.otg.customobject.config.CustomObjectResourcesManager;
@@ -21,7 +18,6 @@ import com.pg85.otg.customobject.structures.CustomStructure;
 import com.pg85.otg.customobject.structures.CustomStructureCache;
 import com.pg85.otg.customobject.structures.CustomStructureCoordinate;
 import com.pg85.otg.customobject.structures.StructuredCustomObject;
-import com.pg85.otg.customobject.structures.bo3.BO3CustomStructure;
 import com.pg85.otg.customobject.structures.bo3.BO3CustomStructureCoordinate;
 import com.pg85.otg.customobject.util.BoundingBox;
 import com.pg85.otg.customobject.util.BO3Enums.OutsideSourceBlock;
@@ -32,6 +28,7 @@ import com.pg85.otg.interfaces.IMaterialReader;
 import com.pg85.otg.interfaces.IModLoadedChecker;
 import com.pg85.otg.interfaces.IWorldGenRegion;
 import com.pg85.otg.util.ChunkCoordinate;
+import com.pg85.otg.util.LongHashSet;
 import com.pg85.otg.util.biome.ReplaceBlockMatrix;
 import com.pg85.otg.util.bo3.Rotation;
 import com.pg85.otg.util.gen.DecorationArea;
@@ -41,6 +38,9 @@ import com.pg85.otg.util.materials.LocalMaterialData;
 
 public class BO3 implements StructuredCustomObject
 {
+	// Amount of blocks checked against source blocks before checking all of them, max 64.
+	private static final int SOURCE_BLOCK_SAMPLES = 16;
+
 	private BO3Config settings;
 	private final String name;
 	private final File file;
@@ -133,63 +133,56 @@ public class BO3 implements StructuredCustomObject
 	@Override
 	public boolean spawnFromSapling(IWorldGenRegion worldGenRegion, Random random, Rotation rotation, int x, int y, int z)
 	{
-		BO3BlockFunction[] blocks = this.settings.getBlocks(rotation.getRotationId());
-
-		ArrayList<BO3BlockFunction> blocksToSpawn = new ArrayList<BO3BlockFunction>();
-
-		ObjectExtrusionHelper oeh = new ObjectExtrusionHelper(this.settings.extrudeMode, this.settings.extrudeThroughBlocks);
-		HashSet<ChunkCoordinate> chunks = new HashSet<ChunkCoordinate>();
+		int rotationId = rotation.getRotationId();
+		byte[] blocksX = this.settings.getBlocksX(rotationId);
+		short[] blocksY = this.settings.getBlocksY(rotationId);
+		byte[] blocksZ = this.settings.getBlocksZ(rotationId);
+		int blockCount = blocksX.length;
 
-		LocalMaterialData localMaterial;
-		for (BO3BlockFunction block : blocks)
+		SpawnBuffers buffers = SpawnBuffers.acquire(blockCount);
+		try
 		{
-			localMaterial = worldGenRegion.getMaterial(x + block.x, y + block.y, z + block.z);
+			int[] blocksToSpawn = buffers.blocksToSpawn;
+			int blocksToSpawnCount = 0;
+			ObjectExtrusionHelper oeh = buffers.extrusionHelper;
+			oeh.reset(this.settings.extrudeMode, this.settings.extrudeThroughBlocks);
 
-			// Ignore blocks in the ground when checking spawn conditions
-			if (block.y >= 0)
+			LocalMaterialData localMaterial;
+			for (int i = 0; i < blockCount; i++)
 			{
-				// Do not spawn if non-tree blocks are in the way
-				if (
-					!localMaterial.isAir() && 
-					!localMaterial.isLogOrLeaves() && 
-					!localMaterial.isSapling()
-				)
+				localMaterial = worldGenRegion.getMaterial(x + blocksX[i], y + blocksY[i], z + blocksZ[i]);
+
+				// Ignore blocks in the ground when checking spawn conditions
+				if (blocksY[i] >= 0)
 				{
-					return false;
+					// Do not spawn if non-tree blocks are in the way
+					if (
+						!localMaterial.isAir() && 
+						!localMaterial.isLogOrLeaves() && 
+						!localMaterial.isSapling()
+					)
+					{
+						return false;
+					}
 				}
-			}
 
-			// Only overwrite air
-			if (localMaterial.isAir())
-			{
-				chunks.add(ChunkCoordinate.fromBlockCoords(x + block.x, z + block.z));
-				blocksToSpawn.add(block);
+				// Only overwrite air
+				if (localMaterial.isAir())
+				{
+					blocksToSpawn[blocksToSpawnCount++] = i;
+				}
+
+				oeh.addBlock(i, blocksY[i]);
 			}
 
-			oeh.addBlock((BO3BlockFunction) block);
+			spawnBlocks(worldGenRegion, random, rotationId, x, y, z, blocksToSpawn, blocksToSpawnCount, this.doReplaceBlocks(), true);
+			oeh.extrude(worldGenRegion, random, this.settings, rotationId, x, y, z, doReplaceBlocks(), true);
+			handleBO3Functions(null, null, worldGenRegion, random, rotation, x, y, z, null);
 		}
-		
-		ReplaceBlockMatrix replaceBlocks = null;
-		int lastX = Integer.MIN_VALUE;
-		int lastZ = Integer.MIN_VALUE;		
-		for (BO3BlockFunction block : blocksToSpawn)
+		finally
 		{
-			if(this.doReplaceBlocks())
-			{
-				if(lastX != x + block.x || lastZ != z + block.z)
-				{
-					// TODO: Calculate area required and fetch biome data for whole chunks instead of per column.
-					replaceBlocks = worldGenRegion.getCachedBiomeProvider().getBiomeConfig(x + block.x, z + block.z, true).getReplaceBlocks();
-					lastX = x + block.x;
-					lastZ = z + z + block.z;
-				}
-				block.spawn(worldGenRegion, random, x + block.x, y + block.y, z + block.z, replaceBlocks);
-			} else {
-				block.spawn(worldGenRegion, random, x + block.x, y + block.y, z + block.z);
-			}
+			buffers.release();
 		}
-		oeh.extrude(worldGenRegion, random, x, y, z, doReplaceBlocks(), true);
-		handleBO3Functions(null, null, worldGenRegion, random, rotation, x, y, z, chunks);
 
 		return true;
 	}
@@ -210,33 +203,30 @@ public class BO3 implements StructuredCustomObject
 	@Override
 	public boolean spawnForced(CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, Rotation rotation, int x, int y, int z, boolean allowReplaceBlocks)
 	{
-		BO3BlockFunction[] blocks = this.settings.getBlocks(rotation.getRotationId());
-		ObjectExtrusionHelper oeh = new ObjectExtrusionHelper(this.settings.extrudeMode, this.settings.extrudeThroughBlocks);
-		HashSet<ChunkCoordinate> chunks = new HashSet<ChunkCoordinate>();
+		int rotationId = rotation.getRotationId();
+		short[] blocksY = this.settings.getBlocksY(rotationId);
+		int blockCount = blocksY.length;
 
-		ReplaceBlockMatrix replaceBlocks = null;
-		int lastX = Integer.MIN_VALUE;
-		int lastZ = Integer.MIN_VALUE;
-		for (BO3BlockFunction block : blocks)
+		SpawnBuffers buffers = SpawnBuffers.acquire(blockCount);
+		try
 		{
-			if(allowReplaceBlocks && doReplaceBlocks())
+			int[] blocksToSpawn = buffers.blocksToSpawn;
+			ObjectExtrusionHelper oeh = buffers.extrusionHelper;
+			oeh.reset(this.settings.extrudeMode, this.settings.extrudeThroughBlocks);
+			for (int i = 0; i < blockCount; i++)
 			{
-				if(lastX != x + block.x || lastZ != z + block.z)
-				{
-					// TODO: Calculate area required and fetch biome data for whole chunks instead of per column.
-					replaceBlocks = worldGenRegion.getCachedBiomeProvider().getBiomeConfig(x + block.x, z + block.z, true).getReplaceBlocks();
-					lastX = x + block.x;
-					lastZ = z + block.z;
-				}
-				block.spawn(worldGenRegion, random, x + block.x, y + block.y, z + block.z, replaceBlocks);
-			} else {
-				block.spawn(worldGenRegion, random, x + block.x, y + block.y, z + block.z);
+				blocksToSpawn[i] = i;
+				oeh.addBlock(i, blocksY[i]);
 			}
-			oeh.addBlock(block);
-			chunks.add(ChunkCoordinate.fromBlockCoords(x + block.x, z + block.z));
+
+			spawnBlocks(worldGenRegion, random, rotationId, x, y, z, blocksToSpawn, blockCount, allowReplaceBlocks && doReplaceBlocks(), true);
+			oeh.extrude(worldGenRegion, random, this.settings, rotationId, x, y, z, doReplaceBlocks(), true);
+			handleBO3Functions(null, structureCache, worldGenRegion, random, rotation, x, y, z, null);
+		}
+		finally
+		{
+			buffers.release();
 		}
-		oeh.extrude(worldGenRegion, random, x, y, z, doReplaceBlocks(), true);
-		handleBO3Functions(null, structureCache, worldGenRegion, random, rotation, x, y, z, chunks);
 
 		return true;
 	}
@@ -327,7 +317,28 @@ public class BO3 implements StructuredCustomObject
 			return false;
 		}
 
-		BO3Check[] checks = this.settings.bo3Checks[rotation.getRotationId()];
+		int rotationId = rotation.getRotationId();
+
+		// Cheapest checks first, most attempts fail. The object has to fit within the
+		// world's height and the area being decorated. That area is a rectangle, so
+		// it's enough to test the corners of the object's bounds.
+		int[] blockBounds = this.settings.getBlockBounds(rotationId);
+		DecorationArea decorationArea = worldGenRegion.getDecorationArea();
+		if (
+			blockBounds != null &&
+			(
+				y + blockBounds[1] < Constants.WORLD_DEPTH ||
+				y + blockBounds[4] >= Constants.WORLD_HEIGHT ||
+				!decorationArea.isInAreaBeingDecorated(x + blockBounds[0], z + blockBounds[2]) ||
+				!decorationArea.isInAreaBeingDecorated(x + blockBounds[3], z + blockBounds[5])
+			)
+		)
+		{
+			// Cannot spawn BO3, part of world is not loaded
+			return false;
+		}
+
+		BO3Check[] checks = this.settings.bo3Checks[rotationId];
 
 		// Check for spawning
 		// TODO: Allow force spawning of BO3's for /otg spawn etc, avoid light checks.
@@ -343,117 +354,137 @@ public class BO3 implements StructuredCustomObject
 			}
 		}
 
-		BO3BlockFunction[] blocks = this.settings.getBlocks(rotation.getRotationId());
-		HashSet<ChunkCoordinate> loadedChunks = new HashSet<ChunkCoordinate>();
-		ChunkCoordinate chunkCoord;
-		for (BO3BlockFunction block : blocks)
+		byte[] blocksX = this.settings.getBlocksX(rotationId);
+		short[] blocksY = this.settings.getBlocksY(rotationId);
+		byte[] blocksZ = this.settings.getBlocksZ(rotationId);
+		int blockCount = blocksX.length;
+
+		// Blocks outside source blocks are counted when the object may only have a limited amount of
+		// them, and when they shouldn't be placed.
+		boolean checkSourceBlocks = this.settings.maxPercentageOutsideSourceBlock < 100 || this.settings.outsideSourceBlock == OutsideSourceBlock.dontPlace;
+		int maxBlocksOutsideSourceBlock = (int) Math.ceil(blockCount * (this.settings.maxPercentageOutsideSourceBlock / 100.0));
+
+		// Before checking every block, check a sample of blocks spread over the object,
+		// so attempts with too many blocks outside source blocks fail after a few lookups.
+		// Only worth it if the sample alone can exceed the limit. Results are kept for
+		// the full check, bit n is set if sample n is outside source blocks.
+		int sampleStride = 0;
+		long samplesOutsideSourceBlock = 0;
+		if (checkSourceBlocks && maxBlocksOutsideSourceBlock < SOURCE_BLOCK_SAMPLES && blockCount > SOURCE_BLOCK_SAMPLES)
 		{
-			if (y + block.y < Constants.WORLD_DEPTH || y + block.y >= Constants.WORLD_HEIGHT)
+			sampleStride = blockCount / SOURCE_BLOCK_SAMPLES;
+			int sampledBlocksOutsideSourceBlock = 0;
+			for (int sample = 0, i = 0; sample < SOURCE_BLOCK_SAMPLES; sample++, i += sampleStride)
 			{
-				return false;
-			}
-
-			chunkCoord = ChunkCoordinate.fromBlockCoords(x + block.x, z + block.z);
-			if(!loadedChunks.contains(chunkCoord))
-			{
-				if(!worldGenRegion.getDecorationArea().isInAreaBeingDecorated(x + block.x, z + block.z))
+				if (!this.settings.sourceBlocks.contains(worldGenRegion.getMaterial(x + blocksX[i], y + blocksY[i], z + blocksZ[i])))
 				{
-					// Cannot spawn BO3, part of world is not loaded
-					return false;
+					samplesOutsideSourceBlock |= 1L << sample;
+					if (++sampledBlocksOutsideSourceBlock > maxBlocksOutsideSourceBlock)
+					{
+						// Too many blocks outside source block
+						return false;
+					}
 				}
-				loadedChunks.add(chunkCoord);
 			}
 		}
 
-		ArrayList<BO3BlockFunction> blocksToSpawn = new ArrayList<BO3BlockFunction>();
-		ObjectExtrusionHelper oeh = new ObjectExtrusionHelper(this.settings.extrudeMode, this.settings.extrudeThroughBlocks);
-		HashSet<ChunkCoordinate> chunks = new HashSet<ChunkCoordinate>();
-
-		int blocksOutsideSourceBlock = 0;
-		int maxBlocksOutsideSourceBlock = (int) Math.ceil(blocks.length * (this.settings.maxPercentageOutsideSourceBlock / 100.0));
-		for (BO3BlockFunction block : blocks)
+		SpawnBuffers buffers = SpawnBuffers.acquire(blockCount);
+		try
 		{
-			if (
-				(
-					(
-						this.settings.maxPercentageOutsideSourceBlock < 100 && 
-						blocksOutsideSourceBlock <= maxBlocksOutsideSourceBlock
-					) || 
-					this.settings.outsideSourceBlock == OutsideSourceBlock.dontPlace
-				) && 
-				!this.settings.sourceBlocks.contains(worldGenRegion.getMaterial(x + block.x, y + block.y, z + block.z))
-			)
+			int[] blocksToSpawn = buffers.blocksToSpawn;
+			int blocksToSpawnCount = 0;
+			ObjectExtrusionHelper oeh = buffers.extrusionHelper;
+			oeh.reset(this.settings.extrudeMode, this.settings.extrudeThroughBlocks);
+			// Only structures need the chunks that blocks are placed in.
+			LongHashSet chunks = structure != null && structureCache != null ? buffers.chunks : null;
+
+			int blocksOutsideSourceBlock = 0;
+			boolean spawnBlock;
+			boolean outsideSourceBlock;
+			for (int i = 0; i < blockCount; i++)
 			{
-				blocksOutsideSourceBlock++;
-				if (blocksOutsideSourceBlock > maxBlocksOutsideSourceBlock)
+				spawnBlock = true;
+				if (checkSourceBlocks)
 				{
-					// Too many blocks outside source block
-					return false;
+					if (sampleStride > 0 && i % sampleStride == 0 && i / sampleStride < SOURCE_BLOCK_SAMPLES)
+					{
+						outsideSourceBlock = (samplesOutsideSourceBlock & (1L << (i / sampleStride))) != 0;
+					} else {
+						outsideSourceBlock = !this.settings.sourceBlocks.contains(worldGenRegion.getMaterial(x + blocksX[i], y + blocksY[i], z + blocksZ[i]));
+					}
+					if (outsideSourceBlock)
+					{
+						blocksOutsideSourceBlock++;
+						if (blocksOutsideSourceBlock > maxBlocksOutsideSourceBlock)
+						{
+							// Too many blocks outside source block
+							return false;
+						}
+						spawnBlock = this.settings.outsideSourceBlock == OutsideSourceBlock.placeAnyway;
+					}
 				}
-
-				if (this.settings.outsideSourceBlock == OutsideSourceBlock.placeAnyway)
+				if (spawnBlock)
 				{
-					chunks.add(ChunkCoordinate.fromBlockCoords(x + block.x, z + block.z));
-					blocksToSpawn.add(block);
+					if (chunks != null)
+					{
+						chunks.add(MathHelper.toLong((x + blocksX[i]) >> 4, (z + blocksZ[i]) >> 4));
+					}
+					blocksToSpawn[blocksToSpawnCount++] = i;
 				}
-			} else {
-				chunks.add(ChunkCoordinate.fromBlockCoords(x + block.x, z + block.z));
-				blocksToSpawn.add(block);
+				oeh.addBlock(i, blocksY[i]);
 			}
-			if (block instanceof BO3BlockFunction)
+
+			// Call event
+			//if (!worldGenRegion.fireCanCustomObjectSpawnEvent(this, x, y, z))
 			{
-				oeh.addBlock((BO3BlockFunction) block);
+				// Cancelled
+				//return false;
 			}
-		}
 
-		// Call event
-		//if (!worldGenRegion.fireCanCustomObjectSpawnEvent(this, x, y, z))
+			spawnBlocks(worldGenRegion, random, rotationId, x, y, z, blocksToSpawn, blocksToSpawnCount, doReplaceBlocks(), false);
+			oeh.extrude(worldGenRegion, random, this.settings, rotationId, x, y, z, doReplaceBlocks(), false);
+			handleBO3Functions(structure, structureCache, worldGenRegion, random, rotation, x, y, z, chunks);
+		}
+		finally
 		{
-			// Cancelled
-			//return false;
+			buffers.release();
 		}
 
+		return true;
+	}
+
+	private void spawnBlocks(IWorldGenRegion worldGenRegion, Random random, int rotationId, int x, int y, int z, int[] blocksToSpawn, int blocksToSpawnCount, boolean replaceBlock, boolean forceSpawn)
+	{
+		byte[] blocksX = this.settings.getBlocksX(rotationId);
+		short[] blocksY = this.settings.getBlocksY(rotationId);
+		byte[] blocksZ = this.settings.getBlocksZ(rotationId);
 		ReplaceBlockMatrix replaceBlocks = null;
 		int lastX = Integer.MIN_VALUE;
-		int lastZ = Integer.MIN_VALUE;		
-		for (BO3BlockFunction block : blocksToSpawn)
+		int lastZ = Integer.MIN_VALUE;
+		int index;
+		for (int i = 0; i < blocksToSpawnCount; i++)
 		{
-			if(doReplaceBlocks())
+			index = blocksToSpawn[i];
+			if(replaceBlock && (lastX != x + blocksX[index] || lastZ != z + blocksZ[index]))
 			{
-				if(lastX != x + block.x || lastZ != z + block.z)
-				{
-					replaceBlocks = worldGenRegion.getBiomeConfigForDecoration(x + block.x, z + block.z).getReplaceBlocks();
-					lastX = x + block.x;
-					lastZ = z + z + block.z;					
-				}				
-				block.spawn(worldGenRegion, random, x + block.x, y + block.y, z + block.z, replaceBlocks);
-			} else {
-				block.spawn(worldGenRegion, random, x + block.x, y + block.y, z + block.z);
+				// TODO: Calculate area required and fetch biome data for whole chunks instead of per column.
+				replaceBlocks = forceSpawn ? 
+					worldGenRegion.getCachedBiomeProvider().getBiomeConfig(x + blocksX[index], z + blocksZ[index], true).getReplaceBlocks() :
+					worldGenRegion.getBiomeConfigForDecoration(x + blocksX[index], z + blocksZ[index]).getReplaceBlocks()
+				;
+				lastX = x + blocksX[index];
+				lastZ = z + blocksZ[index];
 			}
+			this.settings.spawnBlock(rotationId, index, worldGenRegion, random, x + blocksX[index], y + blocksY[index], z + blocksZ[index], replaceBlock, replaceBlocks);
 		}
-		oeh.extrude(worldGenRegion, random, x, y, z, doReplaceBlocks(), false);
-		handleBO3Functions(structure, structureCache, worldGenRegion, random, rotation, x, y, z, chunks);
-
-		return true;
 	}
 
-	private void handleBO3Functions(CustomStructure structure, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, Rotation rotation, int x, int y, int z, HashSet<ChunkCoordinate> chunks)
+	private void handleBO3Functions(CustomStructure structure, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random random, Rotation rotation, int x, int y, int z, LongHashSet chunks)
 	{
-		HashSet<ChunkCoordinate> chunksCustomObject = new HashSet<ChunkCoordinate>();
-
 		// StructureCache can be null for non-otg worlds, when using /otg spawn/edit/export.
 		if (structure != null && structureCache != null)
 		{
-			for (ChunkCoordinate structureCoord : chunks)
-			{
-				structureCache.addBo3ToStructureCache(structureCoord, structure, true);
-			}
-		} else if (structureCache != null)  {
-			CustomStructure placeHolderStructure = new BO3CustomStructure(new BO3CustomStructureCoordinate(worldGenRegion.getPresetFolderName(), this, this.getName(), Rotation.NORTH, x, (short) 0, z));
-			for (ChunkCoordinate structureCoord : chunksCustomObject)
-			{
-				structureCache.addBo3ToStructureCache(structureCoord, placeHolderStructure, false);			
-			}
+			chunks.forEach(chunkKey -> structureCache.addBo3ToStructureCache(ChunkCoordinate.fromChunkCoords(MathHelper.getXFromLong(chunkKey), MathHelper.getZFromLong(chunkKey)), structure, true));
 		}
 
 		BO3EntityFunction[] entityDataInObject = this.settings.entityFunctions[rotation.getRotationId()];
@@ -540,4 +571,40 @@ public class BO3 implements StructuredCustomObject
 	{
 		return this.settings.doReplaceBlocks;
 	}
+
+	/**
+	 * Scratch buffers for spawning, reused per thread so spawn attempts
+	 * don't allocate. Spawning doesn't recurse, but if it ever does, the
+	 * nested spawn gets its own buffers.
+	 */
+	private static class SpawnBuffers
+	{
+		private static final ThreadLocal<SpawnBuffers> buffersPerThread = ThreadLocal.withInitial(SpawnBuffers::new);
+
+		private final LongHashSet chunks = new LongHashSet();
+		private final ObjectExtrusionHelper extrusionHelper = new ObjectExtrusionHelper();
+		private int[] blocksToSpawn = new int[256];
+		private boolean inUse;
+
+		static SpawnBuffers acquire(int blockCount)
+		{
+			SpawnBuffers buffers = buffersPerThread.get();
+			if(buffers.inUse)
+			{
+				buffers = new SpawnBuffers();
+			}
+			buffers.inUse = true;
+			buffers.chunks.clear();
+			if(buffers.blocksToSpawn.length < blockCount)
+			{
+				buffers.blocksToSpawn = new int[blockCount];
+			}
+			return buffers;
+		}
+
+		void release()
+		{
+			this.inUse = false;
+		}
+	}
 }
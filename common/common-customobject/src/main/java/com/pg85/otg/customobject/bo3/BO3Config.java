@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import com.pg85.otg.config.standard.WorldStandardValues;
 import com.pg85.otg.constants.SettingsEnums.ConfigMode;
 import com.pg85.otg.customobject.CustomObjectManager;
@@ -35,6 +36,8 @@ import com.pg85.otg.interfaces.ICustomObjectManager;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.interfaces.IMaterialReader;
 import com.pg85.otg.interfaces.IModLoadedChecker;
+import com.pg85.otg.interfaces.IWorldGenRegion;
+import com.pg85.otg.util.biome.ReplaceBlockMatrix;
 import com.pg85.otg.util.nbt.NamedBinaryTag;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.MaterialSet;
@@ -96,6 +99,10 @@ public class BO3Config extends CustomObjectConfigFile
 
 	BoundingBox[] boundingBoxes = new BoundingBox[4];
 
+	// Per rotation, the min x, y, z and max x, y, z of the blocks,
+	// relative to the object's origin. Null if there are no blocks.
+	private final int[][] blockBounds = new int[4][];
+
 	BO3EntityFunction[][] entityFunctions = new BO3EntityFunction[4][];
 
 	/*
@@ -315,6 +322,80 @@ public class BO3Config extends CustomObjectConfigFile
 		return blocksOTGPlus;
 	}
 
+	// Direct access to the block arrays for spawning, so BO3 doesn't
+	// have to create block functions for every block on every spawn.
+	// Metadata and random blocks are shared by all rotations.
+
+	int getBlockCount()
+	{
+		return this.blocksX[0].length;
+	}
+
+	byte[] getBlocksX(int rotation)
+	{
+		return this.blocksX[rotation];
+	}
+
+	short[] getBlocksY(int rotation)
+	{
+		return this.blocksY[rotation];
+	}
+
+	byte[] getBlocksZ(int rotation)
+	{
+		return this.blocksZ[rotation];
+	}
+
+	LocalMaterialData getBlockMaterial(int rotation, int index)
+	{
+		return this.blocksMaterial[rotation][index];
+	}
+
+	NamedBinaryTag getBlockMetaDataTag(int index)
+	{
+		return this.blocksMetaDataTag[index];
+	}
+
+	int[] getBlockBounds(int rotation)
+	{
+		return this.blockBounds[rotation];
+	}
+
+	/**
+	 * Spawns the block at the given index the same way its BO3BlockFunction
+	 * or BO3RandomBlockFunction would, see getBlocks.
+	 */
+	void spawnBlock(int rotation, int index, IWorldGenRegion worldGenRegion, Random random, int x, int y, int z, boolean replaceBlock, ReplaceBlockMatrix replaceBlocks)
+	{
+		LocalMaterialData[] randomBlocks = this.randomBlocksBlocks[rotation][index];
+		if (randomBlocks == null)
+		{
+			if (replaceBlock)
+			{
+				worldGenRegion.setBlock(x, y, z, this.blocksMaterial[rotation][index], this.blocksMetaDataTag[index], replaceBlocks);
+			} else {
+				worldGenRegion.setBlock(x, y, z, this.blocksMaterial[rotation][index], this.blocksMetaDataTag[index]);
+			}
+			return;
+		}
+
+		byte[] blockChances = this.randomBlocksBlockChances[index];
+		NamedBinaryTag[] metaDataTags = this.randomBlocksMetaDataTags[index];
+		for (int i = 0; i < this.randomBlocksBlockCount[index]; i++)
+		{
+			if (random.nextInt(100) < blockChances[i])
+			{
+				if (replaceBlock)
+				{
+					worldGenRegion.setBlock(x, y, z, randomBlocks[i], metaDataTags[i], replaceBlocks);
+				} else {
+					worldGenRegion.setBlock(x, y, z, randomBlocks[i], metaDataTags[i]);
+				}
+				break;
+			}
+		}
+	}
+
 	protected BO3BranchFunction[] getbranches()
 	{
 		return this.branches[0];
@@ -689,6 +770,30 @@ public class BO3Config extends CustomObjectConfigFile
 				this.entityFunctions[i][j] = this.entityFunctions[i - 1][j].rotate();
 			}
 		}
+
+		for (int i = 0; i < 4; i++)
+		{
+			this.blockBounds[i] = calculateBlockBounds(i);
+		}
+	}
+
+	private int[] calculateBlockBounds(int rotation)
+	{
+		if (this.blocksX[rotation].length == 0)
+		{
+			return null;
+		}
+		int[] bounds = { Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE };
+		for (int i = 0; i < this.blocksX[rotation].length; i++)
+		{
+			bounds[0] = Math.min(bounds[0], this.blocksX[rotation][i]);
+			bounds[1] = Math.min(bounds[1], this.blocksY[rotation][i]);
+			bounds[2] = Math.min(bounds[2], this.blocksZ[rotation][i]);
+			bounds[3] = Math.max(bounds[3], this.blocksX[rotation][i]);
+			bounds[4] = Math.max(bounds[4], this.blocksY[rotation][i]);
+			bounds[5] = Math.max(bounds[5], this.blocksZ[rotation][i]);
+		}
+		return bounds;
 	}
 
 	boolean parseModChecks(IModLoadedChecker modLoadedChecker)
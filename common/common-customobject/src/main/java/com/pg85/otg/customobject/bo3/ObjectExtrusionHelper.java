@@ -1,16 +1,20 @@
 package com.pg85.otg.customobject.bo3;
 
-import com.pg85.otg.customobject.bo3.bo3function.BO3BlockFunction;
 import com.pg85.otg.customobject.util.BO3Enums.ExtrudeMode;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.IWorldGenRegion;
+import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.MaterialSet;
+import com.pg85.otg.util.nbt.NamedBinaryTag;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
  * This class aids in the task of finding the blocks at the top or bottom of a collection of blocks
+ *
+ * Blocks are tracked by their index in the BO3Config's block arrays, and instances are reset and
+ * reused for each spawn, so extruding doesn't allocate.
  */
 class ObjectExtrusionHelper
 {
@@ -31,22 +35,24 @@ class ObjectExtrusionHelper
 	private MaterialSet extrudeThroughBlocks;
 
 	/**
-	 * These blocks are the blocks that are found to be at the location dictated by the extrudeMode, and will be
+	 * The indices of the blocks that are found to be at the location dictated by the extrudeMode, and will be
 	 * extruded until hitting a material not listed in extrudeThroughBlocks
 	 */
-	private ArrayList<BO3BlockFunction> blocksToExtrude = new ArrayList<BO3BlockFunction>();
+	private int[] blocksToExtrude = new int[16];
+	private int blocksToExtrudeCount;
 
 	/**
-	 * Constructor
+	 * Prepares this helper for spawning an object.
 	 *
 	 * @param extrudeMode		  The style of extrusion to perform
 	 * @param extrudeThroughBlocks The types of materials to allow extrusion to act upon
 	 */
-	ObjectExtrusionHelper(ExtrudeMode extrudeMode, MaterialSet extrudeThroughBlocks)
+	void reset(ExtrudeMode extrudeMode, MaterialSet extrudeThroughBlocks)
 	{
 		this.extrudeMode = extrudeMode;
 		this.extrudeThroughBlocks = extrudeThroughBlocks;
-		blockExtrusionY = extrudeMode.getStartingHeight();
+		this.blockExtrusionY = extrudeMode.getStartingHeight();
+		this.blocksToExtrudeCount = 0;
 	}
 
 	/**
@@ -54,24 +60,29 @@ class ObjectExtrusionHelper
 	 * otherwise, nothing happens. Any blocks added to the list that are on a level not optimal to the current level
 	 * will be purged to create the optimal list of blocks to extrude
 	 *
-	 * @param block The block to add.
+	 * @param index  The index of the block in the BO3Config's block arrays.
+	 * @param blockY The y of the block, relative to the object.
 	 */
-	void addBlock(BO3BlockFunction block)
+	void addBlock(int index, int blockY)
 	{
-		if (extrudeMode != ExtrudeMode.None)
+		if (this.extrudeMode != ExtrudeMode.None)
 		{
-			if (extrudeMode == ExtrudeMode.BottomDown && block.y < blockExtrusionY)
+			if (this.extrudeMode == ExtrudeMode.BottomDown && blockY < this.blockExtrusionY)
 			{
-				blocksToExtrude.clear();
-				blockExtrusionY = block.y;
-			} else if (extrudeMode == ExtrudeMode.TopUp && block.y > blockExtrusionY)
+				this.blocksToExtrudeCount = 0;
+				this.blockExtrusionY = blockY;
+			} else if (this.extrudeMode == ExtrudeMode.TopUp && blockY > this.blockExtrusionY)
 			{
-				blocksToExtrude.clear();
-				blockExtrusionY = block.y;
+				this.blocksToExtrudeCount = 0;
+				this.blockExtrusionY = blockY;
 			}
-			if (block.y == blockExtrusionY)
+			if (blockY == this.blockExtrusionY)
 			{
-				blocksToExtrude.add(block);
+				if (this.blocksToExtrudeCount == this.blocksToExtrude.length)
+				{
+					this.blocksToExtrude = Arrays.copyOf(this.blocksToExtrude, this.blocksToExtrude.length * 2);
+				}
+				this.blocksToExtrude[this.blocksToExtrudeCount++] = index;
 			}
 		}
 	}
@@ -82,41 +93,56 @@ class ObjectExtrusionHelper
 	 *
 	 * @param worldGenRegion  The LocalWorld to extrude block in
 	 * @param random The random generator to use to spawning
+	 * @param config The config of the BO3 being spawned
+	 * @param rotation The rotation id the BO3 is spawned with
 	 * @param x	  The BO3 base X spawn location
 	 * @param y	  The BO3 base Y spawn location
 	 * @param z	  The BO3 base Z spawn location
 	 */
-	void extrude(IWorldGenRegion worldGenRegion, Random random, int x, int y, int z, boolean replaceBlock, boolean forceSpawn)
+	void extrude(IWorldGenRegion worldGenRegion, Random random, BO3Config config, int rotation, int x, int y, int z, boolean replaceBlock, boolean forceSpawn)
 	{
-		for (BO3BlockFunction block : blocksToExtrude)
+		byte[] blocksX = config.getBlocksX(rotation);
+		short[] blocksY = config.getBlocksY(rotation);
+		byte[] blocksZ = config.getBlocksZ(rotation);
+		int index;
+		int blockX;
+		int blockZ;
+		LocalMaterialData material;
+		NamedBinaryTag nbt;
+		for (int i = 0; i < this.blocksToExtrudeCount; i++)
 		{
+			index = this.blocksToExtrude[i];
+			blockX = x + blocksX[index];
+			blockZ = z + blocksZ[index];
+			material = config.getBlockMaterial(rotation, index);
+			nbt = config.getBlockMetaDataTag(index);
 			// TODO: Calculate area required and fetch biome data for whole chunks instead of per column.
-			IBiomeConfig biomeConfig = forceSpawn ? worldGenRegion.getCachedBiomeProvider().getBiomeConfig(x + block.x, z + block.z, true) : worldGenRegion.getBiomeConfigForDecoration(x + block.x, z + block.z);
-			if (extrudeMode == ExtrudeMode.BottomDown)
+			IBiomeConfig biomeConfig = forceSpawn ? worldGenRegion.getCachedBiomeProvider().getBiomeConfig(blockX, blockZ, true) : worldGenRegion.getBiomeConfigForDecoration(blockX, blockZ);
+			if (this.extrudeMode == ExtrudeMode.BottomDown)
 			{
-				for (int yi = y + block.y - 1;
-					 yi > extrudeMode.getEndingHeight() && extrudeThroughBlocks.contains(worldGenRegion.getMaterial(x + block.x, yi, z + block.z));
+				for (int yi = y + blocksY[index] - 1;
+					 yi > this.extrudeMode.getEndingHeight() && this.extrudeThroughBlocks.contains(worldGenRegion.getMaterial(blockX, yi, blockZ));
 					 --yi)
 				{
 					if(replaceBlock)
 					{
-						worldGenRegion.setBlock(x + block.x, yi, z + block.z, block.material, block.nbt, biomeConfig.getReplaceBlocks());
+						worldGenRegion.setBlock(blockX, yi, blockZ, material, nbt, biomeConfig.getReplaceBlocks());
 					} else {
-						worldGenRegion.setBlock(x + block.x, yi, z + block.z, block.material, block.nbt);
+						worldGenRegion.setBlock(blockX, yi, blockZ, material, nbt);
 					}
 				}
 			}
-			else if (extrudeMode == ExtrudeMode.TopUp)
+			else if (this.extrudeMode == ExtrudeMode.TopUp)
 			{
-				for (int yi = y + block.y + 1;
-					 yi < extrudeMode.getEndingHeight() && extrudeThroughBlocks.contains(worldGenRegion.getMaterial(x + block.x, yi, z + block.z));
+				for (int yi = y + blocksY[index] + 1;
+					 yi < this.extrudeMode.getEndingHeight() && this.extrudeThroughBlocks.contains(worldGenRegion.getMaterial(blockX, yi, blockZ));
 					 ++yi)
 				{
 					if(replaceBlock)
 					{
-						worldGenRegion.setBlock(x + block.x, yi, z + block.z, block.material, block.nbt, biomeConfig.getReplaceBlocks());
+						worldGenRegion.setBlock(blockX, yi, blockZ, material, nbt, biomeConfig.getReplaceBlocks());
 					} else {
-						worldGenRegion.setBlock(x + block.x, yi, z + block.z, block.material, block.nbt);
+						worldGenRegion.setBlock(blockX, yi, blockZ, material, nbt);
 					}
 				}
 			}
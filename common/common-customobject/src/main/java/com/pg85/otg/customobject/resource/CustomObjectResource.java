@@ -20,8 +20,10 @@ import java.util.Random;
 
 public class CustomObjectResource extends BiomeResourceBase implements ICustomObjectResource
 {	
-	private final List<CustomObject> objects;
 	private final List<String> objectNames;
+	// Loaded on first use, the list is only published when complete 
+	// since chunks may be decorated on multiple threads.
+	private volatile List<CustomObject> objects;
 
 	public CustomObjectResource(IBiomeConfig biomeConfig, List<String> args, ILogger logger, IMaterialReader materialReader) throws InvalidConfigException
 	{
@@ -32,7 +34,6 @@ public class CustomObjectResource extends BiomeResourceBase implements ICustomOb
 			args = new ArrayList<String>();
 			args.add("UseWorld");
 		}
-		this.objects = new ArrayList<CustomObject>();
 		this.objectNames = new ArrayList<String>();
 		for (String arg : args)
 		{
@@ -54,16 +55,19 @@ public class CustomObjectResource extends BiomeResourceBase implements ICustomOb
 	
 	private List<CustomObject> getObjects(String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		if(this.objects.isEmpty() && !this.objectNames.isEmpty())
+		List<CustomObject> objects = this.objects;
+		if(objects == null)
 		{
+			objects = new ArrayList<CustomObject>(this.objectNames.size());
 			CustomObject object;
 			for (int i = 0; i < this.objectNames.size(); i ++)
 			{
 				object = customObjectManager.getGlobalObjects().getObjectByName(this.objectNames.get(i), presetFolderName, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-				this.objects.add(object);				  	
+				objects.add(object);				  	
 			}
+			this.objects = objects;
 		}
-		return this.objects;
+		return objects;
 	}
 	
 	@Override
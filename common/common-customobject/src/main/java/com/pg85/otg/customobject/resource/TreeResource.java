@@ -28,7 +28,7 @@ public class TreeResource extends BiomeResourceBase implements ICustomObjectReso
 	private CustomObject[] treeObjects;
 	private int[] treeObjectMinChances;
 	private int[] treeObjectMaxChances;
-	private boolean treesLoaded = false;
+	private volatile boolean treesLoaded = false;
 	private final boolean useExtendedParams;	
 	private final int maxSpawn;
 
@@ -102,12 +102,21 @@ public class TreeResource extends BiomeResourceBase implements ICustomObjectReso
 	}
 	
 	// TODO: Could this cause problems for developer mode / flushcache, trees not updating during a session?
+	// Chunks may be decorated on multiple threads, treesLoaded is only set once the trees 
+	// have been loaded, so other threads never see partially loaded trees.
 	private void loadTrees(String presetFolderName, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		if(!this.treesLoaded)
+		if(this.treesLoaded)
 		{
-			this.treesLoaded = true;
-			
+			return;
+		}
+		synchronized(this)
+		{
+			if(this.treesLoaded)
+			{
+				return;
+			}
+
 			this.treeObjects = new CustomObject[this.treeNames.size()];
 			this.treeObjectMinChances = new int[this.treeNames.size()];
 			this.treeObjectMaxChances = new int[this.treeNames.size()];
@@ -167,6 +176,7 @@ public class TreeResource extends BiomeResourceBase implements ICustomObjectReso
 					}
 				}
 			}
+			this.treesLoaded = true;
 		}
 	}
 
@@ -19,7 +19,8 @@ import com.pg85.otg.interfaces.IModLoadedChecker;
 import com.pg85.otg.interfaces.IStructuredCustomObject;
 import com.pg85.otg.interfaces.IWorldGenRegion;
 import com.pg85.otg.util.ChunkCoordinate;
-import com.pg85.otg.util.FifoMap;
+import com.pg85.otg.util.LongKeyedCache;
+import com.pg85.otg.util.helpers.MathHelper;
 import com.pg85.otg.util.helpers.RandomHelper;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
@@ -27,9 +28,12 @@ import com.pg85.otg.util.logging.LogLevel;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 // TODO: spawners/particles/moddata for customobjects also use this, so not just structures. refactor?
 /**
@@ -37,13 +41,26 @@ import java.util.Random;
  */
 public class CustomStructureCache
 {
+	// Max number of regions kept in memory, least recently used regions 
+	// are unloaded after saving when there are more.
+	private static final int MAX_RESIDENT_REGIONS = 64;
+
 	private final Path worldSaveDir;
 	private final boolean isBO4Enabled;
 	private final String presetFolderName;
 	private final long worldSeed;
+
+	// Used to load regions on demand
+	private final Path otgRootFolder;
+	private final ILogger logger;
+	private final CustomObjectManager customObjectManager;
+	private final IMaterialReader materialReader;
+	private final CustomObjectResourcesManager manager;
+	private final IModLoadedChecker modLoadedChecker;
 	
 	// BO3
-	private FifoMap<ChunkCoordinate, BO3CustomStructure> bo3StructureCache;
+	// Keyed by MathHelper.toLong(chunkX, chunkZ)
+	private final LongKeyedCache<BO3CustomStructure> bo3StructureCache;
 	
 	// BO4
 	
@@ -58,58 +75,103 @@ public class CustomStructureCache
 	// WorldInfoChunks is persisted to disk, the bo4 plotter's structurecache (of plotted but
 	// not yet decorated branches) is assembled from WorldInfoChunks when loaded from disk.
 	// WorldInfoChunks is used as little as possible, due to its size and slowness.
-	private Map<ChunkCoordinate, StructureDataRegion> worldInfoChunks;
+	// Regions are loaded from disk the first time they're used, see ensureRegionLoaded.
+	private final Map<ChunkCoordinate, StructureDataRegion> worldInfoChunks;
+
+	// Regions that have been loaded from disk (or had nothing to load), with the time they were last used.
+	private final Map<ChunkCoordinate, ResidentRegion> residentRegions = new ConcurrentHashMap<ChunkCoordinate, ResidentRegion>();
+	private final Object regionLoadingLock = new Object();
+	// Held for reading while a region is loaded and used, and for writing while regions are
+	// unloaded, so a region can't be unloaded between being made resident and being used.
+	private final ReentrantReadWriteLock regionsLock = new ReentrantReadWriteLock();
+
+	private static class ResidentRegion
+	{
+		private volatile long lastUsed;
+	}
+
+	// Saving serialises dirty regions while decoration is paused, compressing
+	// and writing the files is done in the background by the data writer.
+	private final StructureDataWriter dataWriter = new StructureDataWriter();
 	
 	public CustomStructureCache(String presetFolderName, Path worldSaveDir, long worldSeed, boolean isBO4Enabled, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		this.worldInfoChunks = new HashMap<ChunkCoordinate, StructureDataRegion>();
-		this.plotter = new CustomStructurePlotter();
-		this.bo3StructureCache = new FifoMap<ChunkCoordinate, BO3CustomStructure>(400);
+		this.worldInfoChunks = new ConcurrentHashMap<ChunkCoordinate, StructureDataRegion>();
+		this.plotter = new CustomStructurePlotter(this::ensureRegionLoaded, this.regionsLock.readLock());
+		this.bo3StructureCache = new LongKeyedCache<BO3CustomStructure>(400, Runtime.getRuntime().availableProcessors());
 		this.worldSaveDir = worldSaveDir;
 		this.isBO4Enabled = isBO4Enabled;
 		this.presetFolderName = presetFolderName;
 		this.worldSeed = worldSeed;
-		loadStructureCache(otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+		this.otgRootFolder = otgRootFolder;
+		this.logger = logger;
+		this.customObjectManager = customObjectManager;
+		this.materialReader = materialReader;
+		this.manager = manager;
+		this.modLoadedChecker = modLoadedChecker;
+		loadStructureCache(logger);
 	}
 	
 	// WorldInfoChunks
 	
 	private boolean worldInfoChunksContainsKey(ChunkCoordinate chunkCoordinate)
 	{
-		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();		
-		StructureDataRegion chunkRegion = worldInfoChunks.get(regionCoord);
-		return chunkRegion != null && chunkRegion.getStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ()) != null;
+		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
+		this.regionsLock.readLock().lock();
+		try
+		{
+			ensureRegionLoaded(regionCoord);
+			StructureDataRegion chunkRegion = worldInfoChunks.get(regionCoord);
+			return chunkRegion != null && chunkRegion.getStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ()) != null;
+		} finally {
+			this.regionsLock.readLock().unlock();
+		}
 	}
 	
 	private CustomStructure getFromWorldInfoChunks(ChunkCoordinate chunkCoordinate)
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
-		StructureDataRegion chunkRegion = this.worldInfoChunks.get(regionCoord);
-		if(chunkRegion != null)
+		this.regionsLock.readLock().lock();
+		try
 		{
-			return chunkRegion.getStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+			ensureRegionLoaded(regionCoord);
+			StructureDataRegion chunkRegion = this.worldInfoChunks.get(regionCoord);
+			if(chunkRegion != null)
+			{
+				return chunkRegion.getStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+			}
+			return null;
+		} finally {
+			this.regionsLock.readLock().unlock();
 		}
-		return null;
 	}
 	
 	private void addToWorldInfoChunks(CustomStructure structure, ChunkCoordinate chunkCoordinate, boolean requiresSave)
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
-		StructureDataRegion chunkRegion = this.worldInfoChunks.get(regionCoord);
-		if(chunkRegion == null)
+		this.regionsLock.readLock().lock();
+		try
 		{
-			chunkRegion = new StructureDataRegion();
-			this.worldInfoChunks.put(regionCoord, chunkRegion);
+			ensureRegionLoaded(regionCoord);
+			StructureDataRegion chunkRegion = this.worldInfoChunks.computeIfAbsent(regionCoord, key -> new StructureDataRegion());
+			chunkRegion.setStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ(), structure, requiresSave);
+		} finally {
+			this.regionsLock.readLock().unlock();
 		}
-		chunkRegion.setStructure(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ(), structure, requiresSave);
 	}
 
 	public void markRegionForSaving(ChunkCoordinate regionCoordinate)
 	{
-		StructureDataRegion region = this.worldInfoChunks.get(regionCoordinate);
-		if(region != null)
+		this.regionsLock.readLock().lock();
+		try
 		{
-			region.markSaveRequired();
+			StructureDataRegion region = this.worldInfoChunks.get(regionCoordinate);
+			if(region != null)
+			{
+				region.markSaveRequired();
+			}
+		} finally {
+			this.regionsLock.readLock().unlock();
 		}
 	}
 	
@@ -150,8 +212,8 @@ public class CustomStructureCache
 
 	public BO3CustomStructure getBo3StructureStart(IWorldGenRegion worldGenRegion, Random worldRandom, int chunkX, int chunkZ, Path otgRootFolder, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		ChunkCoordinate chunkCoord = ChunkCoordinate.fromChunkCoords(chunkX, chunkZ);
-		BO3CustomStructure structureStart = bo3StructureCache.get(chunkCoord);
+		long chunkKey = MathHelper.toLong(chunkX, chunkZ);
+		BO3CustomStructure structureStart = this.bo3StructureCache.get(chunkKey);
 
 		if (structureStart != null)
 		{
@@ -173,11 +235,11 @@ public class CustomStructureCache
 			if (customObject != null)
 			{
 				structureStart = new BO3CustomStructure(worldGenRegion, customObject, otgRootFolder, customObjectManager, materialReader, manager, modLoadedChecker);
-				bo3StructureCache.put(chunkCoord, structureStart);
+				this.bo3StructureCache.put(chunkKey, structureStart);
 				return structureStart;
 			}
 		}
-		bo3StructureCache.put(chunkCoord, new BO3CustomStructure(null));
+		this.bo3StructureCache.put(chunkKey, new BO3CustomStructure(null));
 		return null;
 	}
 	
@@ -229,6 +291,12 @@ public class CustomStructureCache
 		addToWorldInfoChunks(chunkCoord, structure, true);
 	}
 
+	// Used while calculating branches
+	public void checkBo4PlottingRange(ChunkCoordinate plottedChunk, ChunkCoordinate chunkCoord, int margin, String structureName)
+	{
+		this.plotter.checkPlottingRange(plottedChunk, chunkCoord, margin, structureName);
+	}
+
 	// Only used by other resources like lakes 
 	public boolean isBo4ChunkOccupied(ChunkCoordinate chunkCoord)
 	{
@@ -262,79 +330,147 @@ public class CustomStructureCache
 	public void saveToDisk(ILogger logger, IChunkDecorator chunkPopulator)
 	{
 		logger.log(LogLevel.INFO, LogCategory.MAIN, "Saving structure and pregenerator data.");
-		boolean firstLog = false;
-		long starTime = System.currentTimeMillis();
-		while(true)
+		// Wait for chunks being decorated, and block decoration until saving is done.
+		chunkPopulator.beginSave(logger);
+		try
 		{
-			// TODO: Make this prettier
-			synchronized(chunkPopulator.getLockingObject())
-			{
-				if(!chunkPopulator.isDecorating())
-				{
-					chunkPopulator.beginSave();
-					break;
-				}
-			}
-			if(firstLog)
-			{
-				logger.log(LogLevel.WARN, LogCategory.MAIN, "SaveToDisk waiting on Populate. Although other mods could be causing this and there may not be any problem, this can potentially cause an endless loop!");
-				firstLog = false;
-			}
-			int interval = 300;
-			if(System.currentTimeMillis() - starTime > (interval * 1000))
-			{
-				logger.log(LogLevel.FATAL, LogCategory.MAIN, "SaveToDisk waited on decorate longer than " + interval + " seconds, something went wrong!");
-				throw new RuntimeException("SaveToDisk waited on decorate longer than " + interval + " seconds, something went wrong!");
-			}
+			saveStructureCache(logger);
+			unloadRegions(logger);
+		} finally {
+			chunkPopulator.endSave(logger);
 		}
+		logger.log(LogLevel.INFO, LogCategory.MAIN, "Structure and pregenerator data queued for saving (" + this.dataWriter.getPendingWrites() + " files pending).");
+	}
 
-		saveStructureCache(logger);
-
-		synchronized(chunkPopulator.getLockingObject())
-		{
-			chunkPopulator.endSave();
-		}
-		logger.log(LogLevel.INFO, LogCategory.MAIN, "Structure and pregenerator data saved.");
+	/**
+	 * Blocks until all structure data queued by saveToDisk has been written,
+	 * should be called before the world is unloaded.
+	 */
+	public void waitForPendingSaves(ILogger logger)
+	{
+		this.dataWriter.flush(logger);
 	}
 
 	private void saveStructureCache(ILogger logger)
 	{
-		CustomStructureFileManager.saveStructureData(this.worldInfoChunks, this.presetFolderName, this.worldSaveDir, logger);
+		CustomStructureFileManager.saveStructureData(this.worldInfoChunks, this.presetFolderName, this.worldSaveDir, this.dataWriter, logger);
 		
 		if(this.isBO4Enabled)
 		{
-			plotter.saveStructureCache(this.worldSaveDir, this.presetFolderName, this.isBO4Enabled, logger);
+			plotter.saveStructureCache(this.worldSaveDir, this.presetFolderName, this.isBO4Enabled, this.dataWriter, logger);
 		}
 	}
 
-	private void loadStructureCache(Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
-	{		
+	private void loadStructureCache(ILogger logger)
+	{
 		logger.log(LogLevel.INFO, LogCategory.MAIN, "Loading structures and pre-generator data");
 
-		this.worldInfoChunks = new HashMap<ChunkCoordinate, StructureDataRegion>();
-		
-		Map<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructures = CustomStructureFileManager.loadStructureData(this.presetFolderName, this.worldSaveDir, this.worldSeed, this.isBO4Enabled, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-		if(loadedStructures != null)
+		// Structure data and plotted chunks are loaded per region when they're first used.
+		if(this.isBO4Enabled)
 		{
-			if(this.isBO4Enabled)
-			{
-				this.plotter.loadStructureCache(this.worldSaveDir, this.presetFolderName, this.isBO4Enabled, loadedStructures, logger);
-			}
+			this.plotter.loadSpawnedStructures(this.worldSaveDir, this.presetFolderName, this.isBO4Enabled, logger);
+		}
 
-			for(Entry<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructure : loadedStructures.entrySet())
+		logger.log(LogLevel.INFO, LogCategory.MAIN, "Loading done");
+	}
+
+	// Regions
+
+	// Callers must hold the regions read lock until they're done using the region.
+	private void ensureRegionLoaded(ChunkCoordinate regionCoord)
+	{
+		ResidentRegion residentRegion = this.residentRegions.get(regionCoord);
+		if(residentRegion == null)
+		{
+			synchronized(this.regionLoadingLock)
 			{
-				if(loadedStructure == null)
+				residentRegion = this.residentRegions.get(regionCoord);
+				if(residentRegion == null)
 				{
-					throw new RuntimeException("This shouldn't happen, please ask for help on the OTG Discord and/or file an issue on the OTG github.");
+					loadRegion(regionCoord);
+					residentRegion = new ResidentRegion();
+					this.residentRegions.put(regionCoord, residentRegion);
 				}
+			}
+		}
+		residentRegion.lastUsed = System.currentTimeMillis();
+	}
 
+	private void loadRegion(ChunkCoordinate regionCoord)
+	{
+		// Files for a region that was unloaded may still be queued for writing. Only
+		// this region's files are waited for, other regions can't be loaded meanwhile.
+		this.dataWriter.flush(CustomStructureFileManager.getRegionFiles(this.worldSaveDir, this.presetFolderName, regionCoord), this.logger);
+
+		Map<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructures = CustomStructureFileManager.loadStructureRegionData(regionCoord, this.presetFolderName, this.worldSaveDir, this.worldSeed, this.isBO4Enabled, this.otgRootFolder, this.logger, this.customObjectManager, this.materialReader, this.manager, this.modLoadedChecker);
+		if(loadedStructures != null)
+		{
+			for(Entry<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructure : loadedStructures.entrySet())
+			{
 				for(ChunkCoordinate chunkCoord : loadedStructure.getValue())
 				{
-					addToWorldInfoChunks(loadedStructure.getKey(), chunkCoord, false);
+					// Don't use addToWorldInfoChunks, the region isn't resident yet.
+					this.worldInfoChunks.computeIfAbsent(regionCoord, key -> new StructureDataRegion()).setStructure(chunkCoord.getRegionInternalX(), chunkCoord.getRegionInternalZ(), loadedStructure.getKey(), false);
 				}
 			}
 		}
+		if(this.isBO4Enabled)
+		{
+			this.plotter.loadRegion(regionCoord, loadedStructures, CustomStructureFileManager.loadPlottedChunksRegion(this.worldSaveDir, this.presetFolderName, regionCoord, this.logger));
+		}
+	}
 
-		logger.log(LogLevel.INFO, LogCategory.MAIN, "Loading done");
+	// Called while saving. Decoration is paused, but /otg spawn and structure data queries
+	// (spawners/particles/moddata) can still use regions, so those are held off by the
+	// regions write lock.
+	private void unloadRegions(ILogger logger)
+	{
+		this.regionsLock.writeLock().lock();
+		try
+		{
+			unloadRegionsLocked(logger);
+		} finally {
+			this.regionsLock.writeLock().unlock();
+		}
+	}
+
+	private void unloadRegionsLocked(ILogger logger)
+	{
+		int regionsToUnload = this.residentRegions.size() - MAX_RESIDENT_REGIONS;
+		if(regionsToUnload <= 0)
+		{
+			return;
+		}
+
+		List<Entry<ChunkCoordinate, ResidentRegion>> leastRecentlyUsed = new ArrayList<Entry<ChunkCoordinate, ResidentRegion>>(this.residentRegions.entrySet());
+		leastRecentlyUsed.sort((a, b) -> Long.compare(a.getValue().lastUsed, b.getValue().lastUsed));
+		int regionsUnloaded = 0;
+		for(Entry<ChunkCoordinate, ResidentRegion> entry : leastRecentlyUsed)
+		{
+			if(regionsUnloaded >= regionsToUnload)
+			{
+				break;
+			}
+			ChunkCoordinate regionCoord = entry.getKey();
+			StructureDataRegion structureDataRegion = this.worldInfoChunks.get(regionCoord);
+			if(
+				(structureDataRegion != null && structureDataRegion.requiresSave()) || 
+				(this.isBO4Enabled && this.plotter.isRegionSaveRequired(regionCoord))
+			)
+			{
+				continue;
+			}
+			this.residentRegions.remove(regionCoord);
+			this.worldInfoChunks.remove(regionCoord);
+			if(this.isBO4Enabled)
+			{
+				this.plotter.unloadRegion(regionCoord);
+			}
+			regionsUnloaded++;
+		}
+		if(logger.getLogCategoryEnabled(LogCategory.STRUCTURE_PLOTTING))
+		{
+			logger.log(LogLevel.INFO, LogCategory.STRUCTURE_PLOTTING, regionsUnloaded + " structure data regions unloaded, " + this.residentRegions.size() + " resident.");
+		}
 	}
 }
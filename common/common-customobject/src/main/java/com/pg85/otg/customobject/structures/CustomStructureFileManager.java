@@ -4,19 +4,17 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Stack;
 import java.util.Map.Entry;
+import java.util.zip.DataFormatException;
 
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.customobject.CustomObjectManager;
@@ -41,11 +39,28 @@ public class CustomStructureFileManager
 {
 	// Plotted chunks
 	
-	public static void savePlottedChunksData(Path worldSaveDir, String presetFolderName, Map<ChunkCoordinate, PlottedChunksRegion> decoratedChunks, ILogger logger)
+	// Plotted chunks are saved in shard files of PLOTTED_CHUNKS_SHARD_SIZE x PLOTTED_CHUNKS_SHARD_SIZE
+	// regions, each region has a fixed slot in its shard containing its bitset. Dirty regions 
+	// are written to their slot in place, chunks are never unmarked as plotted, so a partially 
+	// written slot still only contains valid data. Regions saved in the old format (one 
+	// compressed file per region) are loaded and moved to the shards when they're saved.
+	private static final int PLOTTED_CHUNKS_SHARD_SIZE_SHIFT = 5;
+	private static final int PLOTTED_CHUNKS_SHARD_SIZE = 1 << PLOTTED_CHUNKS_SHARD_SIZE_SHIFT;
+	private static final int PLOTTED_CHUNKS_SHARD_VERSION = 1;
+	private static final int PLOTTED_CHUNKS_SHARD_HEADER_SIZE = 16; // version, region size, shard size, unused
+	private static final int PLOTTED_CHUNKS_SLOT_SIZE = PlottedChunksRegion.WORDS * Long.BYTES;
+
+	public static void savePlottedChunksData(Path worldSaveDir, String presetFolderName, Map<ChunkCoordinate, PlottedChunksRegion> decoratedChunks, StructureDataWriter writer, ILogger logger)
 	{
 		int regionsSaved = 0;
 		if(decoratedChunks.size() > 0)
 		{
+			byte[] header = ByteBuffer.allocate(PLOTTED_CHUNKS_SHARD_HEADER_SIZE)
+				.putInt(PLOTTED_CHUNKS_SHARD_VERSION)
+				.putInt(Constants.REGION_SIZE)
+				.putInt(PLOTTED_CHUNKS_SHARD_SIZE)
+				.array()
+			;
 			for(Entry<ChunkCoordinate, PlottedChunksRegion> chunkPerRegionEntry : decoratedChunks.entrySet())
 			{
 				if(!chunkPerRegionEntry.getValue().requiresSave())
@@ -54,88 +69,35 @@ public class CustomStructureFileManager
 				}
 				chunkPerRegionEntry.getValue().markSaved();
 				regionsSaved++;
-				
-				File occupiedChunksFile = new File(
+
+				int regionX = chunkPerRegionEntry.getKey().getChunkX();
+				int regionZ = chunkPerRegionEntry.getKey().getChunkZ();
+				File shardFile = getPlottedChunksShardFile(worldSaveDir, presetFolderName, regionX >> PLOTTED_CHUNKS_SHARD_SIZE_SHIFT, regionZ >> PLOTTED_CHUNKS_SHARD_SIZE_SHIFT);
+				int slot = ((regionX & (PLOTTED_CHUNKS_SHARD_SIZE - 1)) << PLOTTED_CHUNKS_SHARD_SIZE_SHIFT) | (regionZ & (PLOTTED_CHUNKS_SHARD_SIZE - 1));
+				long position = PLOTTED_CHUNKS_SHARD_HEADER_SIZE + (long)slot * PLOTTED_CHUNKS_SLOT_SIZE;
+
+				ByteBuffer slotData = ByteBuffer.allocate(PLOTTED_CHUNKS_SLOT_SIZE);
+				slotData.asLongBuffer().put(chunkPerRegionEntry.getValue().getWords());
+
+				// Region files in the old format are deleted once the region is in its shard.
+				File legacyFile = new File(
 					worldSaveDir + File.separator + 
 					Constants.MOD_ID + File.separator + 
 					presetFolderName + File.separator +
 					Constants.PlottedChunksDataFolderName + File.separator +
-					chunkPerRegionEntry.getKey().getChunkX() + "_" +
-					chunkPerRegionEntry.getKey().getChunkZ() +
+					regionX + "_" + regionZ +
 					Constants.StructureDataFileExtension
 				);
-				File occupiedChunksBackupFile = new File(
+				File legacyBackupFile = new File(
 					worldSaveDir + File.separator + 
 					Constants.MOD_ID + File.separator + 
 					presetFolderName + File.separator +
 					Constants.PlottedChunksDataFolderName + File.separator +
-					chunkPerRegionEntry.getKey().getChunkX() + "_" +
-					chunkPerRegionEntry.getKey().getChunkZ() +					
+					regionX + "_" + regionZ +
 					Constants.StructureDataBackupFileExtension
 				);
-				
-				ByteArrayOutputStream bos = new ByteArrayOutputStream();
-				DataOutputStream dos = new DataOutputStream(bos);
-				
-				boolean[][] entriesByStructureName = chunkPerRegionEntry.getValue().getArray();
-				try
-				{
-					int version = 1;
-					dos.writeInt(version);
-					dos.writeInt(Constants.REGION_SIZE);
 
-					for(int x = 0; x < Constants.REGION_SIZE; x++)
-					{
-						boolean[] structureArr = entriesByStructureName[x];
-						for(int z = 0; z < Constants.REGION_SIZE; z++)
-						{
-							dos.writeBoolean(structureArr[z]);
-						}
-					}
-				} catch (IOException e1) {
-					e1.printStackTrace();
-					return;
-				}
-
-				DataOutputStream dos2 = null;
-				FileOutputStream fos = null;
-				try {
-					if(!occupiedChunksFile.exists())
-					{
-						occupiedChunksFile.getParentFile().mkdirs();
-					} else {
-						Files.move(occupiedChunksFile.toPath(), occupiedChunksBackupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-					}
-					byte[] compressedBytes = com.pg85.otg.util.CompressionUtils.compress(bos.toByteArray(), logger);
-					dos.close();
-					fos = new FileOutputStream(occupiedChunksFile);
-					dos2 = new DataOutputStream(fos);
-					dos2.write(compressedBytes, 0, compressedBytes.length);
-				}
-				catch (IOException e)
-				{
-					e.printStackTrace();
-					logger.log(LogLevel.ERROR, LogCategory.MAIN, "OTG encountered an error writing " + occupiedChunksFile.getAbsolutePath() + ", skipping.");
-				} finally {
-					try {
-						if(dos != null)
-						{
-							dos.close();
-						}
-					} catch (Exception e) { }
-					try {
-						if(dos2 != null)
-						{
-							dos2.close();
-						}
-					} catch (Exception e) { }
-					try {
-						if(fos != null)
-						{
-							fos.close();
-						}
-					} catch (Exception e) { }
-				}
+				writer.writeSlot(shardFile, header, position, slotData.array(), new File[] { legacyFile, legacyBackupFile }, logger);
 			}
 		}
 		
@@ -144,222 +106,187 @@ public class CustomStructureFileManager
 			logger.log(LogLevel.INFO, LogCategory.STRUCTURE_PLOTTING, regionsSaved + " plotted chunk regions saved.");
 		}
 	}
-	
-	public static Map<ChunkCoordinate, PlottedChunksRegion> loadPlottedChunksData(Path worldSaveDir, String presetFolderName, ILogger logger)
+
+	private static File getPlottedChunksShardFile(Path worldSaveDir, String presetFolderName, int shardX, int shardZ)
 	{
-		HashMap<ChunkCoordinate, PlottedChunksRegion> output = new HashMap<ChunkCoordinate, PlottedChunksRegion>();
-		
-		File occupiedChunksFolder = new File(
+		return new File(
 			worldSaveDir + File.separator + 
 			Constants.MOD_ID + File.separator + 
 			presetFolderName + File.separator +
-			Constants.PlottedChunksDataFolderName + File.separator
+			Constants.PlottedChunksShardsFolderName + File.separator +
+			shardX + "_" + shardZ +
+			Constants.PlottedChunksShardFileExtension
 		);
+	}
+
+	/**
+	 * Returns the files written by saveStructureData and savePlottedChunksData that are read when loading a region.
+	 */
+	static File[] getRegionFiles(Path worldSaveDir, String presetFolderName, ChunkCoordinate regionCoord)
+	{
+		return new File[] {
+			new File(
+				worldSaveDir + File.separator + 
+				Constants.MOD_ID + File.separator + 
+				presetFolderName + File.separator +
+				Constants.StructureDataFolderName + File.separator +
+				regionCoord.getChunkX() + "_" + regionCoord.getChunkZ() +
+				Constants.StructureDataFileExtension
+			),
+			getPlottedChunksShardFile(worldSaveDir, presetFolderName, regionCoord.getChunkX() >> PLOTTED_CHUNKS_SHARD_SIZE_SHIFT, regionCoord.getChunkZ() >> PLOTTED_CHUNKS_SHARD_SIZE_SHIFT)
+		};
+	}
+
+	/**
+	 * Loads the plotted chunks for a single region, returns null if nothing was saved for the region.
+	 */
+	public static PlottedChunksRegion loadPlottedChunksRegion(Path worldSaveDir, String presetFolderName, ChunkCoordinate regionCoord, ILogger logger)
+	{
+		// Regions in the old format are marked for saving when loaded, so they're moved to the shards.
+		PlottedChunksRegion region = loadLegacyPlottedChunksRegion(worldSaveDir, presetFolderName, regionCoord, logger);
 
-		HashMap<File, File> saveFiles = new HashMap<File, File>();
-		ArrayList<File> mainFiles = new ArrayList<File>();
-		ArrayList<File> backupFiles = new ArrayList<File>();
-		if(occupiedChunksFolder.exists())
+		int regionX = regionCoord.getChunkX();
+		int regionZ = regionCoord.getChunkZ();
+		File shardFile = getPlottedChunksShardFile(worldSaveDir, presetFolderName, regionX >> PLOTTED_CHUNKS_SHARD_SIZE_SHIFT, regionZ >> PLOTTED_CHUNKS_SHARD_SIZE_SHIFT);
+		if(!shardFile.exists())
 		{
-			for(File file : occupiedChunksFolder.listFiles())
+			return region;
+		}
+		int slot = ((regionX & (PLOTTED_CHUNKS_SHARD_SIZE - 1)) << PLOTTED_CHUNKS_SHARD_SIZE_SHIFT) | (regionZ & (PLOTTED_CHUNKS_SHARD_SIZE - 1));
+		long position = PLOTTED_CHUNKS_SHARD_HEADER_SIZE + (long)slot * PLOTTED_CHUNKS_SLOT_SIZE;
+
+		try(FileChannel channel = FileChannel.open(shardFile.toPath(), StandardOpenOption.READ))
+		{
+			long size = channel.size();
+			if(size < position + PLOTTED_CHUNKS_SLOT_SIZE)
 			{
-				if(
-					file.getPath().endsWith(Constants.StructureDataFileExtension) && 
-					file.getName().replace(Constants.StructureDataFileExtension, "").split("_").length == 2 &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.StructureDataFileExtension, "").split("_")[0]) &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.StructureDataFileExtension, "").split("_")[1])
-				) {
-					mainFiles.add(file);
-				}
-				else if(
-					file.getPath().endsWith(Constants.StructureDataBackupFileExtension) &&
-					file.getName().replace(Constants.BackupFileSuffix, "").split("_").length == 2 &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.BackupFileSuffix, "").split("_")[0]) &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.BackupFileSuffix, "").split("_")[1])
-				)
-				{
-					backupFiles.add(file);
-				}
+				// Slots past the end of the file haven't been written yet.
+				return region;
+			}
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, PLOTTED_CHUNKS_SHARD_HEADER_SIZE);
+			header.getInt(); // Version, not used atm.
+			int regionSize = header.getInt();
+			int shardSize = header.getInt();
+			if(regionSize != Constants.REGION_SIZE || shardSize != PLOTTED_CHUNKS_SHARD_SIZE)
+			{
+				logger.log(LogLevel.ERROR, LogCategory.MAIN, "PlottedChunks shard file " + shardFile.getAbsolutePath() + " was corrupted or exported with an incompatible version of OTG, ignoring.");
+				return region;
 			}
 
-			for(File file : mainFiles)
+			ByteBuffer slotData = channel.map(FileChannel.MapMode.READ_ONLY, position, PLOTTED_CHUNKS_SLOT_SIZE);
+			long[] words = new long[PlottedChunksRegion.WORDS];
+			slotData.asLongBuffer().get(words);
+			if(region == null)
 			{
-				boolean bFound = false;
-				for(File backupFile : backupFiles)
-				{
-					if(file.getPath().replace(Constants.StructureDataFileExtension, "").equals(backupFile.getPath().replace(Constants.StructureDataBackupFileExtension, "")))
-					{
-						saveFiles.put(file, backupFile);
-						bFound = true;
-						break;
-					}
-				}
-				if(!bFound)
-				{
-					saveFiles.put(file, null);
-				}
+				region = new PlottedChunksRegion(words, false);
+			} else {
+				region.merge(words);
 			}
 		}
-				
-		for(Entry<File, File> saveFile : saveFiles.entrySet())
+		catch (IOException ex)
 		{
-			boolean bSuccess = false;
-			File occupiedChunksFile = saveFile.getKey();
-			File occupiedChunksBackupFile = saveFile.getValue();
-				
-			if(
-				(occupiedChunksFile == null || !occupiedChunksFile.exists()) &&
-				(occupiedChunksBackupFile == null || !occupiedChunksBackupFile.exists())
-			)
+			ex.printStackTrace();
+			logger.log(LogLevel.ERROR, LogCategory.MAIN, "OTG encountered an error loading " + shardFile.getAbsolutePath() + ", skipping.");
+		}
+		return region;
+	}
+
+	private static PlottedChunksRegion loadLegacyPlottedChunksRegion(Path worldSaveDir, String presetFolderName, ChunkCoordinate regionCoord, ILogger logger)
+	{
+		File occupiedChunksFile = new File(
+			worldSaveDir + File.separator + 
+			Constants.MOD_ID + File.separator + 
+			presetFolderName + File.separator +
+			Constants.PlottedChunksDataFolderName + File.separator +
+			regionCoord.getChunkX() + "_" + regionCoord.getChunkZ() +
+			Constants.StructureDataFileExtension
+		);
+		File occupiedChunksBackupFile = new File(
+			worldSaveDir + File.separator + 
+			Constants.MOD_ID + File.separator + 
+			presetFolderName + File.separator +
+			Constants.PlottedChunksDataFolderName + File.separator +
+			regionCoord.getChunkX() + "_" + regionCoord.getChunkZ() +
+			Constants.StructureDataBackupFileExtension
+		);
+
+		if(!occupiedChunksFile.exists() && !occupiedChunksBackupFile.exists())
+		{
+			return null;
+		}
+
+		if(occupiedChunksFile.exists())
+		{
+			try
 			{
-				continue;
+				return parsePlottedChunksFileFromStream(readCompressedFile(occupiedChunksFile), logger);
 			}
-
-			ChunkCoordinate regionCoord = null;
-			
-			if(occupiedChunksFile != null && occupiedChunksFile.exists())
-			{			
-				FileInputStream fis = null;
-				PlottedChunksRegion result = null;
-				try {
-					String[] chunkCoords = occupiedChunksFile.getName().replace(Constants.StructureDataFileExtension, "").split("_");
-					int regionX = Integer.parseInt(chunkCoords[0]);
-					int regionZ = Integer.parseInt(chunkCoords[1]);
-					regionCoord = ChunkCoordinate.fromChunkCoords(regionX, regionZ);
-					
-					fis = new FileInputStream(occupiedChunksFile);			
-					ByteBuffer buffer = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, fis.getChannel().size());				
-					
-					byte[] compressedBytes = new byte[(int) fis.getChannel().size()];
-					buffer.get(compressedBytes);
-					byte[] decompressedBytes = com.pg85.otg.util.CompressionUtils.decompress(compressedBytes);
-					buffer = ByteBuffer.wrap(decompressedBytes);
-					result = parsePlottedChunksFileFromStream(buffer, logger);
-				}
-				catch (Exception ex)
-				{
-					ex.printStackTrace();
-					logger.log(LogLevel.WARN, LogCategory.MAIN, "Failed to load " + occupiedChunksFile.getAbsolutePath() + ", trying to load backup.");
-				} finally {
-					if(fis != null)
-					{
-						try {
-							fis.getChannel().close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-						try {
-							fis.close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-					}
-				}
-				if(result != null)
-				{
-					bSuccess = true;
-					output.put(regionCoord, result);
-				}
+			catch (Exception ex)
+			{
+				ex.printStackTrace();
+				logger.log(LogLevel.WARN, LogCategory.MAIN, "Failed to load " + occupiedChunksFile.getAbsolutePath() + ", trying to load backup.");
 			}
-			
-			if(!bSuccess && occupiedChunksBackupFile != null && occupiedChunksBackupFile.exists())
-			{			
-				FileInputStream fis = null;
-				PlottedChunksRegion result = null;
-				try {
-					String[] chunkCoords = occupiedChunksFile.getName().replace(Constants.StructureDataBackupFileExtension, "").split("_");
-					int regionX = Integer.parseInt(chunkCoords[0]);
-					int regionZ = Integer.parseInt(chunkCoords[1]);
-					regionCoord = ChunkCoordinate.fromChunkCoords(regionX, regionZ);
-					
-					fis = new FileInputStream(occupiedChunksBackupFile);			
-					ByteBuffer buffer = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, fis.getChannel().size());				
-					
-					byte[] compressedBytes = new byte[(int) fis.getChannel().size()];
-					buffer.get(compressedBytes);
-					byte[] decompressedBytes = com.pg85.otg.util.CompressionUtils.decompress(compressedBytes);
-					buffer = ByteBuffer.wrap(decompressedBytes);
-					result = parsePlottedChunksFileFromStream(buffer, logger);
-				}
-				catch (Exception ex)
-				{
-					ex.printStackTrace();
-				} finally {
-					if(fis != null)
-					{
-						try {
-							fis.getChannel().close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-						try {
-							fis.close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-					}
-				}
-				if(result != null)
-				{
-					bSuccess = true;
-					output.put(regionCoord, result);
-				}				
+		}
+
+		if(occupiedChunksBackupFile.exists())
+		{
+			try
+			{
+				return parsePlottedChunksFileFromStream(readCompressedFile(occupiedChunksBackupFile), logger);
 			}
-			
-			if(!bSuccess)
+			catch (Exception ex)
 			{
-				if(regionCoord != null)
-				{
-					output.put(regionCoord, PlottedChunksRegion.getFilledRegion());
-					logger.log(LogLevel.ERROR, LogCategory.MAIN,
-						"OTG encountered an error loading " + occupiedChunksFile.getAbsolutePath() + " and could not load a backup, substituting a default filled region. "
-						+ "This may result in areas with missing BO4's, smoothing areas, /otg structure info and spawners/particles/moddata."
-					);
-				} else {
-					logger.log(LogLevel.FATAL, LogCategory.MAIN,
-						"OTG encountered a critical error loading " + occupiedChunksFile.getAbsolutePath() + " and could not load a backup, exiting. "
-						+ "OTG automatically backs up files before writing and will try to use the backup when loading. "					
-						+ "If your dimension's structure data files and backups have been corrupted, you can delete them,"
-						+ "at the risk of losing data for unspawned structure parts."
-					);					
-					throw new RuntimeException(
-						"OTG encountered a critical error loading " + occupiedChunksFile.getAbsolutePath() + " and could not load a backup, exiting. "
-						+ "OTG automatically backs up files before writing and will try to use the backup when loading. "					
-						+ "If your dimension's structure data files and backups have been corrupted, you can delete them,"
-						+ "at the risk of losing data for unspawned structure parts."
-					);
-				}
+				ex.printStackTrace();
 			}
 		}
-		
-		return output.size() > 0 ? output : null;
+
+		logger.log(LogLevel.ERROR, LogCategory.MAIN,
+			"OTG encountered an error loading " + occupiedChunksFile.getAbsolutePath() + " and could not load a backup, substituting a default filled region. "
+			+ "This may result in areas with missing BO4's, smoothing areas, /otg structure info and spawners/particles/moddata."
+		);
+		return PlottedChunksRegion.getFilledRegion();
+	}
+
+	private static ByteBuffer readCompressedFile(File file) throws IOException, DataFormatException
+	{
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			byte[] compressedBytes = new byte[(int) channel.size()];
+			buffer.get(compressedBytes);
+			return ByteBuffer.wrap(com.pg85.otg.util.CompressionUtils.decompress(compressedBytes));
+		}
 	}
 	
 	private static PlottedChunksRegion parsePlottedChunksFileFromStream(ByteBuffer buffer, ILogger logger) throws IOException
 	{
 		buffer.getInt(); // Version, not used atm.		
 		int regionSize = buffer.getInt();
-		boolean[][] chunksMatrix = new boolean[Constants.REGION_SIZE][Constants.REGION_SIZE];
+		// Setting chunks marks the region for saving, so it's moved to the shards.
+		PlottedChunksRegion region = new PlottedChunksRegion();
 		if(regionSize == Constants.REGION_SIZE)
 		{		
 			for(int x = 0; x < regionSize; x++)
 			{
 				for(int z = 0; z < regionSize; z++)
 				{
-					chunksMatrix[x][z] = buffer.get() != 0;
+					if(buffer.get() != 0)
+					{
+						region.setChunk(x, z);
+					}
 				}
 			}
 		} else {
 			logger.log(LogLevel.ERROR, LogCategory.MAIN, "PlottedChunks region files were corrupted or exported with an incompatible version of OTG, ignoring.");
 			return PlottedChunksRegion.getFilledRegion();
 		}
-		return new PlottedChunksRegion(chunksMatrix);
+		return region;
 	}
 	
 	// Structure cache
 
 	// TODO: Since we're using regions, use short/byte for (internal) coords?
-	static void saveStructureData(Map<ChunkCoordinate, StructureDataRegion> worldInfoChunks, String presetFolderName, Path worldSaveDir, ILogger logger)
+	static void saveStructureData(Map<ChunkCoordinate, StructureDataRegion> worldInfoChunks, String presetFolderName, Path worldSaveDir, StructureDataWriter writer, ILogger logger)
 	{		
 		// Collect all structure start points (and chunks that have bo3's with spawners/moddata/particles in them)
 		// and group them by BO name (or "NULL" for bo3's with spawners/moddata/particles).
@@ -417,7 +344,7 @@ public class CustomStructureFileManager
 						}
 					}
 				}
-				saveStructuresRegionFile(worldSaveDir, presetFolderName, cachedRegion.getKey(), structuresPerRegion, logger);
+				saveStructuresRegionFile(worldSaveDir, presetFolderName, cachedRegion.getKey(), structuresPerRegion, writer, logger);
 			}
 		}
 		if(logger.getLogCategoryEnabled(LogCategory.STRUCTURE_PLOTTING))
@@ -426,7 +353,7 @@ public class CustomStructureFileManager
 		}
 	}
 
-	private static void saveStructuresRegionFile(Path worldSaveDir, String presetFolderName, ChunkCoordinate regionCoord, HashMap<String, HashMap<CustomStructure, ArrayList<ChunkCoordinate>>> structuresPerRegion, ILogger logger)
+	private static void saveStructuresRegionFile(Path worldSaveDir, String presetFolderName, ChunkCoordinate regionCoord, HashMap<String, HashMap<CustomStructure, ArrayList<ChunkCoordinate>>> structuresPerRegion, StructureDataWriter writer, ILogger logger)
 	{
 		File structuresRegionFile = new File(
 			worldSaveDir + File.separator + 
@@ -584,257 +511,68 @@ public class CustomStructureFileManager
 			return;
 		}
 			
-		DataOutputStream dos2 = null;
-		FileOutputStream fos = null;
-		try {
-			if(!structuresRegionFile.exists())
-			{
-				structuresRegionFile.getParentFile().mkdirs();
-			} else {
-				Files.move(structuresRegionFile.toPath(), structuresRegionBackupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-			}
-			byte[] compressedBytes = com.pg85.otg.util.CompressionUtils.compress(bos.toByteArray(), logger);
-			dos.close();
-			fos = new FileOutputStream(structuresRegionFile);
-			dos2 = new DataOutputStream(fos);
-			dos2.write(compressedBytes, 0, compressedBytes.length);
-		}
-		catch (IOException e)
-		{
-			logger.log(LogLevel.ERROR, LogCategory.MAIN, "OTG encountered an error writing " + structuresRegionFile.getAbsolutePath() + ", skipping. Exception:");
-			e.printStackTrace();			
-		} finally {
-			try {
-				if(dos != null)
-				{
-					dos.close();
-				}
-			} catch (Exception e) { }
-			try {
-				if(dos2 != null)
-				{
-					dos2.close();
-				}
-			} catch (Exception e) { }
-			try {
-				if(fos != null)
-				{
-					fos.close();
-				}
-			} catch (Exception e) { }
-		}
+		writer.write(structuresRegionFile, structuresRegionBackupFile, bos.toByteArray(), logger);
 	}
 	
-	// TODO: Load one region file at a time, on-demand, rather than loading all region files at once.
-	// Almost everything should be set up for it, auto-replacing CustomStructurePlaceHolders take care of most things?
-	static HashMap<CustomStructure, ArrayList<ChunkCoordinate>> loadStructureData(String presetFolderName, Path worldSaveDir, long worldSeed, boolean isBO4Enabled, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
+	/**
+	 * Loads the structure data for a single region, returns null if nothing was saved for the region.
+	 * Structures with their start in another region are loaded as CustomStructurePlaceHolders, 
+	 * containing only the data for this region.
+	 */
+	static HashMap<CustomStructure, ArrayList<ChunkCoordinate>> loadStructureRegionData(ChunkCoordinate regionCoord, String presetFolderName, Path worldSaveDir, long worldSeed, boolean isBO4Enabled, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		HashMap<CustomStructure, ArrayList<ChunkCoordinate>> output = new HashMap<CustomStructure, ArrayList<ChunkCoordinate>>();
-		
-		File structureDataFolder = new File(
+		File structureDataFile = new File(
 			worldSaveDir + File.separator + 
 			Constants.MOD_ID + File.separator + 
 			presetFolderName + File.separator +
-			Constants.StructureDataFolderName + File.separator
+			Constants.StructureDataFolderName + File.separator +
+			regionCoord.getChunkX() + "_" + regionCoord.getChunkZ() +
+			Constants.StructureDataFileExtension
 		);
-		
-		HashMap<File, File> saveFiles = new HashMap<File, File>();
-		ArrayList<File> mainFiles = new ArrayList<File>();
-		ArrayList<File> backupFiles = new ArrayList<File>();
-		if(structureDataFolder.exists())
+		File structureDataBackupFile = new File(
+			worldSaveDir + File.separator + 
+			Constants.MOD_ID + File.separator + 
+			presetFolderName + File.separator +
+			Constants.StructureDataFolderName + File.separator +
+			regionCoord.getChunkX() + "_" + regionCoord.getChunkZ() +
+			Constants.StructureDataBackupFileExtension
+		);
+
+		if(!structureDataFile.exists() && !structureDataBackupFile.exists())
 		{
-			for(File file : structureDataFolder.listFiles())
-			{
-				if(
-					file.getPath().endsWith(Constants.StructureDataFileExtension) && 
-					file.getName().replace(Constants.StructureDataFileExtension, "").split("_").length == 2 &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.StructureDataFileExtension, "").split("_")[0]) &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.StructureDataFileExtension, "").split("_")[1])
-				) {
-					mainFiles.add(file);
-				}
-				else if(
-					file.getPath().endsWith(Constants.StructureDataBackupFileExtension) &&
-					file.getName().replace(Constants.BackupFileSuffix, "").split("_").length == 2 &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.BackupFileSuffix, "").split("_")[0]) &&
-					MathHelper.tryParseInt(file.getName().replace(Constants.BackupFileSuffix, "").split("_")[1])
-				)
-				{
-					backupFiles.add(file);
-				}
-			}
-			for(File file : mainFiles)
-			{
-				boolean bFound = false;
-				for(File backupFile : backupFiles)
-				{
-					if(file.getPath().replace(Constants.StructureDataFileExtension, "").equals(backupFile.getPath().replace(Constants.StructureDataBackupFileExtension, "")))
-					{
-						saveFiles.put(file, backupFile);
-						bFound = true;
-						break;
-					}
-				}
-				if(!bFound)
-				{
-					saveFiles.put(file, null);
-				}
-			}
+			return null;
 		}
-				
-		for(Entry<File, File> saveFile : saveFiles.entrySet())
-		{
-			ChunkCoordinate regionCoord = null;
-			boolean bSuccess = false;
-			File structureDataFile = saveFile.getKey();
-			File structureDataBackupFile = saveFile.getValue();
-				
-			if(
-				(structureDataFile == null || !structureDataFile.exists()) &&
-				(structureDataBackupFile == null || !structureDataBackupFile.exists())
-			)
-			{
-				continue;
-			}
 
-			if(structureDataFile != null && structureDataFile.exists())
-			{			
-				FileInputStream fis = null;
-				HashMap<CustomStructure, ArrayList<ChunkCoordinate>> result = null;
-				try {
-					
-					int regionX = Integer.parseInt(structureDataFile.getName().replace(Constants.StructureDataFileExtension, "").split("_")[0]);
-					int regionZ = Integer.parseInt(structureDataFile.getName().replace(Constants.StructureDataFileExtension, "").split("_")[1]);
-					regionCoord = ChunkCoordinate.fromChunkCoords(regionX, regionZ);
-					
-					fis = new FileInputStream(structureDataFile);			
-					ByteBuffer buffer = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, fis.getChannel().size());				
-					
-					byte[] compressedBytes = new byte[(int) fis.getChannel().size()];
-					buffer.get(compressedBytes);
-					byte[] decompressedBytes = com.pg85.otg.util.CompressionUtils.decompress(compressedBytes);
-					buffer = ByteBuffer.wrap(decompressedBytes);
-										
-					result = parseStructuresFileFromStream(buffer, regionCoord, presetFolderName, worldSeed, isBO4Enabled, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-				}
-				catch (Exception ex)
-				{
-					ex.printStackTrace();
-					logger.log(LogLevel.WARN, LogCategory.MAIN, "Failed to load " + structureDataFile.getAbsolutePath() + ", trying to load backup.");
-				} finally {
-					if(fis != null)
-					{
-						try {
-							fis.getChannel().close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-						try {
-							fis.close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-					}
-				}
-				if(result != null)
-				{
-					bSuccess = true;
-					mergeRegionData(result, output);
-				}
-			}
-			
-			if(!bSuccess && structureDataBackupFile != null && structureDataBackupFile.exists())
+		if(structureDataFile.exists())
+		{
+			try
 			{
-				FileInputStream fis = null;
-				HashMap<CustomStructure, ArrayList<ChunkCoordinate>> result = null;
-				try {
-					int regionX = Integer.parseInt(structureDataBackupFile.getName().replace(Constants.BackupFileSuffix, "").split("_")[0]);
-					int regionZ = Integer.parseInt(structureDataBackupFile.getName().replace(Constants.BackupFileSuffix, "").split("_")[1]);				
-					regionCoord = ChunkCoordinate.fromChunkCoords(regionX, regionZ);					
-					
-					fis = new FileInputStream(structureDataBackupFile);			
-					ByteBuffer buffer = fis.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, fis.getChannel().size());				
-					
-					byte[] compressedBytes = new byte[(int) fis.getChannel().size()];
-					buffer.get(compressedBytes);
-					byte[] decompressedBytes = com.pg85.otg.util.CompressionUtils.decompress(compressedBytes);
-					buffer = ByteBuffer.wrap(decompressedBytes);
-										
-					result = parseStructuresFileFromStream(buffer, regionCoord, presetFolderName, worldSeed, isBO4Enabled, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-				}
-				catch (Exception ex)
-				{
-					ex.printStackTrace();
-				} finally {
-					if(fis != null)
-					{
-						try {
-							fis.getChannel().close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-						try {
-							fis.close();
-						} catch (IOException e) {
-							e.printStackTrace();
-						}
-					}
-				}
-				if(result != null)
-				{
-					bSuccess = true;
-					mergeRegionData(result, output);
-				}
+				return parseStructuresFileFromStream(readCompressedFile(structureDataFile), regionCoord, presetFolderName, worldSeed, isBO4Enabled, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
 			}
-			if(!bSuccess)
+			catch (Exception ex)
 			{
-				logger.log(LogLevel.ERROR, LogCategory.MAIN,
-					"OTG encountered an error loading " + structureDataFile.getAbsolutePath() + " and could not load a backup, ignoring. "
-					+ "This may result in areas with missing BO4's, smoothing areas, /otg structure info and spawners/particles/moddata."
-				);
+				ex.printStackTrace();
+				logger.log(LogLevel.WARN, LogCategory.MAIN, "Failed to load " + structureDataFile.getAbsolutePath() + ", trying to load backup.");
 			}
 		}
-		
-		return output.size() > 0 ? output : null;
-	}
-	
-	private static void mergeRegionData(HashMap<CustomStructure, ArrayList<ChunkCoordinate>> result, HashMap<CustomStructure, ArrayList<ChunkCoordinate>> output)
-	{
-		// When parsing structures per region, merge all placeholder structures 
-		// into their real structure starts as soon as their regions are loaded.
-		// TODO: Load on-demand, not all regions at once.
-		for(Entry<CustomStructure, ArrayList<ChunkCoordinate>> entryResult : result.entrySet())
+
+		if(structureDataBackupFile.exists())
 		{
-			if(output.containsKey(entryResult.getKey()))
+			try
 			{
-				for(Entry<CustomStructure, ArrayList<ChunkCoordinate>> entryOutput : new HashSet<Entry<CustomStructure, ArrayList<ChunkCoordinate>>>(output.entrySet()))
-				{				
-					// Returns true if structure starts are equal
-					if(entryResult.getKey().equals(entryOutput.getKey()))
-					{
-						if(entryResult.getKey() instanceof CustomStructurePlaceHolder)
-						{
-							((CustomStructurePlaceHolder)entryResult.getKey()).mergeWithCustomStructure((BO4CustomStructure)entryOutput.getKey());
-							ArrayList<ChunkCoordinate> coords = entryOutput.getValue();
-							coords.addAll(entryResult.getValue());							
-						}
-						else if(entryOutput.getKey() instanceof CustomStructurePlaceHolder)
-						{
-							((CustomStructurePlaceHolder)entryOutput.getKey()).mergeWithCustomStructure((BO4CustomStructure)entryResult.getKey());
-							ArrayList<ChunkCoordinate> coords = entryResult.getValue();
-							coords.addAll(entryOutput.getValue());
-							
-							// Be sure to remove before putting, or only the value gets replaced.
-							output.remove(entryResult.getKey());
-							output.put(entryResult.getKey(), entryResult.getValue());							
-						}
-						break;
-					}
-				}
-			} else {
-				output.put(entryResult.getKey(), entryResult.getValue());
+				return parseStructuresFileFromStream(readCompressedFile(structureDataBackupFile), regionCoord, presetFolderName, worldSeed, isBO4Enabled, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+			}
+			catch (Exception ex)
+			{
+				ex.printStackTrace();
 			}
 		}
+
+		logger.log(LogLevel.ERROR, LogCategory.MAIN,
+			"OTG encountered an error loading " + structureDataFile.getAbsolutePath() + " and could not load a backup, ignoring. "
+			+ "This may result in areas with missing BO4's, smoothing areas, /otg structure info and spawners/particles/moddata."
+		);
+		return null;
 	}
 
 	// TODO: Since we're using regions now, can use byte/short for internal coords instead of int.
@@ -964,7 +702,7 @@ public class CustomStructureFileManager
 		return structuresFile;
 	}
 
-	public static void saveChunksMapFile(Path worldSaveDir, String presetFolderName, HashMap<String, ArrayList<ChunkCoordinate>> spawnedStructuresByName, HashMap<String, HashMap<ChunkCoordinate, Integer>> spawnedStructuresByGroup, ILogger logger)
+	public static void saveChunksMapFile(Path worldSaveDir, String presetFolderName, HashMap<String, ArrayList<ChunkCoordinate>> spawnedStructuresByName, HashMap<String, HashMap<ChunkCoordinate, Integer>> spawnedStructuresByGroup, StructureDataWriter writer, ILogger logger)
 	{
 		File occupiedChunksFile = new File(worldSaveDir + File.separator + Constants.MOD_ID + File.separator + presetFolderName + File.separator + Constants.SpawnedStructuresFileName);
 		File occupiedChunksBackupFile = new File(worldSaveDir + File.separator + Constants.MOD_ID + File.separator + presetFolderName + File.separator + Constants.SpawnedStructuresBackupFileName);
@@ -1007,43 +745,7 @@ public class CustomStructureFileManager
 				return;
 			}			
 			
-			DataOutputStream dos2 = null;
-			FileOutputStream fos = null;
-			try
-			{				
-				if(!occupiedChunksFile.exists())
-				{
-					occupiedChunksFile.getParentFile().mkdirs();
-				} else {
-					Files.move(occupiedChunksFile.toPath(), occupiedChunksBackupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
-				}
-				byte[] compressedBytes = com.pg85.otg.util.CompressionUtils.compress(bos.toByteArray(), logger);
-				fos = new FileOutputStream(occupiedChunksFile);
-				dos2 = new DataOutputStream(fos);
-				dos2.write(compressedBytes, 0, compressedBytes.length);
-			} catch (IOException e) {
-				logger.log(LogLevel.ERROR, LogCategory.MAIN, "OTG encountered an error writing " + occupiedChunksFile.getAbsolutePath() + ", skipping. Exception: ");
-				e.printStackTrace();				
-			} finally {
-				try {
-					if(dos != null)
-					{
-						dos.close();
-					}
-				} catch (Exception e) { }				
-				try {
-					if(dos2 != null)
-					{
-						dos2.close();
-					}
-				} catch (Exception e) { }
-				try {
-					if(fos != null)
-					{
-						fos.close();
-					}
-				} catch (Exception e) { }
-			}
+			writer.write(occupiedChunksFile, occupiedChunksBackupFile, bos.toByteArray(), logger);
 		}
 	}
 
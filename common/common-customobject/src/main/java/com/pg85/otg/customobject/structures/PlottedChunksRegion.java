@@ -1,22 +1,34 @@
 package com.pg85.otg.customobject.structures;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.pg85.otg.constants.Constants;
 
+/**
+ * Plotted chunks for a region, stored as a bitset with one bit per chunk.
+ * Threads plotting different areas can mark chunks in the same word, so
+ * bits are set with compare-and-set.
+ */
 public class PlottedChunksRegion
 {
-	private boolean requiresSave = false;
-	private boolean[][] plottedChunks = new boolean[Constants.REGION_SIZE][Constants.REGION_SIZE];
+	static final int WORDS = ((Constants.REGION_SIZE * Constants.REGION_SIZE) + 63) >>> 6;
 
-	public PlottedChunksRegion() { }
+	private volatile boolean requiresSave = false;
+	private final AtomicLongArray plottedChunks;
 
-	PlottedChunksRegion(boolean[][] plottedChunks)
+	public PlottedChunksRegion()
 	{
-		this.plottedChunks = plottedChunks;
+		this.plottedChunks = new AtomicLongArray(WORDS);
 	}
 
-	boolean requiresSave()
+	PlottedChunksRegion(long[] plottedChunks, boolean requiresSave)
+	{
+		this.plottedChunks = new AtomicLongArray(plottedChunks);
+		this.requiresSave = requiresSave;
+	}
+
+	public boolean requiresSave()
 	{
 		return this.requiresSave;
 	}
@@ -28,27 +40,56 @@ public class PlottedChunksRegion
 
 	public boolean getChunk(int internalX, int internalZ)
 	{
-		return this.plottedChunks[internalX][internalZ];
+		int index = internalX * Constants.REGION_SIZE + internalZ;
+		return (this.plottedChunks.get(index >>> 6) & (1L << index)) != 0;
 	}
 
 	public void setChunk(int internalX, int internalZ)
 	{
-		this.plottedChunks[internalX][internalZ] = true;
+		int index = internalX * Constants.REGION_SIZE + internalZ;
+		setBits(index >>> 6, 1L << index);
 		this.requiresSave = true;
 	}
 
-	public boolean[][] getArray()
+	// Copy of the bitset, chunks plotted while copying may or may not be included.
+	long[] getWords()
 	{
-		return this.plottedChunks;
+		long[] words = new long[WORDS];
+		for(int i = 0; i < WORDS; i++)
+		{
+			words[i] = this.plottedChunks.get(i);
+		}
+		return words;
 	}
 
-	static PlottedChunksRegion getFilledRegion()
+	// Chunks are only ever marked as plotted, never unmarked, so merging
+	// data for the same region from different files is a bitwise or.
+	void merge(long[] plottedChunks)
 	{
-		boolean[][] plottedChunks = new boolean[Constants.REGION_SIZE][Constants.REGION_SIZE];
-		for(int i = 0; i < Constants.REGION_SIZE; i++)
+		for(int i = 0; i < WORDS; i++)
 		{
-			Arrays.fill(plottedChunks[i], true);
+			setBits(i, plottedChunks[i]);
 		}
-		return new PlottedChunksRegion(plottedChunks);
+	}
+
+	private void setBits(int wordIndex, long bits)
+	{
+		long word;
+		do
+		{
+			word = this.plottedChunks.get(wordIndex);
+			if((word | bits) == word)
+			{
+				return;
+			}
+		}
+		while(!this.plottedChunks.compareAndSet(wordIndex, word, word | bits));
+	}
+
+	static PlottedChunksRegion getFilledRegion()
+	{
+		long[] plottedChunks = new long[WORDS];
+		Arrays.fill(plottedChunks, -1L);
+		return new PlottedChunksRegion(plottedChunks, false);
 	}
 }
@@ -0,0 +1,246 @@
+package com.pg85.otg.customobject.structures;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.pg85.otg.interfaces.ILogger;
+import com.pg85.otg.util.CompressionUtils;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+/**
+ * Writes structure data files on a background thread, so chunk decoration
+ * doesn't have to wait for compression and disk IO while saving.
+ *
+ * Callers pass in an uncompressed snapshot of the data for each file, the
+ * writer compresses it and writes it to a temporary file, which then replaces
+ * the existing file via an atomic rename. The existing file is kept as a backup.
+ * If a file is queued again before it's been written, only the latest snapshot
+ * is written.
+ *
+ * Files with fixed-size slots (plotted chunks shards) are instead updated in 
+ * place, one slot at a time.
+ */
+public class StructureDataWriter
+{
+	private static final String TEMP_FILE_SUFFIX = ".tmp";
+	// The writer thread stops when idle and is restarted for the next save.
+	private static final long IDLE_TIMEOUT_SECONDS = 30;
+
+	private final ThreadPoolExecutor executor;
+	// Keyed by File for whole files, or by FileSlot for slots.
+	private final Map<Object, byte[]> pendingWrites = new ConcurrentHashMap<Object, byte[]>();
+	// The last task queued for each file, so callers can wait for a single file. Writes
+	// are done in order, so when it's done all earlier writes to the file are done as well.
+	private final Map<File, CompletableFuture<Void>> lastWrites = new ConcurrentHashMap<File, CompletableFuture<Void>>();
+
+	private static final class FileSlot
+	{
+		private final File file;
+		private final long position;
+
+		private FileSlot(File file, long position)
+		{
+			this.file = file;
+			this.position = position;
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			return 
+				other instanceof FileSlot && 
+				((FileSlot)other).position == this.position && 
+				((FileSlot)other).file.equals(this.file)
+			;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.file.hashCode() * 31 + Long.hashCode(this.position);
+		}
+	}
+
+	StructureDataWriter()
+	{
+		this.executor = new ThreadPoolExecutor(1, 1, IDLE_TIMEOUT_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), runnable -> {
+			Thread thread = new Thread(runnable, "OTG-StructureDataWriter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	void write(File file, File backupFile, byte[] data, ILogger logger)
+	{
+		if(this.pendingWrites.put(file, data) == null)
+		{
+			queue(file, () -> {
+				byte[] latestData = this.pendingWrites.remove(file);
+				if(latestData != null)
+				{
+					writeFile(file, backupFile, latestData, logger);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Writes data at the given position in a file with fixed-size slots, writing 
+	 * the header first if the file is new. Slots are only written in place if a 
+	 * partially written slot is still valid (e.g. bitsets that are only ever set).
+	 * The obsolete files are deleted after the slot has been written, so 
+	 * data migrated from older file formats isn't loaded again.
+	 */
+	void writeSlot(File file, byte[] header, long position, byte[] data, File[] obsoleteFiles, ILogger logger)
+	{
+		FileSlot slot = new FileSlot(file, position);
+		if(this.pendingWrites.put(slot, data) == null)
+		{
+			queue(file, () -> {
+				byte[] latestData = this.pendingWrites.remove(slot);
+				if(latestData != null)
+				{
+					writeSlot(file, header, position, latestData, logger);
+					for(File obsoleteFile : obsoleteFiles)
+					{
+						if(obsoleteFile.exists())
+						{
+							obsoleteFile.delete();
+						}
+					}
+				}
+			});
+		}
+	}
+
+	private void queue(File file, Runnable write)
+	{
+		CompletableFuture<Void> task = this.lastWrites.compute(file, (key, lastWrite) -> CompletableFuture.runAsync(write, this.executor));
+		task.whenComplete((result, e) -> this.lastWrites.remove(file, task));
+	}
+
+	/**
+	 * Blocks until all writes to the given files queued before this call are done.
+	 */
+	void flush(File[] files, ILogger logger)
+	{
+		for(File file : files)
+		{
+			CompletableFuture<Void> lastWrite = this.lastWrites.get(file);
+			if(lastWrite == null)
+			{
+				continue;
+			}
+			try
+			{
+				lastWrite.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				logger.log(LogLevel.WARN, LogCategory.MAIN, "Interrupted while waiting for structure data to be saved.");
+				return;
+			}
+			catch (ExecutionException e)
+			{
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Blocks until all files queued before this call have been written.
+	 */
+	void flush(ILogger logger)
+	{
+		try
+		{
+			// Writes are done in order on a single thread, so when
+			// this task has run, all earlier writes are done.
+			this.executor.submit(() -> { }).get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			logger.log(LogLevel.WARN, LogCategory.MAIN, "Interrupted while waiting for structure data to be saved.");
+		}
+		catch (ExecutionException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	int getPendingWrites()
+	{
+		return this.pendingWrites.size();
+	}
+
+	private void writeSlot(File file, byte[] header, long position, byte[] data, ILogger logger)
+	{
+		file.getParentFile().mkdirs();
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE))
+		{
+			if(channel.size() < header.length)
+			{
+				writeFully(channel, ByteBuffer.wrap(header), 0);
+			}
+			writeFully(channel, ByteBuffer.wrap(data), position);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			logger.log(LogLevel.ERROR, LogCategory.MAIN, "OTG encountered an error writing " + file.getAbsolutePath() + ", skipping.");
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			position += channel.write(buffer, position);
+		}
+	}
+
+	private void writeFile(File file, File backupFile, byte[] data, ILogger logger)
+	{
+		File tempFile = new File(file.getPath() + TEMP_FILE_SUFFIX);
+		try
+		{
+			byte[] compressedBytes = CompressionUtils.compress(data, logger);
+			file.getParentFile().mkdirs();
+			Files.write(tempFile.toPath(), compressedBytes);
+			if(file.exists())
+			{
+				Files.move(file.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			try
+			{
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			logger.log(LogLevel.ERROR, LogCategory.MAIN, "OTG encountered an error writing " + file.getAbsolutePath() + ", skipping.");
+		}
+	}
+}
@@ -864,6 +864,13 @@ public class BO4CustomStructure extends CustomStructure
 							chunkIsIneligible = true;
 							canSpawn = false;
 						}
+
+						// Branches and their smoothing areas must stay within the plotting regions locked while plotting, 
+						// if they don't the structure is abandoned and plotted again with all plotting regions locked.
+						if(!minimumSize)
+						{
+							structureCache.checkBo4PlottingRange(chunkBeingDecorated, childBranchDataItem.chunkCoordinate, (smoothRadius + 15) / 16, this.start.bo3Name);
+						}
 						
 						if(canSpawn && !minimumSize && bo4.getConfig().spawnOnWaterOnly)
 						{
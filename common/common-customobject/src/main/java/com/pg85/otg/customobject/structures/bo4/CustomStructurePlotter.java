@@ -7,6 +7,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.customobject.CustomObjectManager;
@@ -16,6 +21,7 @@ import com.pg85.otg.customobject.structures.CustomStructure;
 import com.pg85.otg.customobject.structures.CustomStructureCache;
 import com.pg85.otg.customobject.structures.CustomStructureFileManager;
 import com.pg85.otg.customobject.structures.PlottedChunksRegion;
+import com.pg85.otg.customobject.structures.StructureDataWriter;
 import com.pg85.otg.exceptions.InvalidConfigException;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.ICustomStructureGen;
@@ -25,9 +31,10 @@ import com.pg85.otg.interfaces.IModLoadedChecker;
 import com.pg85.otg.interfaces.IStructuredCustomObject;
 import com.pg85.otg.interfaces.IWorldGenRegion;
 import com.pg85.otg.util.ChunkCoordinate;
-import com.pg85.otg.util.FifoMap;
+import com.pg85.otg.util.LongKeyedCache;
 import com.pg85.otg.util.bo3.Rotation;
 import com.pg85.otg.util.gen.DecorationArea;
+import com.pg85.otg.util.helpers.MathHelper;
 import com.pg85.otg.util.logging.LogCategory;
 import com.pg85.otg.util.logging.LogLevel;
 
@@ -48,76 +55,128 @@ public class CustomStructurePlotter
 	// slower as it fills up, use as little as possible! (can't clean itself because max radius for BO4 groups cannot be known)	
 	private final HashMap<String, ArrayList<ChunkCoordinate>> spawnedStructuresByName;  // structure name -> start chunk coords. Saved to disk.
 	private final HashMap<String, HashMap<ChunkCoordinate, Integer>> spawnedStructuresByGroup; // group name -> Map<ChunkCoord, Radius>. Saved to disk.	
+	// Spatial indexes for the above, used for frequency checks. Rebuilt when loading.
+	private final HashMap<String, SpawnedStructuresIndex> spawnedStructuresByNameIndex;
+	private final HashMap<String, SpawnedStructuresIndex> spawnedStructuresByGroupIndex;
 
-	// Locking objects to ensure plotting code can
-	// never run multiple times asynchronously, or recursively.
-	private final Object processingLock = new Object();
-	private boolean processing = false;
-	//
+	// Plotting is locked per plotting region, so chunks far enough apart can be plotted 
+	// concurrently. Plotting a chunk locks the plotting regions within PLOTTING_LOCK_RADIUS 
+	// of the chunk's plotting region, which covers any chunk within MAX_PLOTTING_DISTANCE 
+	// of the plotted chunk. Plotting and spawning hold the plotting lock for reading as well, 
+	// if a structure start or branch is further away the chunk is plotted again holding the 
+	// plotting lock for writing, see checkPlottingRange.
+	private static final int PLOTTING_REGION_SIZE_SHIFT = 5; // 32x32 chunks
+	private static final int PLOTTING_LOCK_RADIUS = 2;
+	private static final int MAX_PLOTTING_DISTANCE = PLOTTING_LOCK_RADIUS << PLOTTING_REGION_SIZE_SHIFT; // 64 chunks
+	private final Map<Long, ReentrantLock> plottingRegionLocks = new ConcurrentHashMap<Long, ReentrantLock>();
+	private final ReentrantReadWriteLock plottingLock = new ReentrantReadWriteLock();
+	// Guards spawnedStructuresByName/spawnedStructuresByGroup and their indexes, which are shared by all plotting regions.
+	private final ReentrantReadWriteLock spawnedStructuresLock = new ReentrantReadWriteLock();
+	// Structures that are being plotted, guarded by spawnedStructuresLock. See SpawnReservation.
+	private final ArrayList<SpawnReservation> spawnReservations = new ArrayList<SpawnReservation>();
 	
-	private boolean structurePlottedAtSpawn; // Used to make sure the structureatspawn is plotted first.
+	private final Object structureAtSpawnLock = new Object();
+	private volatile boolean structurePlottedAtSpawn; // Used to make sure the structureatspawn is plotted first.
 	
 	// Non-persistent caches (optimisations)
-	private final FifoMap<ChunkCoordinate, ArrayList<String>> structureNamesPerChunk;
-	private final FifoMap<ChunkCoordinate, Object> plottedChunksFastCache; // TODO: Technically we don't need a map, we need a FIFO list with unique entries.
+	// Keyed by MathHelper.toLong(chunkX, chunkZ)
+	private final LongKeyedCache<ArrayList<String>> structureNamesPerChunk;
+	private final LongKeyedCache<Boolean> plottedChunksFastCache;
 	
-	public CustomStructurePlotter()
+	// Loads the structure data and plotted chunks for a region if they aren't resident, called before using either.
+	// The region access lock is held while loading and using a region, so it can't be unloaded in between.
+	private final Consumer<ChunkCoordinate> regionLoader;
+	private final Lock regionAccessLock;
+	
+	public CustomStructurePlotter(Consumer<ChunkCoordinate> regionLoader, Lock regionAccessLock)
 	{
+		this.regionLoader = regionLoader;
+		this.regionAccessLock = regionAccessLock;
+
 		// Non-persistent caches
-		this.structureNamesPerChunk = new FifoMap<ChunkCoordinate, ArrayList<String>>(2048);
-		this.plottedChunksFastCache = new FifoMap<ChunkCoordinate, Object>(2048);
+		int concurrency = Runtime.getRuntime().availableProcessors();
+		this.structureNamesPerChunk = new LongKeyedCache<ArrayList<String>>(2048, concurrency);
+		this.plottedChunksFastCache = new LongKeyedCache<Boolean>(2048, concurrency);
 		
 		// Persistent caches
 		this.spawnedStructuresByName = new HashMap<String, ArrayList<ChunkCoordinate>>();
 		this.spawnedStructuresByGroup = new HashMap<String, HashMap<ChunkCoordinate, Integer>>();
-		this.bo4StructureCache = new HashMap<ChunkCoordinate, BO4CustomStructure[][]>();
-		this.plottedChunks = new HashMap<ChunkCoordinate, PlottedChunksRegion>(); 
+		this.spawnedStructuresByNameIndex = new HashMap<String, SpawnedStructuresIndex>();
+		this.spawnedStructuresByGroupIndex = new HashMap<String, SpawnedStructuresIndex>();
+		this.bo4StructureCache = new ConcurrentHashMap<ChunkCoordinate, BO4CustomStructure[][]>();
+		this.plottedChunks = new ConcurrentHashMap<ChunkCoordinate, PlottedChunksRegion>(); 
 	}
 
 	// Structure cache
 	
 	private boolean structureCacheContainsKey(ChunkCoordinate chunkCoordinate)
 	{
-		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();				
-		BO4CustomStructure[][] chunkRegion = bo4StructureCache.get(regionCoord);
-		return chunkRegion != null && chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] != null;
+		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
+		this.regionAccessLock.lock();
+		try
+		{
+			this.regionLoader.accept(regionCoord);
+			BO4CustomStructure[][] chunkRegion = bo4StructureCache.get(regionCoord);
+			return chunkRegion != null && chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] != null;
+		} finally {
+			this.regionAccessLock.unlock();
+		}
 	}
 	
 	private void addToStructureCache(ChunkCoordinate chunkCoordinate, BO4CustomStructure structure)
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
-		
-		BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
-		if(chunkRegion == null)
+		this.regionAccessLock.lock();
+		try
 		{
-			chunkRegion = new BO4CustomStructure[Constants.REGION_SIZE][Constants.REGION_SIZE];
-			this.bo4StructureCache.put(regionCoord, chunkRegion);
+			this.regionLoader.accept(regionCoord);
+			addToLoadedStructureCache(regionCoord, chunkCoordinate, structure);
+		} finally {
+			this.regionAccessLock.unlock();
 		}
+	}
+
+	private void addToLoadedStructureCache(ChunkCoordinate regionCoord, ChunkCoordinate chunkCoordinate, BO4CustomStructure structure)
+	{
+		BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.computeIfAbsent(regionCoord, key -> new BO4CustomStructure[Constants.REGION_SIZE][Constants.REGION_SIZE]);
 		chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = structure;
 	}
 	
 	private void removeFromStructureCache(ChunkCoordinate chunkCoordinate)
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
-		
-		BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
-		if(chunkRegion != null)
+		this.regionAccessLock.lock();
+		try
 		{
-			chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = null;
+			this.regionLoader.accept(regionCoord);
+			BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
+			if(chunkRegion != null)
+			{
+				chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()] = null;
+			}
+
+			// TODO: Remove region from bo4StructureCache if it's empty? Shouldn't matter too much, region shouldn't be saved if it's empty.
+		} finally {
+			this.regionAccessLock.unlock();
 		}
-		
-		// TODO: Remove region from bo4StructureCache if it's empty? Shouldn't matter too much, region shouldn't be saved if it's empty.
 	}
 	
 	private BO4CustomStructure getFromStructureCache(ChunkCoordinate chunkCoordinate)
 	{
-		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();		
-		BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
-		if(chunkRegion != null)
+		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
+		this.regionAccessLock.lock();
+		try
 		{
-			return chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()];
+			this.regionLoader.accept(regionCoord);
+			BO4CustomStructure[][] chunkRegion = this.bo4StructureCache.get(regionCoord);
+			if(chunkRegion != null)
+			{
+				return chunkRegion[chunkCoordinate.getRegionInternalX()][chunkCoordinate.getRegionInternalZ()];
+			}
+			return null;
+		} finally {
+			this.regionAccessLock.unlock();
 		}
-		return null;
 	}
 
 	// Populated chunks cache
@@ -125,20 +184,29 @@ public class CustomStructurePlotter
 	private boolean plottedChunksContainsKey(ChunkCoordinate chunkCoordinate)
 	{
 		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
-		PlottedChunksRegion chunkRegion = plottedChunks.get(regionCoord);
-		return chunkRegion != null && chunkRegion.getChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+		this.regionAccessLock.lock();
+		try
+		{
+			this.regionLoader.accept(regionCoord);
+			PlottedChunksRegion chunkRegion = plottedChunks.get(regionCoord);
+			return chunkRegion != null && chunkRegion.getChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+		} finally {
+			this.regionAccessLock.unlock();
+		}
 	}
 	
 	private void addToPlottedChunks(ChunkCoordinate chunkCoordinate)
 	{
-		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();				
-		PlottedChunksRegion chunkRegion = this.plottedChunks.get(regionCoord);
-		if(chunkRegion == null)
+		ChunkCoordinate regionCoord = chunkCoordinate.toRegionCoord();
+		this.regionAccessLock.lock();
+		try
 		{
-			chunkRegion = new PlottedChunksRegion();
-			this.plottedChunks.put(regionCoord, chunkRegion);
+			this.regionLoader.accept(regionCoord);
+			PlottedChunksRegion chunkRegion = this.plottedChunks.computeIfAbsent(regionCoord, key -> new PlottedChunksRegion());
+			chunkRegion.setChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
+		} finally {
+			this.regionAccessLock.unlock();
 		}
-		chunkRegion.setChunk(chunkCoordinate.getRegionInternalX(), chunkCoordinate.getRegionInternalZ());
 	}	
 	
 	// Used while calculating branches
@@ -147,12 +215,12 @@ public class CustomStructurePlotter
 		// Check if any other structures are in this chunk
 		boolean bFound =
 			// TODO: Optimise this using regions, mark regions when completed so we can skip checks.
-			this.plottedChunksFastCache.containsKey(chunkCoordinate) || // Has been plotted recently, still cached (fast cache).
+			this.plottedChunksFastCache.containsKey(MathHelper.toLong(chunkCoordinate.getChunkX(), chunkCoordinate.getChunkZ())) || // Has been plotted recently, still cached (fast cache).
 			plottedChunksContainsKey(chunkCoordinate) // Has been plotted (slow cache).
 		;
 		if(bFound)
 		{
-			this.plottedChunksFastCache.put(chunkCoordinate, null);
+			this.plottedChunksFastCache.put(MathHelper.toLong(chunkCoordinate.getChunkX(), chunkCoordinate.getChunkZ()), Boolean.TRUE);
 		}
 		return bFound;
 	}
@@ -174,26 +242,39 @@ public class CustomStructurePlotter
 	// Only used by ChunkDecorator
 	public void spawnBO4Chunk(ChunkCoordinate chunkCoordinate, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker)
 	{
-		BO4CustomStructure structureStart = getFromStructureCache(chunkCoordinate);
-		if (structureStart != null && structureStart.start != null)
+		// Spawning removes the chunk's parts from the structure, take the same locks as plotting, 
+		// so structures aren't spawned while they're still being plotted around this chunk.
+		List<ReentrantLock> locks = lockPlottingRegions(chunkCoordinate, false);
+		try
 		{
-			structureStart.spawnInChunk(chunkCoordinate, structureCache, worldGenRegion, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
-		} else {
-			// TODO: When can structure.start be null? Should only be possible for bo3 structures?
-			if(structureStart != null && structureStart.start == null)
+			BO4CustomStructure structureStart = getFromStructureCache(chunkCoordinate);
+			if (structureStart != null && structureStart.start != null)
 			{
-				throw new RuntimeException("This shouldn't happen, please contact Team OTG about this crash.");
+				// Chunks of the same structure can be far enough apart to be spawned by 
+				// threads holding different plotting regions, and share the structure's maps.
+				synchronized(structureStart)
+				{
+					structureStart.spawnInChunk(chunkCoordinate, structureCache, worldGenRegion, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+				}
+			} else {
+				// TODO: When can structure.start be null? Should only be possible for bo3 structures?
+				if(structureStart != null && structureStart.start == null)
+				{
+					throw new RuntimeException("This shouldn't happen, please contact Team OTG about this crash.");
+				}
+				// Nothing plotted in this chunk
 			}
-			// Nothing plotted in this chunk
+	
+			// Safe to remove chunk from bo4StructureCache now, 
+			// it has been decorated by ChunkDecorator (not just 
+			// plotted/spawned while decorating a neighbouring chunk).
+			removeFromStructureCache(chunkCoordinate);
+			
+			// Let plotter know the chunk is taken (fast cache, optimisation)
+			setChunkOccupied(chunkCoordinate);
+		} finally {
+			unlockPlottingRegions(locks);
 		}
-
-		// Safe to remove chunk from bo4StructureCache now, 
-		// it has been decorated by ChunkDecorator (not just 
-		// plotted/spawned while decorating a neighbouring chunk).
-		removeFromStructureCache(chunkCoordinate);
-		
-		// Let plotter know the chunk is taken (fast cache, optimisation)
-		setChunkOccupied(chunkCoordinate);
 	}
 
 	// Only used by ChunkDecorator during decoration
@@ -211,53 +292,152 @@ public class CustomStructurePlotter
 	private void setChunkOccupied(ChunkCoordinate chunkCoord)
 	{
 		// Add empty list as an optimisation, so null means not handled, emtpy means done
-		this.structureNamesPerChunk.put(chunkCoord, new ArrayList<String>());
+		long chunkKey = MathHelper.toLong(chunkCoord.getChunkX(), chunkCoord.getChunkZ());
+		this.structureNamesPerChunk.put(chunkKey, new ArrayList<String>());
 		// Use separate cache for faster isChunkPopulated lookups, 
 		// no need to do containsKey + get == null, can just do containsKey
-		this.plottedChunksFastCache.put(chunkCoord, null);
+		this.plottedChunksFastCache.put(chunkKey, Boolean.TRUE);
 	}
 	
 	private ChunkCoordinate plotStructures(BO4 targetStructure, ArrayList<String> targetBiomes, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random rand, ChunkCoordinate chunkCoord, boolean spawningStructureAtSpawn, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean force)
 	{
-		// Make sure the BO4 at spawn is plotted before anything else
-		// This isn't thread-safe so there's a race condition, shouldn't 
-		// cause problems though due to the lock later on.
-		if(!this.structurePlottedAtSpawn) 
+		// Make sure the BO4 at spawn is plotted before anything else.
+		// Other threads wait until it has been plotted.
+		if(!this.structurePlottedAtSpawn && !spawningStructureAtSpawn)
 		{
-			this.structurePlottedAtSpawn = true;
-			plotStructures(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, worldGenRegion.getSpawnChunk(), true, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+			synchronized(this.structureAtSpawnLock)
+			{
+				if(!this.structurePlottedAtSpawn)
+				{
+					plotStructures(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, worldGenRegion.getSpawnChunk(), true, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+					this.structurePlottedAtSpawn = true;
+				}
+			}
 		}
-		
+
 		// This method can be called by /otg spawn and during chunkgeneration.
-		// When called during chunkgeneration, the chunk must be filled or invalidated before returning, so never cancel.
-		// When called by /otg spawn, skip this attempt to spawn and let chunk generation complete first.
-		// This method should never be called recursively.
-		// TODO: Make sure this never gets stuck, or abort and log a warning.
-		// TODO: Can this thread be paused without issues, for how long?
-		while(true)
+		// When called during chunkgeneration, the chunk must be filled or invalidated before returning, so wait for the locks.
+		// When called by /otg spawn, skip this attempt to spawn if another thread is plotting nearby and let chunk generation complete first.
+		List<ReentrantLock> locks = lockPlottingRegions(chunkCoord, targetStructure != null);
+		if(locks == null)
+		{
+			return null;
+		}
+		try
+		{
+			return plotStructuresInLockedRegion(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, chunkCoord, spawningStructureAtSpawn, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+		}
+		catch(PlottingRangeExceededException ex)
 		{
-			synchronized(this.processingLock)
+			if(logger.getLogCategoryEnabled(LogCategory.STRUCTURE_PLOTTING))
 			{
-				if(!this.processing)
-				{				
-					this.processing = true;
-					break;
-				}				
-				else if(targetStructure != null)
-				{
-					return null;
-				}
-			}  		
-			try {
-				Thread.sleep(20);
+				logger.log(LogLevel.INFO, LogCategory.STRUCTURE_PLOTTING, "Structure " + ex.getMessage() + " doesn't fit in the plotting regions locked for chunk " + chunkCoord.getChunkX() + " " + chunkCoord.getChunkZ() + ", plotting the chunk again with all plotting regions locked.");
 			}
-			catch (InterruptedException e)
+		} finally {
+			unlockPlottingRegions(locks);
+		}
+
+		// The structure was abandoned before being added to any caches, structures plotted 
+		// before it were within range and are kept.
+		if(targetStructure != null)
+		{
+			if(!this.plottingLock.writeLock().tryLock())
 			{
-				e.printStackTrace();
-				throw new RuntimeException("This shouldn't happen, please ask for help on the OTG Discord or file an issue on the OTG github.");
+				return null;
 			}
+		} else {
+			this.plottingLock.writeLock().lock();
 		}
+		try
+		{
+			return plotStructuresInLockedRegion(targetStructure, targetBiomes, structureCache, worldGenRegion, rand, chunkCoord, spawningStructureAtSpawn, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker, force);
+		} finally {
+			this.plottingLock.writeLock().unlock();
+		}
+	}
 
+	// The plotting lock is taken for reading first, then the region locks are always 
+	// acquired in the same order (x, then z), so threads locking overlapping 
+	// neighbourhoods can't deadlock. Locks are re-entrant, so plotting the structure 
+	// at spawn from inside a locked area is fine.
+	// Returns null if tryLock is true and any of the locks was taken.
+	private List<ReentrantLock> lockPlottingRegions(ChunkCoordinate chunkCoord, boolean tryLock)
+	{
+		if(tryLock)
+		{
+			if(!this.plottingLock.readLock().tryLock())
+			{
+				return null;
+			}
+		} else {
+			this.plottingLock.readLock().lock();
+		}
+		int plottingRegionX = chunkCoord.getChunkX() >> PLOTTING_REGION_SIZE_SHIFT;
+		int plottingRegionZ = chunkCoord.getChunkZ() >> PLOTTING_REGION_SIZE_SHIFT;
+		List<ReentrantLock> locks = new ArrayList<ReentrantLock>((PLOTTING_LOCK_RADIUS * 2 + 1) * (PLOTTING_LOCK_RADIUS * 2 + 1));
+		for(int x = plottingRegionX - PLOTTING_LOCK_RADIUS; x <= plottingRegionX + PLOTTING_LOCK_RADIUS; x++)
+		{
+			for(int z = plottingRegionZ - PLOTTING_LOCK_RADIUS; z <= plottingRegionZ + PLOTTING_LOCK_RADIUS; z++)
+			{
+				ReentrantLock lock = this.plottingRegionLocks.computeIfAbsent(MathHelper.toLong(x, z), key -> new ReentrantLock());
+				if(tryLock)
+				{
+					if(!lock.tryLock())
+					{
+						unlockPlottingRegions(locks);
+						return null;
+					}
+				} else {
+					lock.lock();
+				}
+				locks.add(lock);
+			}
+		}
+		return locks;
+	}
+
+	/**
+	 * Makes sure chunkCoord and the chunks within margin of it are covered by the 
+	 * plotting locks held while plotting plottedChunk. If they aren't, throws 
+	 * PlottingRangeExceededException so the chunk can be plotted again with all 
+	 * plotting regions locked.
+	 */
+	public void checkPlottingRange(ChunkCoordinate plottedChunk, ChunkCoordinate chunkCoord, int margin, String structureName)
+	{
+		if(
+			(
+				Math.abs(chunkCoord.getChunkX() - plottedChunk.getChunkX()) + margin > MAX_PLOTTING_DISTANCE ||
+				Math.abs(chunkCoord.getChunkZ() - plottedChunk.getChunkZ()) + margin > MAX_PLOTTING_DISTANCE
+			) &&
+			!this.plottingLock.isWriteLockedByCurrentThread()
+		)
+		{
+			throw new PlottingRangeExceededException(structureName);
+		}
+	}
+
+	private void unlockPlottingRegions(List<ReentrantLock> locks)
+	{
+		for(int i = locks.size() - 1; i >= 0; i--)
+		{
+			locks.get(i).unlock();
+		}
+		this.plottingLock.readLock().unlock();
+	}
+
+	// Thrown while plotting a structure that doesn't fit in the locked plotting regions, 
+	// before the structure has been added to any caches. No stack trace is needed.
+	@SuppressWarnings("serial")
+	static class PlottingRangeExceededException extends RuntimeException
+	{
+		PlottingRangeExceededException(String structureName)
+		{
+			super(structureName, null, false, false);
+		}
+	}
+
+	private ChunkCoordinate plotStructuresInLockedRegion(BO4 targetStructure, ArrayList<String> targetBiomes, CustomStructureCache structureCache, IWorldGenRegion worldGenRegion, Random rand, ChunkCoordinate chunkCoord, boolean spawningStructureAtSpawn, Path otgRootFolder, ILogger logger, CustomObjectManager customObjectManager, IMaterialReader materialReader, CustomObjectResourcesManager manager, IModLoadedChecker modLoadedChecker, boolean force)
+	{
 		long startTime = System.currentTimeMillis();
 		if (!isBo4ChunkPlotted(chunkCoord))
 		{
@@ -505,7 +685,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)));															
+														biomeStructures = this.structureNamesPerChunk.get(MathHelper.toLong((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)));															
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -532,7 +712,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>(); // Don't spawn anything here, there is a default structure.
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
+															this.structureNamesPerChunk.put(MathHelper.toLong((chunkCoord.getChunkX() + scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -596,7 +776,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)));
+														biomeStructures = this.structureNamesPerChunk.get(MathHelper.toLong((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)));
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -622,7 +802,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>();
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
+															this.structureNamesPerChunk.put(MathHelper.toLong((chunkCoord.getChunkX() - scanDistance), (chunkCoord.getChunkZ() + i)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -686,7 +866,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)));
+														biomeStructures = this.structureNamesPerChunk.get(MathHelper.toLong((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)));
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -713,7 +893,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>();
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)),biomeStructures);
+															this.structureNamesPerChunk.put(MathHelper.toLong((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() + scanDistance)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -776,7 +956,7 @@ public class CustomStructurePlotter
 														}
 													} else {
 														// When we get biomestructures here, size() == 0 means the chunk has been handled, null means it hasnt yet been cached at all
-														biomeStructures = this.structureNamesPerChunk.get(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)));
+														biomeStructures = this.structureNamesPerChunk.get(MathHelper.toLong((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)));
 														if(biomeStructures == null)
 														{
 															if(!isBo4ChunkPlotted(chunkCoord) && !worldGenRegion.chunkHasDefaultStructure(rand, chunkCoord))
@@ -802,7 +982,7 @@ public class CustomStructurePlotter
 															} else {
 																biomeStructures = new ArrayList<String>();
 															}
-															this.structureNamesPerChunk.put(ChunkCoordinate.fromChunkCoords((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)),biomeStructures);
+															this.structureNamesPerChunk.put(MathHelper.toLong((chunkCoord.getChunkX() + i), (chunkCoord.getChunkZ() - scanDistance)),biomeStructures);
 														}
 														if(biomeStructures != null)
 														{
@@ -921,10 +1101,27 @@ public class CustomStructurePlotter
 										int spawnCoordZ = structureBBInsideAreaZ + (rotation == Rotation.NORTH ? structureTop : rotation == Rotation.EAST ? structureLeft : rotation == Rotation.SOUTH ? structureBottom : structureRight);
 										ChunkCoordinate spawnChunk = ChunkCoordinate.fromChunkCoords(spawnCoordX, spawnCoordZ);
 
-										if(isBO4AllowedToSpawnAtByFrequency(spawnChunk, (BO4)currentStructureSpawning[0]))
+										int structureCenterX = structureBBInsideAreaX + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureLeft + structureRight + 1 : structureBottom + structureTop + 1) / 2d));
+										int structureCenterZ = structureBBInsideAreaZ + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureTop + structureBottom + 1 : structureLeft + structureRight + 1) / 2d));
+										ChunkCoordinate bo4CenterSpawnCoord = ChunkCoordinate.fromChunkCoords(structureCenterX, structureCenterZ);
+
+										// Check frequency and reserve the spot in one step, so other threads can't 
+										// plot a structure within its frequency radius while it's being plotted.
+										checkPlottingRange(chunkCoord, spawnChunk, (Math.max(((BO4)currentStructureSpawning[0]).getConfig().smoothRadius, 0) + 15) / 16, ((BO4)currentStructureSpawning[0]).getName());
+										SpawnReservation reservation = reserveSpawnByFrequency(spawnChunk, bo4CenterSpawnCoord, (BO4)currentStructureSpawning[0]);
+										if(reservation != null)
 										{
 											structureCoord = new BO4CustomStructureCoordinate(worldGenRegion.getPresetFolderName(), ((BO4)currentStructureSpawning[0]), null, rotation, spawnCoordX * 16, (short)0, spawnCoordZ * 16, 0, false, false, null);
-											structureStart2 = new BO4CustomStructure(structureCache, worldGenRegion, structureCoord, spawningStructureAtSpawn, force, targetBiomes, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+											try
+											{
+												structureStart2 = new BO4CustomStructure(structureCache, worldGenRegion, structureCoord, spawningStructureAtSpawn, force, targetBiomes, chunkCoord, otgRootFolder, logger, customObjectManager, materialReader, manager, modLoadedChecker);
+											}
+											catch(RuntimeException e)
+											{
+												releaseSpawnReservation(reservation, false);
+												throw e;
+											}
+											releaseSpawnReservation(reservation, structureStart2.isSpawned());
 
 											if(structureStart2.isSpawned())
 											{
@@ -938,54 +1135,6 @@ public class CustomStructurePlotter
 													logger.log(LogLevel.INFO, LogCategory.STRUCTURE_PLOTTING, "Plotted structure " + structureCoordConfig.getName() + " at chunk " + spawnCoordX + " " + spawnCoordZ + " ("+ (spawnCoordX * 16) + " 100 " + (spawnCoordZ * 16) + ")");// + " biome " + biome3.getName());
 												}
 
-												if(((BO4)currentStructureSpawning[0]).getConfig().frequency > 0 || ((BO4)currentStructureSpawning[0]).getConfig().bo4Groups.size() > 0)
-												{
-													String bO3Name = ((BO4)currentStructureSpawning[0]).getName();
-													ChunkCoordinate bo4SpawnCoord = ChunkCoordinate.fromChunkCoords(spawnCoordX, spawnCoordZ);
-
-													ArrayList<ChunkCoordinate> chunkCoords = this.spawnedStructuresByName.get(bO3Name);
-													if(chunkCoords == null)
-													{
-														chunkCoords = new ArrayList<ChunkCoordinate>();
-														this.spawnedStructuresByName.put(bO3Name, chunkCoords);
-													}
-													chunkCoords.add(bo4SpawnCoord);
-
-													if(((BO4)currentStructureSpawning[0]).getConfig().bo4Groups.size() > 0)
-													{
-														int structureCenterX = structureBBInsideAreaX + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureLeft + structureRight + 1 : structureBottom + structureTop + 1) / 2d));
-														int structureCenterZ = structureBBInsideAreaZ + (int)Math.floor(((rotation == Rotation.NORTH || rotation == Rotation.SOUTH ? structureTop + structureBottom + 1 : structureLeft + structureRight + 1) / 2d));
-														ChunkCoordinate bo4CenterSpawnCoord = ChunkCoordinate.fromChunkCoords(structureCenterX, structureCenterZ);
-														
-														for(Entry<String, Integer> entry : ((BO4)currentStructureSpawning[0]).getConfig().bo4Groups.entrySet())
-														{
-															String bo4GroupName = entry.getKey();
-															int bo4GroupFrequency = entry.getValue().intValue();
-															if(bo4GroupFrequency > 0)
-															{
-																HashMap<ChunkCoordinate, Integer> spawnedStructures = this.spawnedStructuresByGroup.get(bo4GroupName);
-																if(spawnedStructures == null)
-																{
-																	spawnedStructures = new HashMap<ChunkCoordinate, Integer>();
-																	spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue());
-																	this.spawnedStructuresByGroup.put(bo4GroupName, spawnedStructures);
-																} else {
-																	Integer frequency = spawnedStructures.get(bo4CenterSpawnCoord);
-																	if(frequency != null)
-																	{
-																		if(frequency.intValue() < bo4GroupFrequency)
-																		{
-																			spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue().intValue());
-																		}
-																	} else {
-																		spawnedStructures.put(bo4CenterSpawnCoord, entry.getValue().intValue());
-																	}
-																}
-															}
-														}
-													}
-												}
-
 												// Even though we made sure the structure's bounding box contained the current chunk,
 												// the structure may not have spawned a branch on the current chunk. If so, try to 
 												// spawn more structures.
@@ -1001,7 +1150,6 @@ public class CustomStructurePlotter
 												
 												if(structureCacheContainsKey(chunkCoord) || targetStructure != null)
 												{
-													this.processing = false;
 													return spawnChunk;
 												}
 												break;
@@ -1024,8 +1172,6 @@ public class CustomStructurePlotter
 		// Let plotter know the chunk is taken (fast cache, optimisation)
 		setChunkOccupied(chunkCoord);
 		
-		this.processing = false;
-		
 		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE) && (System.currentTimeMillis() - startTime) > 50)
 		{
 			IBiomeConfig biomeConfig4 = worldGenRegion.getCachedBiomeProvider().getBiomeConfig(chunkCoord.getBlockX() + DecorationArea.BO_CHUNK_CENTER_X, chunkCoord.getBlockZ() + DecorationArea.BO_CHUNK_CENTER_Z);
@@ -1035,136 +1181,278 @@ public class CustomStructurePlotter
 		return null;
 	}
 
+	// Used to filter candidates, structures are only plotted after reserveSpawnByFrequency passes.
 	private boolean isBO4AllowedToSpawnAtByFrequency(ChunkCoordinate chunkCoord, BO4 BO3ToSpawn)
+	{
+		this.spawnedStructuresLock.readLock().lock();
+		try
+		{
+			return isBO4AllowedToSpawnAtByFrequencyLocked(chunkCoord, BO3ToSpawn);
+		} finally {
+			this.spawnedStructuresLock.readLock().unlock();
+		}
+	}
+
+	private boolean isBO4AllowedToSpawnAtByFrequencyLocked(ChunkCoordinate chunkCoord, BO4 BO3ToSpawn)
 	{
 		// Check if no other structure of the same type (filename) is within the minimum radius (BO3 frequency)
 		int radius = BO3ToSpawn.getConfig().frequency;
-		String bO3Name = BO3ToSpawn.getName();
 		if(radius > 0)
 		{
-			float distanceBetweenStructures = 0;
-			
-			ArrayList<ChunkCoordinate> chunkCoords = spawnedStructuresByName.get(bO3Name);
-			if(chunkCoords != null)
+			SpawnedStructuresIndex spawnedStructures = this.spawnedStructuresByNameIndex.get(BO3ToSpawn.getName());
+			if(spawnedStructures != null && spawnedStructures.isAnyWithinRadius(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), radius))
 			{
-				// Check BO3 frequency
-					for(ChunkCoordinate cachedChunk : chunkCoords)
-				{
-					// Find distance between two points
-					distanceBetweenStructures = (int)Math.floor(Math.sqrt(Math.pow(chunkCoord.getChunkX() - cachedChunk.getChunkX(), 2) + Math.pow(chunkCoord.getChunkZ() - cachedChunk.getChunkZ(), 2)));
-					if (distanceBetweenStructures <= radius)
-					{
-						// Other BO3 of the same type is too nearby, cannot spawn here!
-						return false;
-					}
-				}				
+				// Other BO3 of the same type is too nearby, cannot spawn here!
+				return false;
 			}
 		}
 		
 		// Check if no other structures that are a member of the same group as this BO3 are within the minimum radius (BO3Group frequency)
+		// Each spawned structure keeps its own group radius, the larger of the two radii is used.
 		if(BO3ToSpawn.getConfig().bo4Groups.size() > 0)
 		{
-			float distanceBetweenStructures = 0;
-			int cachedChunkRadius = 0;
-			ChunkCoordinate cachedChunk = null;
 			for(Entry<String, Integer> entry : BO3ToSpawn.getConfig().bo4Groups.entrySet())
 			{
-				HashMap<ChunkCoordinate, Integer> spawnedStructure = spawnedStructuresByGroup.get(entry.getKey());
-				if(spawnedStructure != null)
+				SpawnedStructuresIndex spawnedStructures = this.spawnedStructuresByGroupIndex.get(entry.getKey());
+				if(spawnedStructures != null && spawnedStructures.isAnyWithinRadius(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), entry.getValue().intValue()))
+				{
+					// Other BO3 using a shared BO3Group is too nearby, cannot spawn here!
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	// A structure being plotted that passed the frequency checks, but hasn't been added to 
+	// spawnedStructuresByName/Group yet. Frequency checks treat it as spawned, so threads 
+	// plotting in other regions can't place a structure within its radius meanwhile.
+	private static class SpawnReservation
+	{
+		private final BO4 bo4;
+		private final ChunkCoordinate spawnCoord;
+		private final ChunkCoordinate centerCoord;
+
+		private SpawnReservation(BO4 bo4, ChunkCoordinate spawnCoord, ChunkCoordinate centerCoord)
+		{
+			this.bo4 = bo4;
+			this.spawnCoord = spawnCoord;
+			this.centerCoord = centerCoord;
+		}
+
+		// Same checks as isBO4AllowedToSpawnAtByFrequencyLocked, against this structure.
+		private boolean blocks(ChunkCoordinate chunkCoord, BO4 BO3ToSpawn)
+		{
+			int radius = BO3ToSpawn.getConfig().frequency;
+			if(radius > 0 && this.bo4.getName().equals(BO3ToSpawn.getName()) && SpawnedStructuresIndex.isWithinRadius(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), this.spawnCoord.getChunkX(), this.spawnCoord.getChunkZ(), radius))
+			{
+				return true;
+			}
+			for(Entry<String, Integer> entry : BO3ToSpawn.getConfig().bo4Groups.entrySet())
+			{
+				Integer reservedRadius = this.bo4.getConfig().bo4Groups.get(entry.getKey());
+				if(
+					reservedRadius != null && reservedRadius.intValue() > 0 &&
+					SpawnedStructuresIndex.isWithinRadius(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), this.centerCoord.getChunkX(), this.centerCoord.getChunkZ(), Math.max(entry.getValue().intValue(), reservedRadius.intValue()))
+				)
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	// Returns null if the structure isn't allowed to spawn here, see isBO4AllowedToSpawnAtByFrequency.
+	private SpawnReservation reserveSpawnByFrequency(ChunkCoordinate spawnCoord, ChunkCoordinate centerCoord, BO4 BO3ToSpawn)
+	{
+		this.spawnedStructuresLock.writeLock().lock();
+		try
+		{
+			if(!isBO4AllowedToSpawnAtByFrequencyLocked(spawnCoord, BO3ToSpawn))
+			{
+				return null;
+			}
+			for(SpawnReservation reservation : this.spawnReservations)
+			{
+				if(reservation.blocks(spawnCoord, BO3ToSpawn))
+				{
+					return null;
+				}
+			}
+			SpawnReservation reservation = new SpawnReservation(BO3ToSpawn, spawnCoord, centerCoord);
+			this.spawnReservations.add(reservation);
+			return reservation;
+		} finally {
+			this.spawnedStructuresLock.writeLock().unlock();
+		}
+	}
+
+	// Removes the reservation, and if the structure was spawned adds it to the spawned structures.
+	private void releaseSpawnReservation(SpawnReservation reservation, boolean spawned)
+	{
+		this.spawnedStructuresLock.writeLock().lock();
+		try
+		{
+			this.spawnReservations.remove(reservation);
+			if(spawned && (reservation.bo4.getConfig().frequency > 0 || reservation.bo4.getConfig().bo4Groups.size() > 0))
+			{
+				String bO3Name = reservation.bo4.getName();
+				ArrayList<ChunkCoordinate> chunkCoords = this.spawnedStructuresByName.get(bO3Name);
+				if(chunkCoords == null)
 				{
-					for(Entry<ChunkCoordinate, Integer> cachedChunkEntry : spawnedStructure.entrySet())
+					chunkCoords = new ArrayList<ChunkCoordinate>();
+					this.spawnedStructuresByName.put(bO3Name, chunkCoords);
+				}
+				chunkCoords.add(reservation.spawnCoord);
+				addToSpawnedStructuresIndex(this.spawnedStructuresByNameIndex, bO3Name, reservation.spawnCoord, 0);
+
+				for(Entry<String, Integer> entry : reservation.bo4.getConfig().bo4Groups.entrySet())
+				{
+					String bo4GroupName = entry.getKey();
+					int bo4GroupFrequency = entry.getValue().intValue();
+					if(bo4GroupFrequency > 0)
 					{
-						cachedChunk = cachedChunkEntry.getKey();
-						cachedChunkRadius = cachedChunkEntry.getValue().intValue();
-						radius = entry.getValue().intValue() >= cachedChunkRadius ? entry.getValue().intValue() : cachedChunkRadius;
-						// Find distance between two points
-						distanceBetweenStructures = (int)Math.floor(Math.sqrt(Math.pow(chunkCoord.getChunkX() - cachedChunk.getChunkX(), 2) + Math.pow(chunkCoord.getChunkZ() - cachedChunk.getChunkZ(), 2)));
-						if (distanceBetweenStructures <= radius)
+						HashMap<ChunkCoordinate, Integer> spawnedStructures = this.spawnedStructuresByGroup.get(bo4GroupName);
+						if(spawnedStructures == null)
+						{
+							spawnedStructures = new HashMap<ChunkCoordinate, Integer>();
+							this.spawnedStructuresByGroup.put(bo4GroupName, spawnedStructures);
+						}
+						Integer frequency = spawnedStructures.get(reservation.centerCoord);
+						if(frequency == null || frequency.intValue() < bo4GroupFrequency)
 						{
-							// Other BO3 using a shared BO3Group is too nearby, cannot spawn here!
-							return false;
+							spawnedStructures.put(reservation.centerCoord, bo4GroupFrequency);
+							// The index keeps the old entry, only the largest radius matters for distance checks.
+							addToSpawnedStructuresIndex(this.spawnedStructuresByGroupIndex, bo4GroupName, reservation.centerCoord, bo4GroupFrequency);
 						}
 					}
 				}
 			}
+		} finally {
+			this.spawnedStructuresLock.writeLock().unlock();
 		}
-
-		return true;
 	}
-	
-	// Persistence
 
-	private void savePlottedChunks(Path worldSaveDir, String presetFolderName, ILogger logger)
+	private static void addToSpawnedStructuresIndex(Map<String, SpawnedStructuresIndex> indexes, String name, ChunkCoordinate chunkCoord, int radius)
 	{
-		CustomStructureFileManager.savePlottedChunksData(worldSaveDir, presetFolderName, this.plottedChunks, logger);
+		SpawnedStructuresIndex index = indexes.get(name);
+		if(index == null)
+		{
+			index = new SpawnedStructuresIndex();
+			indexes.put(name, index);
+		}
+		index.add(chunkCoord.getChunkX(), chunkCoord.getChunkZ(), radius);
 	}
 
-	private void loadPlottedChunks(Path worldSaveDir, String presetFolderName, ILogger logger)
+	private void rebuildSpawnedStructuresIndexes()
 	{
-		this.plottedChunks.clear();
-		this.plottedChunks.putAll(CustomStructureFileManager.loadPlottedChunksData(worldSaveDir, presetFolderName, logger));
+		this.spawnedStructuresByNameIndex.clear();
+		this.spawnedStructuresByGroupIndex.clear();
+		for(Entry<String, ArrayList<ChunkCoordinate>> entry : this.spawnedStructuresByName.entrySet())
+		{
+			for(ChunkCoordinate chunkCoord : entry.getValue())
+			{
+				addToSpawnedStructuresIndex(this.spawnedStructuresByNameIndex, entry.getKey(), chunkCoord, 0);
+			}
+		}
+		for(Entry<String, HashMap<ChunkCoordinate, Integer>> entry : this.spawnedStructuresByGroup.entrySet())
+		{
+			for(Entry<ChunkCoordinate, Integer> chunkCoordAndRadius : entry.getValue().entrySet())
+			{
+				addToSpawnedStructuresIndex(this.spawnedStructuresByGroupIndex, entry.getKey(), chunkCoordAndRadius.getKey(), chunkCoordAndRadius.getValue().intValue());
+			}
+		}
 	}
 	
-	private void saveSpawnedStructures(Path worldSaveDir, String presetFolderName, ILogger logger)
+	// Persistence
+
+	private void savePlottedChunks(Path worldSaveDir, String presetFolderName, StructureDataWriter writer, ILogger logger)
 	{
-		CustomStructureFileManager.saveChunksMapFile(worldSaveDir, presetFolderName, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);
+		CustomStructureFileManager.savePlottedChunksData(worldSaveDir, presetFolderName, this.plottedChunks, writer, logger);
+	}
+
+	private void saveSpawnedStructures(Path worldSaveDir, String presetFolderName, StructureDataWriter writer, ILogger logger)
+	{
+		this.spawnedStructuresLock.readLock().lock();
+		try
+		{
+			CustomStructureFileManager.saveChunksMapFile(worldSaveDir, presetFolderName, this.spawnedStructuresByName, this.spawnedStructuresByGroup, writer, logger);
+		} finally {
+			this.spawnedStructuresLock.readLock().unlock();
+		}
 	}
 	
-	private void loadSpawnedStructures(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, ILogger logger)
+	public void loadSpawnedStructures(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, ILogger logger)
 	{
-		CustomStructureFileManager.loadChunksMapFile(worldSaveDir, presetFolderName, isBO4Enabled, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);		
+		this.spawnedStructuresLock.writeLock().lock();
+		try
+		{
+			CustomStructureFileManager.loadChunksMapFile(worldSaveDir, presetFolderName, isBO4Enabled, this.spawnedStructuresByName, this.spawnedStructuresByGroup, logger);
+			rebuildSpawnedStructuresIndexes();
+		} finally {
+			this.spawnedStructuresLock.writeLock().unlock();
+		}
 	}
 	
-	public void saveStructureCache(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, ILogger logger)
+	public void saveStructureCache(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, StructureDataWriter writer, ILogger logger)
 	{
 		if(isBO4Enabled)
 		{
-			savePlottedChunks(worldSaveDir, presetFolderName, logger);
-			saveSpawnedStructures(worldSaveDir, presetFolderName, logger);
+			savePlottedChunks(worldSaveDir, presetFolderName, writer, logger);
+			saveSpawnedStructures(worldSaveDir, presetFolderName, writer, logger);
 		}
 	}
 
-	public void loadStructureCache(Path worldSaveDir, String presetFolderName, boolean isBO4Enabled, Map<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructures, ILogger logger)
+	/**
+	 * Adds the structure data and plotted chunks loaded for a region, called by 
+	 * the structure cache when the region is first used.
+	 */
+	public void loadRegion(ChunkCoordinate regionCoord, Map<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructures, PlottedChunksRegion plottedChunksRegion)
 	{
-		this.bo4StructureCache.clear();
-		
-		if(isBO4Enabled)
+		if(loadedStructures != null)
 		{
-			if(loadedStructures != null)
+			for(CustomStructure loadedStructure : loadedStructures.keySet())
 			{
-				for(Entry<CustomStructure, ArrayList<ChunkCoordinate>> loadedStructure : loadedStructures.entrySet())
+				// loadedStructures contains chunkcoords for every chunk ever plotted.
+				// We only need chunks plotted but not yet decorated that contain structure parts.
+				// objectsToSpawn and smoothingAreasToSpawn contain all unspawned branches and 
+				// smoothing areas. Any chunks that have had their bo4's spawned while decorating a neighbouring 
+				// chunk, but have not yet been fully decorated themselves are kept in decoratedChunks, along with all
+				// fully decorated chunks (they are considered fully decorated for the purposes of bo4 plotting).
+				BO4CustomStructure structure = (BO4CustomStructure)loadedStructure;
+				for(ChunkCoordinate chunkCoord : structure.getObjectsToSpawn().keySet())
 				{
-					if(loadedStructure == null)
-					{
-						throw new RuntimeException("This shouldn't happen, please ask for help on the OTG Discord and/or file an issue on the OTG github.");
-					}
-				
-					// loadedStructures contains chunkcoords for every chunk ever plotted.
-					// We only need chunks plotted but not yet decorated that contain structure parts.
-					// objectsToSpawn and smoothingAreasToSpawn contain all unspawned branches and 
-					// smoothing areas. Any chunks that have had their bo4's spawned while decorating a neighbouring 
-					// chunk, but have not yet been fully decorated themselves are kept in decoratedChunks, along with all
-					// fully decorated chunks (they are considered fully decorated for the purposes of bo4 plotting).
-					for(ChunkCoordinate chunkCoord : ((BO4CustomStructure)loadedStructure.getKey()).getObjectsToSpawn().keySet())
+					if(chunkCoord.toRegionCoord().equals(regionCoord))
 					{
-						this.addToStructureCache(chunkCoord, (BO4CustomStructure)loadedStructure.getKey()); // This structure has blocks that need to be spawned
+						addToLoadedStructureCache(regionCoord, chunkCoord, structure); // This structure has blocks that need to be spawned
 					}
-					for(ChunkCoordinate chunkCoord : ((BO4CustomStructure)loadedStructure.getKey()).getSmoothingAreaManager().getSmoothingAreaChunkCoords())
+				}
+				for(ChunkCoordinate chunkCoord : structure.getSmoothingAreaManager().getSmoothingAreaChunkCoords())
+				{
+					if(chunkCoord.toRegionCoord().equals(regionCoord))
 					{
-						this.addToStructureCache(chunkCoord, (BO4CustomStructure)loadedStructure.getKey()); // This structure has smoothing area blocks that need to be spawned
+						addToLoadedStructureCache(regionCoord, chunkCoord, structure); // This structure has smoothing area blocks that need to be spawned
 					}
 				}
 			}
+		}
+		if(plottedChunksRegion != null)
+		{
+			this.plottedChunks.put(regionCoord, plottedChunksRegion);
+		}
+	}
 
-			loadPlottedChunks(worldSaveDir, presetFolderName, logger);
-			loadSpawnedStructures(worldSaveDir, presetFolderName, isBO4Enabled, logger);
+	public boolean isRegionSaveRequired(ChunkCoordinate regionCoord)
+	{
+		PlottedChunksRegion plottedChunksRegion = this.plottedChunks.get(regionCoord);
+		return plottedChunksRegion != null && plottedChunksRegion.requiresSave();
+	}
 
-			for(ChunkCoordinate chunkCoord : this.bo4StructureCache.keySet())
-			{
-				// This is an optimisation so that PlotStructures knows not to plot anything in this chunk
-				// TODO: This could easily exceed the capacity of the StructuresPerChunkCache, mostly defeating the point?
-				setChunkOccupied(chunkCoord);
-			}
-		}
-	}	
+	public void unloadRegion(ChunkCoordinate regionCoord)
+	{
+		this.bo4StructureCache.remove(regionCoord);
+		this.plottedChunks.remove(regionCoord);
+	}
 }
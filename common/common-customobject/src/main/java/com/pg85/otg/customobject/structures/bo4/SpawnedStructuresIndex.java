@@ -0,0 +1,141 @@
+package com.pg85.otg.customobject.structures.bo4;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.pg85.otg.util.helpers.MathHelper;
+
+/**
+ * Grid index of spawned structure locations, used by the plotter to check BO4
+ * frequency and group distances without looping through every structure ever spawned.
+ * Locations are bucketed into cells of 16x16 chunks, a radius query only checks the
+ * cells overlapping the radius, or all locations if that's fewer.
+ *
+ * The index isn't saved, it's rebuilt from the spawned structures data when loading.
+ * Not thread-safe, the plotter guards it with its spawned structures lock.
+ */
+final class SpawnedStructuresIndex
+{
+	private static final int CELL_SIZE_SHIFT = 4;
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
+	private final Map<Long, Cell> cells = new HashMap<Long, Cell>();
+	private int size;
+	// Largest radius stored with any location, used to find the cells to check.
+	private int maxRadius;
+
+	private static class Cell
+	{
+		private int size;
+		private int[] chunkX = new int[INITIAL_CELL_CAPACITY];
+		private int[] chunkZ = new int[INITIAL_CELL_CAPACITY];
+		private int[] radius = new int[INITIAL_CELL_CAPACITY];
+
+		private void add(int x, int z, int r)
+		{
+			if(this.size == this.chunkX.length)
+			{
+				int capacity = this.size * 2;
+				this.chunkX = Arrays.copyOf(this.chunkX, capacity);
+				this.chunkZ = Arrays.copyOf(this.chunkZ, capacity);
+				this.radius = Arrays.copyOf(this.radius, capacity);
+			}
+			this.chunkX[this.size] = x;
+			this.chunkZ[this.size] = z;
+			this.radius[this.size] = r;
+			this.size++;
+		}
+
+		private boolean isAnyWithinRadius(int x, int z, int radius)
+		{
+			for(int i = 0; i < this.size; i++)
+			{
+				if(isWithinRadius(x, z, this.chunkX[i], this.chunkZ[i], radius >= this.radius[i] ? radius : this.radius[i]))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Adds a structure location, radius is the minimum distance other
+	 * structures must keep from it, or 0 if only the caller's radius applies.
+	 */
+	void add(int chunkX, int chunkZ, int radius)
+	{
+		long cellKey = MathHelper.toLong(chunkX >> CELL_SIZE_SHIFT, chunkZ >> CELL_SIZE_SHIFT);
+		Cell cell = this.cells.get(cellKey);
+		if(cell == null)
+		{
+			cell = new Cell();
+			this.cells.put(cellKey, cell);
+		}
+		cell.add(chunkX, chunkZ, radius);
+		this.size++;
+		if(radius > this.maxRadius)
+		{
+			this.maxRadius = radius;
+		}
+	}
+
+	/**
+	 * Returns true if any location lies within the given radius of chunkX/chunkZ,
+	 * or within the location's own radius if that is larger.
+	 */
+	boolean isAnyWithinRadius(int chunkX, int chunkZ, int radius)
+	{
+		if(this.size == 0)
+		{
+			return false;
+		}
+
+		int searchRadius = radius >= this.maxRadius ? radius : this.maxRadius;
+		long minCellX = (chunkX - (long)searchRadius) >> CELL_SIZE_SHIFT;
+		long maxCellX = (chunkX + (long)searchRadius) >> CELL_SIZE_SHIFT;
+		long minCellZ = (chunkZ - (long)searchRadius) >> CELL_SIZE_SHIFT;
+		long maxCellZ = (chunkZ + (long)searchRadius) >> CELL_SIZE_SHIFT;
+		long cellsToCheck = (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+
+		if(cellsToCheck > this.cells.size())
+		{
+			// Large radius compared to the number of locations, checking every cell is cheaper.
+			for(Cell cell : this.cells.values())
+			{
+				if(cell.isAnyWithinRadius(chunkX, chunkZ, radius))
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+
+		for(long cellX = minCellX; cellX <= maxCellX; cellX++)
+		{
+			for(long cellZ = minCellZ; cellZ <= maxCellZ; cellZ++)
+			{
+				Cell cell = this.cells.get(MathHelper.toLong((int)cellX, (int)cellZ));
+				if(cell != null && cell.isAnyWithinRadius(chunkX, chunkZ, radius))
+				{
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// Same as floor(sqrt(dx^2 + dz^2)) <= radius, without the sqrt.
+	static boolean isWithinRadius(int x1, int z1, int x2, int z2, int radius)
+	{
+		if(radius < 0)
+		{
+			return false;
+		}
+		long dx = (long)x1 - x2;
+		long dz = (long)z1 - z2;
+		long maxDistance = radius + 1L;
+		return dx * dx + dz * dz < maxDistance * maxDistance;
+	}
+}
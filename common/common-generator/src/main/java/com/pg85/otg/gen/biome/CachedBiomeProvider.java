@@ -1,10 +1,5 @@
 package com.pg85.otg.gen.biome;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
 import com.pg85.otg.constants.Constants;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.IBiome;
@@ -12,18 +7,18 @@ import com.pg85.otg.interfaces.ICachedBiomeProvider;
 import com.pg85.otg.interfaces.ILayerSource;
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.util.ChunkCoordinate;
-import com.pg85.otg.util.FifoMap;
+import com.pg85.otg.util.LongKeyedCache;
 import com.pg85.otg.util.helpers.MathHelper;
 
 /**
  * A cache used throughout an entire session, so that base
  * terrain generation, carvers and decoration can fetch biomes
- * more efficiently. 
+ * more efficiently. The caches are lock-striped and biomes are
+ * sampled outside of any lock, so worldgen threads don't have
+ * to queue up behind each other.
  */
 public class CachedBiomeProvider implements ICachedBiomeProvider
 {
-	static int cacheHits = 0;
-	static int smallCacheHits = 0;
 	@SuppressWarnings("unused")
 	private final ILogger logger;
 	
@@ -31,21 +26,66 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	private final ILayerSource biomeProvider;
 	private final IBiome[] biomesById;
 	
-	private final Object lock = new Object();
-	private boolean locked = false;
-	private boolean locked2 = false;
-	private final FifoMap<ChunkCoordinate, IBiome[]> biomesCache = new FifoMap<>(256);
-	private final FifoMap<ChunkCoordinate, IBiomeConfig[]> biomeConfigsCache = new FifoMap<>(256);
-	
-	private final Object noiseLock = new Object();
-	private final FifoMap<ChunkCoordinate, IBiomeConfig[]> noiseBiomeConfigsCache = new FifoMap<>(1024);	
+	// Interpolating a chunk's biomes looks up noise biomes from 1 position before 
+	// to 1 position after the chunk's 4x4 noise area, see BiomeInterpolator.
+	private static final int NOISE_SIZE_PER_CHUNK = (Constants.CHUNK_SIZE >> 2) + 2;
+
+	private final LongKeyedCache<BiomeChunk> biomesCache;
+	private final LongKeyedCache<IBiomeConfig[]> noiseBiomeConfigsCache;
 
-	public CachedBiomeProvider(long seed, ILayerSource biomeProvider, IBiome[] biomesById, ILogger logger)
+	/**
+	 * @param biomeCacheSize The amount of chunks to cache biomes for, 0 to scale with the amount of cpu cores.
+	 * @param noiseBiomeCacheSize The amount of 8x8 noise regions to cache, 0 to scale with the amount of cpu cores.
+	 */
+	public CachedBiomeProvider(long seed, ILayerSource biomeProvider, IBiome[] biomesById, int biomeCacheSize, int noiseBiomeCacheSize, ILogger logger)
 	{
 		this.seed = seed;
 		this.biomeProvider = biomeProvider;
 		this.biomesById = biomesById;
 		this.logger = logger;
+
+		int cores = Runtime.getRuntime().availableProcessors();
+		int concurrency = cores * 4;
+		this.biomesCache = new LongKeyedCache<>(biomeCacheSize > 0 ? biomeCacheSize : Math.max(256, cores * 64), concurrency);
+		this.noiseBiomeConfigsCache = new LongKeyedCache<>(noiseBiomeCacheSize > 0 ? noiseBiomeCacheSize : Math.max(1024, cores * 256), concurrency);
+	}
+
+	private BiomeChunk getBiomeChunk(ChunkCoordinate chunkCoord)
+	{
+		long key = MathHelper.toLong(chunkCoord.getChunkX(), chunkCoord.getChunkZ());
+		BiomeChunk biomeChunk = this.biomesCache.get(key);
+		if(biomeChunk == null)
+		{
+			int noiseStartX = BiomeInterpolator.getNoiseStart(chunkCoord.getBlockX());
+			int noiseStartZ = BiomeInterpolator.getNoiseStart(chunkCoord.getBlockZ());
+			int[] noiseIds = new int[NOISE_SIZE_PER_CHUNK * NOISE_SIZE_PER_CHUNK];
+			this.biomeProvider.getSampler().sampleRegion(noiseStartX, noiseStartZ, NOISE_SIZE_PER_CHUNK, NOISE_SIZE_PER_CHUNK, noiseIds);
+			// If another thread beat us to it, use its result so all callers share the same arrays.
+			biomeChunk = this.biomesCache.putIfAbsent(key, createBiomeChunk(chunkCoord, noiseIds, noiseStartX, noiseStartZ, NOISE_SIZE_PER_CHUNK));
+		}
+		return biomeChunk;
+	}
+
+	// Interpolates the biomes for a chunk from a region of noise biome ids sampled 
+	// up front, see BiomeInterpolator.getNoiseStart for the area it should cover.
+	private BiomeChunk createBiomeChunk(ChunkCoordinate chunkCoord, int[] noiseIds, int noiseStartX, int noiseStartZ, int noiseWidth)
+	{
+		IBiome[] biomes = new IBiome[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+		IBiomeConfig[] biomeConfigs = new IBiomeConfig[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
+		int biomeId;
+		IBiome biome;
+		for (int x = 0; x < Constants.CHUNK_SIZE; x++)
+		{
+			for (int z = 0; z < Constants.CHUNK_SIZE; z++)
+			{
+				// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
+				biomeId = BiomeInterpolator.getId(this.seed, x + chunkCoord.getBlockX(), 0, z + chunkCoord.getBlockZ(), noiseIds, noiseStartX, noiseStartZ, noiseWidth);
+				biome = this.biomesById[biomeId];
+				biomes[x * Constants.CHUNK_SIZE + z] = biome;
+				biomeConfigs[x * Constants.CHUNK_SIZE + z] = biome.getBiomeConfig();
+			}
+		}
+		return new BiomeChunk(biomes, biomeConfigs);
 	}
 
 	// Used by any method that can preemptively request a region of biomeconfigs,
@@ -54,37 +94,7 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	@Override
 	public IBiomeConfig[] getBiomeConfigsForChunk(ChunkCoordinate chunkCoord)
 	{
-		IBiomeConfig[] biomeConfigs;
-		synchronized(this.lock)
-		{
-			this.locked = true;
-			biomeConfigs = this.biomeConfigsCache.get(chunkCoord);
-			if(biomeConfigs == null)
-			{
-				IBiome[] biomes = new IBiome[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				biomeConfigs = new IBiomeConfig[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				int biomeId;
-				IBiome biome;
-				for (int x = 0; x < Constants.CHUNK_SIZE; x++)
-				{
-					for (int z = 0; z < Constants.CHUNK_SIZE; z++)
-					{
-						// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-						biomeId = BiomeInterpolator.getId(this.seed, x + chunkCoord.getBlockX(), 0, z + chunkCoord.getBlockZ(), this.biomeProvider);
-						biome = this.biomesById[biomeId];
-						biomes[x * Constants.CHUNK_SIZE + z] = biome;
-						biomeConfigs[x * Constants.CHUNK_SIZE + z] = biome.getBiomeConfig();
-					}
-				}
-				this.biomesCache.put(chunkCoord, biomes);
-				this.biomeConfigsCache.put(chunkCoord, biomeConfigs);
-			} else {
-				cacheHits++;
-				//logger.log(LogLevel.INFO, LogCategory.MAIN, "Cache hit " + cacheHits);
-			}
-		}
-		this.locked = false;
-		return biomeConfigs;		
+		return getBiomeChunk(chunkCoord).biomeConfigs;
 	}
 	
 	// Used by any method that can preemptively request a chunk of biomeconfigs,
@@ -92,37 +102,7 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	@Override
 	public IBiome[] getBiomesForChunk(ChunkCoordinate chunkCoord)
 	{
-		IBiome[] biomes;
-		synchronized(this.lock)
-		{
-			this.locked = true;
-			biomes = this.biomesCache.get(chunkCoord);
-			if(biomes == null)
-			{
-				biomes = new IBiome[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				IBiomeConfig[]  biomeConfigs = new IBiomeConfig[Constants.CHUNK_SIZE * Constants.CHUNK_SIZE];
-				int biomeId;
-				IBiome biome;
-				for (int x = 0; x < Constants.CHUNK_SIZE; x++)
-				{
-					for (int z = 0; z < Constants.CHUNK_SIZE; z++)
-					{
-						// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-						biomeId = BiomeInterpolator.getId(this.seed,  x + chunkCoord.getBlockX(), 0, z + chunkCoord.getBlockZ(), this.biomeProvider);
-						biome = this.biomesById[biomeId];
-						biomes[x * Constants.CHUNK_SIZE + z] = biome;
-						biomeConfigs[x * Constants.CHUNK_SIZE + z] = biome.getBiomeConfig();
-					}
-				}
-				this.biomesCache.put(chunkCoord, biomes);
-				this.biomeConfigsCache.put(chunkCoord, biomeConfigs);
-			} else {
-				cacheHits++;
-				//logger.log(LogLevel.INFO, LogCategory.MAIN, "Cache hit " + cacheHits);
-			}
-		}
-		this.locked = false;
-		return biomes;
+		return getBiomeChunk(chunkCoord).biomes;
 	}
 	
 	@Override
@@ -131,25 +111,42 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 		IBiome[] biomes = new IBiome[widthHeightInBlocks * widthHeightInBlocks];
 		IBiome[] chunkBiomes;
 		int widthHeightInChunks = (int)Math.ceil(widthHeightInBlocks / 16f);
-		synchronized(this.lock)
+
+		// Noise biome ids for the whole area, only sampled if any of the chunks isn't cached.
+		int[] noiseIds = null;
+		int noiseStartX = BiomeInterpolator.getNoiseStart(chunkCoord.getBlockX());
+		int noiseStartZ = BiomeInterpolator.getNoiseStart(chunkCoord.getBlockZ());
+		int noiseWidth = widthHeightInChunks * (Constants.CHUNK_SIZE >> 2) + 2;
+
+		ChunkCoordinate currentChunk;
+		long key;
+		BiomeChunk biomeChunk;
+		for(int chunkX = 0; chunkX < widthHeightInChunks; chunkX++)
 		{
-			this.locked2 = true;
-			for(int chunkX = 0; chunkX < widthHeightInChunks; chunkX++)
+			for(int chunkZ = 0; chunkZ < widthHeightInChunks; chunkZ++)
 			{
-				for(int chunkZ = 0; chunkZ < widthHeightInChunks; chunkZ++)
+				currentChunk = ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + chunkX, chunkCoord.getChunkZ() + chunkZ);
+				key = MathHelper.toLong(currentChunk.getChunkX(), currentChunk.getChunkZ());
+				biomeChunk = this.biomesCache.get(key);
+				if(biomeChunk == null)
 				{
-					chunkBiomes = getBiomesForChunk(ChunkCoordinate.fromChunkCoords(chunkCoord.getChunkX() + chunkX, chunkCoord.getChunkZ() + chunkZ));
-					for(int x = 0; x < Constants.CHUNK_SIZE; x++)
+					if(noiseIds == null)
 					{
-						for(int z = 0; z < Constants.CHUNK_SIZE; z++)
-						{
-							biomes[(chunkX * Constants.CHUNK_SIZE + x) * widthHeightInBlocks + (chunkZ * Constants.CHUNK_SIZE + z)] = chunkBiomes[x * Constants.CHUNK_SIZE + z];
-						}
+						noiseIds = new int[noiseWidth * noiseWidth];
+						this.biomeProvider.getSampler().sampleRegion(noiseStartX, noiseStartZ, noiseWidth, noiseWidth, noiseIds);
+					}
+					biomeChunk = this.biomesCache.putIfAbsent(key, createBiomeChunk(currentChunk, noiseIds, noiseStartX, noiseStartZ, noiseWidth));
+				}
+				chunkBiomes = biomeChunk.biomes;
+				for(int x = 0; x < Constants.CHUNK_SIZE; x++)
+				{
+					for(int z = 0; z < Constants.CHUNK_SIZE; z++)
+					{
+						biomes[(chunkX * Constants.CHUNK_SIZE + x) * widthHeightInBlocks + (chunkZ * Constants.CHUNK_SIZE + z)] = chunkBiomes[x * Constants.CHUNK_SIZE + z];
 					}
 				}
 			}
 		}
-		this.locked2 = false;
 		return biomes;
 	}
 	
@@ -162,28 +159,20 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	public IBiomeConfig getBiomeConfig(int x, int z, boolean cacheChunk)
 	{
 		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
-		// TODO: Do we want/need a lock here? Overhead of the lock would be big.
-		IBiomeConfig[] biomeConfigs = null;
-		if(!this.locked && !this.locked2)
-		{
-			biomeConfigs = this.biomeConfigsCache.get(chunkCoord);
-		}
 		int internalX = x - chunkCoord.getBlockX();
 		int internalZ = z - chunkCoord.getBlockZ();
-		if(biomeConfigs == null)
+		if(cacheChunk)
 		{
-			if(cacheChunk && !this.locked && !this.locked2)
-			{
-				return getBiomeConfigsForChunk(chunkCoord)[internalX * Constants.CHUNK_SIZE + internalZ];
-			}
-			// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-			int biomeId = BiomeInterpolator.getId(this.seed,  x, 0, z, this.biomeProvider);
-			return this.biomesById[biomeId].getBiomeConfig();
-		} else {
-			smallCacheHits++;
-			//logger.log(LogLevel.INFO, LogCategory.MAIN, "Small cache hit " + cacheHits);
+			return getBiomeChunk(chunkCoord).biomeConfigs[internalX * Constants.CHUNK_SIZE + internalZ];
 		}
-		return biomeConfigs[internalX * Constants.CHUNK_SIZE + internalZ];
+		BiomeChunk biomeChunk = this.biomesCache.get(MathHelper.toLong(chunkCoord.getChunkX(), chunkCoord.getChunkZ()));
+		if(biomeChunk != null)
+		{
+			return biomeChunk.biomeConfigs[internalX * Constants.CHUNK_SIZE + internalZ];
+		}
+		// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
+		int biomeId = BiomeInterpolator.getId(this.seed,  x, 0, z, this.biomeProvider);
+		return this.biomesById[biomeId].getBiomeConfig();
 	}
 
 	// These methods don't use the cache because the overhead
@@ -209,90 +198,67 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 	// each cell equal to 4x4 blocks in the world.
 	//@Override
 	public IBiomeConfig[] getNoiseBiomeConfigsForRegion(int noiseStartX, int noiseStartZ, int widthHeight)
+	{
+		return getNoiseBiomeConfigsForRegion(noiseStartX, noiseStartZ, widthHeight, new IBiomeConfig[widthHeight * widthHeight]);
+	}
+
+	// Same as above, but fills the given array so callers can reuse it. The array
+	// may be larger than needed, only the first widthHeight * widthHeight are set.
+	public IBiomeConfig[] getNoiseBiomeConfigsForRegion(int noiseStartX, int noiseStartZ, int widthHeight, IBiomeConfig[] biomeConfigs)
 	{
 		int regionSize = 8;
 		int regionStartX = noiseStartX >> 3;
 		int regionStartZ = noiseStartZ >> 3;
 		int cacheOffsetX = noiseStartX - (regionStartX << 3);
 		int cacheOffsetZ = noiseStartZ - (regionStartZ << 3);
-		int regionWidth = (int)Math.ceil((((regionStartX >> 3) + widthHeight) - (regionStartX >> 3)) / 8f);
-		int regionHeight = (int)Math.ceil((((regionStartZ >> 3) + widthHeight) - (regionStartZ >> 3)) / 8f);
-		IBiomeConfig[] biomeConfigs = new IBiomeConfig[widthHeight * widthHeight];
+		int regionWidth = (int)Math.ceil(widthHeight / 8f);
+		int regionHeight = (int)Math.ceil(widthHeight / 8f);
 
-		IBiome biome;
 		IBiomeConfig[] region;
-		ChunkCoordinate regionCoord;
-		List<ChunkCoordinate> regionsToHandle = new ArrayList<ChunkCoordinate>();
+		int[] regionIds = null;
+		long regionKey;
 		int cacheX;
 		int cacheZ;
-		synchronized(this.noiseLock)
+		for(int regionX = regionStartX; regionX <= regionStartX + regionWidth; regionX++)
 		{
-			for(int regionX = regionStartX; regionX <= regionStartX + regionWidth; regionX++)
+			for(int regionZ = regionStartZ; regionZ <= regionStartZ + regionHeight; regionZ++)
 			{
-				for(int regionZ = regionStartZ; regionZ <= regionStartZ + regionHeight; regionZ++)
+				regionKey = MathHelper.toLong(regionX, regionZ);
+				region = this.noiseBiomeConfigsCache.get(regionKey);
+				if(region == null)
 				{
-					regionCoord = ChunkCoordinate.fromChunkCoords(regionX, regionZ);
-					region = this.noiseBiomeConfigsCache.get(regionCoord);
-					if(region != null)
+					if(regionIds == null)
 					{
-						for(int x = 0; x < regionSize; x++)
+						regionIds = new int[regionSize * regionSize];
+					}
+					// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
+					this.biomeProvider.getSampler().sampleRegion(regionX << 3, regionZ << 3, regionSize, regionSize, regionIds);
+					region = new IBiomeConfig[regionSize * regionSize];
+					for(int x = 0; x < regionSize; x++)
+					{
+						for(int z = 0; z < regionSize; z++)
 						{
-							for(int z = 0; z < regionSize; z++)
-							{
-								cacheX = ((regionX - regionStartX) << 3) + x - cacheOffsetX;								
-								cacheZ = ((regionZ - regionStartZ) << 3) + z - cacheOffsetZ;
-								if(
-									cacheX < widthHeight && cacheX >= 0 &&
-									cacheZ < widthHeight && cacheZ >= 0
-								)
-								{
-									biomeConfigs[cacheX * widthHeight + cacheZ] = region[(x << 3) + z];
-									if(
-										cacheX == widthHeight - 1 &&
-										cacheZ == widthHeight - 1 &&
-										regionsToHandle.size() == 0 
-									)
-									{
-										return biomeConfigs;
-									}
-								}
-							}
+							region[(x << 3) + z] = this.biomesById[regionIds[(z << 3) + x]].getBiomeConfig();
 						}
-					} else {
-						regionsToHandle.add(regionCoord);
 					}
+					region = this.noiseBiomeConfigsCache.putIfAbsent(regionKey, region);
 				}
-			}
-		}
-		Map<ChunkCoordinate, IBiomeConfig[]> regionsHandled = new HashMap<ChunkCoordinate, IBiomeConfig[]>();
-		for(ChunkCoordinate regionTohandle : regionsToHandle)
-		{
-			region = new IBiomeConfig[regionSize * regionSize];
-			for(int x = 0; x < regionSize; x++)
-			{
-				for(int z = 0; z < regionSize; z++)
+				for(int x = 0; x < regionSize; x++)
 				{
-					// TODO: Technically, we should be providing the hashed seed here. Perhaps this may work for the time being?
-					biome = this.biomesById[this.biomeProvider.getSampler().sample((regionTohandle.getChunkX() << 3) + x, (regionTohandle.getChunkZ() << 3) + z)];
-					region[(x << 3) + z] = biome.getBiomeConfig();
-					
-					// TODO: Abort and don't cache region if requested area is smaller than 8x8?
-					cacheX = ((regionTohandle.getChunkX() - regionStartX) << 3) + x - cacheOffsetX;
-					cacheZ = ((regionTohandle.getChunkZ() - regionStartZ) << 3) + z - cacheOffsetZ;
-					if(
-						cacheX < widthHeight && cacheX >= 0 &&
-						cacheZ < widthHeight && cacheZ >= 0
-					)
+					cacheX = ((regionX - regionStartX) << 3) + x - cacheOffsetX;
+					if(cacheX < widthHeight && cacheX >= 0)
 					{
-						biomeConfigs[cacheX * widthHeight + cacheZ] = biome.getBiomeConfig();
+						for(int z = 0; z < regionSize; z++)
+						{
+							cacheZ = ((regionZ - regionStartZ) << 3) + z - cacheOffsetZ;
+							if(cacheZ < widthHeight && cacheZ >= 0)
+							{
+								biomeConfigs[cacheX * widthHeight + cacheZ] = region[(x << 3) + z];
+							}
+						}
 					}
 				}
 			}
-			regionsHandled.put(regionTohandle, region);
-		}
-		synchronized(this.noiseLock)
-		{
-			this.noiseBiomeConfigsCache.putAll(regionsHandled);
 		}
 		return biomeConfigs;
 	}
@@ -314,6 +280,18 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 		return this.biomesById[this.biomeProvider.getSampler().sample(noiseX, noiseZ)];
 	}
 
+	private static class BiomeChunk
+	{
+		private final IBiome[] biomes;
+		private final IBiomeConfig[] biomeConfigs;
+
+		private BiomeChunk(IBiome[] biomes, IBiomeConfig[] biomeConfigs)
+		{
+			this.biomes = biomes;
+			this.biomeConfigs = biomeConfigs;
+		}
+	}
+
 	/**
 	 * Interpolates the given biome from biome coords (pos >> 2) to real coords.
 	 * This is required as a vanilla change in 1.15 changed biomes from being stored in real resolution, changing them to be
@@ -328,6 +306,21 @@ public class CachedBiomeProvider implements ICachedBiomeProvider
 			int biomeId = biomeProvider.getSampler().sample(MathHelper.getXFromLong(pos), MathHelper.getZFromLong(pos));
 			return biomeId;
 		}
+
+		// Same as above, but reads the noise biome from a region sampled via ILayerSampler.sampleRegion.
+		public static int getId(long seed, int x, int y, int z, int[] noiseIds, int noiseStartX, int noiseStartZ, int noiseWidth)
+		{
+			long pos = sample(seed, x, y, z);
+			return noiseIds[(MathHelper.getZFromLong(pos) - noiseStartZ) * noiseWidth + (MathHelper.getXFromLong(pos) - noiseStartX)];
+		}
+
+		// The first noise coordinate that getId can look up for the given block coordinate
+		// (which should be the start of a chunk). The noise coordinates for a chunk span 
+		// NOISE_SIZE_PER_CHUNK positions from there.
+		public static int getNoiseStart(int blockCoord)
+		{
+			return (blockCoord - 2) >> 2;
+		}
 		
 		private static long sample(long seed, int x, int y, int z)
 		{
@@ -14,7 +14,7 @@ public class ApplyOceanLayer implements ParentedLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 		int sample = parent.sample(x, z);
 
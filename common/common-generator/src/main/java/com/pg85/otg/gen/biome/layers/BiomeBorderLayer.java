@@ -73,7 +73,14 @@ public class BiomeBorderLayer implements ParentedLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int getParentPadding()
+	{
+		// Checks the parent's direct neighbours and corners
+		return 1;
+	}
+
+	@Override
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 		int center = parent.sample(x, z);
 		int cCheck = BiomeLayers.getBiomeFromLayer(center);
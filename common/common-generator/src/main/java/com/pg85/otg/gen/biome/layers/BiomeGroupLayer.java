@@ -43,7 +43,7 @@ class BiomeGroupLayer implements ParentedLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 		int sample = parent.sample(x, z);
 		
@@ -53,7 +53,7 @@ class BiomeGroupLayer implements ParentedLayer
 			(sample & BiomeLayers.GROUP_BITS) == 0
 		)
 		{
-			NewBiomeGroup biomeGroup = getGroup(context);
+			NewBiomeGroup biomeGroup = getGroup(context, localSeed);
 			if(biomeGroup != null)
 			{
 				// Encode the biome group id into the sample for later use
@@ -64,10 +64,10 @@ class BiomeGroupLayer implements ParentedLayer
 		return sample;
 	}
 
-	private NewBiomeGroup getGroup(LayerRandomnessSource random)
+	private NewBiomeGroup getGroup(LayerRandomnessSource random, long localSeed)
 	{
 		// Get a random rarity number from our max rarity
-		int chosenRarity = random.nextInt(maxRarity);
+		int chosenRarity = random.nextInt(localSeed, maxRarity);
 
 		// Iterate through the rarity map and see if the chosen rarity is less than the rarity for each group, if it is then return.
 		for (Map.Entry<Integer, NewBiomeGroup> entry : rarityMap.entrySet())
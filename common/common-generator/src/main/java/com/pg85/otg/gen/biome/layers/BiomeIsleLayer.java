@@ -50,9 +50,10 @@ public class BiomeIsleLayer implements DiagonalCrossSamplingLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, int x, int z, int sw, int se, int ne, int nw, int center)
+	public int sample(LayerSampleContext<?> context, long localSeed, int x, int z, int sw, int se, int ne, int nw, int center)
 	{	
 		boolean alreadySpawned;
+		boolean spawn;
 		int nwCheck;
 		int neCheck;
 		int swCheck;
@@ -84,18 +85,23 @@ public class BiomeIsleLayer implements DiagonalCrossSamplingLayer
 					(nwCheck == 0) &&
 					(neCheck == 0) &&
 					(swCheck == 0) &&
-					(seCheck == 0) &&
-					context.nextInt(isle.chance) == 0
+					(seCheck == 0)
 				)
 				{
-					sample = 
-						(sample & BiomeLayers.ICE_BIT) | 
-						(sample & BiomeLayers.RIVER_BITS) | 
-						BiomeLayers.LAND_BIT | 
-						isle.biomeId | 
-						BiomeLayers.ISLAND_BIT
-					;
-					alreadySpawned = true;
+					// Advance the local seed after each roll, so the next isle doesn't get the same roll.
+					spawn = context.nextInt(localSeed, isle.chance) == 0;
+					localSeed = context.nextSeed(localSeed);
+					if (spawn)
+					{
+						sample = 
+							(sample & BiomeLayers.ICE_BIT) | 
+							(sample & BiomeLayers.RIVER_BITS) | 
+							BiomeLayers.LAND_BIT | 
+							isle.biomeId | 
+							BiomeLayers.ISLAND_BIT
+						;
+						alreadySpawned = true;
+					}
 				}
 			}
 
@@ -112,17 +118,21 @@ public class BiomeIsleLayer implements DiagonalCrossSamplingLayer
 					isle.canSpawnIn[nwCheck] &&
 					isle.canSpawnIn[neCheck] &&
 					isle.canSpawnIn[swCheck] &&
-					isle.canSpawnIn[seCheck] &&
-					context.nextInt(isle.chance) == 0
+					isle.canSpawnIn[seCheck]
 				)
 				{
-					sample = 
-						(sample & BiomeLayers.LAND_BIT) | 
-						(sample & BiomeLayers.ICE_BIT) | 
-						(sample & BiomeLayers.RIVER_BITS) | 
-						isle.biomeId |
-						BiomeLayers.ISLAND_BIT
-					;
+					spawn = context.nextInt(localSeed, isle.chance) == 0;
+					localSeed = context.nextSeed(localSeed);
+					if (spawn)
+					{
+						sample = 
+							(sample & BiomeLayers.LAND_BIT) | 
+							(sample & BiomeLayers.ICE_BIT) | 
+							(sample & BiomeLayers.RIVER_BITS) | 
+							isle.biomeId |
+							BiomeLayers.ISLAND_BIT
+						;
+					}
 				}
 			}
 		}
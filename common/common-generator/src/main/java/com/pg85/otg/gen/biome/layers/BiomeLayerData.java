@@ -47,6 +47,9 @@ public class BiomeLayerData
 	public final boolean randomRivers;
 	public final int riverDepth;
 	public final int riverSize;
+	public final int layerCacheSize;
+	public final int layerCacheMaxSize;
+	public final boolean adaptiveLayerCache;
 
 	// FromImageMode
 	public HashMap<Integer, Integer> biomeColorMap;
@@ -93,6 +96,9 @@ public class BiomeLayerData
 		this.randomRivers = data.randomRivers;
 		this.riverDepth = data.riverDepth;
 		this.riverSize = data.riverSize;
+		this.layerCacheSize = data.layerCacheSize;
+		this.layerCacheMaxSize = data.layerCacheMaxSize;
+		this.adaptiveLayerCache = data.adaptiveLayerCache;
 		this.riversEnabled = data.riversEnabled;
 		this.oceanBiomeData = data.oceanBiomeData.clone();
 		this.biomeDepths.addAll(data.biomeDepths);
@@ -170,6 +176,9 @@ public class BiomeLayerData
 		this.landRarity = worldConfig.getLandRarity();
 		this.oceanBiomeSize = worldConfig.getOceanBiomeSize();
 		this.oceanTemperatures = oceanTemperatures;
+		this.layerCacheSize = worldConfig.getBiomeLayerCacheSize();
+		this.layerCacheMaxSize = worldConfig.getBiomeLayerCacheMaxSize();
+		this.adaptiveLayerCache = worldConfig.getAdaptiveBiomeLayerCache();
 
 		this.cumulativeGroupRarities = new int[this.generationDepth + 1];
 		this.groupMaxRarityPerDepth = new int[this.generationDepth + 1];
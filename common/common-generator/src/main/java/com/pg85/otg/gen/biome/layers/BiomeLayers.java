@@ -228,10 +228,12 @@ public class BiomeLayers
 		return factory;
 	}
 
-	// Create a sampler that can get a biome at a position
+	// Create a sampler that can get a biome at a position. Layers get their randomness
+	// from a local seed passed per sample and cache per thread, so the sampler can be
+	// shared by any number of threads.
 	public static CachingLayerSampler create(long seed, BiomeLayerData data, ILogger logger)
 	{
-		LayerFactory<CachingLayerSampler> factory = build(data, salt -> new CachingLayerContext(25, seed, salt), logger);
+		LayerFactory<CachingLayerSampler> factory = build(data, salt -> new CachingLayerContext(data.layerCacheSize, data.layerCacheMaxSize, data.adaptiveLayerCache, seed, salt), logger);
 		return factory.make();
 	}
 }
@@ -19,7 +19,7 @@ class FinalizeLayer implements ParentedLayer
 	}
 	
 	@Override
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 		int sample = parent.sample(x, z);
 
@@ -19,7 +19,7 @@ class FinalizeWithRiverLayer implements MergingLayer
 	}
 
 	@Override
-	public int sample(LayerRandomnessSource context, ILayerSampler mainSampler, ILayerSampler riverSampler, int x, int z)
+	public int sample(LayerRandomnessSource context, long localSeed, ILayerSampler mainSampler, ILayerSampler riverSampler, int x, int z)
 	{
 		int sample = mainSampler.sample(x, z);
 
@@ -25,14 +25,14 @@ class IceLayer implements ParentedLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 		int sample = parent.sample(x, z);
 
 		// Set ice based on the rarity
 		// TODO: For 1.12, we initliased the chunkseed here with inverted coordinates,
 		// so initChunkSeed(z + zi, x + xi);, do we need to do the same here?
-		if (context.nextInt(this.rarity) == 0)
+		if (context.nextInt(localSeed, this.rarity) == 0)
 		{
 			return sample | BiomeLayers.ICE_BIT;
 		}
@@ -9,7 +9,7 @@ import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
 class InitializationLayer implements InitLayer
 {
 	@Override
-	public int sample(LayerSampleContext<?> context, int x, int y)
+	public int sample(LayerSampleContext<?> context, long localSeed, int x, int y)
 	{
 		return 0;
 	}
@@ -24,12 +24,12 @@ class LandLayer implements ParentedLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 		int sample = parent.sample(x, z);
 
 		// Set land based on the rarity
-		if (context.nextInt(this.rarity) == 0 && spawnLand)
+		if (context.nextInt(localSeed, this.rarity) == 0 && spawnLand)
 		{
 			return sample | LAND_BIT;
 		} else {
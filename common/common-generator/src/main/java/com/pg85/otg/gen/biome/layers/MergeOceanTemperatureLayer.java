@@ -7,7 +7,7 @@ import com.pg85.otg.interfaces.ILayerSampler;
 public class MergeOceanTemperatureLayer implements MergingLayer
 {
 	@Override
-	public int sample(LayerRandomnessSource context, ILayerSampler mainSampler, ILayerSampler oceanSampler, int x, int z)
+	public int sample(LayerRandomnessSource context, long localSeed, ILayerSampler mainSampler, ILayerSampler oceanSampler, int x, int z)
 	{
 		int sample = mainSampler.sample(x, z);
 
@@ -13,7 +13,7 @@ public class OceanTemperatureLayer implements InitLayer
 	}
 
 	@Override
-	public int sample(LayerSampleContext<?> context, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, int x, int z)
 	{
 		double noise = context.getNoiseSampler().sample((double)x / 8.0, (double)z / 8.0D, 0.0D, 0.0D, 0.0D);
 		if (noise > 0.4D)
@@ -6,7 +6,7 @@ import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
 public class RiverLayer implements CrossSamplingLayer
 {
 	@Override
-	public int sample(LayerSampleContext<?> context, int x, int z, int n, int e, int s, int w, int center)
+	public int sample(LayerSampleContext<?> context, long localSeed, int x, int z, int n, int e, int s, int w, int center)
 	{
 		int northCheck = n & BiomeLayers.RIVER_BITS;
 		int southCheck = s & BiomeLayers.RIVER_BITS;
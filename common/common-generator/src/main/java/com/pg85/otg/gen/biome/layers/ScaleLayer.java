@@ -1,6 +1,7 @@
 package com.pg85.otg.gen.biome.layers;
 
 import com.pg85.otg.gen.biome.layers.type.ParentedLayer;
+import com.pg85.otg.gen.biome.layers.util.LayerRegion;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
 import com.pg85.otg.interfaces.ILayerSampler;
 
@@ -18,7 +19,7 @@ class ScaleLayer implements ParentedLayer
 	  return y >> 1;
 	}
 
-	public int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z)
+	public int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z)
 	{
 	  // Optimized ScaleLayer implementation from zoom-layer
 
@@ -31,18 +32,18 @@ class ScaleLayer implements ParentedLayer
 
 	  if (ix == 0 && iz == 0) return tl;
 
-	  context.initSeed(x & ~1, z & ~1);
+	  localSeed = context.initSeed(x & ~1, z & ~1);
 
 	  // Only sample bottom left
 	  if (ix == 0) {
 		 int bl = parent.sample(this.transformX(x), this.transformZ(z + 1));
-		 return context.choose(tl, bl);
+		 return context.choose(localSeed, tl, bl);
 	  }
 
 	  // Only sample top right
 	  if (iz == 0) {
 		 int tr = parent.sample(this.transformX(x + 1), this.transformZ(z));
-		 return context.choose(tl, tr);
+		 return context.choose(localSeed, tl, tr);
 	  }
 
 	  // Perform regular sampling
@@ -50,10 +51,26 @@ class ScaleLayer implements ParentedLayer
 	  int tr = parent.sample(this.transformX(x + 1), this.transformZ(z));
 	  int br = parent.sample(this.transformX(x + 1), this.transformZ(z + 1));
 
-	  return this.sample(context, tl, tr, bl, br);
+	  return this.sample(context, localSeed, tl, tr, bl, br);
 	}
 
-	protected int sample(LayerSampleContext<?> context, int i, int j, int k, int l)
+	@Override
+	public void sampleRegion(LayerSampleContext<?> context, ILayerSampler parent, int x, int z, int width, int height, int[] out)
+	{
+	  // Each position samples the parent at half its coordinates and the next parent position on each axis.
+	  int parentX = this.transformX(x);
+	  int parentZ = this.transformZ(z);
+	  ILayerSampler parentRegion = new LayerRegion(parent, parentX, parentZ, this.transformX(x + width) - parentX + 1, this.transformZ(z + height) - parentZ + 1);
+	  for (int j = 0; j < height; j++)
+	  {
+		 for (int i = 0; i < width; i++)
+		 {
+			out[j * width + i] = this.sample(context, context.initSeed(x + i, z + j), parentRegion, x + i, z + j);
+		 }
+	  }
+	}
+
+	protected int sample(LayerSampleContext<?> context, long localSeed, int i, int j, int k, int l)
 	{
 	  if (j == k && k == l)
 	  {
@@ -91,7 +108,7 @@ class ScaleLayer implements ParentedLayer
 	  {
 		 return j;
 	  } else {
-		 return k == l && i != j ? k : context.choose(i, j, k, l);
+		 return k == l && i != j ? k : context.choose(localSeed, i, j, k, l);
 	  }
 	}
 }
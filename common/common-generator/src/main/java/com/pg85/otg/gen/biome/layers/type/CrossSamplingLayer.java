@@ -9,14 +9,39 @@ import com.pg85.otg.interfaces.ILayerSampler;
  * Unfortunately, this will cause some serious slowdown so it needs to be used with care.
  */
 public interface CrossSamplingLayer extends ParentedLayer {
-	int sample(LayerSampleContext<?> context, int x, int z, int n, int e, int s, int w, int center);
+	int sample(LayerSampleContext<?> context, long localSeed, int x, int z, int n, int e, int s, int w, int center);
 
-	default int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z) {
-	  return this.sample(context, x, z,
+	default int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z) {
+	  return this.sample(context, localSeed, x, z,
 			  parent.sample(x, z - 1), // North
 			  parent.sample(x + 1, z), // East
 			  parent.sample(x, z + 1), // South
 			  parent.sample(x - 1, z), // West
 			  parent.sample(x, z));	// Center
 	}
+
+	@Override
+	default int getParentPadding() {
+	  return 1;
+	}
+
+	@Override
+	default void sampleRegion(LayerSampleContext<?> context, ILayerSampler parent, int x, int z, int width, int height, int[] out) {
+	  // Sample the parent once for the area plus a 1 sample border, then read the neighbours straight from the array.
+	  int parentWidth = width + 2;
+	  int[] parentValues = new int[parentWidth * (height + 2)];
+	  parent.sampleRegion(x - 1, z - 1, parentWidth, height + 2, parentValues);
+	  int center;
+	  for (int j = 0; j < height; j++) {
+		 for (int i = 0; i < width; i++) {
+			center = (j + 1) * parentWidth + i + 1;
+			out[j * width + i] = this.sample(context, context.initSeed(x + i, z + j), x + i, z + j,
+					parentValues[center - parentWidth], // North
+					parentValues[center + 1], // East
+					parentValues[center + parentWidth], // South
+					parentValues[center - 1], // West
+					parentValues[center]); // Center
+		 }
+	  }
+	}
 }
@@ -9,14 +9,39 @@ import com.pg85.otg.interfaces.ILayerSampler;
  * Unfortunately, this will cause some serious slowdown so it needs to be used with care.
  */
 public interface DiagonalCrossSamplingLayer extends ParentedLayer {
-	int sample(LayerSampleContext<?> context, int x, int z, int sw, int se, int ne, int nw, int center);
+	int sample(LayerSampleContext<?> context, long localSeed, int x, int z, int sw, int se, int ne, int nw, int center);
 
-	default int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z) {
-	  return this.sample(context, x, z,
+	default int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z) {
+	  return this.sample(context, localSeed, x, z,
 			  parent.sample(x - 1, z + 1), // Southwest
 			  parent.sample(x + 1, z + 1), // Southeast
 			  parent.sample(x + 1, z - 1), // Northeast
 			  parent.sample(x - 1, z - 1), // Northwest
 			  parent.sample(x, z));		// Center
 	}
+
+	@Override
+	default int getParentPadding() {
+	  return 1;
+	}
+
+	@Override
+	default void sampleRegion(LayerSampleContext<?> context, ILayerSampler parent, int x, int z, int width, int height, int[] out) {
+	  // Sample the parent once for the area plus a 1 sample border, then read the corners straight from the array.
+	  int parentWidth = width + 2;
+	  int[] parentValues = new int[parentWidth * (height + 2)];
+	  parent.sampleRegion(x - 1, z - 1, parentWidth, height + 2, parentValues);
+	  int center;
+	  for (int j = 0; j < height; j++) {
+		 for (int i = 0; i < width; i++) {
+			center = (j + 1) * parentWidth + i + 1;
+			out[j * width + i] = this.sample(context, context.initSeed(x + i, z + j), x + i, z + j,
+					parentValues[center + parentWidth - 1], // Southwest
+					parentValues[center + parentWidth + 1], // Southeast
+					parentValues[center - parentWidth + 1], // Northeast
+					parentValues[center - parentWidth - 1], // Northwest
+					parentValues[center]); // Center
+		 }
+	  }
+	}
 }
@@ -1,6 +1,7 @@
 package com.pg85.otg.gen.biome.layers.type;
 
 import com.pg85.otg.gen.biome.layers.util.LayerFactory;
+import com.pg85.otg.gen.biome.layers.util.LayerOperator;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
 import com.pg85.otg.interfaces.ILayerSampler;
 
@@ -11,11 +12,38 @@ public interface InitLayer
 {
 	default <R extends ILayerSampler> LayerFactory<R> create(LayerSampleContext<R> context)
 	{
-	  return () -> context.createSampler((x, z) -> {
-		 context.initSeed(x, z);
-		 return this.sample(context, x, z);
+	  return () -> context.createSampler(new LayerOperator()
+	  {
+		 @Override
+		 public String getName()
+		 {
+			return InitLayer.this.getClass().getSimpleName();
+		 }
+
+		 @Override
+		 public int apply(int x, int z)
+		 {
+			return InitLayer.this.sample(context, context.initSeed(x, z), x, z);
+		 }
+
+		 @Override
+		 public void applyRegion(int x, int z, int width, int height, int[] out)
+		 {
+			InitLayer.this.sampleRegion(context, x, z, width, height, out);
+		 }
 	  });
 	}
 
-	int sample(LayerSampleContext<?> context, int x, int z);
+	int sample(LayerSampleContext<?> context, long localSeed, int x, int z);
+
+	default void sampleRegion(LayerSampleContext<?> context, int x, int z, int width, int height, int[] out)
+	{
+	  for (int j = 0; j < height; j++)
+	  {
+		 for (int i = 0; i < width; i++)
+		 {
+			out[j * width + i] = this.sample(context, context.initSeed(x + i, z + j), x + i, z + j);
+		 }
+	  }
+	}
 }
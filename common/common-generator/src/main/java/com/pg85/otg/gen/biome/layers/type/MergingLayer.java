@@ -1,7 +1,9 @@
 package com.pg85.otg.gen.biome.layers.type;
 
 import com.pg85.otg.gen.biome.layers.util.LayerFactory;
+import com.pg85.otg.gen.biome.layers.util.LayerOperator;
 import com.pg85.otg.gen.biome.layers.util.LayerRandomnessSource;
+import com.pg85.otg.gen.biome.layers.util.LayerRegion;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
 import com.pg85.otg.interfaces.ILayerSampler;
 
@@ -12,12 +14,36 @@ public interface MergingLayer
 	  return () -> {
 		 R layerSampler = layer1.make();
 		 R layerSampler2 = layer2.make();
-		 return context.createSampler((x, z) -> {
-			context.initSeed(x, z);
-			return this.sample(context, layerSampler, layerSampler2, x, z);
+		 return context.createSampler(new LayerOperator()
+		 {
+			@Override
+			public String getName()
+			{
+			  return MergingLayer.this.getClass().getSimpleName();
+			}
+
+			@Override
+			public int apply(int x, int z)
+			{
+			  return MergingLayer.this.sample(context, context.initSeed(x, z), layerSampler, layerSampler2, x, z);
+			}
+
+			@Override
+			public void applyRegion(int x, int z, int width, int height, int[] out)
+			{
+			  ILayerSampler region1 = new LayerRegion(layerSampler, x, z, width, height);
+			  ILayerSampler region2 = new LayerRegion(layerSampler2, x, z, width, height);
+			  for (int j = 0; j < height; j++)
+			  {
+				 for (int i = 0; i < width; i++)
+				 {
+					out[j * width + i] = MergingLayer.this.sample(context, context.initSeed(x + i, z + j), region1, region2, x + i, z + j);
+				 }
+			  }
+			}
 		 }, layerSampler, layerSampler2);
 	  };
 	}
 
-	int sample(LayerRandomnessSource context, ILayerSampler sampler1, ILayerSampler sampler2, int x, int z);
+	int sample(LayerRandomnessSource context, long localSeed, ILayerSampler sampler1, ILayerSampler sampler2, int x, int z);
 }
@@ -1,6 +1,8 @@
 package com.pg85.otg.gen.biome.layers.type;
 
 import com.pg85.otg.gen.biome.layers.util.LayerFactory;
+import com.pg85.otg.gen.biome.layers.util.LayerOperator;
+import com.pg85.otg.gen.biome.layers.util.LayerRegion;
 import com.pg85.otg.gen.biome.layers.util.LayerSampleContext;
 import com.pg85.otg.interfaces.ILayerSampler;
 
@@ -13,12 +15,50 @@ public interface ParentedLayer
 	{
 	  return () -> {
 		 R layerSampler = parent.make();
-		 return context.createSampler((x, z) -> {
-			context.initSeed(x, z);
-			return this.sample(context, layerSampler, x, z);
+		 return context.createSampler(new LayerOperator()
+		 {
+			@Override
+			public String getName()
+			{
+			  return ParentedLayer.this.getClass().getSimpleName();
+			}
+
+			@Override
+			public int apply(int x, int z)
+			{
+			  return ParentedLayer.this.sample(context, context.initSeed(x, z), layerSampler, x, z);
+			}
+
+			@Override
+			public void applyRegion(int x, int z, int width, int height, int[] out)
+			{
+			  ParentedLayer.this.sampleRegion(context, layerSampler, x, z, width, height, out);
+			}
 		 }, layerSampler);
 	  };
 	}
 
-	int sample(LayerSampleContext<?> context, ILayerSampler parent, int x, int z);
+	int sample(LayerSampleContext<?> context, long localSeed, ILayerSampler parent, int x, int z);
+
+	/**
+	 * How far around a position this layer samples its parent,
+	 * used to size the parent's area when sampling regions.
+	 */
+	default int getParentPadding()
+	{
+	  return 0;
+	}
+
+	default void sampleRegion(LayerSampleContext<?> context, ILayerSampler parent, int x, int z, int width, int height, int[] out)
+	{
+	  int padding = this.getParentPadding();
+	  ILayerSampler parentRegion = new LayerRegion(parent, x - padding, z - padding, width + padding * 2, height + padding * 2);
+	  for (int j = 0; j < height; j++)
+	  {
+		 for (int i = 0; i < width; i++)
+		 {
+			out[j * width + i] = this.sample(context, context.initSeed(x + i, z + j), parentRegion, x + i, z + j);
+		 }
+	  }
+	}
 }
@@ -8,47 +8,58 @@ import com.pg85.otg.util.helpers.MathHelper;
 public class CachingLayerContext implements LayerSampleContext<CachingLayerSampler>
 {
 	private final int cacheCapacity;
+	private final int maxCacheCapacity;
+	private final int adaptiveMaxCacheCapacity;
 	private final PerlinNoiseSampler noiseSampler;
 	private final long worldSeed;
-	private long localSeed;
 
-	public CachingLayerContext(int cacheCapacity, long seed, long salt)
+	/**
+	 * @param cacheCapacity The cache capacity for layers without a parent, each following layer gets 4x its parent's capacity.
+	 * @param maxCacheCapacity The maximum cache capacity for any layer.
+	 * @param adaptive Whether layer caches may grow beyond maxCacheCapacity when they miss a lot, see CachingLayerSampler.
+	 */
+	public CachingLayerContext(int cacheCapacity, int maxCacheCapacity, boolean adaptive, long seed, long salt)
 	{
 	  this.worldSeed = addSalt(seed, salt);
 	  this.noiseSampler = new PerlinNoiseSampler(new Random(seed));
-	  this.cacheCapacity = cacheCapacity;
+	  this.cacheCapacity = Math.min(maxCacheCapacity, cacheCapacity);
+	  this.maxCacheCapacity = maxCacheCapacity;
+	  this.adaptiveMaxCacheCapacity = adaptive ? maxCacheCapacity * CachingLayerSampler.ADAPTIVE_MAX_GROWTH : 0;
 	}
 
 	public CachingLayerSampler createSampler(LayerOperator layerOperator)
 	{
-	  return new CachingLayerSampler(this.cacheCapacity, layerOperator);
+	  return new CachingLayerSampler(this.cacheCapacity, this.adaptiveMaxCacheCapacity, layerOperator);
 	}
 
 	public CachingLayerSampler createSampler(LayerOperator layerOperator, CachingLayerSampler cachingLayerSampler)
 	{
-	  return new CachingLayerSampler(Math.min(1024, cachingLayerSampler.getCapacity() * 4), layerOperator);
+	  return new CachingLayerSampler(Math.min(this.maxCacheCapacity, cachingLayerSampler.getCapacity() * 4), this.adaptiveMaxCacheCapacity, layerOperator, cachingLayerSampler);
 	}
 
 	public CachingLayerSampler createSampler(LayerOperator layerOperator, CachingLayerSampler cachingLayerSampler, CachingLayerSampler cachingLayerSampler2)
 	{
-	  return new CachingLayerSampler(Math.min(1024, Math.max(cachingLayerSampler.getCapacity(), cachingLayerSampler2.getCapacity()) * 4), layerOperator);
+	  return new CachingLayerSampler(Math.min(this.maxCacheCapacity, Math.max(cachingLayerSampler.getCapacity(), cachingLayerSampler2.getCapacity()) * 4), this.adaptiveMaxCacheCapacity, layerOperator, cachingLayerSampler, cachingLayerSampler2);
 	}
 
-	public void initSeed(long x, long y)
+	public long initSeed(long x, long y)
 	{
 	  long l = this.worldSeed;
 	  l = MathHelper.mixSeed(l, x);
 	  l = MathHelper.mixSeed(l, y);
 	  l = MathHelper.mixSeed(l, x);
 	  l = MathHelper.mixSeed(l, y);
-	  this.localSeed = l;
+	  return l;
 	}
 
-	public int nextInt(int bound)
+	public int nextInt(long localSeed, int bound)
 	{
-	  int i = (int)Math.floorMod(this.localSeed >> 24, (long)bound);
-	  this.localSeed = MathHelper.mixSeed(this.localSeed, this.worldSeed);
-	  return i;
+	  return (int)Math.floorMod(localSeed >> 24, (long)bound);
+	}
+
+	public long nextSeed(long localSeed)
+	{
+	  return MathHelper.mixSeed(localSeed, this.worldSeed);
 	}
 
 	public PerlinNoiseSampler getNoiseSampler()
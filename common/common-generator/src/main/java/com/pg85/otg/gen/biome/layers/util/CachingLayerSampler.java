@@ -1,6 +1,12 @@
 package com.pg85.otg.gen.biome.layers.util;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import com.pg85.otg.interfaces.ILayerSampler;
 import com.pg85.otg.util.helpers.MathHelper;
@@ -9,12 +15,31 @@ import it.unimi.dsi.fastutil.HashCommon;
 
 public final class CachingLayerSampler implements ILayerSampler
 {
+	// Adaptive caches can grow up to this many times their layer stack's max capacity.
+	static final int ADAPTIVE_MAX_GROWTH = 16;
+	// Adaptive caches are doubled when more than half of the lookups
+	// in a window of (capacity * 4) lookups miss.
+	private static final int ADAPTIVE_WINDOW_MULTIPLIER = 4;
+
 	private final ThreadLocal<SamplerBiomeCache> cache;
+	// Every thread's cache, only used for statistics. Caches are only strongly referenced by
+	// their thread, so they can be collected when the thread ends, cleared entries are pruned
+	// when a new thread registers its cache.
+	private final List<WeakReference<SamplerBiomeCache>> threadCaches = new CopyOnWriteArrayList<>();
+	private final LayerOperator operator;
+	private final CachingLayerSampler[] parents;
 	private final int cacheCapacity;
 
-	CachingLayerSampler(int cacheCapacity, LayerOperator operator)
+	CachingLayerSampler(int cacheCapacity, int adaptiveMaxCapacity, LayerOperator operator, CachingLayerSampler... parents)
 	{
-		this.cache = ThreadLocal.withInitial(() -> new SamplerBiomeCache(operator, cacheCapacity));
+		this.cache = ThreadLocal.withInitial(() -> {
+			SamplerBiomeCache threadCache = new SamplerBiomeCache(operator, cacheCapacity, adaptiveMaxCapacity);
+			this.threadCaches.removeIf(ref -> ref.get() == null);
+			this.threadCaches.add(new WeakReference<>(threadCache));
+			return threadCache;
+		});
+		this.operator = operator;
+		this.parents = parents;
 		this.cacheCapacity = cacheCapacity;
 	}
 
@@ -23,23 +48,133 @@ public final class CachingLayerSampler implements ILayerSampler
 		return this.cache.get().get(x, z);
 	}
 
+	// Regions skip the per-position cache, each layer samples
+	// its parent once for the whole area instead.
+	@Override
+	public void sampleRegion(int x, int z, int width, int height, int[] out)
+	{
+		this.operator.applyRegion(x, z, width, height, out);
+	}
+
+	/**
+	 * The configured capacity of this layer's cache, adaptive caches may have grown beyond this.
+	 */
 	public int getCapacity()
 	{
 		return this.cacheCapacity;
 	}
 
+	public String getName()
+	{
+		return this.operator.getName();
+	}
+
+	/**
+	 * Returns this sampler and all the samplers it reads from, starting with the first layer.
+	 */
+	public List<CachingLayerSampler> getLayerStack()
+	{
+		Set<CachingLayerSampler> stack = new LinkedHashSet<>();
+		addToLayerStack(stack);
+		return new ArrayList<>(stack);
+	}
+
+	private void addToLayerStack(Set<CachingLayerSampler> stack)
+	{
+		for(CachingLayerSampler parent : this.parents)
+		{
+			parent.addToLayerStack(stack);
+		}
+		stack.add(this);
+	}
+
+	/**
+	 * Returns a line with cache statistics for each layer in the layer stack,
+	 * combined for all live threads that have sampled the layers.
+	 */
+	public List<String> getCacheReport()
+	{
+		List<String> report = new ArrayList<>();
+		List<CachingLayerSampler> stack = getLayerStack();
+		for(int i = 0; i < stack.size(); i++)
+		{
+			report.add(i + " " + stack.get(i).getCacheStatistics());
+		}
+		return report;
+	}
+
+	private String getCacheStatistics()
+	{
+		long hits = 0;
+		long misses = 0;
+		long evictions = 0;
+		int maxCapacity = this.cacheCapacity;
+		int threads = 0;
+		SamplerBiomeCache threadCache;
+		for(WeakReference<SamplerBiomeCache> ref : this.threadCaches)
+		{
+			threadCache = ref.get();
+			if(threadCache == null)
+			{
+				continue;
+			}
+			threads++;
+			hits += threadCache.hits;
+			misses += threadCache.misses;
+			evictions += threadCache.evictions;
+			maxCapacity = Math.max(maxCapacity, threadCache.keys.length);
+		}
+		long lookups = hits + misses;
+		return
+			getName() +
+			": capacity " + this.cacheCapacity + (maxCapacity > this.cacheCapacity ? " (grown to " + maxCapacity + ")" : "") +
+			", threads " + threads +
+			", hits " + hits +
+			", misses " + misses +
+			", evictions " + evictions +
+			", hit rate " + (lookups == 0 ? "-" : String.format("%.1f%%", hits * 100d / lookups))
+		;
+	}
+
+	public void resetCacheStatistics()
+	{
+		for(CachingLayerSampler sampler : getLayerStack())
+		{
+			for(WeakReference<SamplerBiomeCache> ref : sampler.threadCaches)
+			{
+				SamplerBiomeCache threadCache = ref.get();
+				if(threadCache != null)
+				{
+					threadCache.resetStatistics();
+				}
+			}
+		}
+	}
+
 	private static class SamplerBiomeCache {
-		private final long[] keys;
-		private final int[] values;
-		private final int mask;
+		private long[] keys;
+		private int[] values;
+		private int mask;
 		private final LayerOperator operator;
+		private final int adaptiveMaxCapacity;
+
+		// Statistics are only written by the owning thread,
+		// other threads may read slightly outdated values.
+		private long hits;
+		private long misses;
+		private long evictions;
+		private long windowStartLookups;
+		private long windowStartMisses;
 
-		private SamplerBiomeCache(LayerOperator operator, int size) {
+		private SamplerBiomeCache(LayerOperator operator, int size, int adaptiveMaxCapacity) {
 			this.operator = operator;
+			this.adaptiveMaxCapacity = adaptiveMaxCapacity;
+			allocate(MathHelper.smallestEncompassingPowerOfTwo(size));
+		}
 
-			size = MathHelper.smallestEncompassingPowerOfTwo(size);
+		private void allocate(int size)
+		{
 			this.mask = size - 1;
-
 			this.keys = new long[size];
 			Arrays.fill(this.keys, Long.MIN_VALUE);
 			this.values = new int[size];
@@ -52,18 +187,55 @@ public final class CachingLayerSampler implements ILayerSampler
 			// if the entry here has a key that matches ours, we have a cache hit
 			if (this.keys[idx] == key)
 			{
+				this.hits++;
 				return this.values[idx];
 			} else {
 				// cache miss: sample and put the result into our cache entry
+				this.misses++;
+				if (this.keys[idx] != Long.MIN_VALUE)
+				{
+					this.evictions++;
+				}
 
 				int value = this.operator.apply(x, z);
 				this.keys[idx] = key;
 				this.values[idx] = value;
 
+				if (this.keys.length < this.adaptiveMaxCapacity)
+				{
+					checkResize();
+				}
+
 				return value;
 			}
 		}
 
+		// Doubles the cache when its miss rate stays high. Resizing only happens
+		// for the owning thread's cache, so it doesn't need any locking.
+		private void checkResize()
+		{
+			long lookups = this.hits + this.misses;
+			long windowLookups = lookups - this.windowStartLookups;
+			if (windowLookups >= this.keys.length * ADAPTIVE_WINDOW_MULTIPLIER)
+			{
+				if ((this.misses - this.windowStartMisses) * 2 > windowLookups)
+				{
+					allocate(this.keys.length * 2);
+				}
+				this.windowStartLookups = lookups;
+				this.windowStartMisses = this.misses;
+			}
+		}
+
+		private void resetStatistics()
+		{
+			this.hits = 0;
+			this.misses = 0;
+			this.evictions = 0;
+			this.windowStartLookups = 0;
+			this.windowStartMisses = 0;
+		}
+
 		private int hash(long key)
 		{
 			return (int) HashCommon.mix(key);
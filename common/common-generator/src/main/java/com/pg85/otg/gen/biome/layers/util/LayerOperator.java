@@ -3,4 +3,27 @@ package com.pg85.otg.gen.biome.layers.util;
 public interface LayerOperator
 {
 	int apply(int x, int z);
+
+	/**
+	 * Name of the layer, used for statistics.
+	 */
+	default String getName()
+	{
+		return "Layer";
+	}
+
+	/**
+	 * Fills out with the result of apply for a width x height area, see ILayerSampler.sampleRegion.
+	 * Layer types override this to sample their parents once for the whole area, rather than per position.
+	 */
+	default void applyRegion(int x, int z, int width, int height, int[] out)
+	{
+		for(int j = 0; j < height; j++)
+		{
+			for(int i = 0; i < width; i++)
+			{
+				out[j * width + i] = apply(x + i, z + j);
+			}
+		}
+	}
 }
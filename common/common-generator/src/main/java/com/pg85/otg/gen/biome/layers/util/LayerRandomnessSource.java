@@ -2,9 +2,21 @@ package com.pg85.otg.gen.biome.layers.util;
 
 import com.pg85.otg.gen.noise.PerlinNoiseSampler;
 
+/**
+ * Stateless randomness for biome layers. Layers are handed a local seed
+ * for the position they're sampling (see LayerSampleContext.initSeed)
+ * and pass it back in, so any number of threads can sample the same
+ * layer at once without locks and with deterministic results.
+ */
 public interface LayerRandomnessSource
 {
-	int nextInt(int bound);
+	/**
+	 * Returns a random int between 0 (inclusive) and bound (exclusive) for the given local seed.
+	 * When a layer needs multiple random ints for the same position, use nextSeed between calls.
+	 */
+	int nextInt(long localSeed, int bound);
+
+	long nextSeed(long localSeed);
 
 	PerlinNoiseSampler getNoiseSampler();
 }
@@ -0,0 +1,46 @@
+package com.pg85.otg.gen.biome.layers.util;
+
+import com.pg85.otg.interfaces.ILayerSampler;
+
+/**
+ * Array backed view of a parent layer's samples for an area, passed to
+ * layers in place of their parent when sampling regions. The parent's
+ * region is sampled on first use, so layers that don't need their parent
+ * for the area don't pay for it. Positions outside of the area fall back
+ * to the parent sampler.
+ */
+public final class LayerRegion implements ILayerSampler
+{
+	private final ILayerSampler parent;
+	private final int startX;
+	private final int startZ;
+	private final int width;
+	private final int height;
+	private int[] values;
+
+	public LayerRegion(ILayerSampler parent, int startX, int startZ, int width, int height)
+	{
+		this.parent = parent;
+		this.startX = startX;
+		this.startZ = startZ;
+		this.width = width;
+		this.height = height;
+	}
+
+	@Override
+	public int sample(int x, int z)
+	{
+		int regionX = x - this.startX;
+		int regionZ = z - this.startZ;
+		if(regionX < 0 || regionX >= this.width || regionZ < 0 || regionZ >= this.height)
+		{
+			return this.parent.sample(x, z);
+		}
+		if(this.values == null)
+		{
+			this.values = new int[this.width * this.height];
+			this.parent.sampleRegion(this.startX, this.startZ, this.width, this.height, this.values);
+		}
+		return this.values[regionZ * this.width + regionX];
+	}
+}
@@ -4,7 +4,10 @@ import com.pg85.otg.interfaces.ILayerSampler;
 
 public interface LayerSampleContext<R extends ILayerSampler> extends LayerRandomnessSource
 {
-	void initSeed(long x, long y);
+	/**
+	 * Returns the local seed for the given position, to pass to nextInt/choose.
+	 */
+	long initSeed(long x, long y);
 
 	R createSampler(LayerOperator operator);
 
@@ -18,14 +21,14 @@ public interface LayerSampleContext<R extends ILayerSampler> extends LayerRandom
 	  return this.createSampler(operator);
 	}
 
-	default int choose(int a, int b)
+	default int choose(long localSeed, int a, int b)
 	{
-	  return this.nextInt(2) == 0 ? a : b;
+	  return this.nextInt(localSeed, 2) == 0 ? a : b;
 	}
 
-	default int choose(int a, int b, int c, int d)
+	default int choose(long localSeed, int a, int b, int c, int d)
 	{
-	  int i = this.nextInt(4);
+	  int i = this.nextInt(localSeed, 4);
 	  if (i == 0)
 	  {
 		 return a;
@@ -10,6 +10,7 @@ import com.pg85.otg.gen.noise.OctaveSimplexNoiseSampler;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.IBiomeConfig;
 import com.pg85.otg.interfaces.IMaterialReader;
+import com.pg85.otg.interfaces.ISurfaceGeneratorNoiseProvider;
 import com.pg85.otg.util.gen.ChunkBuffer;
 import com.pg85.otg.util.gen.GeneratingChunk;
 import com.pg85.otg.util.helpers.StringHelper;
@@ -308,6 +309,13 @@ public class IcebergSurfaceGenerator extends MultipleLayersSurfaceGenerator
 		}
 	}
 
+	@Override
+	public boolean keepsColumnHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld)
+	{
+		// Icebergs are placed above base terrain.
+		return false;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -91,19 +91,19 @@ class MesaSurfaceGenerator implements SurfaceGenerator
 		}
 	}
 	
-	private int lastX = Integer.MAX_VALUE;
-	private int lastZ = Integer.MAX_VALUE;
-	private int lastNoise = 0;
+	// Not cached in fields, generators are shared by all threads generating chunks.
+	private int getClayBandsOffset(int xInWorld, int zInWorld)
+	{
+		return (int) Math.round(this.clayBandsOffsetNoise.getValue((double) xInWorld / 512.0D, (double) zInWorld / 512.0D) * 2.0D);
+	}
+
 	private LocalMaterialData getBand(IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld)
 	{
-		int noise = this.lastNoise;
-		if(this.lastX != xInWorld || this.lastZ != zInWorld)
-		{
-			noise = (int) Math.round(this.clayBandsOffsetNoise.getValue((double) xInWorld / 512.0D, (double) zInWorld / 512.0D) * 2.0D);
-			this.lastX = xInWorld;
-			this.lastZ = zInWorld;
-			this.lastNoise = noise;
-		}
+		return getBand(biomeConfig, getClayBandsOffset(xInWorld, zInWorld), yInWorld);
+	}
+
+	private LocalMaterialData getBand(IBiomeConfig biomeConfig, int noise, int yInWorld)
+	{
 		//int l = 0; // TODO: Fix the mesa noise pattern (it's broken for vanilla too).
 		
 		// TODO: BiomeConfig should always be the same, this layer should only be used in a single biome,
@@ -155,6 +155,13 @@ class MesaSurfaceGenerator implements SurfaceGenerator
 	{
 		return getBand(biomeConfig, xInWorld, yInWorld, zInWorld);
 	}
+
+	@Override
+	public boolean keepsColumnHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld)
+	{
+		// Bryce pillars are placed above base terrain.
+		return false;
+	}
 	
 	// net.minecraft.world.biome.BiomeMesa.generateBands
 	private void generateBands(long seed)
@@ -323,6 +330,9 @@ class MesaSurfaceGenerator implements SurfaceGenerator
 		
 		int minHeight = 0;
 		LocalMaterialData worldMaterial = null;
+		// Calculated when first used in this column.
+		int clayBandsOffset = Integer.MIN_VALUE;
+		int bryceClayBandsOffset = Integer.MIN_VALUE;
 		
 		for (int y = maxHeight; y >= minHeight; y--)
 		{
@@ -336,7 +346,12 @@ class MesaSurfaceGenerator implements SurfaceGenerator
 
 			if (y < (int) bryceHeight && worldMaterial.isAir())
 			{
-				chunkBuffer.setBlock(x, y, z, getBand(biomeConfig, x, y, z));
+				// TODO: This uses internal coordinates for the clay bands offset, unlike the other bands.
+				if(bryceClayBandsOffset == Integer.MIN_VALUE)
+				{
+					bryceClayBandsOffset = getClayBandsOffset(x, z);
+				}
+				chunkBuffer.setBlock(x, y, z, getBand(biomeConfig, bryceClayBandsOffset, y));
 			}
 
 			if (generatingChunk.mustCreateBedrockAt(biomeConfig.isFlatBedrock(), biomeConfig.isBedrockDisabled(), biomeConfig.isCeilingBedrock(), y))
@@ -388,7 +403,11 @@ class MesaSurfaceGenerator implements SurfaceGenerator
 							{
 								if (y >= 64 && y <= 127)
 								{
-									worldMaterial = this.getBand(biomeConfig, xInWorld, y, zInWorld);
+									if(clayBandsOffset == Integer.MIN_VALUE)
+									{
+										clayBandsOffset = getClayBandsOffset(xInWorld, zInWorld);
+									}
+									worldMaterial = this.getBand(biomeConfig, clayBandsOffset, y);
 								} else {
 									worldMaterial = !this.orangeClayIsReplaced ? this.orangeClay : this.orangeClay.parseWithBiomeAndHeight(biomeConfig.biomeConfigsHaveReplacement(), biomeConfig.getReplaceBlocks(), y);
 								}
@@ -429,7 +448,11 @@ class MesaSurfaceGenerator implements SurfaceGenerator
 						{
 							chunkBuffer.setBlock(x, y, z, !this.orangeClayIsReplaced ? this.orangeClay : this.orangeClay.parseWithBiomeAndHeight(biomeConfig.biomeConfigsHaveReplacement(), biomeConfig.getReplaceBlocks(), y));
 						} else {
-							worldMaterial = this.getBand(biomeConfig, xInWorld, y, zInWorld);
+							if(clayBandsOffset == Integer.MIN_VALUE)
+							{
+								clayBandsOffset = getClayBandsOffset(xInWorld, zInWorld);
+							}
+							worldMaterial = this.getBand(biomeConfig, clayBandsOffset, y);
 							chunkBuffer.setBlock(x, y, z, worldMaterial);
 						}
 					}
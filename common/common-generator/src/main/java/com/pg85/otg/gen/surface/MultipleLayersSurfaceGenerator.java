@@ -108,6 +108,23 @@ class MultipleLayersSurfaceGenerator extends SimpleSurfaceGenerator
 		spawnColumn(worldSeed, null, generatingChunkInfo, chunkBuffer, biome, xInWorld, zInWorld);
 	}
 
+	@Override
+	public boolean keepsColumnHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld)
+	{
+		if(this.layers.size() > 0)
+		{
+			double noise = noiseProvider.getBiomeBlocksNoiseValue(xInWorld, zInWorld);
+			for (MultipleLayersSurfaceGeneratorLayer layer : this.layers)
+			{
+				if (noise <= layer.maxNoise)
+				{
+					return keepsColumnHeight(layer, noiseProvider, biomeConfig, xInWorld, yInWorld, zInWorld);
+				}
+			}
+		}
+		return keepsColumnHeight(null, noiseProvider, biomeConfig, xInWorld, yInWorld, zInWorld);
+	}
+
 	@Override
 	public String toString()
 	{
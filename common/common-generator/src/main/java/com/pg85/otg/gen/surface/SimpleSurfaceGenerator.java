@@ -29,6 +29,29 @@ public class SimpleSurfaceGenerator implements SurfaceGenerator
 		spawnColumn(worldSeed, null, generatingChunk, chunkBuffer, biome, xInWorld, zInWorld);
 	}
 
+	@Override
+	public boolean keepsColumnHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld)
+	{
+		return keepsColumnHeight(null, noiseProvider, biomeConfig, xInWorld, yInWorld, zInWorld);
+	}
+
+	protected boolean keepsColumnHeight(MultipleLayersSurfaceGeneratorLayer layer, ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld)
+	{
+		// spawnColumn places air on the surface if biomeBlocksNoise is 0 or less, the random part
+		// it adds is less than 1, so it can only happen if the noise part is below 1.
+		if (!biomeConfig.isRemoveSurfaceStone() && noiseProvider.getBiomeBlocksNoiseValue(xInWorld, zInWorld) / 3.0D + 3.0D < 1.0D)
+		{
+			return false;
+		}
+		// The top block is replaced with the surface block, or the ground/underwater 
+		// surface block when it's deeper below waterlevel. Sandstone only goes below those.
+		return
+			(layer != null ? layer.getSurfaceBlockReplaced(yInWorld, biomeConfig) : biomeConfig.getSurfaceBlockReplaced(yInWorld)).isSolid() &&
+			(layer != null ? layer.getGroundBlockReplaced(yInWorld, biomeConfig) : biomeConfig.getGroundBlockReplaced(yInWorld)).isSolid() &&
+			(layer != null ? layer.getUnderWaterSurfaceBlockReplaced(yInWorld, biomeConfig) : biomeConfig.getUnderWaterSurfaceBlockReplaced(yInWorld)).isSolid()
+		;
+	}
+
 	// net.minecraft.world.biome.Biome.generateBiomeTerrain
 	protected void spawnColumn(long worldSeed, MultipleLayersSurfaceGeneratorLayer layer, GeneratingChunk generatingChunk, ChunkBuffer chunkBuffer, IBiome biome, int xInWorld, int zInWorld)
 	{
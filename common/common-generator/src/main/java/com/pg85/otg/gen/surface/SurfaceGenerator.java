@@ -41,4 +41,12 @@ public interface SurfaceGenerator
 	LocalMaterialData getSurfaceBlockAtHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld);
 
 	LocalMaterialData getGroundBlockAtHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld);
+
+	/**
+	 * Checks if spawning this surface layer in a column keeps the highest solid block
+	 * where base terrain placed it, so its height can be calculated from noise only.
+	 * @param yInWorld The highest solid block placed by base terrain.
+	 * @return False if the highest block may be moved, removed or made non-solid.
+	 */
+	boolean keepsColumnHeight(ISurfaceGeneratorNoiseProvider noiseProvider, IBiomeConfig biomeConfig, int xInWorld, int yInWorld, int zInWorld);
 }
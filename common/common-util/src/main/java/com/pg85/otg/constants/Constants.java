@@ -66,6 +66,9 @@ public class Constants
 	public static final String StructureDataFolderName = "StructureData";	
 	public static final String StructureDataBackupFileExtension = BackupFileSuffix + StructureDataFileExtension;
 	public static final String PlottedChunksDataFolderName = StructureDataFolderName + File.separator + "PlottedChunks";
+	// Plotted chunks bitsets, stored in fixed slots in one file per shard of regions.
+	public static final String PlottedChunksShardsFolderName = StructureDataFolderName + File.separator + "PlottedChunkShards";
+	public static final String PlottedChunksShardFileExtension = ".bin";
 	// Data about structure start points and bo4 groups, used for distance.
 	public static final String SpawnedStructuresFileName = StructureDataFolderName + File.separator + "SpawnedStructures" + StructureDataFileExtension;
 	public static final String SpawnedStructuresBackupFileName = StructureDataFolderName + File.separator + "SpawnedStructures" + StructureDataBackupFileExtension;
@@ -107,6 +107,7 @@ public interface IBiomeConfig
 	LocalMaterialData getSandStoneBlockReplaced(int y);
 	LocalMaterialData getDefaultGroundBlock();
 	void doSurfaceAndGroundControl(long worldSeed, GeneratingChunk generatingChunk, ChunkBuffer chunkBuffer, int x, int z, IBiome biome);
+	boolean surfaceAndGroundControlKeepsHeight(ISurfaceGeneratorNoiseProvider noiseProvider, int x, int y, int z);
 	boolean hasReplaceBlocksSettings();
 	ReplaceBlockMatrix getReplaceBlocks();
 	
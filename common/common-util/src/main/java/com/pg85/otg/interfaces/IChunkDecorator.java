@@ -2,13 +2,12 @@ package com.pg85.otg.interfaces;
 
 public interface IChunkDecorator
 {
-	Object getLockingObject();
+	/**
+	 * Waits for chunks being decorated to finish and blocks decoration until endSave is called.
+	 */
+	public void beginSave(ILogger logger);
 
-	boolean isDecorating();
-
-	public void beginSave();
-
-	public void endSave();
+	public void endSave(ILogger logger);
 
 	boolean getIsSaveRequired();
 }
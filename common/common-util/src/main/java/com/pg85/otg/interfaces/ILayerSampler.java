@@ -3,4 +3,19 @@ package com.pg85.otg.interfaces;
 public interface ILayerSampler
 {
 	int sample(int x, int z);
+
+	/**
+	 * Samples all positions in a width x height area starting at x, z
+	 * into out, indexed as out[(z - startZ) * width + (x - startX)].
+	 */
+	default void sampleRegion(int x, int z, int width, int height, int[] out)
+	{
+		for(int j = 0; j < height; j++)
+		{
+			for(int i = 0; i < width; i++)
+			{
+				out[j * width + i] = sample(x + i, z + j);
+			}
+		}
+	}
 }
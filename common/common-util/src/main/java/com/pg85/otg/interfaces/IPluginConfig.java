@@ -17,6 +17,9 @@ public interface IPluginConfig
 {
 	public LogLevels getLogLevel();
 	public int getMaxWorkerThreads();
+	public int getShadowChunkCacheSizeMB();
+	public int getShadowColumnCacheSizeMB();
+	public boolean getPreloadCustomObjectsEnabled();
 	public boolean getDeveloperModeEnabled();
 	public boolean logCustomObjects();
 	public boolean logStructurePlotting();
@@ -96,6 +96,16 @@ public interface IWorldConfig
 	public int getWaterLevelMax();
 	public int getWaterLevelMin();
 
+	// Caching
+
+	public int getBiomeCacheSize();
+	public int getNoiseBiomeCacheSize();
+	public int getNoiseColumnCacheSize();
+	public int getColumnHeightCacheSize();
+	public int getBiomeLayerCacheSize();
+	public int getBiomeLayerCacheMaxSize();
+	public boolean getAdaptiveBiomeLayerCache();
+
 	// FromImageMode
 
 	public ImageOrientation getImageOrientation();
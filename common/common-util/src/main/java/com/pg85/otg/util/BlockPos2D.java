@@ -26,4 +26,10 @@ public class BlockPos2D
 		}
 		return false;
 	}
-}
\ No newline at end of file
+
+	@Override
+	public int hashCode()
+	{
+		return this.x * 31 + this.z;
+	}
+}
@@ -0,0 +1,113 @@
+package com.pg85.otg.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fork-join pool used to load presets, biome configs and custom objects
+ * in parallel, on startup and when reloading.
+ *
+ * Threads are daemons, so the pool never keeps the app from shutting down,
+ * and use the context class loader of the thread that created the pool,
+ * since platforms like Forge load mod classes through it.
+ */
+public final class LoadingPool
+{
+	private static final Object poolLock = new Object();
+	private static volatile ForkJoinPool pool;
+
+	private LoadingPool() { }
+
+	public static ForkJoinPool get()
+	{
+		ForkJoinPool pool = LoadingPool.pool;
+		if(pool == null)
+		{
+			synchronized(poolLock)
+			{
+				pool = LoadingPool.pool;
+				if(pool == null)
+				{
+					ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+					AtomicInteger threadCount = new AtomicInteger();
+					pool = new ForkJoinPool(
+						Runtime.getRuntime().availableProcessors(),
+						forkJoinPool ->
+						{
+							ForkJoinWorkerThread thread = new ForkJoinWorkerThread(forkJoinPool) { };
+							thread.setName("OTG-Loader-" + threadCount.incrementAndGet());
+							thread.setDaemon(true);
+							thread.setContextClassLoader(contextClassLoader);
+							return thread;
+						},
+						null,
+						false
+					);
+					LoadingPool.pool = pool;
+				}
+			}
+		}
+		return pool;
+	}
+
+	/**
+	 * Runs the given tasks on the pool and waits for all of them to finish.
+	 * Results are returned in the order of the tasks, regardless of the order
+	 * they finished in, so callers can merge them deterministically.
+	 * If any task threw, the exception of the first one (in task order) is
+	 * rethrown, wrapped in a RuntimeException if it was checked.
+	 */
+	public static <T> List<T> invokeAllInOrder(List<Callable<T>> tasks)
+	{
+		List<T> results = new ArrayList<T>(tasks.size());
+		if(tasks.size() == 1)
+		{
+			// Not worth handing off to another thread.
+			try
+			{
+				results.add(tasks.get(0).call());
+			}
+			catch (RuntimeException e)
+			{
+				throw e;
+			}
+			catch (Exception e)
+			{
+				throw new RuntimeException(e);
+			}
+			return results;
+		}
+
+		for(Future<T> future : get().invokeAll(tasks))
+		{
+			try
+			{
+				results.add(future.get());
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while waiting on loading tasks.", e);
+			}
+			catch (ExecutionException e)
+			{
+				if(e.getCause() instanceof RuntimeException)
+				{
+					throw (RuntimeException)e.getCause();
+				}
+				if(e.getCause() instanceof Error)
+				{
+					throw (Error)e.getCause();
+				}
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		return results;
+	}
+}
@@ -0,0 +1,153 @@
+package com.pg85.otg.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primitive longs, usually chunk coordinates packed via
+ * MathHelper.toLong. Uses open addressing with linear probing, so
+ * adding doesn't box keys or allocate entries, and clearing keeps the
+ * table, so one set can be reused for many operations.
+ *
+ * Not thread-safe.
+ */
+public class LongHashSet
+{
+	// 0 marks empty slots, so the key 0 is tracked separately.
+	private long[] keys;
+	private boolean containsZero;
+	private int size;
+	private int mask;
+
+	public LongHashSet()
+	{
+		this(16);
+	}
+
+	public LongHashSet(int initialCapacity)
+	{
+		int capacity = 16;
+		while(capacity < initialCapacity * 2)
+		{
+			capacity <<= 1;
+		}
+		this.keys = new long[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * @return True if the key was added, false if the set already contained it.
+	 */
+	public boolean add(long key)
+	{
+		if(key == 0)
+		{
+			if(this.containsZero)
+			{
+				return false;
+			}
+			this.containsZero = true;
+			this.size++;
+			return true;
+		}
+
+		int slot = slot(key);
+		while(this.keys[slot] != 0)
+		{
+			if(this.keys[slot] == key)
+			{
+				return false;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		this.keys[slot] = key;
+		this.size++;
+		// Keep the load factor at or below 0.5.
+		if(this.size * 2 > this.keys.length)
+		{
+			resize();
+		}
+		return true;
+	}
+
+	public boolean contains(long key)
+	{
+		if(key == 0)
+		{
+			return this.containsZero;
+		}
+
+		int slot = slot(key);
+		while(this.keys[slot] != 0)
+		{
+			if(this.keys[slot] == key)
+			{
+				return true;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return false;
+	}
+
+	public int size()
+	{
+		return this.size;
+	}
+
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+
+	public void clear()
+	{
+		if(this.size > 0)
+		{
+			Arrays.fill(this.keys, 0);
+			this.containsZero = false;
+			this.size = 0;
+		}
+	}
+
+	public void forEach(LongConsumer action)
+	{
+		if(this.containsZero)
+		{
+			action.accept(0);
+		}
+		for(long key : this.keys)
+		{
+			if(key != 0)
+			{
+				action.accept(key);
+			}
+		}
+	}
+
+	private int slot(long key)
+	{
+		// Spread both halves of the key, packed coordinates differ mostly in their low bits.
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int)(hash ^ (hash >>> 32)) & this.mask;
+	}
+
+	private void resize()
+	{
+		long[] oldKeys = this.keys;
+		this.keys = new long[oldKeys.length * 2];
+		this.mask = this.keys.length - 1;
+		int slot;
+		for(long key : oldKeys)
+		{
+			if(key != 0)
+			{
+				slot = slot(key);
+				while(this.keys[slot] != 0)
+				{
+					slot = (slot + 1) & this.mask;
+				}
+				this.keys[slot] = key;
+			}
+		}
+	}
+}
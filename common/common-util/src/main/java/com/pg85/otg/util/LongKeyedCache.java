@@ -0,0 +1,325 @@
+package com.pg85.otg.util;
+
+import java.util.Arrays;
+
+import com.pg85.otg.util.helpers.MathHelper;
+
+/**
+ * Fixed capacity cache keyed by primitive longs, usually chunk or
+ * region coordinates packed via MathHelper.toLong. Replaces FifoMap
+ * for hot lookups, since it doesn't box keys, allocates nothing per
+ * put and doesn't need an iterator to evict.
+ *
+ * Entries are evicted using the CLOCK algorithm, a cheap approximation
+ * of LRU: each lookup sets a reference bit, and the clock hand evicts
+ * the first entry it finds without one, clearing bits as it goes.
+ *
+ * When created with a concurrency level > 0, the cache is split into
+ * independently locked segments, so threads working on different keys
+ * rarely contend. With concurrency level 0 the cache is not thread-safe
+ * and does no locking at all.
+ */
+public class LongKeyedCache<V>
+{
+	private final Segment<V>[] segments;
+	private final int segmentMask;
+	private final boolean threadSafe;
+
+	/**
+	 * @param capacity The maximum amount of entries in the cache.
+	 * @param concurrencyLevel The expected amount of threads using the cache, 0 if not thread-safe.
+	 */
+	public LongKeyedCache(int capacity, int concurrencyLevel)
+	{
+		this.threadSafe = concurrencyLevel > 0;
+		int segmentCount = this.threadSafe ? MathHelper.smallestEncompassingPowerOfTwo(concurrencyLevel) : 1;
+		int segmentCapacity = Math.max(1, (capacity + segmentCount - 1) / segmentCount);
+		this.segmentMask = segmentCount - 1;
+		@SuppressWarnings("unchecked")
+		Segment<V>[] segments = (Segment<V>[])new Segment<?>[segmentCount];
+		this.segments = segments;
+		for(int i = 0; i < segmentCount; i++)
+		{
+			this.segments[i] = new Segment<V>(segmentCapacity);
+		}
+	}
+
+	public V get(long key)
+	{
+		long hash = mix(key);
+		Segment<V> segment = this.segments[(int)(hash >>> 32) & this.segmentMask];
+		if(this.threadSafe)
+		{
+			synchronized(segment)
+			{
+				return segment.get(key, (int)hash);
+			}
+		}
+		return segment.get(key, (int)hash);
+	}
+
+	public boolean containsKey(long key)
+	{
+		return get(key) != null;
+	}
+
+	public void put(long key, V value)
+	{
+		long hash = mix(key);
+		Segment<V> segment = this.segments[(int)(hash >>> 32) & this.segmentMask];
+		if(this.threadSafe)
+		{
+			synchronized(segment)
+			{
+				segment.put(key, (int)hash, value, true);
+			}
+		} else {
+			segment.put(key, (int)hash, value, true);
+		}
+	}
+
+	/**
+	 * Adds the value if there is no entry for the key yet.
+	 * @return The value in the cache after the call, either the given value or the existing one.
+	 */
+	public V putIfAbsent(long key, V value)
+	{
+		long hash = mix(key);
+		Segment<V> segment = this.segments[(int)(hash >>> 32) & this.segmentMask];
+		if(this.threadSafe)
+		{
+			synchronized(segment)
+			{
+				return segment.put(key, (int)hash, value, false);
+			}
+		}
+		return segment.put(key, (int)hash, value, false);
+	}
+
+	public void clear()
+	{
+		for(Segment<V> segment : this.segments)
+		{
+			if(this.threadSafe)
+			{
+				synchronized(segment)
+				{
+					segment.clear();
+				}
+			} else {
+				segment.clear();
+			}
+		}
+	}
+
+	public int size()
+	{
+		int size = 0;
+		for(Segment<V> segment : this.segments)
+		{
+			size += segment.size;
+		}
+		return size;
+	}
+
+	public long getHits()
+	{
+		long hits = 0;
+		for(Segment<V> segment : this.segments)
+		{
+			hits += segment.hits;
+		}
+		return hits;
+	}
+
+	public long getMisses()
+	{
+		long misses = 0;
+		for(Segment<V> segment : this.segments)
+		{
+			misses += segment.misses;
+		}
+		return misses;
+	}
+
+	public long getEvictions()
+	{
+		long evictions = 0;
+		for(Segment<V> segment : this.segments)
+		{
+			evictions += segment.evictions;
+		}
+		return evictions;
+	}
+
+	public void resetStatistics()
+	{
+		for(Segment<V> segment : this.segments)
+		{
+			segment.hits = 0;
+			segment.misses = 0;
+			segment.evictions = 0;
+		}
+	}
+
+	// Same mixing function as fastutil's HashCommon.mix,
+	// common-util doesn't depend on fastutil.
+	private static long mix(long key)
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		h ^= h >>> 32;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Entries are stored in fixed slots that the clock hand walks over,
+	 * a separate open addressing index maps keys to slots.
+	 */
+	private static class Segment<V>
+	{
+		private final long[] keys;
+		private final Object[] values;
+		private final boolean[] referenced;
+		// Slot index + 1 for each used position, 0 for empty positions.
+		private final int[] index;
+		private final int indexMask;
+		private int size;
+		private int hand;
+
+		private long hits;
+		private long misses;
+		private long evictions;
+
+		private Segment(int capacity)
+		{
+			this.keys = new long[capacity];
+			this.values = new Object[capacity];
+			this.referenced = new boolean[capacity];
+			// Keep the load factor of the index at or below 0.5
+			this.index = new int[MathHelper.smallestEncompassingPowerOfTwo(capacity * 2)];
+			this.indexMask = this.index.length - 1;
+		}
+
+		private int find(long key, int hash)
+		{
+			int pos = hash & this.indexMask;
+			int slot;
+			while((slot = this.index[pos]) != 0)
+			{
+				if(this.keys[slot - 1] == key)
+				{
+					return slot - 1;
+				}
+				pos = (pos + 1) & this.indexMask;
+			}
+			return -1;
+		}
+
+		@SuppressWarnings("unchecked")
+		private V get(long key, int hash)
+		{
+			int slot = find(key, hash);
+			if(slot == -1)
+			{
+				this.misses++;
+				return null;
+			}
+			this.hits++;
+			this.referenced[slot] = true;
+			return (V)this.values[slot];
+		}
+
+		@SuppressWarnings("unchecked")
+		private V put(long key, int hash, V value, boolean replace)
+		{
+			int slot = find(key, hash);
+			if(slot != -1)
+			{
+				this.referenced[slot] = true;
+				if(replace)
+				{
+					this.values[slot] = value;
+					return value;
+				}
+				return (V)this.values[slot];
+			}
+
+			if(this.size < this.keys.length)
+			{
+				slot = this.size++;
+			} else {
+				slot = evict();
+			}
+			this.keys[slot] = key;
+			this.values[slot] = value;
+			this.referenced[slot] = false;
+
+			int pos = hash & this.indexMask;
+			while(this.index[pos] != 0)
+			{
+				pos = (pos + 1) & this.indexMask;
+			}
+			this.index[pos] = slot + 1;
+			return value;
+		}
+
+		private int evict()
+		{
+			while(this.referenced[this.hand])
+			{
+				this.referenced[this.hand] = false;
+				this.hand = this.hand + 1 == this.keys.length ? 0 : this.hand + 1;
+			}
+			int slot = this.hand;
+			this.hand = this.hand + 1 == this.keys.length ? 0 : this.hand + 1;
+			removeFromIndex(this.keys[slot]);
+			this.values[slot] = null;
+			this.evictions++;
+			return slot;
+		}
+
+		// Removes a key from the linear probing index, shifting
+		// down any entries that would otherwise become unreachable.
+		private void removeFromIndex(long key)
+		{
+			int pos = (int)mix(key) & this.indexMask;
+			while(this.keys[this.index[pos] - 1] != key)
+			{
+				pos = (pos + 1) & this.indexMask;
+			}
+
+			int last;
+			int ideal;
+			int slot;
+			while(true)
+			{
+				last = pos;
+				pos = (pos + 1) & this.indexMask;
+				while(true)
+				{
+					if((slot = this.index[pos]) == 0)
+					{
+						this.index[last] = 0;
+						return;
+					}
+					ideal = (int)mix(this.keys[slot - 1]) & this.indexMask;
+					if(last <= pos ? last >= ideal || ideal > pos : last >= ideal && ideal > pos)
+					{
+						break;
+					}
+					pos = (pos + 1) & this.indexMask;
+				}
+				this.index[last] = slot;
+			}
+		}
+
+		private void clear()
+		{
+			Arrays.fill(this.values, null);
+			Arrays.fill(this.referenced, false);
+			Arrays.fill(this.index, 0);
+			this.size = 0;
+			this.hand = 0;
+		}
+	}
+}
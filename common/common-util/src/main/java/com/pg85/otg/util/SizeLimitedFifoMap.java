@@ -0,0 +1,97 @@
+package com.pg85.otg.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * FIFO cache limited by the estimated size of its values in bytes,
+ * rather than by the amount of entries like FifoMap. When a put takes
+ * the cache over budget, the oldest entries are evicted until it fits.
+ *
+ * Sizes are estimated by the given function, which is also called for
+ * null values, so entries used as markers can be accounted for.
+ *
+ * Not thread-safe, callers are expected to synchronize.
+ */
+public class SizeLimitedFifoMap<T, U>
+{
+	private final LinkedHashMap<T, U> map = new LinkedHashMap<T, U>();
+	private final ToLongFunction<U> sizeEstimator;
+	private final long maxSizeInBytes;
+	private long sizeInBytes = 0;
+
+	public SizeLimitedFifoMap(long maxSizeInBytes, ToLongFunction<U> sizeEstimator)
+	{
+		this.maxSizeInBytes = maxSizeInBytes;
+		this.sizeEstimator = sizeEstimator;
+	}
+
+	public U get(T key)
+	{
+		return this.map.get(key);
+	}
+
+	public boolean containsKey(T key)
+	{
+		return this.map.containsKey(key);
+	}
+
+	public U put(T key, U value)
+	{
+		boolean replaced = this.map.containsKey(key);
+		U previous = this.map.put(key, value);
+		if(replaced)
+		{
+			this.sizeInBytes -= this.sizeEstimator.applyAsLong(previous);
+		}
+		this.sizeInBytes += this.sizeEstimator.applyAsLong(value);
+
+		// Evict the oldest entries, never the one that was just put.
+		Iterator<Map.Entry<T, U>> iterator = this.map.entrySet().iterator();
+		Map.Entry<T, U> eldest;
+		while(this.sizeInBytes > this.maxSizeInBytes && iterator.hasNext())
+		{
+			eldest = iterator.next();
+			if(!eldest.getKey().equals(key))
+			{
+				this.sizeInBytes -= this.sizeEstimator.applyAsLong(eldest.getValue());
+				iterator.remove();
+			}
+		}
+		return previous;
+	}
+
+	public U remove(T key)
+	{
+		if(!this.map.containsKey(key))
+		{
+			return null;
+		}
+		U previous = this.map.remove(key);
+		this.sizeInBytes -= this.sizeEstimator.applyAsLong(previous);
+		return previous;
+	}
+
+	public void clear()
+	{
+		this.map.clear();
+		this.sizeInBytes = 0;
+	}
+
+	public int size()
+	{
+		return this.map.size();
+	}
+
+	public long getSizeInBytes()
+	{
+		return this.sizeInBytes;
+	}
+
+	public long getMaxSizeInBytes()
+	{
+		return this.maxSizeInBytes;
+	}
+}
@@ -7,8 +7,10 @@ import com.pg85.otg.util.helpers.StringHelper;
 import com.pg85.otg.util.materials.LocalMaterialBase;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.LocalMaterialTag;
+import com.pg85.otg.util.materials.MaterialSet;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -17,9 +19,98 @@ public class ReplaceBlockMatrix
 {
 	private static final String NO_REPLACE = "None";
 	
-	private class ReplaceBlockEntry
+	// Heights with the same instructions share an entry. Each entry compiles its instructions 
+	// into a table indexed by material id, with the material itself when nothing replaces it. 
+	// Materials are compiled when first replaced, since the platform creates materials (and ids) 
+	// on demand.
+	private static class ReplaceBlockEntry
 	{
 		public final List<ReplacedBlocksInstruction> targets = new ArrayList<ReplacedBlocksInstruction>();
+		private volatile LocalMaterialData[] replacements = new LocalMaterialData[0];
+		private volatile int compiledVersion = MaterialSet.getRegistryVersion();
+
+		private LocalMaterialData replaceBlock(LocalMaterialData material)
+		{
+			int materialId = material.getMaterialId();
+			if(materialId < 0)
+			{
+				return getReplacement(material);
+			}
+
+			int version = MaterialSet.getRegistryVersion();
+			if(this.compiledVersion != version)
+			{
+				synchronized(this)
+				{
+					this.replacements = new LocalMaterialData[0];
+					this.compiledVersion = version;
+				}
+			}
+
+			LocalMaterialData[] replacements = this.replacements;
+			if(materialId < replacements.length)
+			{
+				LocalMaterialData replacement = replacements[materialId];
+				if(replacement != null)
+				{
+					return replacement;
+				}
+			}
+
+			LocalMaterialData replacement = getReplacement(material);
+			compile(replacements, materialId, replacement);
+			return replacement;
+		}
+
+		// Grows and fills the table the same way as MaterialSet.compile. Entries are single
+		// references, so a racing lookup sees either null, which is looked up again, or the result.
+		private void compile(LocalMaterialData[] replacements, int materialId, LocalMaterialData replacement)
+		{
+			if(materialId >= replacements.length)
+			{
+				synchronized(this)
+				{
+					if(this.replacements != replacements)
+					{
+						return;
+					}
+					replacements = Arrays.copyOf(replacements, Math.max(materialId + 1, replacements.length * 2));
+					this.replacements = replacements;
+				}
+			}
+			replacements[materialId] = replacement;
+		}
+
+		private LocalMaterialData getReplacement(LocalMaterialData material)
+		{
+			for(ReplacedBlocksInstruction instruction : this.targets)
+			{
+				if(instruction.from.matches(material))
+				{
+					return instruction.to;
+				}
+			}
+			return material;
+		}
+
+		private boolean hasSameTargets(ReplaceBlockEntry other)
+		{
+			if(this.targets.size() != other.targets.size())
+			{
+				return false;
+			}
+			for(int i = 0; i < this.targets.size(); i++)
+			{
+				if(
+					this.targets.get(i).from != other.targets.get(i).from ||
+					this.targets.get(i).to != other.targets.get(i).to
+				)
+				{
+					return false;
+				}
+			}
+			return true;
+		}
 	}
 	
 	public static class ReplacedBlocksInstruction
@@ -210,6 +301,20 @@ public class ReplaceBlockMatrix
 				targetsAtHeight.targets.add(instruction.clone());
 			}
 		}
+
+		// Share entries between adjacent heights with the same instructions,
+		// so each band of heights only compiles its replacements once.
+		for(int y = 1; y < this.targetsAtHeights.length; y++)
+		{
+			if(
+				this.targetsAtHeights[y] != null && 
+				this.targetsAtHeights[y - 1] != null && 
+				this.targetsAtHeights[y].hasSameTargets(this.targetsAtHeights[y - 1])
+			)
+			{
+				this.targetsAtHeights[y] = this.targetsAtHeights[y - 1];
+			}
+		}
 		
 		for(ReplacedBlocksInstruction instruction : this.instructions)
 		{
@@ -306,18 +411,8 @@ public class ReplaceBlockMatrix
 		// TODO: simple fix for y being out of bounds, needs a proper fix to figure out why it's happening
 		y = Math.max(Math.min(y, 255), 0);
 
-		ReplaceBlockEntry targetsAtHeight = targetsAtHeights[y];
-		if(targetsAtHeight != null)
-		{
-			for(ReplacedBlocksInstruction instruction : targetsAtHeight.targets)
-			{			
-				if(instruction.from.matches(material))
-				{
-					return instruction.to;
-				}
-			}
-		}
-		return material;
+		ReplaceBlockEntry targetsAtHeight = this.targetsAtHeights[y];
+		return targetsAtHeight != null ? targetsAtHeight.replaceBlock(material) : material;
 	}
 
 	/**
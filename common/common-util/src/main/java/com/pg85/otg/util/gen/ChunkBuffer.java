@@ -17,6 +17,20 @@ public abstract class ChunkBuffer
 	
 	public abstract void setBlock(int blockX, int blockY, int blockZ, LocalMaterialData material);
 
+	/**
+	 * Sets the blocks from minY to maxY (inclusive) in a column to the same material.
+	 * Platforms override this to fill chunk sections directly, rather than going through
+	 * setBlock for each block. Meant for filling empty chunks during base terrain
+	 * generation, heightmaps may only be updated for the top block of the run.
+	 */
+	public void setBlockRun(int blockX, int minY, int maxY, int blockZ, LocalMaterialData material)
+	{
+		for (int blockY = maxY; blockY >= minY; blockY--)
+		{
+			setBlock(blockX, blockY, blockZ, material);
+		}
+	}
+
 	public abstract LocalMaterialData getBlock(int blockX, int blockY, int blockZ);
 
 	// TODO: Are these really necessary, can use heightmaps?
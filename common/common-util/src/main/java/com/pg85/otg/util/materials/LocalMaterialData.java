@@ -13,6 +13,8 @@ public abstract class LocalMaterialData extends LocalMaterialBase
 	protected boolean parsedDefaultMaterial = false;
 	protected LocalMaterialData[] rotations = new LocalMaterialData[] {this, null, null, null};
 	protected LocalMaterialData rotated = null;
+	// Dense id assigned by the platform when the material is interned, -1 if it isn't.
+	protected int materialId = -1;
 
 	public abstract <T extends Comparable<T>> LocalMaterialData withProperty(MaterialProperty<T> state, T value);
 	
@@ -29,6 +31,16 @@ public abstract class LocalMaterialData extends LocalMaterialBase
 		return isBlank;
 	}
 
+	/**
+	 * Ids are assigned in order, starting at 0, to each distinct block state the platform
+	 * has created a material for. Comparing ids is the same as comparing block states.
+	 * Returns -1 for blank materials and materials without a block state.
+	 */
+	public int getMaterialId()
+	{
+		return this.materialId;
+	}
+
 	public abstract boolean isMaterial(LocalMaterialData material);
 	
 	public abstract boolean isBlockTag(LocalMaterialTag tag);
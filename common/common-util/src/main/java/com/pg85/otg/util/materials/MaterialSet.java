@@ -34,14 +34,25 @@ public class MaterialSet
 	 */
 	private static final String NON_SOLID_MATERIALS = "NonSolid";
 
+	// Incremented when materials may match differently than before (f.e. tags were 
+	// reloaded), all sets discard their compiled results when it changes.
+	private static volatile int registryVersion = 0;
+
 	private boolean allMaterials = false;
 	private boolean allSolidMaterials = false;
 	private boolean allNonSolidMaterials = false;
 
-	private int[] materialIntSet = new int[0];
+	private volatile int[] materialIntSet = new int[0];
 	private Set<MaterialSetEntry> materials = new LinkedHashSet<MaterialSetEntry>();
 	private Set<MaterialSetEntry> tags = new LinkedHashSet<MaterialSetEntry>();
-	private boolean intSetUpToDate = true;
+	private volatile boolean intSetUpToDate = true;
+
+	// The set compiled to a bitset over material ids, with 2 bits per material: 
+	// the low bit is set once the material has been checked, the high bit if 
+	// it's in the set. Materials are compiled when first checked, since the 
+	// platform creates materials (and ids) on demand.
+	private volatile long[] compiled = new long[0];
+	private volatile int compiledVersion = registryVersion;
 
 	/**
 	 * Adds the given material to the list.
@@ -97,12 +108,37 @@ public class MaterialSet
 		// Add the appropriate hashCode
 		this.intSetUpToDate = false;
 		this.materials.add(entry);
+		synchronized(this)
+		{
+			this.compiled = new long[0];
+		}
 	}
 	
 	private void addTag(MaterialSetEntry entry)
 	{
 		this.tags.add(entry);
+		synchronized(this)
+		{
+			this.compiled = new long[0];
+		}
 	} 
+
+	/**
+	 * Should be called when materials may match sets differently than
+	 * before, for instance when tags are reloaded.
+	 */
+	public static void onMaterialRegistryChanged()
+	{
+		registryVersion++;
+	}
+
+	/**
+	 * Changes when results compiled for material ids may no longer be valid.
+	 */
+	public static int getRegistryVersion()
+	{
+		return registryVersion;
+	}
 	
 	/**
 	 * Updates the int (hashCode) set, so that is is up to date again with the
@@ -116,22 +152,24 @@ public class MaterialSet
 			return;
 		}
 
-		// Update the int set
-		this.materialIntSet = new int[this.materials.size()];
+		// Update the int set, sets may be used by multiple threads 
+		// so only publish the int set once it's complete.
+		int[] materialIntSet = new int[this.materials.size()];
 		int i = 0;
 		for (MaterialSetEntry entry : this.materials)
 		{
 			// If the material has no data, it should match all with the same registry name
 			if(!((LocalMaterialData)entry.getMaterial()).isDefaultState())
 			{
-				this.materialIntSet[i] = ((LocalMaterialData)entry.getMaterial()).getRegistryName().hashCode();	
+				materialIntSet[i] = ((LocalMaterialData)entry.getMaterial()).getRegistryName().hashCode();	
 			} else {
-				this.materialIntSet[i] = entry.hashCode();
+				materialIntSet[i] = entry.hashCode();
 			}
 			i++;
 		}
 		// Sort int set so that we can use Arrays.binarySearch
-		Arrays.sort(this.materialIntSet);
+		Arrays.sort(materialIntSet);
+		this.materialIntSet = materialIntSet;
 		this.intSetUpToDate = true;
 	}
 
@@ -152,6 +190,66 @@ public class MaterialSet
 		{
 			return true;
 		}
+
+		int materialId = material.getMaterialId();
+		if (materialId < 0)
+		{
+			return matches(material);
+		}
+
+		int version = registryVersion;
+		if (this.compiledVersion != version)
+		{
+			synchronized(this)
+			{
+				this.compiled = new long[0];
+				this.compiledVersion = version;
+			}
+		}
+
+		long[] compiled = this.compiled;
+		int bitIndex = materialId << 1;
+		int wordIndex = bitIndex >>> 6;
+		if (wordIndex < compiled.length)
+		{
+			long bits = compiled[wordIndex] >>> bitIndex;
+			if ((bits & 1L) != 0)
+			{
+				return (bits & 2L) != 0;
+			}
+		}
+
+		boolean contains = matches(material);
+		compile(compiled, materialId, contains);
+		return contains;
+	}
+
+	// Records the result for a material. Multiple threads may compile materials at 
+	// once, if an update is lost the material is just checked again next time. Both 
+	// bits for a material are in the same half of a word, and are set in one write.
+	// Results are only written to the array they were looked up in, so results for 
+	// an array that has since been discarded are never copied to the new one.
+	private void compile(long[] compiled, int materialId, boolean contains)
+	{
+		int bitIndex = materialId << 1;
+		int wordIndex = bitIndex >>> 6;
+		if (wordIndex >= compiled.length)
+		{
+			synchronized(this)
+			{
+				if (this.compiled != compiled)
+				{
+					return;
+				}
+				compiled = Arrays.copyOf(compiled, Math.max(wordIndex + 1, compiled.length * 2));
+				this.compiled = compiled;
+			}
+		}
+		compiled[wordIndex] |= (contains ? 3L : 1L) << bitIndex;
+	}
+
+	private boolean matches(LocalMaterialData material)
+	{
 		if (this.allSolidMaterials && material.isSolid())
 		{
 			return true;
@@ -165,12 +263,13 @@ public class MaterialSet
 		updateIntSet();
 
 		// Check if the material is included
-		if (Arrays.binarySearch(this.materialIntSet, material.hashCode()) >= 0)
+		int[] materialIntSet = this.materialIntSet;
+		if (Arrays.binarySearch(materialIntSet, material.hashCode()) >= 0)
 		{
 			return true;
 		}
 		// Check if the material is included without data (matches all of the same registry name)		
-		if (Arrays.binarySearch(this.materialIntSet, material.getRegistryName().hashCode()) >= 0)
+		if (Arrays.binarySearch(materialIntSet, material.getRegistryName().hashCode()) >= 0)
 		{
 			return true;
 		}
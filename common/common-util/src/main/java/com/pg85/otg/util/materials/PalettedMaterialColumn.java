@@ -0,0 +1,81 @@
+package com.pg85.otg.util.materials;
+
+import java.util.Arrays;
+
+/**
+ * A column of materials stored as a palette of distinct materials and
+ * one byte index per block, instead of a reference per block. Base
+ * terrain columns usually contain only a handful of materials (stone,
+ * ground, surface, water, air), so this is several times smaller than
+ * a LocalMaterialData[] for the same column.
+ *
+ * Null materials are stored as a palette entry like any other material.
+ */
+public class PalettedMaterialColumn
+{
+	// Max palette size for byte indices.
+	private static final int MAX_PALETTE_SIZE = 256;
+
+	private final LocalMaterialData[] palette;
+	private final byte[] indices;
+
+	public PalettedMaterialColumn(LocalMaterialData[] materials)
+	{
+		if(materials.length > MAX_PALETTE_SIZE)
+		{
+			throw new IllegalArgumentException("Column height " + materials.length + " exceeds " + MAX_PALETTE_SIZE);
+		}
+
+		LocalMaterialData[] palette = new LocalMaterialData[8];
+		int paletteSize = 0;
+		this.indices = new byte[materials.length];
+		int index;
+		for(int y = 0; y < materials.length; y++)
+		{
+			// Columns are mostly runs of the same material, so check
+			// the material of the previous block first.
+			if(y > 0 && materials[y] == materials[y - 1])
+			{
+				this.indices[y] = this.indices[y - 1];
+				continue;
+			}
+			for(index = 0; index < paletteSize; index++)
+			{
+				if(palette[index] == materials[y])
+				{
+					break;
+				}
+			}
+			if(index == paletteSize)
+			{
+				if(paletteSize == palette.length)
+				{
+					palette = Arrays.copyOf(palette, palette.length * 2);
+				}
+				palette[paletteSize++] = materials[y];
+			}
+			this.indices[y] = (byte)index;
+		}
+		this.palette = Arrays.copyOf(palette, paletteSize);
+	}
+
+	public LocalMaterialData get(int y)
+	{
+		return this.palette[this.indices[y] & 0xFF];
+	}
+
+	public int getHeight()
+	{
+		return this.indices.length;
+	}
+
+	/**
+	 * Rough estimate of the memory used by this column, used for cache budgets.
+	 * Palette entries are shared material instances, so only references are counted.
+	 */
+	public long getSizeInBytes()
+	{
+		// Object headers and fields, the index array and the palette array.
+		return 16 + (16 + this.indices.length) + (16 + this.palette.length * 8);
+	}
+}
@@ -6,8 +6,9 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.MessageFormat;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.util.logging.LogCategory;
@@ -16,7 +17,8 @@ import com.pg85.otg.util.logging.LogLevel;
 public class NBTHelper
 {
 	// A list of already loaded meta Tags. The path is the key, a NBT Tag is the value.
-	private static Map<String, NamedBinaryTag> LoadedTags = new HashMap<String, NamedBinaryTag>();
+	// Objects are loaded on multiple threads, files that failed to load are cached as empty.
+	private static Map<String, Optional<NamedBinaryTag>> LoadedTags = new ConcurrentHashMap<String, Optional<NamedBinaryTag>>();
 
 	private static NamedBinaryTag loadTileEntityFromNBT(String path, ILogger logger)
 	{
@@ -124,29 +126,8 @@ public class NBTHelper
 	{
 		String path = bo3Folder.getParent() + File.separator + name;
 
-		if (LoadedTags.containsKey(path))
-		{
-			// Found a cached one
-			return LoadedTags.get(path);
-		}
-
-		NamedBinaryTag tag = loadTileEntityFromNBT(path, logger);
-		registerMetadata(path, tag);
-		return tag;
-	}
-
-	/**
-	 * Caches and returns the provided Meta data
-	 * @param pathOnDisk The path of the meta data
-	 * @param metadata	The Tag object to be cached
-	 * @return the meta data that was cached
-	 */
-	private static NamedBinaryTag registerMetadata(String pathOnDisk, NamedBinaryTag metadata)
-	{
-		// Add it to the cache
-		LoadedTags.put(pathOnDisk, metadata);
-		// Return it
-		return metadata;
+		// Only one thread loads a given file, others wait for it and use the cached tag
+		return LoadedTags.computeIfAbsent(path, key -> Optional.ofNullable(loadTileEntityFromNBT(key, logger))).orElse(null);
 	}
 
 	public static void clearCache()
@@ -15,6 +15,7 @@ import com.pg85.otg.forge.gen.OTGNoiseChunkGenerator;
 import com.pg85.otg.forge.gui.OTGGui;
 import com.pg85.otg.forge.network.OTGClientSyncManager;
 import com.pg85.otg.presets.Preset;
+import com.pg85.otg.util.materials.MaterialSet;
 
 import net.minecraft.util.RegistryKey;
 import net.minecraft.util.ResourceLocation;
@@ -28,6 +29,7 @@ import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.world.ForgeWorldType;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.event.RegistryEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.event.world.WorldEvent.Save;
 import net.minecraftforge.eventbus.api.IEventBus;
@@ -112,6 +114,13 @@ public class OTGPlugin
 		OTGCommand.register(event.getDispatcher());
 	}
 
+	@SubscribeEvent
+	public void onTagsUpdated(TagsUpdatedEvent event)
+	{
+		// Block tags may have changed, material sets need to check materials again.
+		MaterialSet.onMaterialRegistryChanged();
+	}
+
 	@SubscribeEvent
 	public void onSave(Save event)
 	{
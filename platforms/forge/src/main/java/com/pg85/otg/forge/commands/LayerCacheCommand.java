@@ -0,0 +1,62 @@
+package com.pg85.otg.forge.commands;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.pg85.otg.OTG;
+import com.pg85.otg.forge.biome.OTGBiomeProvider;
+import com.pg85.otg.gen.biome.layers.util.CachingLayerSampler;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+import net.minecraft.command.CommandSource;
+import net.minecraft.command.Commands;
+import net.minecraft.util.text.StringTextComponent;
+
+public class LayerCacheCommand extends BaseCommand
+{
+	public LayerCacheCommand()
+	{
+		super("layercache");
+		this.helpMessage = "Shows cache statistics for each biome layer in this world.";
+		this.usage = "/otg layercache [reset]";
+		this.detailedHelp = new String[] { 
+			"Shows cache capacity, hits, misses and evictions for each biome layer, combined for all threads.",
+			"Use with BiomeLayerCacheSize, BiomeLayerCacheMaxSize and AdaptiveBiomeLayerCache in WorldConfig.",
+			"reset: Resets the statistics."
+		};
+	}
+	
+	@Override
+	public void build(LiteralArgumentBuilder<CommandSource> builder)
+	{
+		builder.then(Commands.literal("layercache")
+			.executes(context -> showStatistics(context.getSource(), false))
+			.then(Commands.literal("reset")
+				.executes(context -> showStatistics(context.getSource(), true))
+			)
+		);
+	}
+	
+	protected int showStatistics(CommandSource source, boolean reset)
+	{
+		if (!(source.getLevel().getChunkSource().generator.getBiomeSource() instanceof OTGBiomeProvider))
+		{
+			source.sendSuccess(new StringTextComponent("OTG is not enabled in this world"), false);
+			return 0;
+		}
+
+		CachingLayerSampler sampler = ((OTGBiomeProvider)source.getLevel().getChunkSource().generator.getBiomeSource()).getSampler();
+		if(reset)
+		{
+			sampler.resetCacheStatistics();
+			source.sendSuccess(new StringTextComponent("Biome layer cache statistics reset."), false);
+			return 0;
+		}
+
+		for(String line : sampler.getCacheReport())
+		{
+			OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.PERFORMANCE, line);
+			source.sendSuccess(new StringTextComponent(line), false);
+		}
+		return 0;
+	}
+}
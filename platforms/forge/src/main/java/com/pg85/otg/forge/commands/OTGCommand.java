@@ -26,6 +26,7 @@ public class OTGCommand
 		commands.add(new DataCommand());
 		commands.add(new PresetCommand());
 		commands.add(new FlushCommand());
+		commands.add(new LayerCacheCommand());
 		commands.add(new StructureCommand());
 		commands.add(new BiomeCommand());
 		commands.add(new TpCommand());
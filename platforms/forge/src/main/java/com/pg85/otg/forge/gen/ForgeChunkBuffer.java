@@ -9,6 +9,7 @@ import net.minecraft.block.BlockState;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.IChunk;
 
 public class ForgeChunkBuffer extends ChunkBuffer
@@ -34,6 +35,42 @@ public class ForgeChunkBuffer extends ChunkBuffer
 		this.chunk.setBlockState(this.mutable.set(internalX, blockY, internalZ), ((ForgeMaterialData) material).internalBlock(), false);
 	}
 
+	@Override
+	public void setBlockRun(int internalX, int minY, int maxY, int internalZ, LocalMaterialData material)
+	{
+		BlockState blockState = ((ForgeMaterialData) material).internalBlock();
+		minY = Math.max(minY, 0);
+		maxY = Math.min(maxY, this.chunk.getSections().length * 16 - 1);
+		int sectionMinY;
+		int lightCount;
+		ChunkSection section;
+		for (int blockY = maxY; blockY >= minY; blockY = sectionMinY - 1)
+		{
+			sectionMinY = Math.max(minY, blockY & ~15);
+
+			// Let the chunk place the top block in each section, which creates the
+			// section if needed and updates heightmaps and light sources.
+			lightCount = this.chunk.lights.size();
+			this.chunk.setBlockState(this.mutable.set(internalX, blockY, internalZ), blockState, false);
+			section = this.chunk.getSections()[blockY >> 4];
+
+			// Light sources are tracked per block, and air isn't placed in empty sections,
+			// so in those cases place the rest of the blocks through the chunk as well.
+			if (section == null || this.chunk.lights.size() != lightCount)
+			{
+				for (int y = blockY - 1; y >= sectionMinY; y--)
+				{
+					this.chunk.setBlockState(this.mutable.set(internalX, y, internalZ), blockState, false);
+				}
+			} else {
+				for (int y = blockY - 1; y >= sectionMinY; y--)
+				{
+					section.setBlockState(internalX, y & 15, internalZ, blockState, false);
+				}
+			}
+		}
+	}
+
 	@Override
 	public LocalMaterialData getBlock(int internalX, int blockY, int internalZ)
 	{
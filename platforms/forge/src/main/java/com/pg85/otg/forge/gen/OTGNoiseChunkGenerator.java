@@ -185,7 +185,7 @@ public final class OTGNoiseChunkGenerator extends ChunkGenerator
 		this.surfaceNoise = (INoiseGenerator)(noisesettings.useSimplexSurfaceNoise() ? new PerlinNoiseGenerator(this.random, IntStream.rangeClosed(-3, 0)) : new OctavesNoiseGenerator(this.random, IntStream.rangeClosed(-3, 0)));
 		this.noiseHeight = noisesettings.height();
 
-		this.shadowChunkGenerator = new ShadowChunkGenerator(OTG.getEngine().getPluginConfig().getMaxWorkerThreads());
+		this.shadowChunkGenerator = new ShadowChunkGenerator(OTG.getEngine().getPluginConfig().getMaxWorkerThreads(), OTG.getEngine().getPluginConfig().getShadowChunkCacheSizeMB(), OTG.getEngine().getPluginConfig().getShadowColumnCacheSizeMB());
 		this.internalGenerator = new OTGChunkGenerator(this.preset, seed, (ILayerSource) biomeProvider1,((ForgePresetLoader)OTG.getEngine().getPresetLoader()).getGlobalIdMapping(presetFolderName), OTG.getEngine().getLogger());
 		this.chunkDecorator = new OTGChunkDecorator();
 	}
@@ -613,6 +613,12 @@ public final class OTGNoiseChunkGenerator extends ChunkGenerator
 	public void stopWorkerThreads()
 	{
 		this.shadowChunkGenerator.stopWorkerThreads();
+		this.shadowChunkGenerator.logCacheMetrics(OTG.getEngine().getLogger());
+		this.internalGenerator.logNoiseCacheMetrics(OTG.getEngine().getLogger());
+		if(this.structureCache != null)
+		{
+			this.structureCache.waitForPendingSaves(OTG.getEngine().getLogger());
+		}
 	}
 
 	public Boolean checkHasVanillaStructureWithoutLoading(ServerWorld world, ChunkCoordinate chunkCoord)
@@ -2,10 +2,16 @@ package com.pg85.otg.forge.gen;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import com.pg85.otg.forge.biome.ForgeBiome;
@@ -14,12 +20,17 @@ import com.pg85.otg.forge.materials.ForgeMaterialData;
 import com.pg85.otg.gen.OTGChunkGenerator;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.util.BlockPos2D;
 import com.pg85.otg.util.ChunkCoordinate;
 import com.pg85.otg.util.FifoMap;
+import com.pg85.otg.util.SizeLimitedFifoMap;
 import com.pg85.otg.util.gen.JigsawStructureData;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.LocalMaterials;
+import com.pg85.otg.util.materials.PalettedMaterialColumn;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
@@ -31,6 +42,7 @@ import net.minecraft.util.registry.DynamicRegistries;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.biome.provider.BiomeProvider;
 import net.minecraft.world.chunk.ChunkPrimer;
+import net.minecraft.world.chunk.ChunkSection;
 import net.minecraft.world.chunk.ChunkStatus;
 import net.minecraft.world.chunk.IChunk;
 import net.minecraft.world.gen.ChunkGenerator;
@@ -48,7 +60,7 @@ import net.minecraft.world.server.ServerWorld;
  * without using mc's world generation flow. OTG's chunkgenerator is
  * called internally to generate base terrain for dummy chunks in a
  * thread-safe/non-blocking way. Shadowgenned chunks are stored in a
- * fixed size FIFO cache, data is reused when base terraingen is requested
+ * FIFO cache with a memory budget, data is reused when base terraingen is requested
  * for those chunks via normal worldgen. Shadowgen is used for BO4's,
  * worker threads to speed up world generation and /otg mapterrain.
  *
@@ -59,45 +71,100 @@ import net.minecraft.world.server.ServerWorld;
  */
 public class ShadowChunkGenerator
 {
-	// TODO: Add a setting to the worldconfig for the size of these caches?
-	private final FifoMap<BlockPos2D, LocalMaterialData[]> unloadedBlockColumnsCache = new FifoMap<BlockPos2D, LocalMaterialData[]>(1024);
-	private final FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache = new FifoMap<ChunkCoordinate, IChunk>(512);
+	private static final long BYTES_PER_MB = 1024 * 1024;
+	// Rough estimate of the memory used by a shadowgenned chunk, used for the cache budget.
+	// Block states in a non-empty section mostly take 4 bits per block (2KB), plus palette,
+	// heightmaps and object overhead.
+	private static final long CHUNK_SIZE_ESTIMATE = 4096;
+	private static final long SECTION_SIZE_ESTIMATE = 2560;
+	// Chunks that shouldn't be shadowgenned are cached as null, this covers the map entry.
+	private static final long NULL_CHUNK_SIZE_ESTIMATE = 64;
+
+	private final SizeLimitedFifoMap<BlockPos2D, PalettedMaterialColumn> unloadedBlockColumnsCache;
+	private final SizeLimitedFifoMap<ChunkCoordinate, IChunk> unloadedChunksCache;
 	private final FifoMap<ChunkCoordinate, Boolean> hasVanillaStructureChunkCache = new FifoMap<ChunkCoordinate, Boolean>(2048);
 
 	private final Object workerLock = new Object();
 	private final int maxConcurrent;
-	private final Worker[] threads;
-	private boolean threadsInitialized = false;
+	// Work-stealing pool for worker threads, created when chunks are first queued.
+	private ForkJoinPool executor;
+	private boolean stopped = false;
 	private final LinkedList<ChunkCoordinate> chunksToLoad = new LinkedList<ChunkCoordinate>();
 	private final int maxQueueSize = 512;
-	private final ChunkCoordinate[] chunksBeingLoaded;
+	// Chunks being generated by worker threads.
+	private final Set<ChunkCoordinate> chunksBeingLoaded = new HashSet<ChunkCoordinate>();
+	// Chunk being generated by the worldgen thread.
+	private ChunkCoordinate worldGenChunkBeingLoaded;
 	private final int waitTimeInMS = 25;
-	private final int idleTimeInMS = 50;
-	@SuppressWarnings("unused")
-	private int cacheHits = 0;
-	@SuppressWarnings("unused")
-	private int cacheMisses = 0;
 
-	public ShadowChunkGenerator(int maxConcurrentThreads)
+	private final AtomicLong chunkCacheHits = new AtomicLong();
+	private final AtomicLong chunkCacheMisses = new AtomicLong();
+	private final AtomicLong columnCacheHits = new AtomicLong();
+	private final AtomicLong columnCacheMisses = new AtomicLong();
+	private final AtomicLong chunkWaits = new AtomicLong();
+	private final AtomicLong chunkWaitNanos = new AtomicLong();
+
+	public ShadowChunkGenerator(int maxConcurrentThreads, int chunkCacheSizeMB, int columnCacheSizeMB)
 	{
 		this.maxConcurrent = maxConcurrentThreads;
-		this.threads = new Worker[this.maxConcurrent];
-		// chunksBeingLoaded[maxConcurrent] means worldgen thread, not a worker thread.
-		this.chunksBeingLoaded = new ChunkCoordinate[this.maxConcurrent + 1];
+		this.unloadedChunksCache = new SizeLimitedFifoMap<ChunkCoordinate, IChunk>(chunkCacheSizeMB * BYTES_PER_MB, ShadowChunkGenerator::estimateSizeInBytes);
+		this.unloadedBlockColumnsCache = new SizeLimitedFifoMap<BlockPos2D, PalettedMaterialColumn>(columnCacheSizeMB * BYTES_PER_MB, PalettedMaterialColumn::getSizeInBytes);
+	}
+
+	private static long estimateSizeInBytes(IChunk chunk)
+	{
+		if(chunk == null)
+		{
+			return NULL_CHUNK_SIZE_ESTIMATE;
+		}
+		long size = CHUNK_SIZE_ESTIMATE;
+		for(ChunkSection section : chunk.getSections())
+		{
+			if(section != null)
+			{
+				size += SECTION_SIZE_ESTIMATE;
+			}
+		}
+		return size;
 	}
 
 	// Called on world unload to stop threads and release resources.
 	public void stopWorkerThreads()
 	{
-		if(this.maxConcurrent > 0)
+		synchronized(this.workerLock)
+		{
+			this.stopped = true;
+			this.chunksToLoad.clear();
+			this.workerLock.notifyAll();
+		}
+		if(this.executor != null)
+		{
+			// Cancels queued tasks, running tasks finish the chunk they're generating.
+			this.executor.shutdownNow();
+		}
+	}
+
+	public void logCacheMetrics(ILogger logger)
+	{
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
 		{
-			for(int i = 0; i < this.maxConcurrent; i++)
+			long chunkCacheSize;
+			long columnCacheSize;
+			synchronized(this.workerLock)
 			{
-				if(this.threads[i] != null)
-				{
-					this.threads[i].stop();
-				}
+				chunkCacheSize = this.unloadedChunksCache.getSizeInBytes();
+			}
+			synchronized(this.unloadedBlockColumnsCache)
+			{
+				columnCacheSize = this.unloadedBlockColumnsCache.getSizeInBytes();
 			}
+			logger.log(
+				LogLevel.INFO,
+				LogCategory.PERFORMANCE,
+				"Shadowgen chunk cache: " + this.chunkCacheHits.get() + " hits, " + this.chunkCacheMisses.get() + " misses, " + (chunkCacheSize / 1024) + "/" + (this.unloadedChunksCache.getMaxSizeInBytes() / 1024) + " KB used" +
+				", column cache: " + this.columnCacheHits.get() + " hits, " + this.columnCacheMisses.get() + " misses, " + (columnCacheSize / 1024) + "/" + (this.unloadedBlockColumnsCache.getMaxSizeInBytes() / 1024) + " KB used" +
+				", waited on worker threads " + this.chunkWaits.get() + " times (" + TimeUnit.NANOSECONDS.toMillis(this.chunkWaitNanos.get()) + " Ms total)."
+			);
 		}
 	}
 
@@ -109,48 +176,48 @@ public class ShadowChunkGenerator
 	{
 		if(this.maxConcurrent > 0)
 		{
-			if(!this.threadsInitialized)
+			synchronized(this.workerLock)
 			{
-				for(int i = 0; i < this.maxConcurrent; i++)
+				if(this.stopped)
 				{
-					@SuppressWarnings("deprecation")
-					Worker thread = this.new Worker(i, this.unloadedChunksCache, this.chunksToLoad, this.chunksBeingLoaded, worldGenRegion.getLevel(), chunkGenerator, biomeProvider, otgChunkGenerator, dimensionStructuresSettings, worldHeightCap);
-					this.threads[i] = thread;
-					thread.start(worldGenRegion.getRandom());
+					return;
+				}
+				if(this.executor == null)
+				{
+					this.executor = new ForkJoinPool(this.maxConcurrent, pool -> {
+						// Subclassed so threads inherit the context classloader.
+						ForkJoinWorkerThread thread = new ForkJoinWorkerThread(pool) { };
+						thread.setName("OTG-ShadowChunkGenerator-" + thread.getPoolIndex());
+						thread.setDaemon(true);
+						return thread;
+					}, null, true);
 				}
-				this.threadsInitialized = true;
-			}
-			synchronized(this.workerLock)
-			{
 				if(this.chunksToLoad.size() == 0)
 				{
 					//OTG.log(LogMarker.INFO, "Fetching chunks for async chunkgen");
+					ServerWorld serverWorld = worldGenRegion.getLevel();
+					Random worldRandom = worldGenRegion.getRandom();
 					for(IChunk wgrChunk : worldGenRegion.cache)
 					{
 						ChunkCoordinate wgrChunkCoord = ChunkCoordinate.fromChunkCoords(wgrChunk.getPos().x, wgrChunk.getPos().z);
 						if(wgrChunk != chunk && !wgrChunk.getStatus().isOrAfter(ChunkStatus.NOISE))
 						{
-							if (!this.unloadedChunksCache.containsKey(wgrChunkCoord))
+							if (
+								!this.unloadedChunksCache.containsKey(wgrChunkCoord) &&
+								!this.chunksBeingLoaded.contains(wgrChunkCoord) &&
+								!wgrChunkCoord.equals(this.worldGenChunkBeingLoaded)
+							)
 							{
-								boolean bFound = false;
-								for(int i = 0; i < this.chunksBeingLoaded.length; i++)
+								// TODO: Queue order shouldn't really matter bc
+								// of the way maxQueueSize is enforced here.
+								// Might affect cache hits/misses and waits tho, test?
+								this.chunksToLoad.addFirst(wgrChunkCoord);
+								// Each task generates the oldest queued chunk, if the
+								// worldgen thread hasn't claimed it in the meantime.
+								this.executor.execute(() -> generateQueuedChunk(serverWorld, chunkGenerator, biomeProvider, otgChunkGenerator, dimensionStructuresSettings, worldHeightCap, worldRandom));
+								if(this.chunksToLoad.size() == this.maxQueueSize)
 								{
-									if(this.chunksBeingLoaded[i] == wgrChunkCoord)
-									{
-										bFound = true;
-										break;
-									}
-								}
-								if(!bFound)
-								{
-									// TODO: Queue order shouldn't really matter bc
-									// of the way maxQueueSize is enforced here.
-									// Might affect cache hits/misses and waits tho, test?
-									this.chunksToLoad.addFirst(wgrChunkCoord);
-									if(this.chunksToLoad.size() == this.maxQueueSize)
-									{
-										break;
-									}
+									break;
 								}
 							}
 						}
@@ -160,6 +227,44 @@ public class ShadowChunkGenerator
 		}
 	}
 
+	// Async worker task for generating chunks up to ChunkStatus.NOISE.
+	// This is only used for chunks that don't require density based
+	// smoothing for vanilla structures, since that cannot be done
+	// in a thread-safe/non-blocking manner.
+	private void generateQueuedChunk(ServerWorld serverWorld, ChunkGenerator chunkGenerator, OTGBiomeProvider biomeProvider, OTGChunkGenerator otgChunkGenerator, DimensionStructuresSettings dimensionStructuresSettings, int worldHeightCap, Random worldRandom)
+	{
+		ChunkCoordinate coords;
+		synchronized(this.workerLock)
+		{
+			if(this.stopped || this.chunksToLoad.isEmpty())
+			{
+				return;
+			}
+			coords = this.chunksToLoad.removeLast();
+			this.chunksBeingLoaded.add(coords);
+		}
+		IChunk cachedChunk = null;
+		try
+		{
+			if(!checkHasVanillaStructureWithoutLoading(serverWorld, chunkGenerator, biomeProvider, dimensionStructuresSettings, coords, otgChunkGenerator.getCachedBiomeProvider()))
+			{
+				// Generate a chunk without loading/decorating it.
+				cachedChunk = getUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, coords).getChunk();
+			}
+		} finally {
+			synchronized(this.workerLock)
+			{
+				// If the chunk should not be shadowgenned (or generating
+				// it failed), add it to the unloadedChunksCache as null so
+				// workers avoid it and the worldgen thread takes care
+				// of it in getChunkWithWait().
+				this.unloadedChunksCache.put(coords, cachedChunk);
+				this.chunksBeingLoaded.remove(coords);
+				this.workerLock.notifyAll();
+			}
+		}
+	}
+
 	private ForgeChunkBuffer getUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random random, ChunkCoordinate chunkCoordinate)
 	{
 		ChunkPrimer chunk = new ChunkPrimer(new ChunkPos(chunkCoordinate.getChunkX(), chunkCoordinate.getChunkZ()), null);
@@ -183,74 +288,46 @@ public class ShadowChunkGenerator
 		// Fetch the chunk if it is cached, otherwise check if no other thread
 		// is generating the chunk. If not, claim the chunk and generate it.
 		// If so, wait for the other thread to finish.
+		long startTime = 0;
+		IChunk cachedChunk;
 		synchronized(this.workerLock)
 		{
-			IChunk cachedChunk = this.unloadedChunksCache.get(chunkCoord);
-			if(cachedChunk != null)
+			while(true)
 			{
-				return cachedChunk;
-			} else {
+				cachedChunk = this.unloadedChunksCache.get(chunkCoord);
+				if(cachedChunk != null)
+				{
+					break;
+				}
 				// If a chunk is in unloadedChunksCache but is null, it's in a chunk that
 				// shouldn't be generated async due to a vanilla structure start nearby.
-				if(this.unloadedChunksCache.containsKey(chunkCoord))
+				if(this.unloadedChunksCache.containsKey(chunkCoord) || !this.chunksBeingLoaded.contains(chunkCoord))
 				{
 					this.unloadedChunksCache.remove(chunkCoord);
 					this.chunksToLoad.remove(chunkCoord);
-					// MaxConcurrent means worldgen thread, not a worker thread.
-					this.chunksBeingLoaded[this.maxConcurrent] = chunkCoord;
-					return null;
-				} else {
-					boolean bFound = false;
-					for(int i = 0; i < this.chunksBeingLoaded.length; i++)
-					{
-						if(this.chunksBeingLoaded[i] == chunkCoord)
-						{
-							bFound = true;
-							break;
-						}
-					}
-					if(!bFound)
-					{
-						this.chunksToLoad.remove(chunkCoord);
-						// MaxConcurrent means worldgen thread, not a worker thread.
-						this.chunksBeingLoaded[this.maxConcurrent] = chunkCoord;
-						return null;
-					}
+					this.worldGenChunkBeingLoaded = chunkCoord;
+					break;
 				}
-			}
-		}
-
-		// A worker thread is generating the chunk, wait.
 
-		while(true)
-		{
-			try {
-				//OTG.log(LogMarker.INFO, "Waiting for chunk");
-				// TODO: If a worker thread is stuck or crashed, this may wait indefinitely.
-				Thread.sleep(this.waitTimeInMS);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-			synchronized(this.workerLock)
-			{
-				IChunk cachedChunk = this.unloadedChunksCache.get(chunkCoord);
-				if(cachedChunk != null)
+				// A worker thread is generating the chunk, wait.
+				if(startTime == 0)
 				{
-					return cachedChunk;
-				} else {
-					// If a chunk is in unloadedChunksCache but is null, it's in a chunk that
-					// shouldn't be generated async due to a vanilla structure start nearby.
-					if(this.unloadedChunksCache.containsKey(chunkCoord))
-					{
-						this.unloadedChunksCache.remove(chunkCoord);
-						this.chunksToLoad.remove(chunkCoord);
-						// MaxConcurrent means worldgen thread, not a worker thread.
-						this.chunksBeingLoaded[this.maxConcurrent] = chunkCoord;
-						return null;
-					}
+					startTime = System.nanoTime();
+				}
+				try {
+					// Workers notify when they're done, the timeout is just a fallback.
+					this.workerLock.wait(this.waitTimeInMS);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
 				}
 			}
 		}
+		if(startTime != 0)
+		{
+			this.chunkWaits.incrementAndGet();
+			this.chunkWaitNanos.addAndGet(System.nanoTime() - startTime);
+		}
+		return cachedChunk;
 	}
 
 	public void fillWorldGenChunkFromShadowChunk(IChunk chunk, IChunk cachedChunk)
@@ -260,8 +337,7 @@ public class ShadowChunkGenerator
 		((ChunkPrimer)chunk).sections = ((ChunkPrimer)cachedChunk).sections;
 		((ChunkPrimer)chunk).heightmaps = ((ChunkPrimer)cachedChunk).heightmaps;
 		((ChunkPrimer)chunk).lights = ((ChunkPrimer)cachedChunk).lights;
-		this.cacheHits++;
-		//OTG.log(LogMarker.INFO, "Cache hit " + this.cacheHits);
+		this.chunkCacheHits.incrementAndGet();
 		synchronized(this.workerLock)
 		{
 			this.unloadedChunksCache.remove(chunkCoord);
@@ -270,12 +346,10 @@ public class ShadowChunkGenerator
 
 	public void setChunkGenerated(ChunkCoordinate chunkCoord)
 	{
-		this.cacheMisses++;
-		//OTG.log(LogMarker.INFO, "Cache miss " + + this.cacheMisses);
-		synchronized(workerLock)
+		this.chunkCacheMisses.incrementAndGet();
+		synchronized(this.workerLock)
 		{
-			// Zero index, so MaxConcurrent means worldgen thread, not a worker thread.
-			this.chunksBeingLoaded[this.maxConcurrent] = null;
+			this.worldGenChunkBeingLoaded = null;
 			this.chunksToLoad.remove(chunkCoord);
 		}
 	}
@@ -399,7 +473,7 @@ public class ShadowChunkGenerator
 	// Async worker threads may also pre-emptively shadowgen and cache unloaded chunks, which speeds up base terrain generation but also BO4's.
 	// Note: BO4's are always processed on the worldgen thread, never on a worker thread, since they are not a part of base terrain generation.
 
-	private LocalMaterialData[] getBlockColumnInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z)
+	private PalettedMaterialColumn getBlockColumnInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z)
 	{
 		BlockPos2D blockPos = new BlockPos2D(x, z);
 		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
@@ -408,12 +482,18 @@ public class ShadowChunkGenerator
 		byte blockX = (byte) (x &= 0xF);
 		byte blockZ = (byte) (z &= 0xF);
 
-		LocalMaterialData[] cachedColumn = this.unloadedBlockColumnsCache.get(blockPos);
+		PalettedMaterialColumn cachedColumn;
+		synchronized(this.unloadedBlockColumnsCache)
+		{
+			cachedColumn = this.unloadedBlockColumnsCache.get(blockPos);
+		}
 
 		if (cachedColumn != null)
 		{
+			this.columnCacheHits.incrementAndGet();
 			return cachedColumn;
 		}
+		this.columnCacheMisses.incrementAndGet();
 
 		IChunk chunk = this.getChunkWithWait(chunkCoord);
 		if (chunk == null)
@@ -423,13 +503,11 @@ public class ShadowChunkGenerator
 			synchronized(this.workerLock)
 			{
 				this.unloadedChunksCache.put(chunkCoord, chunk);
-				// Zero index, so MaxConcurrent means worldgen thread, not a worker thread.
-				this.chunksBeingLoaded[this.maxConcurrent] = null;
+				this.worldGenChunkBeingLoaded = null;
+				this.workerLock.notifyAll();
 			}
 		}
 
-		cachedColumn = new LocalMaterialData[256];
-
 		LocalMaterialData[] blocksInColumn = new LocalMaterialData[256];
 		BlockState blockInChunk;
 		for (short y = 0; y < 256; y++)
@@ -442,29 +520,40 @@ public class ShadowChunkGenerator
 				break;
 			}
 		}
-		this.unloadedBlockColumnsCache.put(blockPos, cachedColumn);
+		cachedColumn = new PalettedMaterialColumn(blocksInColumn);
+		synchronized(this.unloadedBlockColumnsCache)
+		{
+			this.unloadedBlockColumnsCache.put(blockPos, cachedColumn);
+		}
 
-		return blocksInColumn;
+		return cachedColumn;
 	}
 
 	public LocalMaterialData getMaterialInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int y, int z)
 	{
-		LocalMaterialData[] blockColumn = getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z);
-		return blockColumn[y];
+		return getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z).get(y);
 	}
 
+	// Heights are calculated from noise where possible (see OTGChunkGenerator.getHighestBlockYInUnloadedColumn),
+	// so most height checks don't need chunks to be shadowgenned. Columns whose surface blocks aren't solid,
+	// like snow layers, are never calculated from noise, so ignoreSnow doesn't change the noise result.
 	public int getHighestBlockYInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow)
 	{
-		int height = -1;
+		int height = otgChunkGenerator.getHighestBlockYInUnloadedColumn(x, z, findSolid, findLiquid, ignoreLiquid);
+		if(height != OTGChunkGenerator.COLUMN_HEIGHT_UNKNOWN)
+		{
+			return height;
+		}
+		height = -1;
 
-		LocalMaterialData[] blockColumn = getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z);
+		PalettedMaterialColumn blockColumn = getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z);
 		ForgeMaterialData material;
 		boolean isLiquid;
 		boolean isSolid;
 
 		for (int y = 255; y >= 0; y--)
 		{
-			material = (ForgeMaterialData) blockColumn[y];
+			material = (ForgeMaterialData) blockColumn.get(y);
 			isLiquid = material.isLiquid();
 			isSolid = material.isSolid() || (!ignoreSnow && material.isMaterial(LocalMaterials.SNOW));
 			if (!(isLiquid && ignoreLiquid))
@@ -481,110 +570,4 @@ public class ShadowChunkGenerator
 		}
 		return height;
 	}
-
-	// Async Worker for generating chunks up to ChunkStatus.NOISE.
-	// This is only used for chunks that don't require density based
-	// smoothing for vanilla structures, since that cannot be done
-	// in a thread-safe/non-blocking manner.
-
-	private class Worker implements Runnable
-	{
-		private Thread runner;
-		private boolean stop = false;
-		private Random worldRandom;
-
-		private final int index;
-		private final FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache;
-		private final List<ChunkCoordinate> chunksToLoad;
-		private final ChunkCoordinate[] chunksBeingLoaded;
-		private final ServerWorld serverWorld;
-		private final ChunkGenerator chunkGenerator;
-		private final OTGBiomeProvider biomeProvider;
-		private final OTGChunkGenerator otgChunkGenerator;
-		private final DimensionStructuresSettings dimensionStructuresSettings;
-		private final int worldHeightCap;
-
-		Worker(int index, FifoMap<ChunkCoordinate, IChunk> unloadedChunksCache, List<ChunkCoordinate> chunksToLoad, ChunkCoordinate[] chunksBeingLoaded, ServerWorld serverWorld, ChunkGenerator chunkGenerator, OTGBiomeProvider biomeProvider, OTGChunkGenerator otgChunkGenerator, DimensionStructuresSettings dimensionStructuresSettings, int worldHeightCap)
-		{
-			this.index = index;
-			this.unloadedChunksCache = unloadedChunksCache;
-			this.chunksToLoad = chunksToLoad;
-			this.chunksBeingLoaded = chunksBeingLoaded;
-			this.serverWorld = serverWorld;
-			this.chunkGenerator = chunkGenerator;
-			this.biomeProvider  = biomeProvider;
-			this.otgChunkGenerator = otgChunkGenerator;
-			this.dimensionStructuresSettings = dimensionStructuresSettings;
-			this.worldHeightCap = worldHeightCap;
-		}
-
-		public void start(Random worldRandom)
-		{
-			this.runner = new Thread(this);
-			this.runner.start();
-			this.worldRandom = worldRandom;
-		}
-
-		public void stop()
-		{
-			this.stop = true;
-		}
-
-		@Override
-		public void run()
-		{
-			// Process chunks if any are in the queue,
-			// otherwise wait for the queue to be filled.
-			while(true)
-			{
-				if(this.stop)
-				{
-					this.stop = false;
-					return;
-				}
-
-				ChunkCoordinate coords = null;
-				int sizeLeft;
-				synchronized(workerLock)
-				{
-					sizeLeft = this.chunksToLoad.size();
-					if(sizeLeft > 0)
-					{
-						coords = this.chunksToLoad.remove(sizeLeft - 1);
-						this.chunksBeingLoaded[this.index] = coords;
-					}
-				}
-				if(coords != null)
-				{
-					if(!checkHasVanillaStructureWithoutLoading(this.serverWorld, this.chunkGenerator, this.biomeProvider, this.dimensionStructuresSettings, coords, this.otgChunkGenerator.getCachedBiomeProvider()))
-					{
-						// Generate a chunk without loading/decorating it.
-						IChunk cachedChunk = getUnloadedChunk(this.otgChunkGenerator, this.worldHeightCap, this.worldRandom, coords).getChunk();
-						synchronized(workerLock)
-						{
-							this.unloadedChunksCache.put(coords, cachedChunk);
-							this.chunksBeingLoaded[this.index] = null;
-						}
-					} else {
-						synchronized(workerLock)
-						{
-							// This chunk should not be shadowgenned, add it
-							// to the unloadedChunksCache as null so workers
-							// avoid it and the worldgen thread takes care
-							// of it in getChunkWithWait().
-							this.unloadedChunksCache.put(coords, null);
-							this.chunksBeingLoaded[this.index] = null;
-						}
-					}
-				} else {
-					try {
-						//OTG.log(LogMarker.INFO, "Worker " + this.index + " idle");
-						Thread.sleep(idleTimeInMS);
-					} catch (InterruptedException e) {
-						e.printStackTrace();
-					}
-				}
-			}
-		}
-	}
 }
@@ -15,8 +15,9 @@ import net.minecraft.util.Rotation;
 import com.pg85.otg.util.materials.MaterialProperty;
 import com.pg85.otg.util.materials.MaterialProperties;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of LocalMaterial that wraps one of Minecraft's Blocks.
@@ -24,7 +25,9 @@ import java.util.Objects;
 public class ForgeMaterialData extends LocalMaterialData
 {
 	static final LocalMaterialData blank = new ForgeMaterialData(null, null, true);
-	private static final HashMap<BlockState, ForgeMaterialData> stateToMaterialDataMap = new HashMap<>(); // TODO: Move to ForgeMaterialReader?
+	// Read by every worldgen thread, so lookups for existing materials shouldn't lock.
+	private static final ConcurrentHashMap<BlockState, ForgeMaterialData> stateToMaterialDataMap = new ConcurrentHashMap<>(); // TODO: Move to ForgeMaterialReader?
+	private static final AtomicInteger nextMaterialId = new AtomicInteger();
 
 	private final BlockState blockData;
 	private String name = null;
@@ -54,12 +57,20 @@ public class ForgeMaterialData extends LocalMaterialData
 	static ForgeMaterialData ofBlockState(BlockState blockState, String raw)
 	{
 		// Create only one LocalMaterialData object for each BlockState
-		if (stateToMaterialDataMap.containsKey(blockState))
+		if (blockState == null)
 		{
-			return stateToMaterialDataMap.get(blockState);
+			return new ForgeMaterialData(null, raw);
+		}
+		ForgeMaterialData data = stateToMaterialDataMap.get(blockState);
+		if (data == null)
+		{
+			// Only the thread that creates the material assigns it an id, so ids stay dense.
+			data = stateToMaterialDataMap.computeIfAbsent(blockState, key -> {
+				ForgeMaterialData newData = new ForgeMaterialData(key, raw);
+				newData.materialId = nextMaterialId.getAndIncrement();
+				return newData;
+			});
 		}
-		ForgeMaterialData data = new ForgeMaterialData(blockState, raw);
-		stateToMaterialDataMap.put(blockState, data);
 		return data;
 	}	
 	
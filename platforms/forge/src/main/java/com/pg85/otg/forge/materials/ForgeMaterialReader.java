@@ -24,6 +24,9 @@ import net.minecraftforge.registries.ForgeRegistries;
 public class ForgeMaterialReader implements IMaterialReader
 {
 	// TODO: Smaller caches should be ok, only most frequently used should be cached?
+	// Configs and objects are loaded on multiple threads, so the caches are synchronized
+	// on themselves. Materials are parsed outside the lock, parsing the same material
+	// twice is harmless.
 	private final FifoMap<String, LocalMaterialData> cachedMaterials = new FifoMap<>(4096);
 	private final FifoMap<String, LocalMaterialTag> cachedTags = new FifoMap<>(4096);	
 	
@@ -35,14 +38,18 @@ public class ForgeMaterialReader implements IMaterialReader
 			return null;
 		}
 		
-		LocalMaterialData localMaterial = this.cachedMaterials.get(material);
-		if(localMaterial != null)
+		LocalMaterialData localMaterial;
+		synchronized(this.cachedMaterials)
 		{
-			return localMaterial;
-		}
-		else if(this.cachedMaterials.containsKey(material))
-		{
-			throw new InvalidConfigException("Cannot read block: " + material);
+			localMaterial = this.cachedMaterials.get(material);
+			if(localMaterial != null)
+			{
+				return localMaterial;
+			}
+			else if(this.cachedMaterials.containsKey(material))
+			{
+				throw new InvalidConfigException("Cannot read block: " + material);
+			}
 		}
 
 		try
@@ -58,7 +65,10 @@ public class ForgeMaterialReader implements IMaterialReader
 			}
 		}
 
-		this.cachedMaterials.put(material, localMaterial);
+		synchronized(this.cachedMaterials)
+		{
+			this.cachedMaterials.put(material, localMaterial);
+		}
 		
 		return localMaterial;
 	}
@@ -71,14 +81,21 @@ public class ForgeMaterialReader implements IMaterialReader
 			return null;
 		}
 		
-		LocalMaterialTag localTag = this.cachedTags.get(tag);
+		LocalMaterialTag localTag;
+		synchronized(this.cachedTags)
+		{
+			localTag = this.cachedTags.get(tag);
+		}
 		if(localTag != null)
 		{
 			return localTag;
 		}
 
 		localTag = ForgeMaterialTag.ofString(tag);
-		this.cachedTags.put(tag, localTag);
+		synchronized(this.cachedTags)
+		{
+			this.cachedTags.put(tag, localTag);
+		}
 		return localTag;
 	}
 
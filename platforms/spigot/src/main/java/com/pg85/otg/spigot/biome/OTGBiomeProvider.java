@@ -36,7 +36,7 @@ public class OTGBiomeProvider extends WorldChunkManager implements ILayerSource
 	private final boolean legacyBiomeInitLayer;
 	private final boolean largeBiomes;
 	private final IRegistry<BiomeBase> registry;
-	private final ThreadLocal<CachingLayerSampler> layer;
+	private final CachingLayerSampler layer;
 	private final Int2ObjectMap<ResourceKey<BiomeBase>> keyLookup;
 	private final String presetFolderName;
 
@@ -48,7 +48,8 @@ public class OTGBiomeProvider extends WorldChunkManager implements ILayerSource
 		this.legacyBiomeInitLayer = legacyBiomeInitLayer;
 		this.largeBiomes = largeBiomes;
 		this.registry = registry;
-		this.layer = ThreadLocal.withInitial(() -> BiomeLayers.create(seed, ((SpigotPresetLoader)OTG.getEngine().getPresetLoader()).getPresetGenerationData().get(presetFolderName), OTG.getEngine().getLogger()));
+		// Layer sampling is stateless and caches per thread, so a single sampler can be shared by all threads.
+		this.layer = BiomeLayers.create(seed, ((SpigotPresetLoader)OTG.getEngine().getPresetLoader()).getPresetGenerationData().get(presetFolderName), OTG.getEngine().getLogger());
 		this.keyLookup = new Int2ObjectOpenHashMap<>();
 
 		// Default to let us know if we did anything wrong
@@ -98,12 +99,12 @@ public class OTGBiomeProvider extends WorldChunkManager implements ILayerSource
 	{
 		// Forge name: getValueForKey
 		// Spigot name: a
-		return registry.a(keyLookup.get(this.layer.get().sample(biomeX, biomeZ)));
+		return registry.a(keyLookup.get(this.layer.sample(biomeX, biomeZ)));
 	}
 
 	@Override
 	public CachingLayerSampler getSampler ()
 	{
-		return this.layer.get();
+		return this.layer;
 	}
 }
@@ -0,0 +1,72 @@
+package com.pg85.otg.spigot.commands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.craftbukkit.v1_16_R3.CraftWorld;
+import org.bukkit.entity.Player;
+import org.bukkit.util.StringUtil;
+
+import com.pg85.otg.OTG;
+import com.pg85.otg.gen.biome.layers.util.CachingLayerSampler;
+import com.pg85.otg.spigot.biome.OTGBiomeProvider;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
+
+public class LayerCacheCommand extends BaseCommand
+{
+	public LayerCacheCommand()
+	{
+		super("layercache");
+		this.helpMessage = "Shows cache statistics for each biome layer in this world.";
+		this.usage = "/otg layercache [reset]";
+		this.detailedHelp = new String[] { 
+			"Shows cache capacity, hits, misses and evictions for each biome layer, combined for all threads.",
+			"Use with BiomeLayerCacheSize, BiomeLayerCacheMaxSize and AdaptiveBiomeLayerCache in WorldConfig.",
+			"reset: Resets the statistics."
+		};
+	}
+
+	public boolean execute(CommandSender sender, String[] args)
+	{
+		if (!(sender instanceof Player))
+		{
+			sender.sendMessage("Only players can execute this command");
+			return true;
+		}
+
+		CraftWorld world = (CraftWorld) ((Player) sender).getWorld();
+		if (!(world.getHandle().getChunkProvider().chunkGenerator.getWorldChunkManager() instanceof OTGBiomeProvider))
+		{
+			sender.sendMessage("This is not an OTG world");
+			return true;
+		}
+
+		CachingLayerSampler sampler = ((OTGBiomeProvider)world.getHandle().getChunkProvider().chunkGenerator.getWorldChunkManager()).getSampler();
+		if (args.length > 0 && args[0].equalsIgnoreCase("reset"))
+		{
+			sampler.resetCacheStatistics();
+			sender.sendMessage("Biome layer cache statistics reset.");
+			return true;
+		}
+
+		for (String line : sampler.getCacheReport())
+		{
+			OTG.getEngine().getLogger().log(LogLevel.INFO, LogCategory.PERFORMANCE, line);
+			sender.sendMessage(line);
+		}
+		return true;
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, String[] args)
+	{
+		if (args.length == 2)
+		{
+			return StringUtil.copyPartialMatches(args[1], Collections.singletonList("reset"), new ArrayList<>());
+		}
+		return Collections.emptyList();
+	}
+}
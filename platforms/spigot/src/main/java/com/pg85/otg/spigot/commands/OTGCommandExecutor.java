@@ -25,6 +25,7 @@ public class OTGCommandExecutor implements TabCompleter, CommandExecutor
 		commandMap.put("edit", new EditCommand());
 		commandMap.put("export", new ExportCommand());
 		commandMap.put("flush", new FlushCommand());
+		commandMap.put("layercache", new LayerCacheCommand());
 		commandMap.put("spawn", new SpawnCommand());
 		commandMap.put("structure", new StructureCommand());
 		commandMap.put("map", new MapCommand());
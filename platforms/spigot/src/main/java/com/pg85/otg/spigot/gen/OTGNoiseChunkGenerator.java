@@ -122,7 +122,7 @@ public class OTGNoiseChunkGenerator extends ChunkGenerator
 		this.surfaceNoise = (NoiseGenerator)(noisesettings.i() ? new NoiseGenerator3(this.random, IntStream.rangeClosed(-3, 0)) : new NoiseGeneratorOctaves(this.random, IntStream.rangeClosed(-3, 0)));
 
 		this.preset = OTG.getEngine().getPresetLoader().getPresetByFolderName(presetFolderName);
-		this.shadowChunkGenerator = new ShadowChunkGenerator();
+		this.shadowChunkGenerator = new ShadowChunkGenerator(OTG.getEngine().getPluginConfig().getShadowChunkCacheSizeMB(), OTG.getEngine().getPluginConfig().getShadowColumnCacheSizeMB());
 		this.internalGenerator = new OTGChunkGenerator(this.preset, seed, (ILayerSource) biomeProvider1, ((SpigotPresetLoader)OTG.getEngine().getPresetLoader()).getGlobalIdMapping(presetFolderName), OTG.getEngine().getLogger());
 		this.chunkDecorator = new OTGChunkDecorator();
 	}
@@ -138,6 +138,8 @@ public class OTGNoiseChunkGenerator extends ChunkGenerator
 		{
 			this.structureCache.saveToDisk(OTG.getEngine().getLogger(), this.chunkDecorator);
 		}
+		this.shadowChunkGenerator.logCacheMetrics(OTG.getEngine().getLogger());
+		this.internalGenerator.logNoiseCacheMetrics(OTG.getEngine().getLogger());
 	}
 
 	@Override
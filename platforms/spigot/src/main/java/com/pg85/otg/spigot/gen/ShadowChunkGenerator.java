@@ -6,6 +6,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.bukkit.craftbukkit.v1_16_R3.generator.CraftChunkData;
@@ -14,14 +15,19 @@ import com.pg85.otg.constants.Constants;
 import com.pg85.otg.gen.OTGChunkGenerator;
 import com.pg85.otg.interfaces.IBiome;
 import com.pg85.otg.interfaces.ICachedBiomeProvider;
+import com.pg85.otg.interfaces.ILogger;
 import com.pg85.otg.spigot.biome.SpigotBiome;
 import com.pg85.otg.spigot.materials.SpigotMaterialData;
 import com.pg85.otg.util.BlockPos2D;
 import com.pg85.otg.util.ChunkCoordinate;
 import com.pg85.otg.util.FifoMap;
+import com.pg85.otg.util.SizeLimitedFifoMap;
 import com.pg85.otg.util.gen.JigsawStructureData;
+import com.pg85.otg.util.logging.LogCategory;
+import com.pg85.otg.util.logging.LogLevel;
 import com.pg85.otg.util.materials.LocalMaterialData;
 import com.pg85.otg.util.materials.LocalMaterials;
+import com.pg85.otg.util.materials.PalettedMaterialColumn;
 
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
@@ -29,6 +35,7 @@ import net.minecraft.server.v1_16_R3.BiomeBase;
 import net.minecraft.server.v1_16_R3.BlockPosition;
 import net.minecraft.server.v1_16_R3.ChunkCoordIntPair;
 import net.minecraft.server.v1_16_R3.ChunkGenerator;
+import net.minecraft.server.v1_16_R3.ChunkSection;
 import net.minecraft.server.v1_16_R3.DefinedStructureManager;
 import net.minecraft.server.v1_16_R3.HeightMap;
 import net.minecraft.server.v1_16_R3.IBlockData;
@@ -48,7 +55,7 @@ import net.minecraft.server.v1_16_R3.WorldServer;
  * Shadow chunk generation means generating base terrain for chunks
  * without using mc's world generation flow. OTG's chunkgenerator is
  * called internally to generate base terrain for dummy chunks. 
- * Shadowgenned chunks are stored in a fixed size FIFO cache, data is 
+ * Shadowgenned chunks are stored in a FIFO cache with a memory budget, data is 
  * reused when base terraingen is requested for those chunks via 
  * normal worldgen. Shadowgen is used for BO4's and /otg mapterrain.
  *
@@ -59,9 +66,15 @@ import net.minecraft.server.v1_16_R3.WorldServer;
  */
 public class ShadowChunkGenerator
 {
-	// TODO: Add a setting to the worldconfig for the size of these caches?
-	private final FifoMap<BlockPos2D, LocalMaterialData[]> unloadedBlockColumnsCache = new FifoMap<BlockPos2D, LocalMaterialData[]>(1024);
-	private final FifoMap<ChunkCoordinate, IChunkAccess> unloadedChunksCache = new FifoMap<ChunkCoordinate, IChunkAccess>(512);
+	private static final long BYTES_PER_MB = 1024 * 1024;
+	// Rough estimate of the memory used by a shadowgenned chunk, used for the cache budget.
+	// Block states in a non-empty section mostly take 4 bits per block (2KB), plus palette,
+	// heightmaps and object overhead.
+	private static final long CHUNK_SIZE_ESTIMATE = 4096;
+	private static final long SECTION_SIZE_ESTIMATE = 2560;
+
+	private final SizeLimitedFifoMap<BlockPos2D, PalettedMaterialColumn> unloadedBlockColumnsCache;
+	private final SizeLimitedFifoMap<ChunkCoordinate, IChunkAccess> unloadedChunksCache;
 	private final FifoMap<ChunkCoordinate, Boolean> hasVanillaStructureChunkCache = new FifoMap<ChunkCoordinate, Boolean>(2048);
 	
 	static Field heightMaps;
@@ -86,12 +99,52 @@ public class ShadowChunkGenerator
 		}
 	}
 
-	@SuppressWarnings("unused")
-	private int cacheHits = 0;
-	@SuppressWarnings("unused")
-	private int cacheMisses = 0;
+	private final AtomicLong chunkCacheHits = new AtomicLong();
+	private final AtomicLong chunkCacheMisses = new AtomicLong();
+	private final AtomicLong columnCacheHits = new AtomicLong();
+	private final AtomicLong columnCacheMisses = new AtomicLong();
 
-	public ShadowChunkGenerator() { }
+	public ShadowChunkGenerator(int chunkCacheSizeMB, int columnCacheSizeMB)
+	{
+		this.unloadedChunksCache = new SizeLimitedFifoMap<ChunkCoordinate, IChunkAccess>(chunkCacheSizeMB * BYTES_PER_MB, ShadowChunkGenerator::estimateSizeInBytes);
+		this.unloadedBlockColumnsCache = new SizeLimitedFifoMap<BlockPos2D, PalettedMaterialColumn>(columnCacheSizeMB * BYTES_PER_MB, PalettedMaterialColumn::getSizeInBytes);
+	}
+
+	private static long estimateSizeInBytes(IChunkAccess chunk)
+	{
+		long size = CHUNK_SIZE_ESTIMATE;
+		for(ChunkSection section : chunk.getSections())
+		{
+			if(section != null)
+			{
+				size += SECTION_SIZE_ESTIMATE;
+			}
+		}
+		return size;
+	}
+
+	public void logCacheMetrics(ILogger logger)
+	{
+		if(logger.getLogCategoryEnabled(LogCategory.PERFORMANCE))
+		{
+			long chunkCacheSize;
+			long columnCacheSize;
+			synchronized(this.unloadedChunksCache)
+			{
+				chunkCacheSize = this.unloadedChunksCache.getSizeInBytes();
+			}
+			synchronized(this.unloadedBlockColumnsCache)
+			{
+				columnCacheSize = this.unloadedBlockColumnsCache.getSizeInBytes();
+			}
+			logger.log(
+				LogLevel.INFO,
+				LogCategory.PERFORMANCE,
+				"Shadowgen chunk cache: " + this.chunkCacheHits.get() + " hits, " + this.chunkCacheMisses.get() + " misses, " + (chunkCacheSize / 1024) + "/" + (this.unloadedChunksCache.getMaxSizeInBytes() / 1024) + " KB used" +
+				", column cache: " + this.columnCacheHits.get() + " hits, " + this.columnCacheMisses.get() + " misses, " + (columnCacheSize / 1024) + "/" + (this.unloadedBlockColumnsCache.getMaxSizeInBytes() / 1024) + " KB used."
+			);
+		}
+	}
 
 	private SpigotChunkBuffer getUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random random, ChunkCoordinate chunkCoordinate)
 	{
@@ -113,12 +166,9 @@ public class ShadowChunkGenerator
 
 	public IChunkAccess getChunkFromCache(ChunkCoordinate chunkCoord)
 	{
-		IChunkAccess cachedChunk = this.unloadedChunksCache.get(chunkCoord);
-		if(cachedChunk != null)
+		synchronized(this.unloadedChunksCache)
 		{
-			return cachedChunk;
-		} else {
-			return null;
+			return this.unloadedChunksCache.get(chunkCoord);
 		}
 	}
 
@@ -146,9 +196,11 @@ public class ShadowChunkGenerator
 			}
 		}
 		
-		this.cacheHits++;
-		//OTG.log(LogMarker.INFO, "Cache hit " + this.cacheHits);
-		this.unloadedChunksCache.remove(chunkCoord);
+		this.chunkCacheHits.incrementAndGet();
+		synchronized(this.unloadedChunksCache)
+		{
+			this.unloadedChunksCache.remove(chunkCoord);
+		}
 	}
 	
 	public void fillWorldGenChunkFromShadowChunk(ChunkCoordinate chunkCoord, IChunkAccess chunk, IChunkAccess cachedChunk)
@@ -178,15 +230,16 @@ public class ShadowChunkGenerator
 			}
 		}
 		
-		this.cacheHits++;
-		//OTG.log(LogMarker.INFO, "Cache hit " + this.cacheHits);
-		this.unloadedChunksCache.remove(chunkCoord);
+		this.chunkCacheHits.incrementAndGet();
+		synchronized(this.unloadedChunksCache)
+		{
+			this.unloadedChunksCache.remove(chunkCoord);
+		}
 	}	
 
 	public void setChunkGenerated(ChunkCoordinate chunkCoord)
 	{
-		this.cacheMisses++;
-		//OTG.log(LogMarker.INFO, "Cache miss " + + this.cacheMisses);
+		this.chunkCacheMisses.incrementAndGet();
 	}
 
 	// Vanilla structure detection (avoidance)
@@ -306,7 +359,7 @@ public class ShadowChunkGenerator
 	// BO4's and smoothing areas may do material and height checks in unloaded chunks during decoration.
 	// Shadowgen is used to do this without causing cascades. Shadowgenned chunks are requested on-demand for the worldgen thread (BO4's).
 
-	private LocalMaterialData[] getBlockColumnInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z)
+	private PalettedMaterialColumn getBlockColumnInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z)
 	{
 		BlockPos2D blockPos = new BlockPos2D(x, z);
 		ChunkCoordinate chunkCoord = ChunkCoordinate.fromBlockCoords(x, z);
@@ -315,23 +368,30 @@ public class ShadowChunkGenerator
 		byte blockX = (byte) (x &= 0xF);
 		byte blockZ = (byte) (z &= 0xF);
 
-		LocalMaterialData[] cachedColumn = this.unloadedBlockColumnsCache.get(blockPos);
+		PalettedMaterialColumn cachedColumn;
+		synchronized(this.unloadedBlockColumnsCache)
+		{
+			cachedColumn = this.unloadedBlockColumnsCache.get(blockPos);
+		}
 
 		if (cachedColumn != null)
 		{
+			this.columnCacheHits.incrementAndGet();
 			return cachedColumn;
 		}
+		this.columnCacheMisses.incrementAndGet();
 
 		IChunkAccess chunk = getChunkFromCache(chunkCoord);
 		if (chunk == null)
 		{
 			// Generate a chunk without loading/decorating it
 			chunk = getUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, chunkCoord).getChunk();
-			this.unloadedChunksCache.put(chunkCoord, chunk);
+			synchronized(this.unloadedChunksCache)
+			{
+				this.unloadedChunksCache.put(chunkCoord, chunk);
+			}
 		}
 
-		cachedColumn = new LocalMaterialData[256];
-
 		LocalMaterialData[] blocksInColumn = new LocalMaterialData[256];
 		IBlockData blockInChunk;
 		for (short y = 0; y < 256; y++)
@@ -344,29 +404,40 @@ public class ShadowChunkGenerator
 				break;
 			}
 		}
-		this.unloadedBlockColumnsCache.put(blockPos, cachedColumn);
+		cachedColumn = new PalettedMaterialColumn(blocksInColumn);
+		synchronized(this.unloadedBlockColumnsCache)
+		{
+			this.unloadedBlockColumnsCache.put(blockPos, cachedColumn);
+		}
 
-		return blocksInColumn;
+		return cachedColumn;
 	}
 
 	public LocalMaterialData getMaterialInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int y, int z)
 	{
-		LocalMaterialData[] blockColumn = getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z);
-		return blockColumn[y];
+		return getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z).get(y);
 	}
 
+	// Heights are calculated from noise where possible (see OTGChunkGenerator.getHighestBlockYInUnloadedColumn),
+	// so most height checks don't need chunks to be shadowgenned. Columns whose surface blocks aren't solid,
+	// like snow layers, are never calculated from noise, so ignoreSnow doesn't change the noise result.
 	public int getHighestBlockYInUnloadedChunk(OTGChunkGenerator otgChunkGenerator, int worldHeightCap, Random worldRandom, int x, int z, boolean findSolid, boolean findLiquid, boolean ignoreLiquid, boolean ignoreSnow)
 	{
-		int height = -1;
+		int height = otgChunkGenerator.getHighestBlockYInUnloadedColumn(x, z, findSolid, findLiquid, ignoreLiquid);
+		if(height != OTGChunkGenerator.COLUMN_HEIGHT_UNKNOWN)
+		{
+			return height;
+		}
+		height = -1;
 
-		LocalMaterialData[] blockColumn = getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z);
+		PalettedMaterialColumn blockColumn = getBlockColumnInUnloadedChunk(otgChunkGenerator, worldHeightCap, worldRandom, x, z);
 		SpigotMaterialData material;
 		boolean isLiquid;
 		boolean isSolid;
 
 		for (int y = 255; y >= 0; y--)
 		{
-			material = (SpigotMaterialData) blockColumn[y];
+			material = (SpigotMaterialData) blockColumn.get(y);
 			isLiquid = material.isLiquid();
 			isSolid = material.isSolid() || (!ignoreSnow && material.isMaterial(LocalMaterials.SNOW));
 			if (!(isLiquid && ignoreLiquid))
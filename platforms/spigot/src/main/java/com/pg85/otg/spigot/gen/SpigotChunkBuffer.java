@@ -55,6 +55,22 @@ public class SpigotChunkBuffer extends ChunkBuffer
 		}
 	}
 
+	@Override
+	public void setBlockRun (int blockX, int minY, int maxY, int blockZ, LocalMaterialData material)
+	{
+		if (chunkData != null)
+		{
+			// Max coordinates are exclusive
+			this.chunkData.setRegion(blockX, minY, blockZ, blockX + 1, maxY + 1, blockZ + 1, ((SpigotMaterialData) material).toSpigotBlockData());
+		} else {
+			IBlockData blockData = ((SpigotMaterialData) material).internalBlock();
+			for (int blockY = maxY; blockY >= minY; blockY--)
+			{
+				this.chunk.setType(this.mutable.d(blockX, blockY, blockZ), blockData, false);
+			}
+		}
+	}
+
 	@Override
 	public LocalMaterialData getBlock (int blockX, int blockY, int blockZ)
 	{
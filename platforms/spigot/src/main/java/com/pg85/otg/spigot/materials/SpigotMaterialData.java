@@ -12,8 +12,9 @@ import org.bukkit.block.data.BlockData;
 import org.bukkit.craftbukkit.v1_16_R3.block.data.CraftBlockData;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implementation of LocalMaterial that wraps one of Minecraft's Blocks.
@@ -21,7 +22,9 @@ import java.util.Objects;
 public class SpigotMaterialData extends LocalMaterialData
 {
 	static final LocalMaterialData blank = new SpigotMaterialData(null, null, true);
-	private static final HashMap<IBlockData, LocalMaterialData> stateToMaterialDataMap = new HashMap<>(); // TODO: Move to SpigotMaterialReader?
+	// Read by every worldgen thread, so lookups for existing materials shouldn't lock.
+	private static final ConcurrentHashMap<IBlockData, SpigotMaterialData> stateToMaterialDataMap = new ConcurrentHashMap<>(); // TODO: Move to SpigotMaterialReader?
+	private static final AtomicInteger nextMaterialId = new AtomicInteger();
 
 	private final IBlockData blockData;
 	private String name = null;
@@ -45,13 +48,21 @@ public class SpigotMaterialData extends LocalMaterialData
 
 	public static LocalMaterialData ofBlockData(IBlockData blockData, String raw)
 	{
-		// Create only one LocalMaterialData object for each BlockState		
-		if (stateToMaterialDataMap.containsKey(blockData))
+		// Create only one LocalMaterialData object for each BlockState
+		if (blockData == null)
 		{
-			return stateToMaterialDataMap.get(blockData);
+			return new SpigotMaterialData(null, raw);
+		}
+		SpigotMaterialData data = stateToMaterialDataMap.get(blockData);
+		if (data == null)
+		{
+			// Only the thread that creates the material assigns it an id, so ids stay dense.
+			data = stateToMaterialDataMap.computeIfAbsent(blockData, key -> {
+				SpigotMaterialData newData = new SpigotMaterialData(key, raw);
+				newData.materialId = nextMaterialId.getAndIncrement();
+				return newData;
+			});
 		}
-		LocalMaterialData data = new SpigotMaterialData(blockData, raw);
-		stateToMaterialDataMap.put(blockData, data);
 		return data;
 	}
 
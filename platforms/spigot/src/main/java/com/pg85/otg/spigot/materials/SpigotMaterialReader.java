@@ -25,6 +25,9 @@ import net.minecraft.server.v1_16_R3.ResourceKeyInvalidException;
 public class SpigotMaterialReader implements IMaterialReader
 {
 	// TODO: Smaller caches should be ok, only most frequently used should be cached?
+	// Configs and objects are loaded on multiple threads, so the caches are synchronized
+	// on themselves. Materials are parsed outside the lock, parsing the same material
+	// twice is harmless.
 	private final FifoMap<String, LocalMaterialData> cachedMaterials = new FifoMap<>(4096);
 	private final FifoMap<String, LocalMaterialTag> cachedTags = new FifoMap<>(4096);	
 
@@ -36,14 +39,18 @@ public class SpigotMaterialReader implements IMaterialReader
 			return null;
 		}
 
-		LocalMaterialData localMaterial = this.cachedMaterials.get(material);
-		if (localMaterial != null)
+		LocalMaterialData localMaterial;
+		synchronized(this.cachedMaterials)
 		{
-			return localMaterial;
-		}
-		else if (this.cachedMaterials.containsKey(material))
-		{
-			throw new InvalidConfigException("Cannot read block: " + material);
+			localMaterial = this.cachedMaterials.get(material);
+			if (localMaterial != null)
+			{
+				return localMaterial;
+			}
+			else if (this.cachedMaterials.containsKey(material))
+			{
+				throw new InvalidConfigException("Cannot read block: " + material);
+			}
 		}
 
 		try
@@ -59,7 +66,10 @@ public class SpigotMaterialReader implements IMaterialReader
 			}
 		}
 
-		this.cachedMaterials.put(material, localMaterial);
+		synchronized(this.cachedMaterials)
+		{
+			this.cachedMaterials.put(material, localMaterial);
+		}
 
 		return localMaterial;
 	}
@@ -72,14 +82,21 @@ public class SpigotMaterialReader implements IMaterialReader
 			return null;
 		}
 		
-		LocalMaterialTag localTag = this.cachedTags.get(tag);
+		LocalMaterialTag localTag;
+		synchronized(this.cachedTags)
+		{
+			localTag = this.cachedTags.get(tag);
+		}
 		if(localTag != null)
 		{
 			return localTag;
 		}
 
 		localTag = SpigotMaterialTag.ofString(tag);
-		this.cachedTags.put(tag, localTag);	
+		synchronized(this.cachedTags)
+		{
+			this.cachedTags.put(tag, localTag);
+		}	
 		return localTag;
 	}
 